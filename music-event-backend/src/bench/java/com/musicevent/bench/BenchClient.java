@@ -0,0 +1,125 @@
+package com.musicevent.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** The few API calls the load checks need to set up their data, against a running backend. */
+final class BenchClient {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    final String baseUrl;
+    final HttpClient http;
+
+    record Account(long id, String token) {
+    }
+
+    BenchClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    Account register(String role) throws IOException, InterruptedException {
+        String email = "bench-" + System.nanoTime() + "-" + ThreadLocalRandom.current().nextInt(1_000_000) + "@bench.local";
+        JsonNode body = expectOk(send("POST", "/api/auth/register", Map.of(
+                "name", "Bench " + role, "email", email, "password", "bench-secret", "role", role), null));
+        return new Account(body.get("id").asLong(), body.get("token").asText());
+    }
+
+    long createEvent(Account organizer, String name, int tickets) throws IOException, InterruptedException {
+        JsonNode body = expectOk(send("POST", "/api/events", Map.ofEntries(
+                Map.entry("name", name),
+                Map.entry("location", "Bench Hall"),
+                Map.entry("date", "2035-01-01"),
+                Map.entry("time", "7:00 PM"),
+                Map.entry("price", 10),
+                Map.entry("category", "Rock"),
+                Map.entry("totalTickets", tickets),
+                Map.entry("availableTickets", tickets),
+                Map.entry("organizerId", organizer.id()),
+                Map.entry("organizerName", "Bench"),
+                Map.entry("musicianId", organizer.id())), organizer.token()));
+        return body.get("id").asLong();
+    }
+
+    /** Bulk-imports events for the organizer (POST /api/events/import, NDJSON); returns how many were created. */
+    int importEvents(Account organizer, List<Map<String, Object>> rows) throws IOException, InterruptedException {
+        StringBuilder ndjson = new StringBuilder();
+        for (Map<String, Object> row : rows) {
+            ndjson.append(JSON.writeValueAsString(row)).append('\n');
+        }
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/events/import"))
+                .timeout(Duration.ofMinutes(10))
+                .header("Content-Type", "application/x-ndjson")
+                .header("Authorization", "Bearer " + organizer.token())
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("/api/events/import answered " + response.statusCode() + ": " + response.body());
+        }
+        // The last report line is the summary
+        String[] lines = response.body().strip().split("\n");
+        return JSON.readTree(lines[lines.length - 1]).path("created").asInt();
+    }
+
+    /** An import row with realistic field lengths, dated within the next year and placed at (latitude, longitude). */
+    static Map<String, Object> eventRow(Random random, int n, double latitude, double longitude) {
+        String[] categories = {"Rock", "Jazz", "Pop", "Electronic", "Classical", "Hip Hop"};
+        return Map.ofEntries(
+                Map.entry("name", "Bench Night " + n),
+                Map.entry("description", "An evening of live music with support acts, food trucks and a late bar. "
+                        + "Doors open an hour before the first set. Event " + n + "."),
+                Map.entry("location", "Venue " + random.nextInt(500) + ", Bench City"),
+                Map.entry("latitude", latitude),
+                Map.entry("longitude", longitude),
+                Map.entry("date", LocalDate.now().plusDays(1 + random.nextInt(365)).toString()),
+                Map.entry("time", (5 + random.nextInt(6)) + ":00 PM"),
+                Map.entry("price", 10 + random.nextInt(90)),
+                Map.entry("category", categories[random.nextInt(categories.length)]),
+                Map.entry("totalTickets", 100 + random.nextInt(900)));
+    }
+
+    int book(Account user, long eventId, int tickets) throws IOException, InterruptedException {
+        return send("POST", "/api/bookings", Map.of(
+                "userId", user.id(), "userName", "Bench", "eventId", eventId, "tickets", tickets), user.token())
+                .statusCode();
+    }
+
+    HttpResponse<String> send(String method, String path, Object body, String token)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    static JsonNode expectOk(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new IOException(response.request().uri() + " answered " + response.statusCode() + ": " + response.body());
+        }
+        return JSON.readTree(response.body());
+    }
+
+    static String arg(String[] args, int index, String fallback) {
+        return args.length > index ? args[index] : fallback;
+    }
+}
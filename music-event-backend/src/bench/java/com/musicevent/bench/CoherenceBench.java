@@ -0,0 +1,139 @@
+package com.musicevent.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Cross-node cache coherence: writes go to node A and each round measures how
+ * long node B takes to reflect them through the change log, polling B every
+ * 10 ms. Covers a login right after registering, a new event in the geo
+ * search, a co-booking in similar events, a deleted event leaving the artist
+ * schedule, and a contract offer on B that clashes with an event created on A
+ * (refused while the event exists, accepted once it is deleted).
+ * <p>
+ * Needs two nodes on one database, e.g. the local profile twice with the
+ * shared H2 file described in application-local.properties, the second on
+ * SERVER_PORT=8081. Usage:
+ * CoherenceBench [nodeA=http://localhost:8080] [nodeB=http://localhost:8081] [rounds=20]
+ */
+public class CoherenceBench {
+    private static final int TIMEOUT_MILLIS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        BenchClient a = new BenchClient(BenchClient.arg(args, 0, "http://localhost:8080"));
+        BenchClient b = new BenchClient(BenchClient.arg(args, 1, "http://localhost:8081"));
+        int rounds = Integer.parseInt(BenchClient.arg(args, 2, "20"));
+
+        LatencyHistogram login = new LatencyHistogram(TIMEOUT_MILLIS);
+        LatencyHistogram geo = new LatencyHistogram(TIMEOUT_MILLIS);
+        LatencyHistogram similar = new LatencyHistogram(TIMEOUT_MILLIS);
+        LatencyHistogram schedule = new LatencyHistogram(TIMEOUT_MILLIS);
+        int timeouts = 0;
+        int clashRefused = 0;
+        int acceptedAfterDelete = 0;
+
+        for (int round = 0; round < rounds; round++) {
+            String email = "coherence-" + System.nanoTime() + "@bench.local";
+            BenchClient.Account organizer = account(a.send("POST", "/api/auth/register", Map.of(
+                    "name", "Coherence Org", "email", email, "password", "bench-secret", "role", "ORGANIZER"), null));
+            long started = System.nanoTime();
+            Map<String, Object> credentials = Map.of("email", email, "password", "bench-secret");
+            timeouts += record(login, started, () -> b.send("POST", "/api/auth/login", credentials, null)
+                    .statusCode() == 200);
+
+            BenchClient.Account artist = a.register("MUSICIAN");
+            LocalDate date = LocalDate.of(2030, 6, 1).plusDays(round * 3L);
+            double latitude = 52.52 + round * 0.01;
+            double longitude = 13.40;
+            started = System.nanoTime();
+            long located = createEvent(a, organizer, "Coherence " + round, date, latitude, longitude, artist.id());
+            String near = String.format(Locale.ROOT, "/api/events/near?lat=%f&lon=%f&radiusKm=1", latitude, longitude);
+            timeouts += record(geo, started, () -> mentions(b.send("GET", near, null, null).body(), located));
+
+            long other = createEvent(a, organizer, "Coherence other " + round, date.plusDays(1), null, null, null);
+            BenchClient.Account fan = a.register("USER");
+            a.book(fan, located, 1);
+            started = System.nanoTime();
+            a.book(fan, other, 1);
+            timeouts += record(similar, started, () ->
+                    mentions(b.send("GET", "/api/events/" + located + "/similar", null, null).body(), other));
+
+            Map<String, Object> offer = Map.of("organizerId", organizer.id(), "organizerName", "Coherence Org",
+                    "artistId", artist.id(), "artistName", "Coherence Artist", "eventName", "Clash " + round,
+                    "venue", "Bench Hall", "eventDate", date.toString(), "eventTime", "9:00 PM", "paymentAmount", 1);
+            if (b.send("POST", "/api/contracts", offer, organizer.token()).statusCode() == 409) {
+                clashRefused++;
+            }
+
+            String availability = "/api/contracts/artist/" + artist.id() + "/availability?from="
+                    + date + "&to=" + date.plusDays(1);
+            started = System.nanoTime();
+            int deleted = a.send("DELETE", "/api/events/" + located, null, organizer.token()).statusCode();
+            if (deleted != 204) {
+                throw new IllegalStateException("DELETE /api/events/" + located + " answered " + deleted);
+            }
+            timeouts += record(schedule, started, () ->
+                    !mentions(b.send("GET", availability, null, organizer.token()).body(), located));
+            if (b.send("POST", "/api/contracts", offer, organizer.token()).statusCode() == 200) {
+                acceptedAfterDelete++;
+            }
+        }
+
+        System.out.printf("rounds %d, timeouts %d (%d ms each)%n", rounds, timeouts, TIMEOUT_MILLIS);
+        System.out.printf("register on A -> login on B:          %s%n", login);
+        System.out.printf("event on A -> B geo search:           %s%n", geo);
+        System.out.printf("co-booking on A -> B similar events:  %s%n", similar);
+        System.out.printf("delete on A -> gone from B schedule:  %s%n", schedule);
+        System.out.printf("clashing offer on B refused: %d of %d; offered after the delete: %d of %d%n",
+                clashRefused, rounds, acceptedAfterDelete, rounds);
+        System.exit(timeouts == 0 && clashRefused == rounds && acceptedAfterDelete == rounds ? 0 : 1);
+    }
+
+    private interface Check {
+        boolean holds() throws Exception;
+    }
+
+    /** Polls the check until it holds and records the time since started; returns 1 on timeout, else 0. */
+    private static int record(LatencyHistogram histogram, long started, Check check) throws Exception {
+        long deadline = started + TIMEOUT_MILLIS * 1_000_000L;
+        while (!check.holds()) {
+            if (System.nanoTime() > deadline) {
+                return 1;
+            }
+            Thread.sleep(10);
+        }
+        histogram.recordNanos(System.nanoTime() - started);
+        return 0;
+    }
+
+    private static long createEvent(BenchClient client, BenchClient.Account organizer, String name, LocalDate date,
+                                    Double latitude, Double longitude, Long musicianId) throws Exception {
+        Map<String, Object> event = new HashMap<>(Map.of(
+                "name", name, "location", "Bench Hall", "date", date.toString(), "time", "8:00 PM",
+                "price", 10, "category", "Rock", "totalTickets", 100, "availableTickets", 100,
+                "organizerId", organizer.id(), "organizerName", "Coherence Org"));
+        if (latitude != null) {
+            event.put("latitude", latitude);
+            event.put("longitude", longitude);
+        }
+        if (musicianId != null) {
+            event.put("musicianId", musicianId);
+        }
+        return BenchClient.expectOk(client.send("POST", "/api/events", event, organizer.token())).get("id").asLong();
+    }
+
+    private static BenchClient.Account account(HttpResponse<String> response) throws Exception {
+        JsonNode body = BenchClient.expectOk(response);
+        return new BenchClient.Account(body.get("id").asLong(), body.get("token").asText());
+    }
+
+    private static boolean mentions(String json, long id) {
+        return Pattern.compile("\"id\":" + id + "[,}]").matcher(json).find();
+    }
+}
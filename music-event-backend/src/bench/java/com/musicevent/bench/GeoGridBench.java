@@ -0,0 +1,190 @@
+package com.musicevent.bench;
+
+import com.musicevent.geo.GeoGrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * GeoGrid on its own, no backend needed. First checks nearest() and within()
+ * against a brute-force scan over awkward data (poles, both sides of the
+ * antimeridian, a dense cluster, removed and moved entries), then times
+ * 25 km top-50 lookups over a uniform spread and over 20 dense city clusters.
+ * <p>
+ * Usage: GeoGridBench [cellDegrees=0.05] [points=1000000] [queries=20000]
+ */
+public class GeoGridBench {
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final String[] CATEGORIES = {"Rock", "Jazz", "Pop", "Classical", "EDM"};
+
+    public static void main(String[] args) {
+        double cellDegrees = Double.parseDouble(BenchClient.arg(args, 0, "0.05"));
+        int points = Integer.parseInt(BenchClient.arg(args, 1, "1000000"));
+        int queries = Integer.parseInt(BenchClient.arg(args, 2, "20000"));
+
+        int mismatches = check(cellDegrees);
+        System.out.printf("brute-force check: %d mismatches%n", mismatches);
+        for (boolean clustered : new boolean[]{false, true}) {
+            time(cellDegrees, points, queries, clustered);
+        }
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static int check(double cellDegrees) {
+        Random random = new Random(7);
+        GeoGrid grid = new GeoGrid(cellDegrees);
+        List<GeoGrid.Entry> all = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            double latitude;
+            double longitude;
+            switch (i % 4) {
+                case 0 -> {
+                    latitude = -90 + random.nextDouble() * 180;
+                    longitude = -180 + random.nextDouble() * 360;
+                }
+                case 1 -> {
+                    latitude = 88 + random.nextDouble() * 2;
+                    longitude = -180 + random.nextDouble() * 360;
+                }
+                case 2 -> {
+                    latitude = -10 + random.nextDouble() * 20;
+                    longitude = random.nextBoolean() ? 179.5 + random.nextDouble() * 0.5 : -180 + random.nextDouble() * 0.5;
+                }
+                default -> {
+                    latitude = 19 + random.nextGaussian() * 0.1;
+                    longitude = 72.8 + random.nextGaussian() * 0.1;
+                }
+            }
+            GeoGrid.Entry entry = new GeoGrid.Entry(i, latitude, longitude, 100 + random.nextInt(50),
+                    CATEGORIES[i % 3]);
+            grid.put(entry);
+            all.add(entry);
+        }
+        for (int i = 0; i < 20_000; i += 7) {
+            grid.remove(i);
+            all.set(i, null);
+        }
+        for (int i = 1; i < 20_000; i += 11) {
+            if (all.get(i) != null) {
+                GeoGrid.Entry moved = new GeoGrid.Entry(i, 19 + random.nextGaussian() * 0.1,
+                        72.8 + random.nextGaussian() * 0.1, 120, "jazz");
+                grid.put(moved);
+                all.set(i, moved);
+            }
+        }
+
+        int mismatches = 0;
+        double[][] centres = {{19, 72.8}, {89.5, 10}, {0, 179.9}, {0, -179.95}, {-89.9, 0}, {45, 0}};
+        for (double[] centre : centres) {
+            for (double radiusKm : new double[]{1, 25, 500}) {
+                for (String category : new String[]{null, "JAZZ"}) {
+                    for (int limit : new int[]{5, 200}) {
+                        GeoGrid.Filter filter = new GeoGrid.Filter(110, 140, category);
+                        List<GeoGrid.Hit> got = grid.nearest(centre[0], centre[1], radiusKm, filter, limit);
+                        List<double[]> expected = new ArrayList<>();
+                        for (GeoGrid.Entry entry : all) {
+                            if (entry == null || entry.epochDay() < 110 || entry.epochDay() > 140
+                                    || (category != null && !category.equalsIgnoreCase(entry.category()))) {
+                                continue;
+                            }
+                            double distance = haversineKm(centre[0], centre[1], entry.latitude(), entry.longitude());
+                            if (distance <= radiusKm) {
+                                expected.add(new double[]{entry.id(), distance});
+                            }
+                        }
+                        expected.sort(Comparator.comparingDouble(hit -> hit[1]));
+                        int n = Math.min(limit, expected.size());
+                        boolean same = got.size() == n;
+                        for (int i = 0; same && i < n; i++) {
+                            same = Math.abs(got.get(i).distanceKm() - expected.get(i)[1]) <= 1e-9;
+                        }
+                        if (!same) {
+                            mismatches++;
+                            System.out.printf("nearest mismatch at %s r=%s category=%s limit=%d: %d hits, expected %d%n",
+                                    Arrays.toString(centre), radiusKm, category, limit, got.size(), n);
+                        }
+                    }
+                }
+            }
+        }
+        // Boxes crossing the antimeridian have minLongitude > maxLongitude
+        double[][] boxes = {{-5, 179, 5, -179}, {18.9, 72.7, 19.1, 72.9}, {-90, -180, 90, 180}};
+        for (double[] box : boxes) {
+            List<GeoGrid.Entry> got = grid.within(box[0], box[1], box[2], box[3], new GeoGrid.Filter(0, 1000, null),
+                    all.size());
+            int expected = 0;
+            for (GeoGrid.Entry entry : all) {
+                if (entry == null) {
+                    continue;
+                }
+                boolean inLongitude = box[1] <= box[3]
+                        ? entry.longitude() >= box[1] && entry.longitude() <= box[3]
+                        : entry.longitude() >= box[1] || entry.longitude() <= box[3];
+                if (entry.latitude() >= box[0] && entry.latitude() <= box[2] && inLongitude) {
+                    expected++;
+                }
+            }
+            if (got.size() != expected) {
+                mismatches++;
+                System.out.printf("within mismatch for %s: %d entries, expected %d%n", Arrays.toString(box),
+                        got.size(), expected);
+            }
+        }
+        return mismatches;
+    }
+
+    private static void time(double cellDegrees, int points, int queries, boolean clustered) {
+        String mode = clustered ? "clustered" : "uniform";
+        GeoGrid grid = new GeoGrid(cellDegrees);
+        Random random = new Random(1);
+        double[][] cities = new double[20][2];
+        for (double[] city : cities) {
+            city[0] = 8 + random.nextDouble() * 27;
+            city[1] = 68 + random.nextDouble() * 29;
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < points; i++) {
+            double[] city = cities[i % cities.length];
+            double latitude = clustered ? city[0] + random.nextGaussian() * 0.15 : 8 + random.nextDouble() * 27;
+            double longitude = clustered ? city[1] + random.nextGaussian() * 0.15 : 68 + random.nextDouble() * 29;
+            grid.put(new GeoGrid.Entry(i + 1, latitude, longitude, 20_000 + random.nextInt(365),
+                    CATEGORIES[i % CATEGORIES.length]));
+        }
+        System.out.printf("%s: loaded %,d points in %d ms%n", mode, points, (System.nanoTime() - started) / 1_000_000);
+
+        GeoGrid.Filter any = new GeoGrid.Filter(20_000, Integer.MAX_VALUE, null);
+        GeoGrid.Filter narrow = new GeoGrid.Filter(20_100, 20_200, "Jazz");
+        // The first pass warms up the JIT; the second is reported
+        for (int pass = 0; pass < 2; pass++) {
+            long[] nanos = new long[queries];
+            long hits = 0;
+            for (int q = 0; q < queries; q++) {
+                double[] city = cities[q % cities.length];
+                double latitude = clustered ? city[0] + random.nextGaussian() * 0.05 : 8 + random.nextDouble() * 27;
+                double longitude = clustered ? city[1] + random.nextGaussian() * 0.05 : 68 + random.nextDouble() * 29;
+                long start = System.nanoTime();
+                hits += grid.nearest(latitude, longitude, 25, q % 2 == 0 ? any : narrow, 50).size();
+                nanos[q] = System.nanoTime() - start;
+            }
+            if (pass == 1) {
+                Arrays.sort(nanos);
+                System.out.printf("%s: 25 km top-50 p50 %.1f us, p99 %.1f us, max %.1f us, %d hits on average%n",
+                        mode, nanos[queries / 2] / 1e3, nanos[queries * 99 / 100] / 1e3, nanos[queries - 1] / 1e3,
+                        hits / queries);
+            }
+        }
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,50 @@
+package com.musicevent.bench;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Thread-safe millisecond histogram, exact up to maxMillis and clamped beyond it. */
+final class LatencyHistogram {
+    private final AtomicLongArray counts;
+    private final LongAdder total = new LongAdder();
+
+    LatencyHistogram(int maxMillis) {
+        this.counts = new AtomicLongArray(maxMillis + 1);
+    }
+
+    void recordNanos(long nanos) {
+        recordMillis(nanos / 1_000_000);
+    }
+
+    void recordMillis(long millis) {
+        counts.incrementAndGet((int) Math.max(0, Math.min(counts.length() - 1, millis)));
+        total.increment();
+    }
+
+    long count() {
+        return total.sum();
+    }
+
+    long percentile(double q) {
+        long n = total.sum();
+        if (n == 0) {
+            return -1;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return i;
+            }
+        }
+        return counts.length() - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "n=%d p50=%dms p95=%dms p99=%dms max=%dms",
+                count(), percentile(0.50), percentile(0.95), percentile(0.99), percentile(1.0));
+    }
+}
@@ -0,0 +1,68 @@
+package com.musicevent.bench;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Response size and time per format for a list endpoint: JSON, Smile and CBOR,
+ * each with and without gzip. Bytes are as sent on the wire (the client does
+ * not decompress); time is request start to the last byte read.
+ * <p>
+ * Needs a running backend (e.g. mvn -Plocal spring-boot:run
+ * -Dspring-boot.run.profiles=local). Usage:
+ * ResponseFormatBench [baseUrl=http://localhost:8080] [importEvents=10000] [rounds=20] [path=/api/events]
+ */
+public class ResponseFormatBench {
+    private static final String[] FORMATS = {"application/json", "application/x-jackson-smile", "application/cbor"};
+
+    public static void main(String[] args) throws Exception {
+        BenchClient client = new BenchClient(BenchClient.arg(args, 0, "http://localhost:8080"));
+        int importEvents = Integer.parseInt(BenchClient.arg(args, 1, "10000"));
+        int rounds = Integer.parseInt(BenchClient.arg(args, 2, "20"));
+        String path = BenchClient.arg(args, 3, "/api/events");
+
+        if (importEvents > 0) {
+            BenchClient.Account organizer = client.register("ORGANIZER");
+            Random random = new Random(36);
+            List<Map<String, Object>> rows = new ArrayList<>(importEvents);
+            for (int i = 0; i < importEvents; i++) {
+                rows.add(BenchClient.eventRow(random, i, 40 + random.nextDouble() * 10, -10 + random.nextDouble() * 30));
+            }
+            System.out.printf("imported %d events%n", client.importEvents(organizer, rows));
+        }
+
+        System.out.printf("GET %s, %d rounds each%n", path, rounds);
+        System.out.printf("%-28s %-9s %12s %10s %10s%n", "format", "encoding", "bytes", "p50 ms", "max ms");
+        for (String format : FORMATS) {
+            for (String encoding : new String[]{"identity", "gzip"}) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(client.baseUrl + path))
+                        .timeout(Duration.ofMinutes(1))
+                        .header("Accept", format)
+                        .header("Accept-Encoding", encoding)
+                        .build();
+                for (int i = 0; i < 3; i++) {
+                    client.http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                }
+                LatencyHistogram times = new LatencyHistogram(60_000);
+                long bytes = 0;
+                for (int i = 0; i < rounds; i++) {
+                    long started = System.nanoTime();
+                    HttpResponse<byte[]> response = client.http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                    times.recordNanos(System.nanoTime() - started);
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException(path + " answered " + response.statusCode());
+                    }
+                    bytes = response.body().length;
+                }
+                System.out.printf("%-28s %-9s %,12d %10d %10d%n", format, encoding, bytes,
+                        times.percentile(0.5), times.percentile(1.0));
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.musicevent.bench;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load shedding under a slow database. Start the backend with
+ * app.chaos.db-latency-ms set (every statement sleeps that long first), then
+ * this floods the catalog from many clients while a few clients book and
+ * login and liveness are probed twice a second, for comparison with and
+ * without app.limiter.enabled. Clients wait out Retry-After after a 503, as
+ * a well-behaved client would. Catalog requests carry an Origin header, so it
+ * also counts 503s that came back without CORS headers, which a browser would
+ * report as a CORS failure rather than as a 503.
+ * <p>
+ * Usage: SlowDatabaseDrill [baseUrl=http://localhost:8080] [seconds=30] [catalogClients=300] [bookers=10]
+ * [origin=http://localhost:3000]
+ */
+public class SlowDatabaseDrill {
+    private static final Map<String, Map<String, LongAdder>> CODES = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> ALL = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> OK = new ConcurrentHashMap<>();
+    private static final LongAdder REJECTED_WITHOUT_CORS = new LongAdder();
+
+    private interface Call {
+        HttpResponse<String> send() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchClient client = new BenchClient(BenchClient.arg(args, 0, "http://localhost:8080"));
+        int seconds = Integer.parseInt(BenchClient.arg(args, 1, "30"));
+        int catalogClients = Integer.parseInt(BenchClient.arg(args, 2, "300"));
+        int bookers = Integer.parseInt(BenchClient.arg(args, 3, "10"));
+        String origin = BenchClient.arg(args, 4, "http://localhost:3000");
+
+        String email = "drill-" + System.nanoTime() + "@bench.local";
+        BenchClient.expectOk(client.send("POST", "/api/auth/register", Map.of(
+                "name", "Drill", "email", email, "password", "bench-secret", "role", "ORGANIZER"), null));
+        BenchClient.Account organizer = client.register("ORGANIZER");
+        BenchClient.Account booker = client.register("USER");
+        long eventId = client.createEvent(organizer, "Slow database drill", 1_000_000);
+
+        HttpRequest catalog = HttpRequest.newBuilder(URI.create(client.baseUrl + "/api/events"))
+                .timeout(Duration.ofSeconds(60)).header("Origin", origin).GET().build();
+        HttpRequest liveness = HttpRequest.newBuilder(URI.create(client.baseUrl + "/actuator/health/liveness"))
+                .timeout(Duration.ofSeconds(60)).GET().build();
+        Map<String, Object> credentials = Map.of("email", email, "password", "bench-secret");
+
+        long stopAt = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < catalogClients; i++) {
+            threads.add(loop("catalog", stopAt, 0, () -> {
+                HttpResponse<String> response = client.http.send(catalog, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 503
+                        && response.headers().firstValue("Access-Control-Allow-Origin").isEmpty()) {
+                    REJECTED_WITHOUT_CORS.increment();
+                }
+                return response;
+            }));
+        }
+        for (int i = 0; i < bookers; i++) {
+            threads.add(loop("booking", stopAt, 0, () -> client.send("POST", "/api/bookings", Map.of(
+                    "userId", booker.id(), "userName", "Bench", "eventId", eventId, "tickets", 1), booker.token())));
+        }
+        threads.add(loop("login", stopAt, 500, () -> client.send("POST", "/api/auth/login", credentials, null)));
+        threads.add(loop("liveness", stopAt, 500,
+                () -> client.http.send(liveness, HttpResponse.BodyHandlers.ofString())));
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (String name : List.of("catalog", "booking", "login", "liveness")) {
+            Map<String, Long> codes = new TreeMap<>();
+            CODES.getOrDefault(name, Map.of()).forEach((code, count) -> codes.put(code, count.sum()));
+            System.out.printf("%-9s codes=%s%n          all: %s%n          200: %s%n", name, codes,
+                    ALL.get(name), OK.get(name));
+        }
+        System.out.printf("503s without Access-Control-Allow-Origin: %d%n", REJECTED_WITHOUT_CORS.sum());
+        System.exit(0);
+    }
+
+    private static Thread loop(String name, long stopAt, long pauseMillis, Call call) {
+        LatencyHistogram all = ALL.computeIfAbsent(name, key -> new LatencyHistogram(120_000));
+        LatencyHistogram ok = OK.computeIfAbsent(name, key -> new LatencyHistogram(120_000));
+        Map<String, LongAdder> codes = CODES.computeIfAbsent(name, key -> new ConcurrentHashMap<>());
+        return new Thread(() -> {
+            while (System.nanoTime() < stopAt) {
+                long started = System.nanoTime();
+                String code;
+                long pause = pauseMillis;
+                try {
+                    HttpResponse<String> response = call.send();
+                    code = String.valueOf(response.statusCode());
+                    if (response.statusCode() == 503) {
+                        pause = Math.max(pause, 1000 * Long.parseLong(
+                                response.headers().firstValue("Retry-After").orElse("1")));
+                    }
+                } catch (Exception e) {
+                    code = e.getClass().getSimpleName();
+                }
+                long elapsed = System.nanoTime() - started;
+                all.recordNanos(elapsed);
+                if (code.equals("200")) {
+                    ok.recordNanos(elapsed);
+                }
+                codes.computeIfAbsent(code, key -> new LongAdder()).increment();
+                if (pause > 0) {
+                    try {
+                        Thread.sleep(pause);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }, "drill-" + name);
+    }
+}
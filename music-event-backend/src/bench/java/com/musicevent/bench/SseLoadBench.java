@@ -0,0 +1,204 @@
+package com.musicevent.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live availability fan-out under load: opens many SSE subscribers on one
+ * event's availability stream, books tickets for that event at a steady rate
+ * and measures how long each new count takes to reach every subscriber (from
+ * the booking response to the frame arriving). Optionally adds stalled
+ * clients, raw sockets that send the request and never read, to check that
+ * they are dropped without holding up delivery to everyone else.
+ * <p>
+ * Needs a running backend (e.g. mvn -Plocal spring-boot:run
+ * -Dspring-boot.run.profiles=local) and a client JVM allowed as many open
+ * files as subscribers. Usage:
+ * SseLoadBench [baseUrl=http://localhost:8080] [subscribers=10000] [stalled=0] [seconds=60] [bookingsPerSecond=20]
+ */
+public class SseLoadBench {
+    private static final String COUNT_FIELD = "\"availableTickets\":";
+    private static final int TOTAL_TICKETS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        BenchClient client = new BenchClient(BenchClient.arg(args, 0, "http://localhost:8080"));
+        int subscribers = Integer.parseInt(BenchClient.arg(args, 1, "10000"));
+        int stalled = Integer.parseInt(BenchClient.arg(args, 2, "0"));
+        int seconds = Integer.parseInt(BenchClient.arg(args, 3, "60"));
+        int bookingsPerSecond = Integer.parseInt(BenchClient.arg(args, 4, "20"));
+
+        BenchClient.Account organizer = client.register("ORGANIZER");
+        BenchClient.Account booker = client.register("USER");
+        long eventId = client.createEvent(organizer, "SSE load", TOTAL_TICKETS);
+        URI streamUri = URI.create(client.baseUrl + "/api/events/" + eventId + "/availability/stream");
+
+        // Booking k (1-based) leaves TOTAL_TICKETS - k; its response time is the start of that count's delivery
+        AtomicLongArray bookedAt = new AtomicLongArray(seconds * bookingsPerSecond * 2 + 16);
+        LatencyHistogram delivery = new LatencyHistogram(60_000);
+        AtomicInteger connected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        LongAdder frames = new LongAdder();
+        int[] lastSeen = new int[subscribers];
+
+        long openStarted = System.nanoTime();
+        for (int i = 0; i < subscribers; i++) {
+            int index = i;
+            Flow.Subscriber<String> lines = new Flow.Subscriber<>() {
+                private boolean first = true;
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(String line) {
+                    int at = line.indexOf(COUNT_FIELD);
+                    if (!line.startsWith("data:") || at < 0) {
+                        return;
+                    }
+                    long now = System.nanoTime();
+                    int start = at + COUNT_FIELD.length();
+                    int end = start;
+                    while (end < line.length() && Character.isDigit(line.charAt(end))) {
+                        end++;
+                    }
+                    int available = Integer.parseInt(line, start, end, 10);
+                    lastSeen[index] = available;
+                    frames.increment();
+                    if (first) {
+                        first = false;
+                        connected.incrementAndGet();
+                        return;
+                    }
+                    int booking = TOTAL_TICKETS - available;
+                    if (booking > 0 && booking < bookedAt.length() && bookedAt.get(booking) != 0) {
+                        delivery.recordNanos(now - bookedAt.get(booking));
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    failed.incrementAndGet();
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            };
+            client.http.sendAsync(HttpRequest.newBuilder(streamUri).header("Accept", "text/event-stream").build(),
+                    HttpResponse.BodyHandlers.fromLineSubscriber(lines));
+            // Open in waves so the accept queue never overflows
+            if (i % 500 == 499) {
+                waitFor(() -> connected.get() + failed.get() >= index + 1 - 250, Duration.ofSeconds(60));
+            }
+        }
+        waitFor(() -> connected.get() + failed.get() >= subscribers, Duration.ofSeconds(120));
+        System.out.printf("connected %d of %d subscribers in %d ms (%d failed)%n", connected.get(), subscribers,
+                Duration.ofNanos(System.nanoTime() - openStarted).toMillis(), failed.get());
+
+        List<Socket> stalledSockets = new ArrayList<>();
+        for (int i = 0; i < stalled; i++) {
+            Socket socket = new Socket();
+            socket.setReceiveBufferSize(1024);
+            socket.connect(new InetSocketAddress(streamUri.getHost(), streamUri.getPort()));
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + streamUri.getPath() + " HTTP/1.1\r\nHost: " + streamUri.getHost()
+                    + "\r\nAccept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            stalledSockets.add(socket);
+        }
+
+        long pause = 1_000_000_000L / bookingsPerSecond;
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        int booked = 0;
+        int rejected = 0;
+        long next = System.nanoTime();
+        while (System.nanoTime() < deadline && booked + 1 < bookedAt.length()) {
+            int status = client.book(booker, eventId, 1);
+            if (status == 200) {
+                booked++;
+                bookedAt.set(booked, System.nanoTime());
+            } else {
+                rejected++;
+            }
+            next += pause;
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) {
+                Thread.sleep(sleep / 1_000_000, (int) (sleep % 1_000_000));
+            }
+        }
+        Thread.sleep(3000);
+
+        int finalCount = TOTAL_TICKETS - booked;
+        int current = 0;
+        for (int seen : lastSeen) {
+            if (seen == finalCount) {
+                current++;
+            }
+        }
+        System.out.printf("bookings %d (%d rejected) over %d s; frames received %d%n",
+                booked, rejected, seconds, frames.sum());
+        System.out.printf("booking -> frame delivery: %s%n", delivery);
+        System.out.printf("subscribers holding the final count %d: %d of %d%n", finalCount, current, connected.get());
+        if (stalled > 0) {
+            int dropped = 0;
+            for (Socket socket : stalledSockets) {
+                if (wasDropped(socket)) {
+                    dropped++;
+                }
+                socket.close();
+            }
+            System.out.printf("stalled clients dropped by the server: %d of %d%n", dropped, stalled);
+        }
+        System.exit(0);
+    }
+
+    // The server either ended the chunked response (completed) or closed the socket (write timeout)
+    private static boolean wasDropped(Socket socket) throws IOException {
+        socket.setSoTimeout(2000);
+        InputStream in = socket.getInputStream();
+        byte[] buffer = new byte[8192];
+        StringBuilder tail = new StringBuilder();
+        try {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                tail.append(new String(buffer, 0, read, StandardCharsets.US_ASCII));
+                if (tail.length() > 64) {
+                    tail.delete(0, tail.length() - 64);
+                }
+                if (tail.indexOf("\r\n0\r\n\r\n") >= 0) {
+                    return true;
+                }
+            }
+            return true;
+        } catch (SocketTimeoutException e) {
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition, Duration timeout)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.musicevent.bench;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * GET /api/events/upcoming over HTTP, against a running backend. Imports
+ * enough events to fill the list, then for each variant has several client
+ * threads fetch it back to back: the pre-encoded gzip snapshot, a 304 on a
+ * matching If-None-Match, and the query path the snapshot replaced (reached
+ * by asking for Smile, which the snapshot does not hold). Finally books a
+ * ticket a few times and measures how long the snapshot's ETag takes to
+ * change.
+ * <p>
+ * Start the backend with app.limiter.enabled=false so shedding doesn't
+ * cap the figures. Usage:
+ * UpcomingSnapshotBench [baseUrl=http://localhost:8080] [events=200] [threads=8] [seconds=15]
+ */
+public class UpcomingSnapshotBench {
+    private static final String PATH = "/api/events/upcoming";
+
+    public static void main(String[] args) throws Exception {
+        BenchClient client = new BenchClient(BenchClient.arg(args, 0, "http://localhost:8080"));
+        int events = Integer.parseInt(BenchClient.arg(args, 1, "200"));
+        int threads = Integer.parseInt(BenchClient.arg(args, 2, "8"));
+        int seconds = Integer.parseInt(BenchClient.arg(args, 3, "15"));
+
+        BenchClient.Account organizer = client.register("ORGANIZER");
+        Random random = new Random(46);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int n = 0; n < events; n++) {
+            rows.add(BenchClient.eventRow(random, n, 8 + random.nextDouble() * 27, 68 + random.nextDouble() * 29));
+        }
+        System.out.printf("imported %d events%n", client.importEvents(organizer, rows));
+        // Let the import's rebuild land before reading the tag
+        Thread.sleep(2000);
+
+        HttpResponse<byte[]> plain = fetch(client, null, null, null);
+        HttpResponse<byte[]> gzip = fetch(client, null, "gzip", null);
+        String etag = gzip.headers().firstValue("ETag").orElseThrow();
+        System.out.printf("JSON %,d bytes, gzip %,d bytes, ETag %s%n", plain.body().length, gzip.body().length, etag);
+
+        run(client, "snapshot, gzip, 200", threads, seconds, null, "gzip", null, 200);
+        run(client, "snapshot, 304", threads, seconds, null, "gzip", etag, 304);
+        run(client, "query path (Smile)", threads, seconds, "application/x-jackson-smile", "gzip", null, 200);
+
+        BenchClient.Account booker = client.register("USER");
+        long eventId = BenchClient.expectOk(client.send("GET", PATH, null, null)).get(0).get("id").asLong();
+        LatencyHistogram freshness = new LatencyHistogram(60_000);
+        for (int i = 0; i < 10; i++) {
+            String before = fetch(client, null, null, null).headers().firstValue("ETag").orElseThrow();
+            if (client.book(booker, eventId, 1) != 200) {
+                throw new IllegalStateException("booking event " + eventId + " failed");
+            }
+            long booked = System.nanoTime();
+            while (before.equals(fetch(client, null, null, null).headers().firstValue("ETag").orElseThrow())) {
+                Thread.sleep(5);
+            }
+            freshness.recordNanos(System.nanoTime() - booked);
+        }
+        System.out.printf("booking -> new ETag served: %s%n", freshness);
+        System.exit(0);
+    }
+
+    private static void run(BenchClient client, String name, int threads, int seconds, String accept,
+                            String acceptEncoding, String ifNoneMatch, int expected) throws InterruptedException {
+        LongAdder ok = new LongAdder();
+        LongAdder other = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        LatencyHistogram latency = new LatencyHistogram(60_000);
+        long stopAt = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Thread> clients = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < stopAt) {
+                    long started = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = fetch(client, accept, acceptEncoding, ifNoneMatch);
+                        if (response.statusCode() == expected) {
+                            ok.increment();
+                            bytes.add(response.body().length);
+                            latency.recordNanos(System.nanoTime() - started);
+                        } else {
+                            other.increment();
+                        }
+                    } catch (Exception e) {
+                        other.increment();
+                    }
+                }
+            });
+            thread.start();
+            clients.add(thread);
+        }
+        for (Thread thread : clients) {
+            thread.join();
+        }
+        System.out.printf("%-20s %,.0f req/s, %d unexpected, %,d bytes each, %s%n", name,
+                ok.sum() / (double) seconds, other.sum(), ok.sum() == 0 ? 0 : bytes.sum() / ok.sum(), latency);
+    }
+
+    private static HttpResponse<byte[]> fetch(BenchClient client, String accept, String acceptEncoding,
+                                              String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(client.baseUrl + PATH))
+                .timeout(Duration.ofSeconds(60));
+        if (accept != null) {
+            request.header("Accept", accept);
+        }
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
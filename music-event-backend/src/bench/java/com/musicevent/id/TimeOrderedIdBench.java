@@ -0,0 +1,177 @@
+package com.musicevent.id;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Table;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Time-ordered ids on their own, no backend needed. First has several threads
+ * draw from one TimeOrderedIdAllocator and checks every id is unique,
+ * increasing per thread and below 2^53. Then inserts booking-shaped rows
+ * through Hibernate into an embedded H2 database, once with IDENTITY ids
+ * (one INSERT per row) and once with @TimeOrderedId (JDBC batches), in
+ * 1000-row transactions, three rounds each.
+ * <p>
+ * Needs H2 on the classpath (mvn -Pbench,local compile). Usage:
+ * TimeOrderedIdBench [jdbcUrl=jdbc:h2:mem:idbench;MODE=MySQL;DB_CLOSE_DELAY=-1] [rows=200000] [batchSize=50]
+ * [threads=8] [idsPerThread=200000]
+ */
+public class TimeOrderedIdBench {
+    private static final int ROWS_PER_TRANSACTION = 1000;
+    private static long sequence;
+
+    public static void main(String[] args) throws Exception {
+        String url = arg(args, 0, "jdbc:h2:mem:idbench;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        int rows = Integer.parseInt(arg(args, 1, "200000"));
+        int batchSize = Integer.parseInt(arg(args, 2, "50"));
+        int threads = Integer.parseInt(arg(args, 3, "8"));
+        int idsPerThread = Integer.parseInt(arg(args, 4, "200000"));
+
+        boolean allocatorOk = allocate(threads, idsPerThread);
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        // start() checks these against the id floor before handing out ids
+        for (String table : List.of("users", "events", "bookings", "contracts")) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " (id BIGINT)");
+        }
+        TimeOrderedIds ids = new TimeOrderedIds(null, jdbcTemplate, 1, Duration.ofMinutes(10));
+        ids.start();
+
+        try (SessionFactory sessionFactory = new Configuration()
+                .setProperty("hibernate.connection.url", url)
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.hbm2ddl.auto", "create")
+                .setProperty("hibernate.jdbc.batch_size", String.valueOf(batchSize))
+                .setProperty("hibernate.order_inserts", "true")
+                .addAnnotatedClass(IdentityRow.class)
+                .addAnnotatedClass(TimeOrderedRow.class)
+                .buildSessionFactory()) {
+            for (int round = 0; round < 3; round++) {
+                insert(sessionFactory, "IDENTITY", rows, () -> fill(new IdentityRow()));
+                insert(sessionFactory, "time-ordered, batch " + batchSize, rows, () -> fill(new TimeOrderedRow()));
+            }
+        }
+        System.exit(allocatorOk ? 0 : 1);
+    }
+
+    private static boolean allocate(int threads, int idsPerThread) throws Exception {
+        TimeOrderedIdAllocator allocator = new TimeOrderedIdAllocator(5);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long started = System.nanoTime();
+        List<Future<long[]>> drawn = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            drawn.add(executor.submit(() -> {
+                long[] out = new long[idsPerThread];
+                for (int i = 0; i < idsPerThread; i++) {
+                    out[i] = allocator.next();
+                }
+                return out;
+            }));
+        }
+        Set<Long> unique = new HashSet<>();
+        long max = 0;
+        int outOfOrder = 0;
+        for (Future<long[]> future : drawn) {
+            long[] out = future.get();
+            for (int i = 0; i < out.length; i++) {
+                unique.add(out[i]);
+                max = Math.max(max, out[i]);
+                if (i > 0 && out[i] <= out[i - 1]) {
+                    outOfOrder++;
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        executor.shutdown();
+        long total = (long) threads * idsPerThread;
+        boolean ok = unique.size() == total && outOfOrder == 0 && max < (1L << 53);
+        System.out.printf("allocator: %,d ids from %d threads in %.2f s (%,.0f ids/s), %,d unique, "
+                        + "%d out of order within a thread, max below 2^53: %b%n",
+                total, threads, seconds, total / seconds, unique.size(), outOfOrder, max < (1L << 53));
+        return ok;
+    }
+
+    private static void insert(SessionFactory sessionFactory, String name, int rows, Supplier<Object> row) {
+        long started = System.nanoTime();
+        for (int done = 0; done < rows; done += ROWS_PER_TRANSACTION) {
+            sessionFactory.inTransaction(session -> {
+                for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+                    session.persist(row.get());
+                    if (i % 50 == 49) {
+                        session.flush();
+                        session.clear();
+                    }
+                }
+            });
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%-24s %,d rows in %.2f s = %,.0f rows/s%n", name, rows, seconds, rows / seconds);
+    }
+
+    private static <T extends BookingRow> T fill(T row) {
+        row.userId = 1L;
+        row.userName = "Bench";
+        row.eventId = 2L;
+        row.tickets = 1;
+        row.qrCode = "QR-" + sequence++;
+        row.bookingDate = LocalDateTime.now();
+        return row;
+    }
+
+    private static String arg(String[] args, int index, String fallback) {
+        return args.length > index ? args[index] : fallback;
+    }
+
+    /** The columns of a booking, shared by both id strategies. */
+    @MappedSuperclass
+    public abstract static class BookingRow {
+        @Column(nullable = false)
+        Long userId;
+        @Column(nullable = false)
+        String userName;
+        @Column(nullable = false)
+        Long eventId;
+        @Column(nullable = false)
+        Integer tickets;
+        @Column(nullable = false, unique = true)
+        String qrCode;
+        @Column(nullable = false)
+        LocalDateTime bookingDate;
+    }
+
+    @Entity
+    @Table(name = "identity_rows")
+    public static class IdentityRow extends BookingRow {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+    }
+
+    @Entity
+    @Table(name = "time_ordered_rows")
+    public static class TimeOrderedRow extends BookingRow {
+        @Id
+        @TimeOrderedId
+        Long id;
+    }
+}
@@ -0,0 +1,98 @@
+package com.musicevent.monitoring;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What RequestTraceFilter costs a request it does not trace, no backend
+ * needed. Calls doFilter back to back on stub request/response objects with a
+ * chain that hits the db and pool hooks, as a request with one statement
+ * would: an empty OncePerRequestFilter as the baseline, then the trace filter
+ * with tracing off, in the default admin mode on an anonymous request with
+ * no sampling, and in admin mode at the default 5% sample rate. The stubs are
+ * dynamic proxies, which dominate the absolute figures; compare the rows.
+ * <p>
+ * In this package because the statement hook is package-private. Usage:
+ * RequestTraceBench [calls=20000000] [rounds=5] [sampleRate=0.05]
+ */
+public class RequestTraceBench {
+
+    public static void main(String[] args) throws Exception {
+        int calls = Integer.parseInt(args.length > 0 ? args[0] : "20000000");
+        int rounds = Integer.parseInt(args.length > 1 ? args[1] : "5");
+        double sampleRate = Double.parseDouble(args.length > 2 ? args[2] : "0.05");
+
+        HttpServletRequest request = stub(HttpServletRequest.class);
+        HttpServletResponse response = stub(HttpServletResponse.class);
+        long[] handled = new long[1];
+        FilterChain chain = (req, res) -> {
+            RequestTrace.recordConnection(10_000);
+            RequestTrace.recordStatement("select 1", 100_000);
+            handled[0]++;
+        };
+        OncePerRequestFilter empty = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain next)
+                    throws ServletException, IOException {
+                next.doFilter(req, res);
+            }
+        };
+        // Nothing traced here passes the slow threshold, so the log and statistics are never reached
+        Map<String, OncePerRequestFilter> filters = new LinkedHashMap<>();
+        filters.put("empty OncePerRequestFilter", empty);
+        filters.put("off", new RequestTraceFilter(null, null, "off", 0, 500));
+        filters.put("admin, rate 0", new RequestTraceFilter(null, null, "admin", 0, 500));
+        filters.put("admin, rate " + sampleRate, new RequestTraceFilter(null, null, "admin", sampleRate, 500));
+
+        for (int round = 0; round < rounds; round++) {
+            StringBuilder line = new StringBuilder("round " + (round + 1) + ":");
+            for (Map.Entry<String, OncePerRequestFilter> entry : filters.entrySet()) {
+                OncePerRequestFilter filter = entry.getValue();
+                long started = System.nanoTime();
+                for (int i = 0; i < calls; i++) {
+                    filter.doFilter(request, response, chain);
+                }
+                line.append(String.format("  %s %.1f ns", entry.getKey(),
+                        (System.nanoTime() - started) / (double) calls));
+            }
+            System.out.println(line);
+        }
+        System.out.printf("%,d requests handled%n", handled[0]);
+    }
+
+    /** A request or response that keeps attributes and answers everything else with a default. */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        Map<String, Object> attributes = new HashMap<>();
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "getAttribute" -> attributes.get((String) args[0]);
+                    case "setAttribute" -> attributes.put((String) args[0], args[1]);
+                    case "removeAttribute" -> attributes.remove((String) args[0]);
+                    case "getDispatcherType" -> DispatcherType.REQUEST;
+                    case "getMethod" -> "GET";
+                    case "getRequestURI", "getServletPath" -> "/api/events";
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        return type == long.class ? 0L : null;
+    }
+}
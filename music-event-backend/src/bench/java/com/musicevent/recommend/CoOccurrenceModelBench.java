@@ -0,0 +1,91 @@
+package com.musicevent.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * CoOccurrenceModel on its own, no backend needed: builds a model from
+ * synthetic bookings the way EventRecommender's rebuild does (partial models
+ * in parallel, merged, then trimmed), compares its memory estimate with the
+ * heap it actually takes, and times similarTo / forUser lookups. Users book
+ * ten events each; event popularity is skewed towards low ids.
+ * <p>
+ * In this package because the model is package-private. Usage:
+ * CoOccurrenceModelBench [bookings=1000000] [events=50000] [partials=8] [maxHistory=50] [maxNeighbours=100]
+ */
+public class CoOccurrenceModelBench {
+
+    public static void main(String[] args) {
+        int bookings = Integer.parseInt(args.length > 0 ? args[0] : "1000000");
+        int events = Integer.parseInt(args.length > 1 ? args[1] : "50000");
+        int partials = Integer.parseInt(args.length > 2 ? args[2] : "8");
+        int maxHistory = Integer.parseInt(args.length > 3 ? args[3] : "50");
+        int maxNeighbours = Integer.parseInt(args.length > 4 ? args[4] : "100");
+        int users = bookings / 10;
+
+        Random random = new Random(1);
+        long[] userIds = new long[bookings];
+        long[] eventIds = new long[bookings];
+        for (int i = 0; i < bookings; i++) {
+            userIds[i] = 1 + i / 10;
+            eventIds[i] = 1 + (long) (events * Math.pow(random.nextDouble(), 3));
+        }
+
+        long heapBefore = usedHeap();
+        long started = System.nanoTime();
+        List<CoOccurrenceModel> parts = new ArrayList<>();
+        for (int p = 0; p < partials; p++) {
+            parts.add(new CoOccurrenceModel(maxHistory, maxNeighbours));
+        }
+        IntStream.range(0, partials).parallel().forEach(p -> {
+            CoOccurrenceModel part = parts.get(p);
+            for (int i = 0; i < bookings; i++) {
+                if (userIds[i] % partials == p) {
+                    part.add(userIds[i], eventIds[i]);
+                }
+            }
+        });
+        CoOccurrenceModel model = new CoOccurrenceModel(maxHistory, maxNeighbours);
+        parts.forEach(model::merge);
+        parts.clear();
+        model.trim();
+        long buildMillis = (System.nanoTime() - started) / 1_000_000;
+        long heapAfter = usedHeap();
+        System.out.printf("%,d bookings (%,d users, %,d events): built in %d ms, %,d pairs, estimate %d MB, heap %d MB%n",
+                model.bookings(), users, events, buildMillis, model.pairCount(), model.memoryBytes() >> 20,
+                (heapAfter - heapBefore) >> 20);
+
+        // The first pass warms up the JIT; the second is reported
+        for (int pass = 0; pass < 2; pass++) {
+            long[] similar = new long[10_000];
+            long[] forUser = new long[10_000];
+            for (int i = 0; i < similar.length; i++) {
+                long start = System.nanoTime();
+                model.similarTo(1 + random.nextInt(events), 40);
+                similar[i] = System.nanoTime() - start;
+                start = System.nanoTime();
+                model.forUser(1 + random.nextInt(users), 40);
+                forUser[i] = System.nanoTime() - start;
+            }
+            if (pass == 1) {
+                Arrays.sort(similar);
+                Arrays.sort(forUser);
+                System.out.printf("similarTo p50 %d us, p99 %d us; forUser p50 %d us, p99 %d us%n",
+                        similar[5_000] / 1000, similar[9_900] / 1000, forUser[5_000] / 1000, forUser[9_900] / 1000);
+            }
+        }
+        // Keeps the model reachable until the heap has been measured and the lookups timed
+        System.out.printf("most booked event's top partners: %s%n", Arrays.toString(model.similarTo(1, 3)));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,61 @@
+package com.musicevent.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter bits keyed by a 64-bit hash, sized for an expected
+ * number of entries at a target false positive rate. Callers hash their own
+ * keys; the two 32-bit halves of the hash drive double hashing, so they should
+ * be well spread (see {@link #mix}).
+ */
+public class BloomBits {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomBits(long expectedEntries, double falsePositiveRate) {
+        long m = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(64, m);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+    }
+
+    public void add(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** The murmur3 64-bit finalizer, which spreads every input bit over the whole hash. */
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,34 @@
+package com.musicevent.cache;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Thread-safe Bloom filter over lower-cased email addresses. A negative answer
+ * is definitive, so registration can skip the existsByEmail query for new
+ * addresses; a positive answer still has to be confirmed against the database.
+ */
+public class EmailBloomFilter {
+    private final BloomBits bits;
+
+    public EmailBloomFilter(long expectedEntries, double falsePositiveRate) {
+        this.bits = new BloomBits(expectedEntries, falsePositiveRate);
+    }
+
+    public void add(String email) {
+        bits.add(hash(email));
+    }
+
+    public boolean mightContain(String email) {
+        return bits.mightContain(hash(email));
+    }
+
+    // 64-bit FNV-1a followed by a murmur3 finalizer for better bit spread
+    private static long hash(String email) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : email.toLowerCase().getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return BloomBits.mix(h);
+    }
+}
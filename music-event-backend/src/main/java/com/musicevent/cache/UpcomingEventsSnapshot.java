@@ -0,0 +1,262 @@
+package com.musicevent.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicevent.config.ReadWriteRoutingDataSource;
+import com.musicevent.entity.Event;
+import com.musicevent.geo.EventLocationChanged;
+import com.musicevent.repository.EventRepository;
+import com.musicevent.stream.TicketAvailabilityChanged;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GET /api/events/upcoming as immutable, pre-encoded bytes: the JSON body and
+ * its gzip, each with a strong ETag. A hit is a buffer copy with no database
+ * access or serialization, and a matching If-None-Match is answered with 304.
+ * Built before the instance reports ready and rebuilt on a background thread
+ * after a TicketAvailabilityChanged or EventLocationChanged commits: bookings
+ * and cancellations, and event creates, edits, deletes and imported rows
+ * (other nodes' changes arrive the same way through the change log). Bursts of
+ * changes coalesce into one rebuild. app.snapshots.upcoming.refresh-ms is a
+ * safety net for writes that publish neither, such as StatusTransitionJob
+ * completing past events. A snapshot from an earlier day is never served.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class UpcomingEventsSnapshot implements ApplicationRunner, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(UpcomingEventsSnapshot.class);
+
+    private final EventRepository eventRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTransaction;
+    private final ExecutorService rebuilder;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final CacheControl cacheControl;
+    private volatile Snapshot current;
+
+    public UpcomingEventsSnapshot(EventRepository eventRepository,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.snapshots.upcoming.max-age:PT0S}") Duration maxAge) {
+        this.eventRepository = eventRepository;
+        this.objectMapper = objectMapper;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "upcoming-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cacheControl = maxAge.isZero() ? CacheControl.noCache().cachePublic()
+                : CacheControl.maxAge(maxAge).cachePublic();
+        meterRegistry.gauge("snapshots.upcoming.bytes", this,
+                snapshot -> snapshot.current == null ? 0 : snapshot.current.json.length);
+        meterRegistry.gauge("snapshots.upcoming.gzip.bytes", this,
+                snapshot -> snapshot.current == null ? 0 : snapshot.current.gzip.length);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.snapshots.upcoming.refresh-ms:60000}")
+    public void refresh() {
+        requestRebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTicketAvailabilityChanged(TicketAvailabilityChanged change) {
+        requestRebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEventLocationChanged(EventLocationChanged change) {
+        requestRebuild();
+    }
+
+    /**
+     * The snapshot response for a request with these headers, or empty when it
+     * has to take the regular path: the client does not accept JSON (Smile and
+     * CBOR are not pre-encoded) or there is no snapshot for today yet.
+     */
+    public Optional<ResponseEntity<byte[]>> respond(String accept, String acceptEncoding, String ifNoneMatch) {
+        Snapshot snapshot = current;
+        if (snapshot == null || !snapshot.day.equals(LocalDate.now())) {
+            requestRebuild();
+            return Optional.empty();
+        }
+        if (!acceptsJson(accept)) {
+            return Optional.empty();
+        }
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? snapshot.gzipEtag : snapshot.etag;
+        if (ifNoneMatch != null && snapshot.matches(ifNoneMatch)) {
+            return Optional.of(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .build());
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return Optional.of(response.body(gzip ? snapshot.gzip : snapshot.json));
+    }
+
+    private void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                // Cleared first, so a change committed while this rebuild reads queues another one
+                rebuildPending.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    void rebuild() {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        try {
+            // The primary, so a change this node just committed is never rebuilt from a lagging replica
+            List<Event> events = ReadWriteRoutingDataSource.onPrimary(() -> readTransaction.execute(status ->
+                    eventRepository.findByStatusAndDateGreaterThanEqual(Event.EventStatus.UPCOMING, today)));
+            byte[] json = objectMapper.writeValueAsBytes(events);
+            current = new Snapshot(today, json, gzip(json), digest(json));
+            log.debug("Upcoming events snapshot: {} events, {} bytes ({} gzipped) in {} ms", events.size(),
+                    json.length, current.gzip.length, Duration.ofNanos(System.nanoTime() - started).toMillis());
+        } catch (Exception e) {
+            log.error("Upcoming events snapshot rebuild failed, keeping the current one", e);
+        }
+    }
+
+    private static boolean acceptsJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(type -> type.getQualityValue() > 0 && type.includes(MediaType.APPLICATION_JSON));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+
+    private static String digest(byte[] json) throws NoSuchAlgorithmException {
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        rebuilder.shutdownNow();
+        rebuilder.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /** One day's payload. Both encodings share the digest of the JSON, told apart by a suffix. */
+    private static final class Snapshot {
+        private final LocalDate day;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+        private final String gzipEtag;
+
+        Snapshot(LocalDate day, byte[] json, byte[] gzip, String digest) {
+            this.day = day;
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = "\"" + digest + "\"";
+            this.gzipEtag = "\"" + digest + "-gzip\"";
+        }
+
+        // If-None-Match uses weak comparison, and a client may revalidate with either encoding's tag
+        boolean matches(String ifNoneMatch) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.equals("*")) {
+                    return true;
+                }
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals(etag) || candidate.equals(gzipEtag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.musicevent.cache;
+
+import com.musicevent.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener on {@link User}: any insert, update or delete made through
+ * Hibernate evicts the cached identity.
+ */
+@Component
+public class UserCacheInvalidator {
+    @Autowired
+    @Lazy
+    private UserIdentityCache userIdentityCache;
+    
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(User user) {
+        userIdentityCache.invalidate(user.getId(), user.getEmail());
+    }
+}
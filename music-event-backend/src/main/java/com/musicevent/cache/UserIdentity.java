@@ -0,0 +1,31 @@
+package com.musicevent.cache;
+
+import com.musicevent.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable snapshot of a user row, safe to share between threads and requests.
+ * Holds the password hash for login checks; never serialize it to clients, use
+ * {@link com.musicevent.dto.UserProfile} for that.
+ */
+public record UserIdentity(
+        Long id,
+        String name,
+        String email,
+        String passwordHash,
+        User.Role role,
+        String profile,
+        LocalDateTime createdAt) {
+    
+    public static UserIdentity of(User user) {
+        return new UserIdentity(
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                user.getPassword(),
+                user.getRole(),
+                user.getProfile(),
+                user.getCreatedAt());
+    }
+}
@@ -0,0 +1,132 @@
+package com.musicevent.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.musicevent.config.ReplicaLagPolicy;
+import com.musicevent.entity.User;
+import com.musicevent.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Caches immutable {@link UserIdentity} snapshots by id and by email, and keeps
+ * an email Bloom filter warmed from the users table at startup. Every User write
+ * goes through {@link UserCacheInvalidator}, which calls {@link #invalidate}.
+ */
+@Component
+public class UserIdentityCache implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(UserIdentityCache.class);
+    
+    private final UserRepository userRepository;
+    private final ReplicaLagPolicy replicaLagPolicy;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Cache<Long, UserIdentity> byId;
+    private final Cache<String, UserIdentity> byEmail;
+    private final EmailBloomFilter emailFilter;
+    private volatile boolean emailFilterWarm;
+    
+    public UserIdentityCache(UserRepository userRepository,
+                             ReplicaLagPolicy replicaLagPolicy,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.cache.users.max-size:10000}") long maxSize,
+                             @Value("${app.cache.users.ttl:PT10M}") Duration ttl,
+                             @Value("${app.cache.users.expected-emails:1000000}") long expectedEmails) {
+        this.userRepository = userRepository;
+        this.replicaLagPolicy = replicaLagPolicy;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.byId = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+        this.byEmail = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+        this.emailFilter = new EmailBloomFilter(expectedEmails, 0.01);
+    }
+    
+    public Optional<UserIdentity> findById(Long id) {
+        UserIdentity cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return userRepository.findById(id).map(this::put);
+    }
+    
+    public Optional<UserIdentity> findByEmail(String email) {
+        String key = email.toLowerCase();
+        UserIdentity cached = byEmail.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // Logins right after registration must see the new row
+        return readOnlyTransaction.execute(status -> replicaLagPolicy.readOwnWrites(
+                () -> userRepository.findByEmail(email))).map(this::put);
+    }
+    
+    /**
+     * False means the email is definitely not registered. Until the filter has
+     * been warmed this always answers true.
+     */
+    public boolean mightExist(String email) {
+        return !emailFilterWarm || emailFilter.mightContain(email);
+    }
+    
+    public UserIdentity put(User user) {
+        UserIdentity identity = UserIdentity.of(user);
+        byId.put(identity.id(), identity);
+        byEmail.put(identity.email().toLowerCase(), identity);
+        emailFilter.add(identity.email());
+        return identity;
+    }
+    
+    public void invalidate(Long id, String email) {
+        evict(id, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A concurrent reader may re-cache the old row before this transaction commits
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(id, email);
+                }
+            });
+        }
+    }
+    
+    private void evict(Long id, String email) {
+        if (id != null) {
+            UserIdentity previous = byId.getIfPresent(id);
+            byId.invalidate(id);
+            if (previous != null) {
+                byEmail.invalidate(previous.email().toLowerCase());
+            }
+        }
+        if (email != null) {
+            byEmail.invalidate(email.toLowerCase());
+            emailFilter.add(email);
+        }
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        Long loaded = readOnlyTransaction.execute(status -> {
+            try (Stream<String> emails = userRepository.streamAllEmails()) {
+                return emails.mapToLong(email -> {
+                    emailFilter.add(email);
+                    return 1;
+                }).sum();
+            }
+        });
+        emailFilterWarm = true;
+        log.info("Warmed email filter with {} addresses in {} ms",
+                loaded, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+}
@@ -0,0 +1,48 @@
+package com.musicevent.changelog;
+
+import com.musicevent.service.JobLockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class ChangeLogService {
+    private static final String INSERT_SQL =
+            "INSERT INTO change_log (change_type, entity_id, origin, created_at) VALUES (?, ?, ?, ?)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private JobLockService jobLockService;
+    
+    /**
+     * Records the change in the caller's transaction, so other nodes only see
+     * it (through ChangeLogTailer) once the write itself has committed.
+     */
+    public void record(ChangeType type, Long entityId) {
+        jdbcTemplate.update(INSERT_SQL, type.name(), entityId, jobLockService.getOwner(),
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+    
+    public void recordAll(ChangeType type, Collection<Long> entityIds) {
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String origin = jobLockService.getOwner();
+        jdbcTemplate.batchUpdate(INSERT_SQL, entityIds, entityIds.size(), (ps, entityId) -> {
+            ps.setString(1, type.name());
+            ps.setLong(2, entityId);
+            ps.setString(3, origin);
+            ps.setTimestamp(4, now);
+        });
+    }
+}
@@ -0,0 +1,211 @@
+package com.musicevent.changelog;
+
+import com.musicevent.entity.ChangeLogEntry;
+import com.musicevent.repository.ChangeLogEntryRepository;
+import com.musicevent.service.JobLockService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps this node's in-memory caches coherent with writes made on other nodes
+ * by tailing change_log every app.changelog.poll-interval-ms on its id. Reads
+ * go to the primary, since a replica can lag by more than the poll interval.
+ * The cursor starts at the newest row at boot: the caches load everything
+ * after that, and anything committed since is replayed on top. It is read in
+ * start(), which runs before the caches' ApplicationRunners and before any
+ * scheduled poll, and is skipped by a context that only refreshes (the CDS
+ * training run, which has no database).
+ * <p>
+ * Auto-increment ids are handed out at insert but become visible at commit,
+ * so a lower id can show up after a higher one. Ids skipped by the cursor are
+ * remembered and looked up again on every poll until they appear or
+ * app.changelog.gap-timeout passes (a rolled-back insert never appears). The
+ * scheduled index rebuilds remain the backstop for anything missed.
+ */
+@Component
+public class ChangeLogTailer implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogTailer.class);
+    private static final String PURGE_LOCK_NAME = "change-log-purge";
+
+    private final ChangeLogEntryRepository changeLogEntryRepository;
+    private final RemoteChangeApplier remoteChangeApplier;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate transactionTemplate;
+    private final String origin;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Timer applyDelay;
+    private final Counter applyFailures;
+    // Skipped id -> when it was first skipped; only touched by poll(), which never overlaps itself
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+    private long cursor;
+    private volatile boolean running;
+
+    @Value("${app.changelog.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.changelog.gap-timeout:PT30S}")
+    private Duration gapTimeout;
+
+    @Value("${app.changelog.max-gaps:1000}")
+    private int maxGaps;
+
+    @Value("${app.changelog.retention:PT1H}")
+    private Duration retention;
+
+    @Value("${app.changelog.lock-at-most:PT10M}")
+    private Duration lockAtMost;
+
+    public ChangeLogTailer(ChangeLogEntryRepository changeLogEntryRepository,
+                           RemoteChangeApplier remoteChangeApplier,
+                           JobLockService jobLockService,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.changeLogEntryRepository = changeLogEntryRepository;
+        this.remoteChangeApplier = remoteChangeApplier;
+        this.jobLockService = jobLockService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.origin = jobLockService.getOwner();
+        this.applyDelay = Timer.builder("changelog.apply.delay")
+                .description("Time from a change being logged on another node to this node applying it")
+                .register(meterRegistry);
+        this.applyFailures = Counter.builder("changelog.apply.failures").register(meterRegistry);
+        meterRegistry.gauge("changelog.lag.ms", lagMillis);
+    }
+
+    @Override
+    public void start() {
+        cursor = transactionTemplate.execute(status -> changeLogEntryRepository.findMaxId());
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Before the web server starts taking requests
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.changelog.poll-interval-ms:200}")
+    public void poll() {
+        if (!running) {
+            return;
+        }
+        List<ChangeLogEntry> late = recheckGaps();
+        if (!late.isEmpty()) {
+            apply(late);
+        }
+        List<ChangeLogEntry> batch;
+        do {
+            long after = cursor;
+            batch = transactionTemplate.execute(status ->
+                    changeLogEntryRepository.findByIdGreaterThanOrderById(after, PageRequest.of(0, batchSize)));
+            if (batch.isEmpty()) {
+                lagMillis.set(0);
+                break;
+            }
+            long now = System.currentTimeMillis();
+            for (ChangeLogEntry change : batch) {
+                for (long skipped = cursor + 1; skipped < change.getId() && gaps.size() < maxGaps; skipped++) {
+                    gaps.put(skipped, now);
+                }
+                cursor = change.getId();
+            }
+            apply(batch);
+        } while (batch.size() == batchSize);
+    }
+
+    /** Looks up ids skipped earlier; returns those that have appeared and forgets expired ones. */
+    private List<ChangeLogEntry> recheckGaps() {
+        if (gaps.isEmpty()) {
+            return List.of();
+        }
+        List<Long> missing = new ArrayList<>(gaps.keySet());
+        List<ChangeLogEntry> found = transactionTemplate.execute(status ->
+                changeLogEntryRepository.findByIdInOrderById(missing));
+        found.forEach(change -> gaps.remove(change.getId()));
+        long expiredBefore = System.currentTimeMillis() - gapTimeout.toMillis();
+        for (Iterator<Long> firstSeen = gaps.values().iterator(); firstSeen.hasNext(); ) {
+            if (firstSeen.next() < expiredBefore) {
+                firstSeen.remove();
+            }
+        }
+        return found;
+    }
+
+    private void apply(List<ChangeLogEntry> changes) {
+        List<ChangeLogEntry> remote = new ArrayList<>(changes.size());
+        LocalDateTime now = LocalDateTime.now();
+        long oldest = 0;
+        for (ChangeLogEntry change : changes) {
+            // This node's own writes reached its caches when they committed
+            if (!origin.equals(change.getOrigin())) {
+                remote.add(change);
+                Duration delay = Duration.between(change.getCreatedAt(), now);
+                applyDelay.record(delay);
+                oldest = Math.max(oldest, delay.toMillis());
+            }
+        }
+        lagMillis.set(oldest);
+        if (remote.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> remoteChangeApplier.apply(remote));
+        } catch (RuntimeException e) {
+            // Not retried: a change that keeps failing would stall every later one
+            applyFailures.increment();
+            log.error("Could not apply {} changes from other nodes (ids {} to {})", remote.size(),
+                    remote.get(0).getId(), remote.get(remote.size() - 1).getId(), e);
+        }
+    }
+
+    @Scheduled(cron = "${app.changelog.purge-cron:0 */10 * * * *}")
+    public void purge() {
+        if (!jobLockService.tryAcquire(PURGE_LOCK_NAME, lockAtMost)) {
+            return;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+            int purged = 0;
+            Integer deleted;
+            do {
+                deleted = transactionTemplate.execute(status ->
+                        changeLogEntryRepository.purgeOlderThan(cutoff, batchSize));
+                purged += deleted;
+            } while (deleted == batchSize);
+            if (purged > 0) {
+                log.info("Purged {} change log entries older than {}", purged, retention);
+            }
+        } finally {
+            jobLockService.release(PURGE_LOCK_NAME);
+        }
+    }
+}
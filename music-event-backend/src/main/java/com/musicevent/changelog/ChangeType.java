@@ -0,0 +1,15 @@
+package com.musicevent.changelog;
+
+/** What a change_log row says happened to its entity_id. */
+public enum ChangeType {
+    EVENT_CHANGED,
+    EVENT_DELETED,
+    BOOKING_CREATED,
+    CONTRACT_CREATED,
+    CONTRACT_UPDATED,
+    CONTRACT_STATUS_CHANGED,
+    USER_CHANGED,
+    WAITLIST_CHANGED,
+    // entity_id is the access token's jti
+    ACCESS_TOKEN_REVOKED
+}
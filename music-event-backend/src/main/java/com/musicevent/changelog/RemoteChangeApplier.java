@@ -0,0 +1,142 @@
+package com.musicevent.changelog;
+
+import com.musicevent.cache.UserIdentityCache;
+import com.musicevent.entity.Booking;
+import com.musicevent.entity.ChangeLogEntry;
+import com.musicevent.entity.Contract;
+import com.musicevent.entity.Event;
+import com.musicevent.entity.User;
+import com.musicevent.entity.WaitlistEntry;
+import com.musicevent.geo.EventLocationChanged;
+import com.musicevent.outbox.BookingCreated;
+import com.musicevent.repository.BookingRepository;
+import com.musicevent.repository.ContractRepository;
+import com.musicevent.repository.EventRepository;
+import com.musicevent.repository.UserRepository;
+import com.musicevent.repository.WaitlistEntryRepository;
+import com.musicevent.schedule.ScheduleSlotChanged;
+import com.musicevent.security.RevokedTokens;
+import com.musicevent.stream.ContractNotification;
+import com.musicevent.stream.TicketAvailabilityChanged;
+import com.musicevent.waitlist.WaitlistEntryChanged;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Replays other nodes' changes onto this node's caches by publishing the same
+ * in-process events the local write paths publish, built from the rows as
+ * they are now rather than as they were when logged. Several changes to one
+ * row in a batch therefore collapse into one refresh, and a row that is gone
+ * counts as deleted. Runs inside ChangeLogTailer's transaction on the primary,
+ * so the listeners fire once it commits.
+ */
+@Component
+public class RemoteChangeApplier {
+    private final EventRepository eventRepository;
+    private final BookingRepository bookingRepository;
+    private final ContractRepository contractRepository;
+    private final UserRepository userRepository;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final UserIdentityCache userIdentityCache;
+    private final RevokedTokens revokedTokens;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RemoteChangeApplier(EventRepository eventRepository,
+                               BookingRepository bookingRepository,
+                               ContractRepository contractRepository,
+                               UserRepository userRepository,
+                               WaitlistEntryRepository waitlistEntryRepository,
+                               UserIdentityCache userIdentityCache,
+                               RevokedTokens revokedTokens,
+                               ApplicationEventPublisher eventPublisher) {
+        this.eventRepository = eventRepository;
+        this.bookingRepository = bookingRepository;
+        this.contractRepository = contractRepository;
+        this.userRepository = userRepository;
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.userIdentityCache = userIdentityCache;
+        this.revokedTokens = revokedTokens;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public void apply(List<ChangeLogEntry> changes) {
+        Set<Long> eventIds = ids(changes, Set.of(ChangeType.EVENT_CHANGED, ChangeType.EVENT_DELETED));
+        Set<Long> bookingIds = ids(changes, Set.of(ChangeType.BOOKING_CREATED));
+        Set<Long> contractIds = ids(changes, Set.of(ChangeType.CONTRACT_CREATED, ChangeType.CONTRACT_UPDATED,
+                ChangeType.CONTRACT_STATUS_CHANGED));
+        Set<Long> userIds = ids(changes, Set.of(ChangeType.USER_CHANGED));
+
+        if (!eventIds.isEmpty()) {
+            Map<Long, Event> events = byId(eventRepository.findAllById(eventIds), Event::getId);
+            for (Long id : eventIds) {
+                Event event = events.get(id);
+                if (event == null) {
+                    eventPublisher.publishEvent(EventLocationChanged.removed(id));
+                    eventPublisher.publishEvent(ScheduleSlotChanged.eventRemoved(id));
+                    continue;
+                }
+                eventPublisher.publishEvent(new TicketAvailabilityChanged(
+                        event.getId(), event.getAvailableTickets(), event.getTotalTickets()));
+                eventPublisher.publishEvent(EventLocationChanged.of(event));
+                eventPublisher.publishEvent(ScheduleSlotChanged.of(event));
+            }
+        }
+        if (!bookingIds.isEmpty()) {
+            for (Booking booking : bookingRepository.findAllById(bookingIds)) {
+                eventPublisher.publishEvent(new BookingCreated(
+                        booking.getId(), booking.getEventId(), booking.getUserId(), booking.getTickets()));
+            }
+        }
+        if (!contractIds.isEmpty()) {
+            Map<Long, Contract> contracts = byId(contractRepository.findAllById(contractIds), Contract::getId);
+            contracts.values().forEach(contract -> eventPublisher.publishEvent(ScheduleSlotChanged.of(contract)));
+            // One notification per change, so users connected to this node see each step
+            for (ChangeLogEntry change : changes) {
+                Contract contract = contracts.get(change.getEntityId());
+                if (contract == null) {
+                    continue;
+                }
+                switch (change.getChangeType()) {
+                    case CONTRACT_CREATED -> eventPublisher.publishEvent(ContractNotification.created(contract));
+                    case CONTRACT_UPDATED -> eventPublisher.publishEvent(ContractNotification.updated(contract));
+                    case CONTRACT_STATUS_CHANGED ->
+                            eventPublisher.publishEvent(ContractNotification.statusChanged(contract));
+                    default -> {
+                    }
+                }
+            }
+        }
+        if (!userIds.isEmpty()) {
+            Map<Long, User> users = byId(userRepository.findAllById(userIds), User::getId);
+            for (Long id : userIds) {
+                User user = users.get(id);
+                userIdentityCache.invalidate(id, user != null ? user.getEmail() : null);
+            }
+        }
+        Set<Long> waitlistIds = ids(changes, Set.of(ChangeType.WAITLIST_CHANGED));
+        if (!waitlistIds.isEmpty()) {
+            for (WaitlistEntry entry : waitlistEntryRepository.findAllById(waitlistIds)) {
+                eventPublisher.publishEvent(WaitlistEntryChanged.of(entry));
+            }
+        }
+        ids(changes, Set.of(ChangeType.ACCESS_TOKEN_REVOKED)).forEach(revokedTokens::revoke);
+    }
+
+    private static Set<Long> ids(List<ChangeLogEntry> changes, Set<ChangeType> types) {
+        return changes.stream()
+                .filter(change -> types.contains(change.getChangeType()))
+                .map(ChangeLogEntry::getEntityId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static <T> Map<Long, T> byId(List<T> rows, Function<T, Long> id) {
+        return rows.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.musicevent.config;
+
+import com.musicevent.monitoring.InstrumentedDataSource;
+import com.musicevent.monitoring.PoolWaitDataSource;
+import com.musicevent.monitoring.SqlStatistics;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Two Hikari pools behind one routing DataSource. The primary pool is configured
+ * with the usual spring.datasource.* keys; the read pool uses app.datasource.read.*
+ * and falls back to the primary connection settings when no replica URL is given,
+ * so browse traffic still gets its own, independently sized pool. Every statement
+ * is timed by InstrumentedDataSource, and every wait for a pooled connection by
+ * PoolWaitDataSource.
+ */
+@Configuration
+public class DataSourceConfig {
+    
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryPool(
+            @Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        pool.setPoolName("primary");
+        return pool;
+    }
+    
+    @Bean
+    @ConfigurationProperties("app.datasource.read")
+    public DataSourceProperties readDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+    
+    @Bean
+    @ConfigurationProperties("app.datasource.read.hikari")
+    public HikariDataSource readPool(
+            @Qualifier("primaryDataSourceProperties") DataSourceProperties primary,
+            @Qualifier("readDataSourceProperties") DataSourceProperties read) {
+        DataSourceProperties source = StringUtils.hasText(read.getUrl()) ? read : primary;
+        HikariDataSource pool = source.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        pool.setPoolName("read");
+        pool.setReadOnly(true);
+        return pool;
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryPool") DataSource primaryPool,
+            @Qualifier("readPool") DataSource readPool,
+            SqlStatistics sqlStatistics,
+            @Value("${app.chaos.db-latency-ms:0}") long chaosLatencyMillis) {
+        DataSource primary = new PoolWaitDataSource(primaryPool);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.PRIMARY, primary,
+                ReadWriteRoutingDataSource.READ, new PoolWaitDataSource(readPool)));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new InstrumentedDataSource(new LazyConnectionDataSourceProxy(routing), sqlStatistics,
+                chaosLatencyMillis);
+    }
+}
@@ -0,0 +1,14 @@
+package com.musicevent.config;
+
+import com.musicevent.monitoring.RepositoryCallTracker;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MonitoringConfig {
+    
+    @Bean
+    public static RepositoryCallTracker repositoryCallTracker() {
+        return new RepositoryCallTracker();
+    }
+}
@@ -0,0 +1,43 @@
+package com.musicevent.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Routes connections for @Transactional(readOnly = true) work to the read pool and
+ * everything else to the primary. Must sit behind a LazyConnectionDataSourceProxy so
+ * the lookup happens at the first statement, after the transaction is set up.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    public static final String READ = "read";
+    
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && FORCE_PRIMARY.get() == null) {
+            return READ;
+        }
+        return PRIMARY;
+    }
+    
+    /**
+     * Runs a read against the primary even inside a read-only transaction, for
+     * read-your-writes paths. Only effective if no connection has been taken yet.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (FORCE_PRIMARY.get() != null) {
+            return work.get();
+        }
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            FORCE_PRIMARY.remove();
+        }
+    }
+}
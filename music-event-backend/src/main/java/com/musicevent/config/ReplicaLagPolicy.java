@@ -0,0 +1,22 @@
+package com.musicevent.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Decides where read-your-writes endpoints (a user's own bookings, contracts or
+ * events) read from. While the replica may lag, those reads go to the primary so
+ * a user always sees what they just wrote; set app.datasource.read.lag-tolerant=true
+ * to serve them from the read pool as well.
+ */
+@Component
+public class ReplicaLagPolicy {
+    @Value("${app.datasource.read.lag-tolerant:false}")
+    private boolean lagTolerant;
+    
+    public <T> T readOwnWrites(Supplier<T> read) {
+        return lagTolerant ? read.get() : ReadWriteRoutingDataSource.onPrimary(read);
+    }
+}
@@ -0,0 +1,76 @@
+package com.musicevent.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Exercises the hot public endpoints through the real HTTP stack before the
+ * instance reports ready. Runners execute before Spring Boot publishes
+ * ReadinessState.ACCEPTING_TRAFFIC, so /actuator/health/readiness only flips
+ * once the JIT, Hibernate query plans and Jackson serializers are warm.
+ */
+@Component
+public class StartupWarmup implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+    
+    private final WebServerApplicationContext context;
+    
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.warmup.iterations:20}")
+    private int iterations;
+    
+    @Value("${app.warmup.paths:/api/events/upcoming,/api/events}")
+    private List<String> paths;
+    
+    public StartupWarmup(WebServerApplicationContext context) {
+        this.context = context;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        int port = context.getWebServer().getPort();
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        int ok = 0;
+        int failed = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (String path : paths) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .timeout(Duration.ofSeconds(10))
+                        .GET()
+                        .build();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() < 400) {
+                        ok++;
+                    } else {
+                        failed++;
+                    }
+                } catch (Exception e) {
+                    failed++;
+                }
+            }
+        }
+        log.info("Warmup finished in {} ms ({} ok, {} failed)",
+                Duration.ofNanos(System.nanoTime() - start).toMillis(), ok, failed);
+    }
+}
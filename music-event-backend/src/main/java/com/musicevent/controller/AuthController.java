@@ -2,10 +2,13 @@ package com.musicevent.controller;
 
 import com.musicevent.dto.AuthResponse;
 import com.musicevent.dto.LoginRequest;
+import com.musicevent.dto.RefreshRequest;
 import com.musicevent.dto.RegisterRequest;
 import com.musicevent.service.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -113,6 +116,26 @@ public class AuthController {
         }
     }
     
+    // Trades a refresh token for a new access token and the next refresh token; each one works once
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest request) {
+        return authService.refresh(request.getRefreshToken())
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                new ErrorResponse("Invalid or expired refresh token")
+            ));
+    }
+    
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody(required = false) RefreshRequest request,
+                                    @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false)
+                                    String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+            ? authorization.substring(7) : null;
+        authService.logout(request != null ? request.getRefreshToken() : null, accessToken);
+        return ResponseEntity.noContent().build();
+    }
+    
     // Exception handler for validation errors
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<?> handleValidationExceptions(MethodArgumentNotValidException ex) {
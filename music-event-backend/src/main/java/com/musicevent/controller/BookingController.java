@@ -1,8 +1,11 @@
 package com.musicevent.controller;
 
 import com.musicevent.entity.Booking;
+import com.musicevent.security.SecurityUtils;
 import com.musicevent.service.BookingService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -35,6 +38,32 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.getUserBookings(userId));
     }
     
+    // The current user's tickets joined with their events, one side of today per request
+    @GetMapping("/me/wallet")
+    public ResponseEntity<?> getMyWallet(@RequestParam(defaultValue = "upcoming") String section,
+                                         @RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "20") int size,
+                                         HttpServletRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(bookingService.getWallet(userId, section, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/me/wallet/summary")
+    public ResponseEntity<?> getMyWalletSummary(HttpServletRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(bookingService.getWalletSummary(userId));
+    }
+    
     @GetMapping("/event/{eventId}")
     public ResponseEntity<List<Booking>> getEventBookings(@PathVariable Long eventId) {
         return ResponseEntity.ok(bookingService.getEventBookings(eventId));
@@ -46,7 +75,23 @@ public class BookingController {
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
-    
+
+    // 409 when the booking is already cancelled or its event is no longer upcoming
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<?> cancelBooking(@PathVariable Long id, HttpServletRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return bookingService.cancelBooking(id, userId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
     private static class ErrorResponse {
         private String error;
         
@@ -1,11 +1,18 @@
 package com.musicevent.controller;
 
+import com.musicevent.dto.AcceptContractRequest;
 import com.musicevent.entity.Contract;
+import com.musicevent.security.SecurityUtils;
 import com.musicevent.service.ContractService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -20,9 +27,16 @@ public class ContractController {
     @Autowired
     private ContractService contractService;
     
+    // 409 when the artist already has an accepted contract or event at that time
     @PostMapping
-    public ResponseEntity<Contract> createContract(@RequestBody Contract contract) {
-        return ResponseEntity.ok(contractService.createContract(contract));
+    public ResponseEntity<?> createContract(@RequestBody Contract contract) {
+        try {
+            return ResponseEntity.ok(contractService.createContract(contract));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
     }
     
     @GetMapping("/artist/{artistId}")
@@ -35,19 +49,58 @@ public class ContractController {
         return ResponseEntity.ok(contractService.getOrganizerContracts(organizerId));
     }
     
+    // The artist's accepted contracts and events overlapping [from, to] (dates inclusive), earliest first
+    @GetMapping("/artist/{artistId}/availability")
+    public ResponseEntity<?> getArtistAvailability(
+            @PathVariable Long artistId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(contractService.getArtistAvailability(artistId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/artist/{artistId}/pending")
     public ResponseEntity<List<Contract>> getPendingContracts(@PathVariable Long artistId) {
         return ResponseEntity.ok(contractService.getPendingContractsForArtist(artistId));
     }
     
     @PutMapping("/{id}/status")
-    public ResponseEntity<Contract> updateContractStatus(
+    public ResponseEntity<?> updateContractStatus(
             @PathVariable Long id,
             @RequestBody Map<String, String> request) {
         Contract.ContractStatus status = Contract.ContractStatus.valueOf(
             request.get("status").toUpperCase()
         );
-        return ResponseEntity.ok(contractService.updateContractStatus(id, status));
+        try {
+            return ResponseEntity.ok(contractService.updateContractStatus(id, status));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    // Accepts the contract, creates its event and links it in one transaction
+    @PostMapping("/{id}/accept")
+    public ResponseEntity<?> acceptContract(
+            @PathVariable Long id,
+            @RequestBody(required = false) AcceptContractRequest acceptRequest,
+            HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(contractService.acceptContract(
+                id,
+                SecurityUtils.getCurrentUserId(request),
+                acceptRequest != null ? acceptRequest : new AcceptContractRequest()
+            ));
+        } catch (IllegalStateException | ObjectOptimisticLockingFailureException e) {
+            String message = e instanceof IllegalStateException
+                ? e.getMessage()
+                : "Contract was modified by someone else, reload and try again";
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(message));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
     }
     
     @GetMapping("/{id}")
@@ -64,11 +117,16 @@ public class ContractController {
         Long eventId = request.get("eventId");
         return ResponseEntity.ok(contractService.linkEventToContract(id, eventId));
     }
+    
+    private static class ErrorResponse {
+        private String error;
+        
+        public ErrorResponse(String error) {
+            this.error = error;
+        }
+        
+        public String getError() {
+            return error;
+        }
+    }
 }
-
-
-
-
-
-
-
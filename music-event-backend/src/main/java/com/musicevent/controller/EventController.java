@@ -1,12 +1,29 @@
 package com.musicevent.controller;
 
+import com.musicevent.cache.UpcomingEventsSnapshot;
+import com.musicevent.cache.UserIdentity;
+import com.musicevent.cache.UserIdentityCache;
 import com.musicevent.entity.Event;
+import com.musicevent.security.SecurityUtils;
+import com.musicevent.service.EventImportService;
 import com.musicevent.service.EventService;
+import com.musicevent.stream.AvailabilityBroadcaster;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/events")
@@ -19,16 +36,70 @@ public class EventController {
     @Autowired
     private EventService eventService;
     
+    @Autowired
+    private AvailabilityBroadcaster availabilityBroadcaster;
+    
+    @Autowired
+    private EventImportService eventImportService;
+    
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+    
+    @Autowired
+    private UpcomingEventsSnapshot upcomingEventsSnapshot;
+    
     @GetMapping
     public ResponseEntity<List<Event>> getAllEvents() {
         return ResponseEntity.ok(eventService.getAllEvents());
     }
     
+    // Served from pre-encoded bytes with ETag revalidation; the query only runs when there is no snapshot to use
     @GetMapping("/upcoming")
-    public ResponseEntity<List<Event>> getUpcomingEvents() {
+    public ResponseEntity<?> getUpcomingEvents(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<ResponseEntity<byte[]>> snapshot = upcomingEventsSnapshot.respond(accept, acceptEncoding, ifNoneMatch);
+        if (snapshot.isPresent()) {
+            return snapshot.get();
+        }
         return ResponseEntity.ok(eventService.getUpcomingEvents());
     }
     
+    // Upcoming events within radiusKm of a point, nearest first, each with its distance
+    @GetMapping("/near")
+    public ResponseEntity<?> getEventsNear(@RequestParam double lat,
+                                           @RequestParam double lon,
+                                           @RequestParam(defaultValue = "25") double radiusKm,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                           @RequestParam(required = false) String category,
+                                           @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(eventService.findEventsNear(lat, lon, radiusKm, from, to, category, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    // Upcoming events inside a bounding box (e.g. the visible map), soonest first
+    @GetMapping("/within")
+    public ResponseEntity<?> getEventsWithin(@RequestParam double minLat,
+                                             @RequestParam double minLon,
+                                             @RequestParam double maxLat,
+                                             @RequestParam double maxLon,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                             @RequestParam(required = false) String category,
+                                             @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(eventService.findEventsWithin(minLat, minLon, maxLat, maxLon, from, to,
+                category, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Event> getEventById(@PathVariable Long id) {
         return eventService.getEventById(id)
@@ -36,19 +107,73 @@ public class EventController {
             .orElse(ResponseEntity.notFound().build());
     }
     
+    // "Fans also booked": upcoming events most often booked by people who booked this one
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<?> getSimilarEvents(@PathVariable Long id,
+                                              @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(eventService.getSimilarEvents(id, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    // Bulk import for the calling organizer: NDJSON or CSV in, one NDJSON result line per row out
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<StreamingResponseBody> importEvents(HttpServletRequest request) throws IOException {
+        Long userId = SecurityUtils.getCurrentUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!"ORGANIZER".equals(SecurityUtils.getCurrentUserRole(request))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        String organizerName = userIdentityCache.findById(userId).map(UserIdentity::name).orElse(null);
+        if (organizerName == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.valueOf("text/csv"));
+        InputStream body = request.getInputStream();
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(out -> eventImportService.importEvents(body, csv, userId, organizerName, out));
+    }
+    
+    // Server-Sent Events: pushes {eventId, availableTickets, totalTickets} on every change
+    @GetMapping(value = "/{id}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAvailability(@PathVariable Long id) {
+        try {
+            return availabilityBroadcaster.subscribe(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "30")
+                .<SseEmitter>build();
+        }
+    }
+    
     @GetMapping("/organizer/{organizerId}")
     public ResponseEntity<List<Event>> getOrganizerEvents(@PathVariable Long organizerId) {
         return ResponseEntity.ok(eventService.getOrganizerEvents(organizerId));
     }
     
     @PostMapping
-    public ResponseEntity<Event> createEvent(@RequestBody Event event) {
-        return ResponseEntity.ok(eventService.createEvent(event));
+    public ResponseEntity<?> createEvent(@RequestBody Event event) {
+        try {
+            return ResponseEntity.ok(eventService.createEvent(event));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<Event> updateEvent(@PathVariable Long id, @RequestBody Event event) {
-        return ResponseEntity.ok(eventService.updateEvent(id, event));
+    public ResponseEntity<?> updateEvent(@PathVariable Long id, @RequestBody Event event) {
+        try {
+            return ResponseEntity.ok(eventService.updateEvent(id, event));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
     }
     
     @DeleteMapping("/{id}")
@@ -56,6 +181,18 @@ public class EventController {
         eventService.deleteEvent(id);
         return ResponseEntity.noContent().build();
     }
+    
+    private static class ErrorResponse {
+        private String error;
+        
+        public ErrorResponse(String error) {
+            this.error = error;
+        }
+        
+        public String getError() {
+            return error;
+        }
+    }
 }
 
 
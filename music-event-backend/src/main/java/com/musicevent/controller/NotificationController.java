@@ -0,0 +1,62 @@
+package com.musicevent.controller;
+
+import com.musicevent.security.JwtUtil;
+import com.musicevent.security.SecurityUtils;
+import com.musicevent.stream.NotificationHub;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications")
+@CrossOrigin(origins = {
+        "http://localhost:3000",
+        "https://music-event-project.vercel.app"
+})
+public class NotificationController {
+    @Autowired
+    private NotificationHub notificationHub;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    // EventSource can't send an Authorization header: trade the access token for a short-lived ticket
+    // that opens /stream (as ?ticket=) and nothing else
+    @PostMapping("/ticket")
+    public ResponseEntity<Map<String, Object>> ticket(HttpServletRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        String ticket = jwtUtil.generateStreamTicket(SecurityUtils.getCurrentUserEmail(), userId,
+                SecurityUtils.getCurrentUserRole(request), (Long) request.getAttribute("tokenId"));
+        return ResponseEntity.ok(Map.of("ticket", ticket, "expiresIn", jwtUtil.getStreamTicketExpirationMillis()));
+    }
+    
+    // Server-Sent Events for the current user: "contract" and "waitlist" deltas, or "reset" when the client must reload.
+    // A client reopening the stream itself (with a new ticket) passes the last id it saw as lastEventId
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+            HttpServletRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(notificationHub.subscribe(userId,
+                    lastEventId != null ? lastEventId : lastEventIdParam));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "30")
+                .<SseEmitter>build();
+        }
+    }
+}
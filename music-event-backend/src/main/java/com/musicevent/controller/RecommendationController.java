@@ -0,0 +1,47 @@
+package com.musicevent.controller;
+
+import com.musicevent.security.SecurityUtils;
+import com.musicevent.service.EventService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/recommendations")
+@CrossOrigin(origins = {
+        "http://localhost:3000",
+        "https://music-event-project.vercel.app"
+})
+public class RecommendationController {
+    @Autowired
+    private EventService eventService;
+    
+    // Upcoming events booked by fans of what the current user booked, best first
+    @GetMapping("/me")
+    public ResponseEntity<?> getMyRecommendations(@RequestParam(defaultValue = "10") int limit,
+                                                  HttpServletRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(eventService.getRecommendedEvents(userId, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    private static class ErrorResponse {
+        private String error;
+        
+        public ErrorResponse(String error) {
+            this.error = error;
+        }
+        
+        public String getError() {
+            return error;
+        }
+    }
+}
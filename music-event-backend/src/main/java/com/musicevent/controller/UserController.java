@@ -1,5 +1,7 @@
 package com.musicevent.controller;
 
+import com.musicevent.cache.UserIdentityCache;
+import com.musicevent.dto.UserProfile;
 import com.musicevent.entity.User;
 import com.musicevent.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,24 +21,26 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+    
     @GetMapping("/artists")
-    public ResponseEntity<List<User>> getArtists() {
-        return ResponseEntity.ok(userRepository.findByRole(User.Role.MUSICIAN));
+    public ResponseEntity<List<UserProfile>> getArtists() {
+        return ResponseEntity.ok(userRepository.findByRole(User.Role.MUSICIAN)
+            .stream().map(UserProfile::of).toList());
     }
     
     @GetMapping("/organizers")
-    public ResponseEntity<List<User>> getOrganizers() {
-        return ResponseEntity.ok(userRepository.findByRole(User.Role.ORGANIZER));
+    public ResponseEntity<List<UserProfile>> getOrganizers() {
+        return ResponseEntity.ok(userRepository.findByRole(User.Role.ORGANIZER)
+            .stream().map(UserProfile::of).toList());
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        return userRepository.findById(id)
-            .map(user -> {
-                // Remove password before sending
-                user.setPassword(null);
-                return ResponseEntity.ok(user);
-            })
+    public ResponseEntity<UserProfile> getUserById(@PathVariable Long id) {
+        return userIdentityCache.findById(id)
+            .map(UserProfile::of)
+            .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
 }
@@ -0,0 +1,75 @@
+package com.musicevent.controller;
+
+import com.musicevent.dto.WaitlistPosition;
+import com.musicevent.dto.WaitlistRequest;
+import com.musicevent.security.SecurityUtils;
+import com.musicevent.service.WaitlistService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/waitlist")
+@CrossOrigin(origins = {
+        "http://localhost:3000",
+        "https://music-event-project.vercel.app"
+})
+public class WaitlistController {
+    @Autowired
+    private WaitlistService waitlistService;
+
+    // 409 when the event still has tickets to book, is no longer on sale, or the user is already waiting
+    @PostMapping("/events/{eventId}")
+    public ResponseEntity<?> join(@PathVariable Long eventId,
+                                  @RequestBody WaitlistRequest waitlistRequest,
+                                  HttpServletRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(waitlistService.join(userId, eventId, waitlistRequest.getTickets()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    // The current user's waiting entries with their place in each queue
+    @GetMapping("/me")
+    public ResponseEntity<List<WaitlistPosition>> getMyWaitlist(HttpServletRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(waitlistService.getWaiting(userId));
+    }
+
+    @DeleteMapping("/{entryId}")
+    public ResponseEntity<Void> leave(@PathVariable Long entryId, HttpServletRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId(request);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return waitlistService.leave(userId, entryId)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+
+    private static class ErrorResponse {
+        private String error;
+
+        public ErrorResponse(String error) {
+            this.error = error;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.musicevent.datagen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads a reproducible, production-sized dataset ({@link SyntheticDataset})
+ * into an empty, migrated database for load tests and query plans. Runs
+ * outside the application, over plain JDBC: each table is cut into chunks of
+ * --chunk-rows that --threads workers write in parallel, each chunk as
+ * multi-row INSERTs of --rows-per-insert rows committed once. On MySQL the
+ * workers also turn off foreign key and unique checks for their sessions,
+ * since the rows are consistent by construction.
+ * <p>
+ * Run with the database the application uses (Flyway creates the schema on
+ * its first start), for example
+ * <pre>
+ * mvn -Pdatagen spring-boot:run -Dspring-boot.run.arguments="--url=jdbc:mysql://localhost:3306/musicevent_db --username=root --password=... --scale=0.1"
+ * </pre>
+ * Options (defaults in brackets): --users [2000000], --events [200000],
+ * --bookings [10000000], --scale [1] multiplies all three, --seed [42],
+ * --history-days [730] of bookings, --threads [processors],
+ * --rows-per-insert [1000], --chunk-rows [50000]. Without --url the DB_HOST,
+ * DB_PORT, DB_NAME, DB_USERNAME and DB_PASSWORD variables are used, as in
+ * application.properties. Every generated user's password is
+ * {@value #PASSWORD}.
+ */
+public final class DatasetGenerator {
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+    static final String PASSWORD = "password123";
+    private static final List<String> TABLES = List.of("users", "events", "contracts", "bookings");
+
+    private final Map<String, String> options;
+    private final String url;
+    private final int threads;
+    private final int rowsPerInsert;
+    private final int chunkRows;
+    private final BlockingQueue<Connection> connections;
+    private final ExecutorService workers;
+
+    private DatasetGenerator(Map<String, String> options) {
+        this.options = options;
+        this.url = option("url", "jdbc:mysql://" + System.getenv("DB_HOST") + ":" + System.getenv("DB_PORT")
+                + "/" + System.getenv("DB_NAME"));
+        this.threads = Integer.parseInt(option("threads", Integer.toString(Runtime.getRuntime().availableProcessors())));
+        this.rowsPerInsert = Integer.parseInt(option("rows-per-insert", "1000"));
+        this.chunkRows = Integer.parseInt(option("chunk-rows", "50000"));
+        this.connections = new ArrayBlockingQueue<>(threads);
+        this.workers = Executors.newFixedThreadPool(threads);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        DatasetGenerator generator = new DatasetGenerator(options);
+        try {
+            generator.run();
+        } finally {
+            generator.close();
+        }
+    }
+
+    private void run() throws Exception {
+        double scale = Double.parseDouble(option("scale", "1"));
+        int users = Integer.parseInt(option("users", Long.toString(Math.round(2_000_000 * scale))));
+        int events = Integer.parseInt(option("events", Long.toString(Math.round(200_000 * scale))));
+        long bookings = Long.parseLong(option("bookings", Long.toString(Math.round(10_000_000 * scale))));
+        long seed = Long.parseLong(option("seed", "42"));
+        Duration history = Duration.ofDays(Long.parseLong(option("history-days", "730")));
+        // MySQL allows 65535 placeholders per statement, and events have the most columns
+        if ((long) SyntheticDataset.EVENT_COLUMNS.length * rowsPerInsert > 65_535) {
+            throw new IllegalArgumentException("--rows-per-insert must be at most "
+                    + 65_535 / SyntheticDataset.EVENT_COLUMNS.length);
+        }
+
+        for (int i = 0; i < threads; i++) {
+            connections.add(connect());
+        }
+        checkEmpty();
+
+        long started = System.nanoTime();
+        SyntheticDataset dataset = new SyntheticDataset(seed, users, events, bookings, history, Instant.now(),
+                new BCryptPasswordEncoder().encode(PASSWORD));
+        dataset.setConfirmedTickets(countTickets(dataset, bookings));
+        log.info("Planned {} users, {} events and {} bookings (seed {}) in {} ms", users, events, bookings, seed,
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+
+        load("users", SyntheticDataset.USER_COLUMNS, users, (writer, from, to) -> {
+            Object[] row = new Object[SyntheticDataset.USER_COLUMNS.length];
+            for (long i = from; i < to; i++) {
+                dataset.user((int) i, row);
+                writer.add(row);
+            }
+        });
+        load("events", SyntheticDataset.EVENT_COLUMNS, events, (writer, from, to) -> {
+            Object[] row = new Object[SyntheticDataset.EVENT_COLUMNS.length];
+            for (long i = from; i < to; i++) {
+                dataset.event((int) i, row);
+                writer.add(row);
+            }
+        });
+        load("contracts", SyntheticDataset.CONTRACT_COLUMNS, events, (writer, from, to) -> {
+            Object[][] rows = new Object[3][SyntheticDataset.CONTRACT_COLUMNS.length];
+            for (long i = from; i < to; i++) {
+                int count = dataset.contracts((int) i, rows);
+                for (int k = 0; k < count; k++) {
+                    writer.add(rows[k]);
+                }
+            }
+        });
+        load("bookings", SyntheticDataset.BOOKING_COLUMNS, bookings, (writer, from, to) -> {
+            Object[] row = new Object[SyntheticDataset.BOOKING_COLUMNS.length];
+            for (long i = from; i < to; i++) {
+                dataset.booking(i, row);
+                writer.add(row);
+            }
+        });
+
+        if (isMySql()) {
+            Connection connection = connections.take();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE TABLE " + String.join(", ", TABLES));
+            } finally {
+                connections.add(connection);
+            }
+        }
+        log.info("Dataset loaded in {} s; every user's password is {}",
+                Duration.ofNanos(System.nanoTime() - started).toSeconds(), PASSWORD);
+    }
+
+    // The same draws as the bookings themselves, so events can be sized before they are written
+    private int[] countTickets(SyntheticDataset dataset, long bookings) throws Exception {
+        List<Future<int[]>> parts = new ArrayList<>();
+        long perThread = (bookings + threads - 1) / threads;
+        for (int t = 0; t < threads; t++) {
+            long from = Math.min(bookings, t * perThread);
+            long to = Math.min(bookings, from + perThread);
+            parts.add(workers.submit(() -> {
+                int[] confirmed = new int[dataset.eventCount()];
+                dataset.countTickets(from, to, confirmed);
+                return confirmed;
+            }));
+        }
+        int[] total = new int[dataset.eventCount()];
+        for (Future<int[]> part : parts) {
+            int[] confirmed = part.get();
+            for (int i = 0; i < total.length; i++) {
+                total[i] += confirmed[i];
+            }
+        }
+        return total;
+    }
+
+    private void load(String table, String[] columns, long count, Chunk chunk) throws Exception {
+        long started = System.nanoTime();
+        List<Future<Long>> written = new ArrayList<>();
+        for (long from = 0; from < count; from += chunkRows) {
+            long chunkFrom = from;
+            long chunkTo = Math.min(count, from + chunkRows);
+            written.add(workers.submit(() -> {
+                Connection connection = connections.take();
+                try (RowWriter writer = new RowWriter(connection, table, columns, rowsPerInsert)) {
+                    chunk.write(writer, chunkFrom, chunkTo);
+                    writer.flush();
+                    connection.commit();
+                    return writer.rows;
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connections.add(connection);
+                }
+            }));
+        }
+        long rows = 0;
+        for (Future<Long> part : written) {
+            rows += part.get();
+        }
+        long millis = Math.max(1, Duration.ofNanos(System.nanoTime() - started).toMillis());
+        log.info("Loaded {} {} in {} ms ({} rows/s)", rows, table, millis, rows * 1000 / millis);
+    }
+
+    private void checkEmpty() throws Exception {
+        Connection connection = connections.take();
+        try (Statement statement = connection.createStatement()) {
+            for (String table : TABLES) {
+                try (ResultSet rows = statement.executeQuery("SELECT 1 FROM " + table + " LIMIT 1")) {
+                    if (rows.next()) {
+                        throw new IllegalStateException(table + " is not empty; load into a freshly migrated database");
+                    }
+                }
+            }
+            connection.commit();
+        } finally {
+            connections.add(connection);
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, option("username", System.getenv("DB_USERNAME")),
+                option("password", System.getenv("DB_PASSWORD")));
+        connection.setAutoCommit(false);
+        if (isMySql()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET SESSION foreign_key_checks = 0, unique_checks = 0");
+            }
+        }
+        return connection;
+    }
+
+    private boolean isMySql() {
+        return url.startsWith("jdbc:mysql:");
+    }
+
+    private String option(String name, String fallback) {
+        return options.getOrDefault(name, fallback);
+    }
+
+    private void close() {
+        workers.shutdownNow();
+        for (Connection connection : connections) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.warn("Could not close a connection", e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Chunk {
+        void write(RowWriter writer, long from, long to) throws SQLException;
+    }
+
+    /** Buffers rows into one multi-row INSERT and executes it each time it fills up. */
+    private static final class RowWriter implements AutoCloseable {
+        private final Connection connection;
+        private final String table;
+        private final String[] columns;
+        private final int rowsPerInsert;
+        private final PreparedStatement full;
+        private final Object[][] pending;
+        private int buffered;
+        private long rows;
+
+        RowWriter(Connection connection, String table, String[] columns, int rowsPerInsert) throws SQLException {
+            this.connection = connection;
+            this.table = table;
+            this.columns = columns;
+            this.rowsPerInsert = rowsPerInsert;
+            this.full = connection.prepareStatement(insert(rowsPerInsert));
+            this.pending = new Object[rowsPerInsert][columns.length];
+        }
+
+        void add(Object[] row) throws SQLException {
+            System.arraycopy(row, 0, pending[buffered], 0, columns.length);
+            if (++buffered == rowsPerInsert) {
+                execute(full, buffered);
+            }
+        }
+
+        void flush() throws SQLException {
+            if (buffered == 0) {
+                return;
+            }
+            try (PreparedStatement partial = connection.prepareStatement(insert(buffered))) {
+                execute(partial, buffered);
+            }
+        }
+
+        private void execute(PreparedStatement statement, int count) throws SQLException {
+            int parameter = 1;
+            for (int r = 0; r < count; r++) {
+                for (Object value : pending[r]) {
+                    statement.setObject(parameter++, value);
+                }
+            }
+            statement.executeUpdate();
+            rows += count;
+            buffered = 0;
+        }
+
+        private String insert(int count) {
+            String values = "(" + "?, ".repeat(columns.length - 1) + "?)";
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                    .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+            for (int r = 0; r < count; r++) {
+                sql.append(r == 0 ? "" : ", ").append(values);
+            }
+            return sql.toString();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            full.close();
+        }
+    }
+}
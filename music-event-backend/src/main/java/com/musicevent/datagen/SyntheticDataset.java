@@ -0,0 +1,541 @@
+package com.musicevent.datagen;
+
+import com.musicevent.id.TimeOrderedIdAllocator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * The rows of a synthetic dataset. Every row is a pure function of the seed
+ * and its index, so a dataset is reproducible whatever the thread count or
+ * chunking, and any table can be regenerated on its own.
+ * <p>
+ * Ids are time-ordered ids (see {@link TimeOrderedIdAllocator}) spread evenly
+ * over each table's history and ending before now, and each row's timestamp
+ * is the one its id encodes, so ids sort by creation time as on a live node.
+ * Users sign up from up to a year before the first booking, events go on sale
+ * 60 to 240 days before their date, and a booking picks an event whose date is
+ * 1 to 59 days away, weighted by a Pareto-distributed popularity, and a user
+ * who had signed up by then. Events are sized so available_tickets is exactly
+ * total_tickets minus their CONFIRMED tickets, as InventoryReconciliationJob
+ * expects.
+ */
+final class SyntheticDataset {
+    static final String[] CATEGORIES = {"Rock", "Jazz", "EDM", "Classical", "Pop", "Hip-Hop", "Acoustic"};
+    private static final String[] EMOJIS = {"🎸", "🎷", "🎧", "🎻", "🎤", "🎙️", "🪕"};
+    private static final double[] CATEGORY_WEIGHTS = {0.18, 0.10, 0.20, 0.07, 0.25, 0.12, 0.08};
+    private static final String[][] CITIES = {
+        {"Mumbai", "19.0760", "72.8777"}, {"Delhi", "28.6139", "77.2090"}, {"Bengaluru", "12.9716", "77.5946"},
+        {"Chennai", "13.0827", "80.2707"}, {"Hyderabad", "17.3850", "78.4867"}, {"Kolkata", "22.5726", "88.3639"},
+        {"Pune", "18.5204", "73.8567"}, {"Ahmedabad", "23.0225", "72.5714"}, {"Jaipur", "26.9124", "75.7873"},
+        {"Goa", "15.2993", "74.1240"}, {"Kochi", "9.9312", "76.2673"}, {"Chandigarh", "30.7333", "76.7794"},
+        {"Lucknow", "26.8467", "80.9462"}, {"Shillong", "25.5788", "91.8933"}, {"Indore", "22.7196", "75.8577"},
+        {"Coimbatore", "11.0168", "76.9558"}
+    };
+    // Bigger cities host more of the events
+    private static final double[] CITY_WEIGHTS = {
+        0.16, 0.15, 0.14, 0.09, 0.09, 0.08, 0.07, 0.04, 0.04, 0.04, 0.02, 0.02, 0.02, 0.01, 0.02, 0.01
+    };
+    private static final String[] VENUES = {
+        "Arena", "Amphitheatre", "Club", "Music Hall", "Open Grounds", "Auditorium", "Social", "Lounge", "Stadium",
+        "Convention Centre"
+    };
+    private static final String[] FIRST_NAMES = {
+        "Aarav", "Vivaan", "Aditya", "Arjun", "Sai", "Reyansh", "Krishna", "Ishaan", "Rohan", "Kabir", "Ananya",
+        "Diya", "Aadhya", "Saanvi", "Myra", "Ira", "Meera", "Kavya", "Priya", "Nisha", "Rahul", "Vikram", "Neha",
+        "Pooja", "Sneha", "Karan", "Dev", "Tara", "Zoya", "Farhan", "Noah", "Liam", "Emma", "Olivia", "Maya",
+        "Leo", "Sara", "Ravi", "Lakshmi", "Arun"
+    };
+    private static final String[] LAST_NAMES = {
+        "Sharma", "Verma", "Iyer", "Reddy", "Nair", "Menon", "Gupta", "Patel", "Shah", "Mehta", "Rao", "Das",
+        "Bose", "Chatterjee", "Singh", "Kapoor", "Khan", "Fernandes", "D'Souza", "Pillai", "Joshi", "Kulkarni",
+        "Banerjee", "Mukherjee", "Agarwal", "Bhat", "Naidu", "Thomas", "Gill", "Sethi"
+    };
+    private static final String[] ORGANIZER_TYPES = {
+        "Concert Promoter", "Festival Organizer", "Venue Owner", "Event Agency", "Club Promoter"
+    };
+    private static final String[] EVENT_THEMES = {
+        "Live", "Unplugged", "Night", "Sessions", "Tour", "Festival", "Showcase", "Sundowner"
+    };
+    private static final LocalTime[] START_TIMES = {
+        LocalTime.of(17, 0), LocalTime.of(18, 0), LocalTime.of(18, 30), LocalTime.of(19, 0), LocalTime.of(19, 0),
+        LocalTime.of(19, 30), LocalTime.of(20, 0), LocalTime.of(20, 0), LocalTime.of(21, 0), LocalTime.of(22, 0)
+    };
+    private static final int[] TICKET_COUNTS = {1, 1, 1, 1, 2, 2, 2, 2, 2, 2, 3, 3, 4, 4, 5, 6};
+    private static final double ORGANIZER_SHARE = 0.02;
+    private static final double MUSICIAN_SHARE = 0.05;
+    // Bookings are for events 1 to SALE_WINDOW_DAYS - 1 days away; events go on sale up to MAX_LEAD_DAYS ahead
+    private static final long SALE_WINDOW_DAYS = 60;
+    private static final long MAX_LEAD_DAYS = 240;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final long seed;
+    private final String passwordHash;
+    private final IdRange userIds;
+    private final IdRange eventIds;
+    private final IdRange bookingIds;
+    // Users by index are in sign-up order, so "users who had signed up by t" is a prefix
+    private final int[] organizers;
+    private final int[] musicians;
+    // Event indexes sorted by date, with their dates and cumulative popularity in the same order
+    private final int[] eventsByDate;
+    private final long[] sortedEventDays;
+    private final double[] cumulativePopularity;
+    private final long[] eventDays;
+    private final boolean[] eventCancelled;
+    private final double[] popularity;
+    // CONFIRMED tickets per event, filled in by countTickets before events are written
+    private int[] confirmedTickets;
+
+    SyntheticDataset(long seed, int users, int events, long bookings, Duration history, Instant now,
+                     String passwordHash) {
+        this.seed = seed;
+        this.passwordHash = passwordHash;
+        Instant end = now.minus(Duration.ofHours(1));
+        Instant bookingsFrom = now.minus(history);
+        // Time-ordered ids start at their epoch, and the first bookings need events already on sale
+        Instant earliest = TimeOrderedIdAllocator.EPOCH.plus(Duration.ofDays(MAX_LEAD_DAYS));
+        if (bookingsFrom.isBefore(earliest)) {
+            throw new IllegalArgumentException("--history-days can be at most "
+                    + Duration.between(earliest, now).toDays() + " (ids start at " + TimeOrderedIdAllocator.EPOCH + ")");
+        }
+        this.userIds = new IdRange(max(TimeOrderedIdAllocator.EPOCH.plus(Duration.ofDays(1)),
+                bookingsFrom.minus(Duration.ofDays(365))), end, users);
+        this.eventIds = new IdRange(bookingsFrom.minus(Duration.ofDays(MAX_LEAD_DAYS)), end, events);
+        this.bookingIds = new IdRange(bookingsFrom, end, bookings);
+        if (eventIds.stride < 4) {
+            throw new IllegalArgumentException("Too many events for the history; raise --history-days");
+        }
+
+        int[] organizerBuffer = new int[users];
+        int[] musicianBuffer = new int[users];
+        int organizerCount = 0;
+        int musicianCount = 0;
+        for (int i = 0; i < users; i++) {
+            switch (role(i)) {
+                case "ORGANIZER" -> organizerBuffer[organizerCount++] = i;
+                case "MUSICIAN" -> musicianBuffer[musicianCount++] = i;
+                default -> {
+                }
+            }
+        }
+        if (organizerCount == 0 || musicianCount == 0) {
+            throw new IllegalArgumentException("Too few users to have organizers and musicians; raise --users");
+        }
+        this.organizers = Arrays.copyOf(organizerBuffer, organizerCount);
+        this.musicians = Arrays.copyOf(musicianBuffer, musicianCount);
+
+        this.eventDays = new long[events];
+        this.eventCancelled = new boolean[events];
+        this.popularity = new double[events];
+        Integer[] order = new Integer[events];
+        for (int i = 0; i < events; i++) {
+            SplittableRandom random = random(Table.EVENTS, i);
+            eventDays[i] = eventDate(i, random).toEpochDay();
+            eventCancelled[i] = random.nextDouble() < 0.03;
+            // Pareto with alpha 1.16: roughly 80% of bookings go to the top 20% of events
+            popularity[i] = Math.min(10_000, Math.pow(1 - random.nextDouble(), -1 / 1.16));
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(eventDays[a], eventDays[b]));
+        this.eventsByDate = new int[events];
+        this.sortedEventDays = new long[events];
+        this.cumulativePopularity = new double[events + 1];
+        for (int k = 0; k < events; k++) {
+            eventsByDate[k] = order[k];
+            sortedEventDays[k] = eventDays[order[k]];
+            cumulativePopularity[k + 1] = cumulativePopularity[k] + popularity[order[k]];
+        }
+    }
+
+    enum Table {
+        USERS, EVENTS, CONTRACTS, BOOKINGS
+    }
+
+    // =======================
+    // USERS
+    // =======================
+    static final String[] USER_COLUMNS = {"id", "name", "email", "password", "role", "profile", "created_at"};
+
+    void user(int i, Object[] row) {
+        SplittableRandom random = random(Table.USERS, i);
+        long id = userIds.id(i);
+        String role = role(i);
+        String name = name(i);
+        row[0] = id;
+        row[1] = name;
+        row[2] = email(i, name);
+        row[3] = passwordHash;
+        row[4] = role;
+        row[5] = switch (role) {
+            case "MUSICIAN" -> musicianProfile(random);
+            case "ORGANIZER" -> organizerProfile(random, email(i, name));
+            default -> null;
+        };
+        row[6] = localTime(id);
+    }
+
+    // =======================
+    // EVENTS
+    // =======================
+    static final String[] EVENT_COLUMNS = {
+        "id", "name", "description", "location", "latitude", "longitude", "date", "time", "duration_minutes",
+        "price", "category", "emoji", "total_tickets", "available_tickets", "status", "organizer_id",
+        "organizer_name", "musician_id", "musician_name", "created_at"
+    };
+
+    void event(int i, Object[] row) {
+        SplittableRandom random = random(Table.EVENTS, i);
+        LocalDate date = eventDate(i, random);
+        random.nextDouble(); // cancelled, drawn in the constructor
+        random.nextDouble(); // popularity
+        long id = eventIds.id(i);
+        LocalDateTime createdAt = localTime(id);
+        int category = pick(random, CATEGORY_WEIGHTS);
+        int city = pick(random, CITY_WEIGHTS);
+        int organizer = organizerAt(createdAt, random);
+        Integer musician = random.nextDouble() < 0.7 ? musicianAt(createdAt, random) : null;
+        String venue = CITIES[city][0] + " " + VENUES[random.nextInt(VENUES.length)];
+        int confirmed = confirmedTickets[i];
+        int capacity = 100 * (1 + random.nextInt(50));
+        int total;
+        if (confirmed == 0) {
+            total = capacity;
+        } else if (random.nextDouble() < 0.15) {
+            total = confirmed; // sold out
+        } else {
+            total = Math.max(capacity, (int) Math.ceil(confirmed * (1.05 + random.nextDouble())));
+        }
+
+        row[0] = id;
+        row[1] = eventName(random, musician, category, city);
+        row[2] = "An evening of " + CATEGORIES[category].toLowerCase(Locale.ROOT) + " at " + venue + ".";
+        row[3] = venue + ", " + CITIES[city][0];
+        row[4] = jitter(Double.parseDouble(CITIES[city][1]), random);
+        row[5] = jitter(Double.parseDouble(CITIES[city][2]), random);
+        row[6] = date;
+        row[7] = START_TIMES[random.nextInt(START_TIMES.length)];
+        row[8] = random.nextDouble() < 0.4 ? null : 90 + 30 * random.nextInt(6);
+        row[9] = (double) (299 + 100 * random.nextInt(Math.max(1, (int) (Math.log1p(popularity[i]) * 4) + 5)));
+        row[10] = CATEGORIES[category];
+        row[11] = EMOJIS[category];
+        row[12] = total;
+        row[13] = eventCancelled[i] ? total : total - confirmed;
+        row[14] = eventCancelled[i] ? "CANCELLED"
+                : date.isBefore(LocalDate.now(ZONE)) ? "COMPLETED" : "UPCOMING";
+        row[15] = userIds.id(organizer);
+        row[16] = name(organizer);
+        row[17] = musician != null ? userIds.id(musician) : null;
+        row[18] = musician != null ? name(musician) : null;
+        row[19] = createdAt;
+    }
+
+    // =======================
+    // CONTRACTS
+    // =======================
+    static final String[] CONTRACT_COLUMNS = {
+        "id", "organizer_id", "organizer_name", "artist_id", "artist_name", "event_id", "event_name", "venue",
+        "event_date", "event_time", "duration_minutes", "event_description", "payment_amount", "notes", "status",
+        "created_at", "updated_at", "version"
+    };
+
+    /**
+     * The negotiation behind event i: an ACCEPTED contract for its musician if
+     * it has one, preceded by up to two turned-down offers to other artists,
+     * and a PENDING (or, once the date has passed, EXPIRED) offer for an event
+     * still without one. Fills rows and returns how many.
+     */
+    int contracts(int i, Object[][] rows) {
+        Object[] event = new Object[EVENT_COLUMNS.length];
+        event(i, event);
+        SplittableRandom random = random(Table.CONTRACTS, i);
+        long eventId = (Long) event[0];
+        LocalDateTime createdAt = (LocalDateTime) event[19];
+        LocalDate date = (LocalDate) event[6];
+        boolean past = date.isBefore(LocalDate.now(ZONE));
+        int count = 0;
+        int declined = random.nextDouble() < 0.4 ? 1 + random.nextInt(2) : 0;
+        for (int k = 0; k < declined; k++) {
+            int artist = musicianAt(createdAt, random);
+            contract(rows[count], eventId + 1 + count, event, artist, null, random,
+                    random.nextBoolean() ? "REJECTED" : "EXPIRED", createdAt);
+            count++;
+        }
+        if (event[17] != null) {
+            contract(rows[count], eventId + 1 + count, event, -1, eventId, random, "ACCEPTED", createdAt);
+            count++;
+        } else if (!"CANCELLED".equals(event[14]) && random.nextDouble() < 0.5) {
+            int artist = musicianAt(createdAt, random);
+            contract(rows[count], eventId + 1 + count, event, artist, null, random,
+                    past ? "EXPIRED" : "PENDING", createdAt);
+            count++;
+        }
+        return count;
+    }
+
+    private void contract(Object[] row, long id, Object[] event, int artist, Long eventId, SplittableRandom random,
+                          String status, LocalDateTime eventCreatedAt) {
+        row[0] = id;
+        row[1] = event[15];
+        row[2] = event[16];
+        row[3] = artist < 0 ? event[17] : userIds.id(artist);
+        row[4] = artist < 0 ? event[18] : name(artist);
+        row[5] = eventId;
+        row[6] = event[1];
+        row[7] = event[3];
+        row[8] = event[6];
+        row[9] = event[7];
+        row[10] = event[8];
+        row[11] = event[2];
+        row[12] = (double) (5_000 + 1_000 * random.nextInt(200));
+        row[13] = random.nextDouble() < 0.3 ? "Sound check two hours before doors." : null;
+        row[14] = status;
+        row[15] = localTime(id);
+        row[16] = "PENDING".equals(status) ? null : eventCreatedAt.plusHours(1 + random.nextInt(72));
+        row[17] = "PENDING".equals(status) ? 0L : 1L;
+    }
+
+    // =======================
+    // BOOKINGS
+    // =======================
+    static final String[] BOOKING_COLUMNS = {
+        "id", "user_id", "user_name", "event_id", "tickets", "qr_code", "status", "booking_date"
+    };
+
+    void booking(long i, Object[] row) {
+        SplittableRandom random = random(Table.BOOKINGS, i);
+        long id = bookingIds.id(i);
+        int event = bookingEvent(id, random);
+        int tickets = TICKET_COUNTS[random.nextInt(TICKET_COUNTS.length)];
+        String status = bookingStatus(event, random);
+        int user = random.nextInt(Math.max(1, userIds.countBefore(id)));
+        row[0] = id;
+        row[1] = userIds.id(user);
+        row[2] = name(user);
+        row[3] = eventIds.id(event);
+        row[4] = tickets;
+        row[5] = "QR-" + Long.toString(id, 36).toUpperCase(Locale.ROOT);
+        row[6] = status;
+        row[7] = localTime(id);
+    }
+
+    /** Draws the same event, tickets and status as booking(i) and adds up CONFIRMED tickets per event. */
+    void countTickets(long from, long to, int[] confirmed) {
+        for (long i = from; i < to; i++) {
+            SplittableRandom random = random(Table.BOOKINGS, i);
+            int event = bookingEvent(bookingIds.id(i), random);
+            int tickets = TICKET_COUNTS[random.nextInt(TICKET_COUNTS.length)];
+            if ("CONFIRMED".equals(bookingStatus(event, random))) {
+                confirmed[event] += tickets;
+            }
+        }
+    }
+
+    void setConfirmedTickets(int[] confirmed) {
+        this.confirmedTickets = confirmed;
+    }
+
+    int eventCount() {
+        return eventDays.length;
+    }
+
+    private int bookingEvent(long bookingId, SplittableRandom random) {
+        long day = LocalDate.ofInstant(TimeOrderedIdAllocator.timestampOf(bookingId), ZONE).toEpochDay();
+        int lo = lowerBound(sortedEventDays, day + 1);
+        // Dates up to SALE_WINDOW_DAYS - 1 days away, so the event went on sale on an earlier day
+        int hi = lowerBound(sortedEventDays, day + SALE_WINDOW_DAYS);
+        if (lo >= hi) {
+            lo = Math.min(lo, eventsByDate.length - 1);
+            hi = lo + 1;
+        }
+        double target = cumulativePopularity[lo]
+                + random.nextDouble() * (cumulativePopularity[hi] - cumulativePopularity[lo]);
+        int k = Arrays.binarySearch(cumulativePopularity, lo, hi + 1, target);
+        k = k >= 0 ? k : -k - 2;
+        return eventsByDate[Math.max(lo, Math.min(hi - 1, k))];
+    }
+
+    private String bookingStatus(int event, SplittableRandom random) {
+        double r = random.nextDouble();
+        if (eventCancelled[event]) {
+            return "REFUNDED";
+        }
+        return r < 0.04 ? "CANCELLED" : "CONFIRMED";
+    }
+
+    // =======================
+    // SHARED
+    // =======================
+    private String role(int i) {
+        double r = unit(mix(seed ^ 0x5851f42d4c957f2dL, i));
+        return r < ORGANIZER_SHARE ? "ORGANIZER" : r < ORGANIZER_SHARE + MUSICIAN_SHARE ? "MUSICIAN" : "USER";
+    }
+
+    private String name(int i) {
+        long h = mix(seed ^ 0x2545f4914f6cdd1dL, i);
+        return FIRST_NAMES[(int) Long.remainderUnsigned(h, FIRST_NAMES.length)] + " "
+                + LAST_NAMES[(int) Long.remainderUnsigned(h >>> 20, LAST_NAMES.length)];
+    }
+
+    private static String email(int i, String name) {
+        return name.toLowerCase(Locale.ROOT).replaceAll("[^a-z]+", ".") + "." + i + "@example.com";
+    }
+
+    private LocalDate eventDate(int i, SplittableRandom random) {
+        LocalDate created = localTime(eventIds.id(i)).toLocalDate();
+        return created.plusDays(SALE_WINDOW_DAYS + random.nextInt((int) (MAX_LEAD_DAYS - SALE_WINDOW_DAYS) + 1));
+    }
+
+
+    private int organizerAt(LocalDateTime at, SplittableRandom random) {
+        return prefixPick(organizers, userIds.countBefore(idAt(at)), random);
+    }
+
+    private int musicianAt(LocalDateTime at, SplittableRandom random) {
+        return prefixPick(musicians, userIds.countBefore(idAt(at)), random);
+    }
+
+    // One of the users with an index below limit, or the first if there are none yet
+    private static int prefixPick(int[] users, int limit, SplittableRandom random) {
+        int available = lowerBound(users, limit);
+        return users[available == 0 ? 0 : random.nextInt(available)];
+    }
+
+    private String eventName(SplittableRandom random, Integer musician, int category, int city) {
+        String theme = EVENT_THEMES[random.nextInt(EVENT_THEMES.length)];
+        return musician != null
+                ? name(musician) + " " + theme + " in " + CITIES[city][0]
+                : CATEGORIES[category] + " " + theme + " " + CITIES[city][0];
+    }
+
+    private static String musicianProfile(SplittableRandom random) {
+        int genre = random.nextInt(CATEGORIES.length);
+        return "{\"genre\":\"" + CATEGORIES[genre] + "\",\"location\":\"" + CITIES[random.nextInt(CITIES.length)][0]
+                + "\",\"phone\":\"" + phone(random) + "\",\"bio\":\"" + CATEGORIES[genre]
+                + " act playing clubs and festivals.\",\"price\":" + (10_000 + 5_000 * random.nextInt(40))
+                + ",\"rating\":" + (35 + random.nextInt(16)) / 10.0 + ",\"upcomingShows\":" + random.nextInt(12) + "}";
+    }
+
+    private static String organizerProfile(SplittableRandom random, String email) {
+        String a = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        String b = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        return "{\"type\":\"" + ORGANIZER_TYPES[random.nextInt(ORGANIZER_TYPES.length)] + "\",\"location\":\""
+                + CITIES[random.nextInt(CITIES.length)][0] + "\",\"phone\":\"" + phone(random)
+                + "\",\"contact\":\"" + email + "\",\"website\":\"\",\"bio\":\"Live music events since "
+                + (2005 + random.nextInt(18)) + ".\",\"specialties\":[\"" + a + "\",\"" + b
+                + "\"],\"eventsOrganized\":" + random.nextInt(300) + ",\"totalAttendees\":\""
+                + 1_000 * random.nextInt(500) + "\",\"rating\":" + (35 + random.nextInt(16)) / 10.0 + "}";
+    }
+
+    private static String phone(SplittableRandom random) {
+        return "+91 9" + (100_000_000 + random.nextInt(900_000_000));
+    }
+
+    private static double jitter(double degrees, SplittableRandom random) {
+        return Math.round((degrees + (random.nextDouble() - 0.5) * 0.2) * 1e6) / 1e6;
+    }
+
+    private static int pick(SplittableRandom random, double[] weights) {
+        double r = random.nextDouble();
+        for (int k = 0; k < weights.length - 1; k++) {
+            r -= weights[k];
+            if (r < 0) {
+                return k;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private SplittableRandom random(Table table, long i) {
+        return new SplittableRandom(mix(seed + 0x9e3779b97f4a7c15L * (table.ordinal() + 1), i));
+    }
+
+    private static LocalDateTime localTime(long id) {
+        return LocalDateTime.ofInstant(TimeOrderedIdAllocator.timestampOf(id), ZONE);
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static long idAt(LocalDateTime at) {
+        return TimeOrderedIdAllocator.floor(at.atZone(ZONE).toInstant());
+    }
+
+    private static long mix(long seed, long i) {
+        long h = seed ^ (i * 0xbf58476d1ce4e5b9L);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static double unit(long h) {
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    private static int lowerBound(long[] sorted, long key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int lowerBound(int[] sorted, int key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** Count ids spread evenly between two instants, the first at from. */
+    private static final class IdRange {
+        private final long first;
+        private final long stride;
+        private final long count;
+
+        IdRange(Instant from, Instant to, long count) {
+            this.first = TimeOrderedIdAllocator.floor(from);
+            this.stride = (TimeOrderedIdAllocator.floor(to) - first) / Math.max(1, count);
+            this.count = count;
+            if (stride < 1) {
+                throw new IllegalArgumentException("Too many rows for the history; raise --history-days");
+            }
+        }
+
+        long id(long i) {
+            return first + i * stride;
+        }
+
+        // How many of these ids were handed out at or before the given id's time
+        int countBefore(long id) {
+            if (id < first) {
+                return 0;
+            }
+            return (int) Math.min(count, (id - first) / stride + 1);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.musicevent.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.musicevent.schedule.ScheduleTimes;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Optional details for the event created when a contract is accepted. Anything
+ * left null falls back to the contract or the configured defaults.
+ */
+@Data
+public class AcceptContractRequest {
+    // Contract version the client last saw; a mismatch is rejected as a conflict
+    private Long version;
+    
+    private String name;
+    
+    private String location;
+    
+    // Optional venue coordinates (WGS84 degrees) for the geo search
+    private Double latitude;
+    
+    private Double longitude;
+    
+    // ISO yyyy-MM-dd, like Contract.eventDate
+    private LocalDate date;
+    
+    // "7:00 PM" or "19:00", like Contract.eventTime
+    @JsonDeserialize(using = ScheduleTimes.Deserializer.class)
+    private LocalTime time;
+    
+    private Integer durationMinutes;
+    
+    private Double price;
+    
+    private String category;
+    
+    private Integer totalTickets;
+    
+    private String emoji;
+    
+    private String description;
+}
@@ -14,6 +14,7 @@ public class AuthResponse {
     private String email;
     private String role;
     private String profile;
+    private String refreshToken;
 }
 
 
@@ -0,0 +1,64 @@
+package com.musicevent.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * One line of a bulk event import (NDJSON object or CSV row with a header).
+ * Organizer and status are not part of the row; they come from the caller.
+ */
+@Data
+public class EventImportRow {
+    @NotBlank(message = "name is required")
+    @Size(max = 255, message = "name is too long")
+    private String name;
+    
+    private String description;
+    
+    @NotBlank(message = "location is required")
+    @Size(max = 255, message = "location is too long")
+    private String location;
+    
+    @DecimalMin(value = "-90", message = "latitude must be between -90 and 90")
+    @DecimalMax(value = "90", message = "latitude must be between -90 and 90")
+    private Double latitude;
+    
+    @DecimalMin(value = "-180", message = "longitude must be between -180 and 180")
+    @DecimalMax(value = "180", message = "longitude must be between -180 and 180")
+    private Double longitude;
+    
+    @NotBlank(message = "date is required")
+    @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "date must be yyyy-MM-dd")
+    private String date;
+    
+    // "7:00 PM" or "19:00"; checked by EventImportService
+    @NotBlank(message = "time is required")
+    private String time;
+    
+    @Positive(message = "durationMinutes must be positive")
+    private Integer durationMinutes;
+    
+    @NotNull(message = "price is required")
+    @PositiveOrZero(message = "price must not be negative")
+    private Double price;
+    
+    @NotBlank(message = "category is required")
+    private String category;
+    
+    private String emoji;
+    
+    @NotNull(message = "totalTickets is required")
+    @Positive(message = "totalTickets must be positive")
+    private Integer totalTickets;
+    
+    private Long musicianId;
+    
+    private String musicianName;
+}
@@ -0,0 +1,10 @@
+package com.musicevent.dto;
+
+import com.musicevent.entity.Event;
+
+/**
+ * An event returned by the "near me" search with its great-circle distance
+ * from the search point, rounded to 10 m.
+ */
+public record NearbyEvent(Event event, double distanceKm) {
+}
@@ -0,0 +1,38 @@
+package com.musicevent.dto;
+
+import com.musicevent.cache.UserIdentity;
+import com.musicevent.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Public view of a user, as returned by /api/users. Never carries the password.
+ */
+public record UserProfile(
+        Long id,
+        String name,
+        String email,
+        String role,
+        String profile,
+        LocalDateTime createdAt) {
+    
+    public static UserProfile of(UserIdentity identity) {
+        return new UserProfile(
+                identity.id(),
+                identity.name(),
+                identity.email(),
+                identity.role().name(),
+                identity.profile(),
+                identity.createdAt());
+    }
+    
+    public static UserProfile of(User user) {
+        return new UserProfile(
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                user.getRole().name(),
+                user.getProfile(),
+                user.getCreatedAt());
+    }
+}
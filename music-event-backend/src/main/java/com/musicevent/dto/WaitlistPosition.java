@@ -0,0 +1,10 @@
+package com.musicevent.dto;
+
+import com.musicevent.entity.WaitlistEntry;
+
+/**
+ * One of the user's waitlist entries with its place in the event's queue:
+ * how many entries, and how many tickets, are ahead of it.
+ */
+public record WaitlistPosition(WaitlistEntry entry, int entriesAhead, int ticketsAhead) {
+}
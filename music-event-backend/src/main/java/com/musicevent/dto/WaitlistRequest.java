@@ -0,0 +1,8 @@
+package com.musicevent.dto;
+
+import lombok.Data;
+
+@Data
+public class WaitlistRequest {
+    private Integer tickets;
+}
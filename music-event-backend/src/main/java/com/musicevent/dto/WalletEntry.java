@@ -0,0 +1,29 @@
+package com.musicevent.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.musicevent.entity.Booking;
+import com.musicevent.entity.Event;
+import com.musicevent.schedule.ScheduleTimes;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A booking in the user's wallet with the event fields a ticket shows, read
+ * in one join (BookingRepository.findUpcomingWallet / findPastWallet).
+ */
+public record WalletEntry(Long bookingId,
+                          Integer tickets,
+                          String qrCode,
+                          Booking.BookingStatus status,
+                          LocalDateTime bookingDate,
+                          Long eventId,
+                          String eventName,
+                          String emoji,
+                          LocalDate date,
+                          @JsonSerialize(using = ScheduleTimes.Serializer.class) LocalTime time,
+                          String location,
+                          Double price,
+                          Event.EventStatus eventStatus) {
+}
@@ -0,0 +1,11 @@
+package com.musicevent.dto;
+
+import java.util.List;
+
+/**
+ * One page of the wallet's upcoming (soonest first) or past (latest first)
+ * side. hasMore says whether the next page has anything; counts are in
+ * WalletSummary.
+ */
+public record WalletPage(String section, int page, int size, boolean hasMore, List<WalletEntry> items) {
+}
@@ -0,0 +1,8 @@
+package com.musicevent.dto;
+
+/**
+ * The user's booking counts on each side of today and what they have spent
+ * (event price times tickets), for the wallet header.
+ */
+public record WalletSummary(Long upcoming, Long past, Double totalSpent) {
+}
@@ -0,0 +1,34 @@
+package com.musicevent.entity;
+
+import com.musicevent.changelog.ChangeType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Rows are inserted by ChangeLogService with plain JDBC; the entity is for reading them back
+@Entity
+@Table(name = "change_log")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 32)
+    @Enumerated(EnumType.STRING)
+    private ChangeType changeType;
+    
+    @Column(nullable = false)
+    private Long entityId;
+    
+    // JobLockService owner of the node that made the change
+    @Column(nullable = false, length = 128)
+    private String origin;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,10 +1,16 @@
 package com.musicevent.entity;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.musicevent.id.TimeOrderedId;
+import com.musicevent.schedule.ScheduleTimes;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
 @Entity
 @Table(name = "contracts")
@@ -13,7 +19,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Contract {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
     
     @Column(nullable = false)
@@ -36,9 +42,15 @@ public class Contract {
     
     private String venue;
     
-    private String eventDate;
+    private LocalDate eventDate;
     
-    private String eventTime;
+    // "7:00 PM" on the wire, like Event.time
+    @JsonSerialize(using = ScheduleTimes.Serializer.class)
+    @JsonDeserialize(using = ScheduleTimes.Deserializer.class)
+    private LocalTime eventTime;
+    
+    // Null means app.schedule.default-duration-minutes
+    private Integer durationMinutes;
     
     @Column(columnDefinition = "TEXT")
     private String eventDescription;
@@ -58,6 +70,9 @@ public class Contract {
     
     private LocalDateTime updatedAt;
     
+    @Version
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -72,7 +87,7 @@ public class Contract {
     }
     
     public enum ContractStatus {
-        PENDING, ACCEPTED, REJECTED
+        PENDING, ACCEPTED, REJECTED, EXPIRED
     }
 }
 
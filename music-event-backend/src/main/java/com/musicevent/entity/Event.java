@@ -1,11 +1,16 @@
 package com.musicevent.entity;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.musicevent.id.TimeOrderedId;
+import com.musicevent.schedule.ScheduleTimes;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
 @Entity
 @Table(name = "events")
@@ -14,7 +19,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Event {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
     
     @Column(nullable = false)
@@ -26,11 +31,22 @@ public class Event {
     @Column(nullable = false)
     private String location;
     
+    // WGS84 degrees; optional, but only events with both are found by the geo search
+    private Double latitude;
+    
+    private Double longitude;
+    
     @Column(nullable = false)
     private LocalDate date;
     
+    // Start time; serialized as "7:00 PM" as it was when the column was free text
     @Column(nullable = false)
-    private String time;
+    @JsonSerialize(using = ScheduleTimes.Serializer.class)
+    @JsonDeserialize(using = ScheduleTimes.Deserializer.class)
+    private LocalTime time;
+    
+    // Null means app.schedule.default-duration-minutes
+    private Integer durationMinutes;
     
     @Column(nullable = false)
     private Double price;
@@ -0,0 +1,27 @@
+package com.musicevent.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "job_locks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLock {
+    @Id
+    @Column(length = 64)
+    private String name;
+    
+    @Column(nullable = false)
+    private LocalDateTime lockedUntil;
+    
+    @Column(nullable = false)
+    private LocalDateTime lockedAt;
+    
+    @Column(nullable = false)
+    private String lockedBy;
+}
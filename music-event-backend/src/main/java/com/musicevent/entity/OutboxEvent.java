@@ -0,0 +1,67 @@
+package com.musicevent.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 32)
+    private String aggregateType;
+    
+    @Column(nullable = false)
+    private Long aggregateId;
+    
+    @Column(nullable = false, length = 64)
+    private String eventType;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private OutboxStatus status;
+    
+    @Column(nullable = false)
+    private Integer attempts;
+    
+    @Column(length = 512)
+    private String lastError;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime dispatchedAt;
+    
+    // Not dispatched before this (retry backoff)
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+        if (status == null) {
+            status = OutboxStatus.PENDING;
+        }
+        if (attempts == null) {
+            attempts = 0;
+        }
+    }
+    
+    public enum OutboxStatus {
+        PENDING, DISPATCHED, FAILED
+    }
+}
@@ -0,0 +1,43 @@
+package com.musicevent.entity;
+
+import com.musicevent.id.TimeOrderedId;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// The token itself is only ever handed to the client; the row keeps its SHA-256
+@Entity
+@Table(name = "refresh_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+    @Id
+    @TimeOrderedId
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long userId;
+    
+    // Id shared by every token rotated from the same login
+    @Column(nullable = false)
+    private Long familyId;
+    
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime revokedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -1,5 +1,7 @@
 package com.musicevent.entity;
 
+import com.musicevent.cache.UserCacheInvalidator;
+import com.musicevent.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,12 +10,13 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheInvalidator.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
     
     @Column(nullable = false)
@@ -41,7 +44,7 @@ public class User {
     }
     
     public enum Role {
-        USER, ORGANIZER, MUSICIAN
+        USER, ORGANIZER, MUSICIAN, ADMIN
     }
 }
 
@@ -0,0 +1,56 @@
+package com.musicevent.entity;
+
+import com.musicevent.id.TimeOrderedId;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Time-ordered ids make id order the order people joined the waitlist in
+@Entity
+@Table(name = "waitlist_entries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+    @Id
+    @TimeOrderedId
+    private Long id;
+
+    @Column(nullable = false)
+    private Long eventId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String userName;
+
+    @Column(nullable = false)
+    private Integer tickets;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private WaitlistStatus status;
+
+    // The booking an ALLOCATED entry was turned into
+    private Long bookingId;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime resolvedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = WaitlistStatus.WAITING;
+        }
+    }
+
+    public enum WaitlistStatus {
+        WAITING, ALLOCATED, CANCELLED
+    }
+}
@@ -0,0 +1,156 @@
+package com.musicevent.geo;
+
+import com.musicevent.entity.Event;
+import com.musicevent.repository.EventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory spatial index of upcoming events that have coordinates. Loaded
+ * before the instance reports ready (runs ahead of StartupWarmup), kept in
+ * step with this node's writes through EventLocationChanged after commit, and
+ * rebuilt on app.geo.events.refresh-cron to pick up other nodes' writes and
+ * drop events whose date has passed. Queries only touch the grid.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class EventGeoIndex implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(EventGeoIndex.class);
+
+    private final EventRepository eventRepository;
+    private final TransactionTemplate readTransaction;
+    private final double cellDegrees;
+    // Category strings are shared between entries instead of one copy per event
+    private final Map<String, String> categories = new ConcurrentHashMap<>();
+    private volatile GeoGrid grid;
+    // Changes committed while a rebuild is loading; replayed onto the new grid before the swap
+    private List<EventLocationChanged> duringRebuild;
+
+    @Value("${app.geo.events.load-page-size:10000}")
+    private int loadPageSize;
+
+    public EventGeoIndex(EventRepository eventRepository,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.geo.events.cell-degrees:0.05}") double cellDegrees) {
+        this.eventRepository = eventRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.cellDegrees = cellDegrees;
+        this.grid = new GeoGrid(cellDegrees);
+        meterRegistry.gauge("geo.events.indexed", this, index -> index.grid.size());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${app.geo.events.refresh-cron:0 45 * * * *}")
+    public void refresh() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onEventLocationChanged(EventLocationChanged change) {
+        apply(grid, change);
+        if (duringRebuild != null) {
+            duringRebuild.add(change);
+        }
+    }
+
+    public List<GeoGrid.Hit> nearest(double latitude, double longitude, double radiusKm,
+                                     LocalDate from, LocalDate to, String category, int limit) {
+        return grid.nearest(latitude, longitude, radiusKm, filter(from, to, category), limit);
+    }
+
+    public List<GeoGrid.Entry> within(double minLatitude, double minLongitude, double maxLatitude,
+                                      double maxLongitude, LocalDate from, LocalDate to, String category,
+                                      int limit) {
+        return grid.within(minLatitude, minLongitude, maxLatitude, maxLongitude,
+                filter(from, to, category), limit);
+    }
+
+    void rebuild() {
+        synchronized (this) {
+            if (duringRebuild != null) {
+                return;
+            }
+            duringRebuild = new ArrayList<>();
+        }
+        long started = System.nanoTime();
+        GeoGrid fresh = new GeoGrid(cellDegrees);
+        LocalDate today = LocalDate.now();
+        try {
+            long after = 0;
+            while (true) {
+                long pageAfter = after;
+                List<EventRepository.GeoRow> rows = readTransaction.execute(status -> eventRepository.findGeoRows(
+                        pageAfter, Event.EventStatus.UPCOMING, today, PageRequest.of(0, loadPageSize)));
+                if (rows == null || rows.isEmpty()) {
+                    break;
+                }
+                for (EventRepository.GeoRow row : rows) {
+                    fresh.put(entry(row.id(), row.latitude(), row.longitude(), row.date(), row.category()));
+                }
+                after = rows.get(rows.size() - 1).id();
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                duringRebuild = null;
+            }
+            log.error("Geo index rebuild failed, keeping the current index", e);
+            return;
+        }
+        synchronized (this) {
+            duringRebuild.forEach(change -> apply(fresh, change));
+            duringRebuild = null;
+            grid = fresh;
+        }
+        log.info("Geo index loaded {} events in {} ms", fresh.size(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    private void apply(GeoGrid target, EventLocationChanged change) {
+        if (change.searchable()) {
+            target.put(entry(change.eventId(), change.latitude(), change.longitude(), change.date(),
+                    change.category()));
+        } else {
+            target.remove(change.eventId());
+        }
+    }
+
+    private GeoGrid.Entry entry(Long id, Double latitude, Double longitude, LocalDate date, String category) {
+        String shared = category == null ? null : categories.computeIfAbsent(category, c -> c);
+        return new GeoGrid.Entry(id, latitude, longitude, (int) date.toEpochDay(), shared);
+    }
+
+    // Past events stay in the grid until the next rebuild, so the range never starts before today
+    private GeoGrid.Filter filter(LocalDate from, LocalDate to, String category) {
+        LocalDate today = LocalDate.now();
+        LocalDate start = from == null || from.isBefore(today) ? today : from;
+        int end = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+        return new GeoGrid.Filter((int) start.toEpochDay(), end,
+                category == null || category.isBlank() ? null : category);
+    }
+}
@@ -0,0 +1,29 @@
+package com.musicevent.geo;
+
+import com.musicevent.entity.Event;
+
+import java.time.LocalDate;
+
+/**
+ * Published whenever an event is written, so the geo index can follow after
+ * commit. Only upcoming events with coordinates are searchable; anything else
+ * (including a delete) takes the event out of the index.
+ */
+public record EventLocationChanged(Long eventId,
+                                   Double latitude,
+                                   Double longitude,
+                                   LocalDate date,
+                                   String category,
+                                   boolean searchable) {
+
+    public static EventLocationChanged of(Event event) {
+        boolean searchable = event.getStatus() == Event.EventStatus.UPCOMING
+                && event.getLatitude() != null && event.getLongitude() != null && event.getDate() != null;
+        return new EventLocationChanged(event.getId(), event.getLatitude(), event.getLongitude(),
+                event.getDate(), event.getCategory(), searchable);
+    }
+
+    public static EventLocationChanged removed(Long eventId) {
+        return new EventLocationChanged(eventId, null, null, null, null, false);
+    }
+}
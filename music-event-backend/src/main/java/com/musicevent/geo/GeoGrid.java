@@ -0,0 +1,321 @@
+package com.musicevent.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-size lat/lon grid of points. Each cell keeps its points in parallel
+ * primitive arrays that are replaced on write, so queries never lock and scan
+ * contiguous memory, and only the cells overlapping the search area are read.
+ * Writes are serialized by the caller.
+ */
+public final class GeoGrid {
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final int ANY_CATEGORY = -1;
+    private static final int NO_CATEGORY = -2;
+
+    private final double cellDegrees;
+    private final int latCells;
+    private final int lonCells;
+    private final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    // Categories are stored as small codes so the scan compares ints; matching ignores case
+    private final Map<String, Integer> categoryCodes = new ConcurrentHashMap<>();
+
+    public GeoGrid(double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 10) {
+            throw new IllegalArgumentException("Cell size must be in (0, 10] degrees");
+        }
+        this.cellDegrees = cellDegrees;
+        this.latCells = (int) Math.ceil(180 / cellDegrees);
+        this.lonCells = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    /** Rejects out-of-range coordinates and a latitude without a longitude (or vice versa). */
+    public static void checkCoordinates(Double latitude, Double longitude) {
+        if ((latitude == null) != (longitude == null)) {
+            throw new IllegalArgumentException("latitude and longitude must be given together");
+        }
+        if (latitude != null && !(latitude >= -90 && latitude <= 90)) {
+            throw new IllegalArgumentException("latitude must be between -90 and 90");
+        }
+        if (longitude != null && !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("longitude must be between -180 and 180");
+        }
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public void put(Entry entry) {
+        Entry previous = byId.put(entry.id(), entry);
+        if (previous != null) {
+            cells.computeIfPresent(cellKey(previous.latitude(), previous.longitude()),
+                    (key, cell) -> cell.without(previous.id()));
+        }
+        int category = entry.category() == null ? NO_CATEGORY
+                : categoryCodes.computeIfAbsent(entry.category().toLowerCase(Locale.ROOT),
+                        key -> categoryCodes.size());
+        cells.compute(cellKey(entry.latitude(), entry.longitude()),
+                (key, cell) -> (cell == null ? Cell.EMPTY : cell).with(entry, category));
+    }
+
+    public void remove(long id) {
+        Entry previous = byId.remove(id);
+        if (previous != null) {
+            cells.computeIfPresent(cellKey(previous.latitude(), previous.longitude()),
+                    (key, cell) -> cell.without(id));
+        }
+    }
+
+    /**
+     * Entries within radiusKm of the point, nearest first, at most limit. Cells
+     * are visited in rings around the point's cell, and the search stops once
+     * the next ring can't hold anything closer than the limit-th hit. The ring
+     * extent is widened towards the poles and wraps across the antimeridian.
+     */
+    public List<Hit> nearest(double latitude, double longitude, double radiusKm, Filter filter, int limit) {
+        int category = categoryCode(filter);
+        if (category == NO_CATEGORY) {
+            return List.of();
+        }
+        double latRange = radiusKm / KM_PER_DEGREE;
+        double widestLat = Math.min(90, Math.abs(latitude) + latRange);
+        double cos = Math.cos(Math.toRadians(widestLat));
+        double lonRange = cos < 1e-9 ? 360 : latRange / cos;
+        // A ring r cells out is at least (r - 1) of the narrowest cell width away
+        double minCellKm = cellDegrees * KM_PER_DEGREE * cos;
+        int centerLat = latIndex(latitude);
+        int centerLon = (int) Math.floor((longitude + 180) / cellDegrees);
+        int maxLatOffset = (int) Math.ceil(latRange / cellDegrees) + 1;
+        int maxLonOffset = (int) Math.ceil(lonRange / cellDegrees) + 1;
+        int minLon = -maxLonOffset;
+        int maxLon = maxLonOffset;
+        if (2 * maxLonOffset + 1 >= lonCells) {
+            // The whole circle of latitude, visiting each cell once
+            minLon = -(lonCells / 2);
+            maxLon = lonCells - 1 - lonCells / 2;
+        }
+        int rings = Math.max(maxLatOffset, Math.max(-minLon, maxLon));
+
+        // Max-heap on distance holding the best `limit` so far
+        PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::distanceKm).reversed());
+        Query query = new Query(latitude, longitude, Math.cos(Math.toRadians(latitude)), radiusKm,
+                filter.fromEpochDay(), filter.toEpochDay(), category, limit);
+        for (int ring = 0; ring <= rings; ring++) {
+            double ringDistance = Math.max(0, ring - 1) * minCellKm;
+            if (ringDistance > radiusKm || (best.size() == limit && ringDistance > best.peek().distanceKm())) {
+                break;
+            }
+            for (int dLat = -ring; dLat <= ring; dLat++) {
+                int lat = centerLat + dLat;
+                if (Math.abs(dLat) > maxLatOffset || lat < 0 || lat >= latCells) {
+                    continue;
+                }
+                // Inner rows of a ring only have its two end cells
+                boolean edgeRow = Math.abs(dLat) == ring;
+                for (int dLon = -ring; dLon <= ring; dLon += edgeRow ? 1 : 2 * ring) {
+                    if (dLon < minLon || dLon > maxLon) {
+                        continue;
+                    }
+                    Cell cell = cells.get((long) lat * lonCells + Math.floorMod(centerLon + dLon, lonCells));
+                    if (cell != null) {
+                        cell.scan(query, best);
+                    }
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    /**
+     * Entries inside the box, soonest first, at most limit. A box with
+     * minLongitude greater than maxLongitude crosses the antimeridian.
+     */
+    public List<Entry> within(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+                              Filter filter, int limit) {
+        int category = categoryCode(filter);
+        if (category == NO_CATEGORY) {
+            return List.of();
+        }
+        double lonWidth = maxLongitude >= minLongitude ? maxLongitude - minLongitude
+                : maxLongitude + 360 - minLongitude;
+        int fromLat = latIndex(minLatitude);
+        int toLat = latIndex(maxLatitude);
+        int fromLon = (int) Math.floor((minLongitude + 180) / cellDegrees);
+        int lonSpan = Math.min(lonCells, (int) Math.floor((minLongitude + lonWidth + 180) / cellDegrees) - fromLon + 1);
+
+        Comparator<Entry> soonest = Comparator.comparingInt(Entry::epochDay).thenComparingLong(Entry::id);
+        PriorityQueue<Entry> best = new PriorityQueue<>(soonest.reversed());
+        for (int lat = fromLat; lat <= toLat; lat++) {
+            for (int i = 0; i < lonSpan; i++) {
+                Cell cell = cells.get((long) lat * lonCells + Math.floorMod(fromLon + i, lonCells));
+                if (cell == null) {
+                    continue;
+                }
+                for (int j = 0; j < cell.ids.length; j++) {
+                    int day = cell.epochDays[j];
+                    double lonOffset = cell.longitudes[j] - minLongitude;
+                    if (lonOffset < 0) {
+                        lonOffset += 360;
+                    }
+                    if (day < filter.fromEpochDay() || day > filter.toEpochDay()
+                            || (category != ANY_CATEGORY && cell.categories[j] != category)
+                            || cell.latitudes[j] < minLatitude || cell.latitudes[j] > maxLatitude
+                            || lonOffset > lonWidth) {
+                        continue;
+                    }
+                    Entry worst = best.size() < limit ? null : best.peek();
+                    if (worst != null && (day > worst.epochDay()
+                            || (day == worst.epochDay() && cell.ids[j] > worst.id()))) {
+                        continue;
+                    }
+                    Entry entry = byId.get(cell.ids[j]);
+                    if (entry == null) {
+                        continue;
+                    }
+                    if (worst != null) {
+                        best.poll();
+                    }
+                    best.add(entry);
+                }
+            }
+        }
+        List<Entry> found = new ArrayList<>(best);
+        found.sort(soonest);
+        return found;
+    }
+
+    private int categoryCode(Filter filter) {
+        if (filter.category() == null) {
+            return ANY_CATEGORY;
+        }
+        return categoryCodes.getOrDefault(filter.category().toLowerCase(Locale.ROOT), NO_CATEGORY);
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        int lon = Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), lonCells);
+        return (long) latIndex(latitude) * lonCells + lon;
+    }
+
+    private int latIndex(double latitude) {
+        int index = (int) Math.floor((latitude + 90) / cellDegrees);
+        return Math.max(0, Math.min(latCells - 1, index));
+    }
+
+    public record Entry(long id, double latitude, double longitude, int epochDay, String category) {
+    }
+
+    public record Hit(long id, double distanceKm) {
+    }
+
+    /** Inclusive epoch-day range and an optional case-insensitive category. */
+    public record Filter(int fromEpochDay, int toEpochDay, String category) {
+    }
+
+    private record Query(double latitude, double longitude, double cosLatitude, double radiusKm,
+                         int fromEpochDay, int toEpochDay, int category, int limit) {
+    }
+
+    /** Immutable column arrays for one cell; cos(latitude) is kept so the haversine needs one less cos. */
+    private static final class Cell {
+        static final Cell EMPTY = new Cell(new long[0], new double[0], new double[0], new double[0],
+                new int[0], new int[0]);
+
+        final long[] ids;
+        final double[] latitudes;
+        final double[] longitudes;
+        final double[] cosLatitudes;
+        final int[] epochDays;
+        final int[] categories;
+
+        Cell(long[] ids, double[] latitudes, double[] longitudes, double[] cosLatitudes, int[] epochDays,
+             int[] categories) {
+            this.ids = ids;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.cosLatitudes = cosLatitudes;
+            this.epochDays = epochDays;
+            this.categories = categories;
+        }
+
+        Cell with(Entry entry, int category) {
+            int n = ids.length;
+            Cell cell = new Cell(Arrays.copyOf(ids, n + 1), Arrays.copyOf(latitudes, n + 1),
+                    Arrays.copyOf(longitudes, n + 1), Arrays.copyOf(cosLatitudes, n + 1),
+                    Arrays.copyOf(epochDays, n + 1), Arrays.copyOf(categories, n + 1));
+            cell.ids[n] = entry.id();
+            cell.latitudes[n] = entry.latitude();
+            cell.longitudes[n] = entry.longitude();
+            cell.cosLatitudes[n] = Math.cos(Math.toRadians(entry.latitude()));
+            cell.epochDays[n] = entry.epochDay();
+            cell.categories[n] = category;
+            return cell;
+        }
+
+        /** A copy without the id, with the last point moved into its slot; null once empty. */
+        Cell without(long id) {
+            int n = ids.length;
+            int i = 0;
+            while (i < n && ids[i] != id) {
+                i++;
+            }
+            if (i == n) {
+                return this;
+            }
+            if (n == 1) {
+                return null;
+            }
+            Cell cell = new Cell(Arrays.copyOf(ids, n - 1), Arrays.copyOf(latitudes, n - 1),
+                    Arrays.copyOf(longitudes, n - 1), Arrays.copyOf(cosLatitudes, n - 1),
+                    Arrays.copyOf(epochDays, n - 1), Arrays.copyOf(categories, n - 1));
+            if (i < n - 1) {
+                cell.ids[i] = ids[n - 1];
+                cell.latitudes[i] = latitudes[n - 1];
+                cell.longitudes[i] = longitudes[n - 1];
+                cell.cosLatitudes[i] = cosLatitudes[n - 1];
+                cell.epochDays[i] = epochDays[n - 1];
+                cell.categories[i] = categories[n - 1];
+            }
+            return cell;
+        }
+
+        void scan(Query query, PriorityQueue<Hit> best) {
+            for (int i = 0; i < ids.length; i++) {
+                int day = epochDays[i];
+                if (day < query.fromEpochDay() || day > query.toEpochDay()
+                        || (query.category() != ANY_CATEGORY && categories[i] != query.category())) {
+                    continue;
+                }
+                // The north-south gap alone is a lower bound on the distance
+                double worst = best.size() < query.limit() ? query.radiusKm() : best.peek().distanceKm();
+                if (Math.abs(latitudes[i] - query.latitude()) * KM_PER_DEGREE > worst) {
+                    continue;
+                }
+                double dLat = Math.toRadians(latitudes[i] - query.latitude());
+                double dLon = Math.toRadians(longitudes[i] - query.longitude());
+                double sinLat = Math.sin(dLat / 2);
+                double sinLon = Math.sin(dLon / 2);
+                double a = sinLat * sinLat + query.cosLatitude() * cosLatitudes[i] * sinLon * sinLon;
+                double distance = 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+                if (distance > worst) {
+                    continue;
+                }
+                if (best.size() == query.limit()) {
+                    best.poll();
+                }
+                best.add(new Hit(ids[i], distance));
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.musicevent.id;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands out ids made of milliseconds since {@link #EPOCH}, a node id and a
+ * per-millisecond sequence, in that bit order, so ids from one node always
+ * increase and ids from all nodes sort roughly by creation time. Lock-free:
+ * the last id handed out is the only state and is advanced with a CAS.
+ * <p>
+ * Ids stay below 2^53 so they survive a round trip through a JavaScript
+ * number: 41 bits of time (about 69 years), 5 of node and 7 of sequence (128
+ * ids per millisecond per node). When a millisecond's sequence is used up, or
+ * the clock steps back, the next id borrows the following millisecond instead
+ * of waiting, so bursts run ahead of the clock briefly rather than block. Once
+ * that gets more than MAX_AHEAD_MILLIS ahead, callers wait for the clock to
+ * catch up, so a restarted node can't hand out ids it already used.
+ */
+public final class TimeOrderedIdAllocator {
+    public static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+    public static final int NODE_BITS = 5;
+    public static final int SEQUENCE_BITS = 7;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long MAX_AHEAD_MILLIS = 100;
+    private static final int TIME_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long EPOCH_MILLIS = EPOCH.toEpochMilli();
+
+    private final int nodeId;
+    private final long nodeBits;
+    private final AtomicLong last;
+
+    public TimeOrderedIdAllocator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.last = new AtomicLong(nodeBits);
+    }
+
+    public long next() {
+        while (true) {
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long previous = last.get();
+            long previousTime = previous >>> TIME_SHIFT;
+            long next;
+            if (now > previousTime) {
+                next = now << TIME_SHIFT | nodeBits;
+            } else if ((previous & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = previous + 1;
+            } else {
+                if (previousTime - now >= MAX_AHEAD_MILLIS) {
+                    LockSupport.parkNanos(100_000);
+                    continue;
+                }
+                next = (previousTime + 1) << TIME_SHIFT | nodeBits;
+            }
+            if (last.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    public int nodeId() {
+        return nodeId;
+    }
+
+    /** The smallest id any node can hand out at the given instant. */
+    public static long floor(Instant at) {
+        return (at.toEpochMilli() - EPOCH_MILLIS) << TIME_SHIFT;
+    }
+
+    /** When the id was handed out (to the millisecond, give or take borrowed time). */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> TIME_SHIFT) + EPOCH_MILLIS);
+    }
+}
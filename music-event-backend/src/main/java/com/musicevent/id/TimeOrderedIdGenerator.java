@@ -0,0 +1,17 @@
+package com.musicevent.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+/**
+ * Hibernate side of {@link TimeOrderedId}. Hibernate creates generators
+ * itself, so this reaches the Spring-managed allocator through
+ * {@link TimeOrderedIds#current()}.
+ */
+public class TimeOrderedIdGenerator implements IdentifierGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object entity) {
+        return TimeOrderedIds.current().next();
+    }
+}
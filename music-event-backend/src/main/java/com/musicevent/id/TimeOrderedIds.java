@@ -0,0 +1,151 @@
+package com.musicevent.id;
+
+import com.musicevent.service.JobLockService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This node's id allocator for users, events, bookings and contracts. The
+ * node id is app.ids.node-id when set (for deployments with stable ordinals),
+ * otherwise a free one is leased through the job_locks table as
+ * "id-node-&lt;n&gt;" for app.ids.node-lease and renewed well before it runs
+ * out. If a renewal fails the lease may have passed to another node, so a
+ * fresh node id is leased before any more ids are handed out. Leases are
+ * left to run out rather than released at shutdown, so a node id is never
+ * picked up straight away by a host whose clock is behind this one's.
+ * <p>
+ * Rows created before these ids existed keep their AUTO_INCREMENT ids, which
+ * are far below anything this hands out; startup fails if a table already
+ * holds an id at or above the current floor.
+ * <p>
+ * The floor check and the lease happen in start(), before the web server,
+ * the scheduled jobs and the ApplicationRunners, so a context that only
+ * refreshes (the CDS training run, which has no database) never touches
+ * job_locks. Startup fails if every node id is leased.
+ */
+@Component
+public class TimeOrderedIds implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(TimeOrderedIds.class);
+    private static final String LOCK_PREFIX = "id-node-";
+    private static final List<String> TABLES = List.of("users", "events", "bookings", "contracts");
+    private static volatile TimeOrderedIds current;
+
+    private final JobLockService jobLockService;
+    private final JdbcTemplate jdbcTemplate;
+    private final int configuredNodeId;
+    private final Duration lease;
+    private final boolean leased;
+    // Null until start(), and after a lost lease until a new node id is leased
+    private volatile TimeOrderedIdAllocator allocator;
+    private volatile boolean running;
+
+    public TimeOrderedIds(JobLockService jobLockService,
+                          JdbcTemplate jdbcTemplate,
+                          @Value("${app.ids.node-id:-1}") int nodeId,
+                          @Value("${app.ids.node-lease:PT10M}") Duration lease) {
+        this.jobLockService = jobLockService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.configuredNodeId = nodeId;
+        this.lease = lease;
+        this.leased = nodeId < 0;
+    }
+
+    @Override
+    public void start() {
+        long floor = TimeOrderedIdAllocator.floor(Instant.now());
+        for (String table : TABLES) {
+            Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            if (max != null && max >= floor) {
+                throw new IllegalStateException(table + " already has id " + max
+                        + ", at or above the time-ordered id floor " + floor);
+            }
+        }
+        allocator = new TimeOrderedIdAllocator(leased ? leaseNodeId() : configuredNodeId);
+        log.info("Handing out time-ordered ids as node {}{}", allocator.nodeId(), leased ? " (leased)" : "");
+        current = this;
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Before the web server starts taking requests
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /** The allocator for code Spring doesn't create, such as Hibernate id generators. */
+    public static TimeOrderedIds current() {
+        TimeOrderedIds ids = current;
+        if (ids == null) {
+            throw new IllegalStateException("Time-ordered ids are not initialized yet");
+        }
+        return ids;
+    }
+
+    public long next() {
+        return allocator().next();
+    }
+
+    public int nodeId() {
+        return allocator().nodeId();
+    }
+
+    private TimeOrderedIdAllocator allocator() {
+        TimeOrderedIdAllocator ids = allocator;
+        if (ids == null) {
+            throw new IllegalStateException("No id node is held by this node yet");
+        }
+        return ids;
+    }
+
+    @Scheduled(fixedDelayString = "${app.ids.node-renew-ms:60000}")
+    public void renew() {
+        if (!leased || !running) {
+            return;
+        }
+        TimeOrderedIdAllocator held = allocator;
+        if (held != null && jobLockService.renew(LOCK_PREFIX + held.nodeId(), lease)) {
+            return;
+        }
+        // Stop handing out ids under a node id another node may now hold; retried on the next renewal
+        allocator = null;
+        TimeOrderedIdAllocator replacement = new TimeOrderedIdAllocator(leaseNodeId());
+        allocator = replacement;
+        log.warn("Lost the lease on id node {}, now handing out ids as node {}",
+                held == null ? "-" : held.nodeId(), replacement.nodeId());
+    }
+
+    private int leaseNodeId() {
+        int nodes = TimeOrderedIdAllocator.MAX_NODE_ID + 1;
+        // Random start so nodes booting together don't all race for node 0
+        int start = ThreadLocalRandom.current().nextInt(nodes);
+        for (int i = 0; i < nodes; i++) {
+            int candidate = (start + i) % nodes;
+            if (jobLockService.tryAcquire(LOCK_PREFIX + candidate, lease)) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("All " + nodes + " id nodes are leased (job_locks rows " + LOCK_PREFIX
+                + "0 to " + LOCK_PREFIX + (nodes - 1) + "): stop a node and wait out its app.ids.node-lease ("
+                + lease + "), or set app.ids.node-id to one no running node uses");
+    }
+}
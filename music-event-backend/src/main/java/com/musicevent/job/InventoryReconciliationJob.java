@@ -0,0 +1,196 @@
+package com.musicevent.job;
+
+import com.musicevent.changelog.ChangeLogService;
+import com.musicevent.changelog.ChangeType;
+import com.musicevent.entity.Event;
+import com.musicevent.repository.EventRepository;
+import com.musicevent.service.JobLockService;
+import com.musicevent.stream.TicketAvailabilityChanged;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares every event's available_tickets with total_tickets minus its
+ * CONFIRMED bookings. Events are walked in keyset-ordered chunks of
+ * chunk-size ids; each chunk is one read-only aggregate query (so it runs on
+ * the read pool) and chunks run in parallel. At most pool-share of the read
+ * pool's connections are used at once, leaving the rest for requests. Drift is
+ * always logged; with auto-correct the counter is recomputed on the primary.
+ */
+@Component
+public class InventoryReconciliationJob implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(InventoryReconciliationJob.class);
+    private static final String LOCK_NAME = "inventory-reconciliation";
+    private static final int MAX_LOGGED_DRIFTS = 100;
+
+    private final EventRepository eventRepository;
+    private final JobLockService jobLockService;
+    private final ChangeLogService changeLogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final ExecutorService workers;
+    private final int parallelism;
+    private final DistributionSummary driftFound;
+    private final DistributionSummary driftCorrected;
+
+    @Value("${app.jobs.inventory-reconciliation.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.jobs.inventory-reconciliation.auto-correct:false}")
+    private boolean autoCorrect;
+
+    @Value("${app.jobs.inventory-reconciliation.lock-at-most:PT30M}")
+    private Duration lockAtMost;
+
+    public InventoryReconciliationJob(EventRepository eventRepository,
+                                      JobLockService jobLockService,
+                                      ChangeLogService changeLogService,
+                                      ApplicationEventPublisher eventPublisher,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Qualifier("readPool") HikariDataSource readPool,
+                                      @Value("${app.jobs.inventory-reconciliation.pool-share:0.5}") double poolShare) {
+        this.eventRepository = eventRepository;
+        this.jobLockService = jobLockService;
+        this.changeLogService = changeLogService;
+        this.eventPublisher = eventPublisher;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.parallelism = Math.max(1, (int) (readPool.getMaximumPoolSize() * poolShare));
+        this.workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "inventory-reconciliation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.driftFound = DistributionSummary.builder("jobs.inventory_reconciliation.events")
+                .description("Events with drifted ticket counters per reconciliation run")
+                .tag("result", "drift")
+                .register(meterRegistry);
+        this.driftCorrected = DistributionSummary.builder("jobs.inventory_reconciliation.events")
+                .description("Events with drifted ticket counters per reconciliation run")
+                .tag("result", "corrected")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.jobs.inventory-reconciliation.cron:0 30 * * * *}")
+    public void run() {
+        if (!jobLockService.tryAcquire(LOCK_NAME, lockAtMost)) {
+            log.debug("Inventory reconciliation skipped, lock held by another node");
+            return;
+        }
+        try {
+            reconcile();
+        } finally {
+            jobLockService.release(LOCK_NAME);
+        }
+    }
+
+    private void reconcile() {
+        long started = System.nanoTime();
+        Semaphore connections = new Semaphore(parallelism);
+        AtomicInteger drifted = new AtomicInteger();
+        AtomicInteger corrected = new AtomicInteger();
+        List<Future<?>> chunks = new ArrayList<>();
+        long after = 0;
+        try {
+            while (true) {
+                long chunkStart = after;
+                // The permit covers the boundary lookup and the chunk it hands off, so the
+                // walk itself never takes a connection beyond the share
+                connections.acquire();
+                Long chunkEnd;
+                try {
+                    chunkEnd = readTransaction.execute(status -> eventRepository.findChunkEnd(chunkStart, chunkSize));
+                } catch (RuntimeException e) {
+                    connections.release();
+                    throw e;
+                }
+                if (chunkEnd == null) {
+                    connections.release();
+                    break;
+                }
+                chunks.add(workers.submit(() -> {
+                    try {
+                        checkChunk(chunkStart, chunkEnd, drifted, corrected);
+                    } finally {
+                        connections.release();
+                    }
+                }));
+                after = chunkEnd;
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            chunks.forEach(chunk -> chunk.cancel(true));
+            return;
+        } catch (Exception e) {
+            log.error("Inventory reconciliation failed after event id {}", after, e);
+            return;
+        }
+        driftFound.record(drifted.get());
+        driftCorrected.record(corrected.get());
+        log.info("Inventory reconciliation checked {} chunks in {} ms: {} drifted, {} corrected",
+                chunks.size(), Duration.ofNanos(System.nanoTime() - started).toMillis(),
+                drifted.get(), corrected.get());
+    }
+
+    private void checkChunk(long after, long upTo, AtomicInteger drifted, AtomicInteger corrected) {
+        List<EventRepository.InventoryDrift> drift = readTransaction.execute(status ->
+                eventRepository.findInventoryDrift(after, upTo));
+        if (drift == null || drift.isEmpty()) {
+            return;
+        }
+        for (EventRepository.InventoryDrift row : drift) {
+            if (drifted.incrementAndGet() <= MAX_LOGGED_DRIFTS) {
+                log.warn("Event {} has available_tickets={} but total_tickets={} and {} tickets booked",
+                        row.getId(), row.getAvailableTickets(), row.getTotalTickets(), row.getBooked());
+            }
+        }
+        if (!autoCorrect) {
+            return;
+        }
+        writeTransaction.executeWithoutResult(status -> {
+            for (EventRepository.InventoryDrift row : drift) {
+                // Recomputed on the primary, so a lagging replica can't cause a wrong correction
+                eventRepository.recomputeAvailableTickets(row.getId());
+                changeLogService.record(ChangeType.EVENT_CHANGED, row.getId());
+                eventRepository.findById(row.getId()).ifPresent(this::publish);
+                corrected.incrementAndGet();
+            }
+        });
+    }
+
+    private void publish(Event event) {
+        eventPublisher.publishEvent(new TicketAvailabilityChanged(
+                event.getId(), event.getAvailableTickets(), event.getTotalTickets()));
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+}
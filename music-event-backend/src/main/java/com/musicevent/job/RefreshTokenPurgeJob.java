@@ -0,0 +1,64 @@
+package com.musicevent.job;
+
+import com.musicevent.repository.RefreshTokenRepository;
+import com.musicevent.service.JobLockService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Deletes expired refresh tokens in batches. Revoked tokens are kept until
+ * they expire, so a stolen one that is replayed is still recognised as reuse.
+ */
+@Component
+public class RefreshTokenPurgeJob {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenPurgeJob.class);
+    private static final String LOCK_NAME = "refresh-token-purge";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.jobs.refresh-token-purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.jobs.refresh-token-purge.lock-at-most:PT10M}")
+    private Duration lockAtMost;
+
+    public RefreshTokenPurgeJob(RefreshTokenRepository refreshTokenRepository,
+                                JobLockService jobLockService,
+                                PlatformTransactionManager transactionManager) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jobLockService = jobLockService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${app.jobs.refresh-token-purge.cron:0 23 * * * *}")
+    public void purge() {
+        if (!jobLockService.tryAcquire(LOCK_NAME, lockAtMost)) {
+            return;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now();
+            int purged = 0;
+            Integer deleted;
+            do {
+                deleted = transactionTemplate.execute(status ->
+                        refreshTokenRepository.purgeExpired(cutoff, batchSize));
+                purged += deleted;
+            } while (deleted == batchSize);
+            if (purged > 0) {
+                log.info("Purged {} expired refresh tokens", purged);
+            }
+        } finally {
+            jobLockService.release(LOCK_NAME);
+        }
+    }
+}
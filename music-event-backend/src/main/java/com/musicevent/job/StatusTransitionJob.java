@@ -0,0 +1,114 @@
+package com.musicevent.job;
+
+import com.musicevent.repository.ContractRepository;
+import com.musicevent.repository.EventRepository;
+import com.musicevent.service.JobLockService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
+
+/**
+ * Moves past events from UPCOMING to COMPLETED and expires PENDING contracts whose
+ * event date has passed. Each chunk is a single bounded UPDATE in its own short
+ * transaction, so the job never holds row locks for long even on a large backlog.
+ * The lease is renewed before every chunk; a run that loses it (a chunk stalled
+ * past lockAtMost) stops, leaving the rest to whichever node holds it now.
+ */
+@Component
+public class StatusTransitionJob {
+    private static final Logger log = LoggerFactory.getLogger(StatusTransitionJob.class);
+    private static final String LOCK_NAME = "status-transition";
+    
+    private final EventRepository eventRepository;
+    private final ContractRepository contractRepository;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate transactionTemplate;
+    private final DistributionSummary eventsMoved;
+    private final DistributionSummary contractsExpired;
+    
+    @Value("${app.jobs.status-transition.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${app.jobs.status-transition.max-batches:200}")
+    private int maxBatches;
+    
+    @Value("${app.jobs.status-transition.lock-at-most:PT10M}")
+    private Duration lockAtMost;
+    
+    public StatusTransitionJob(EventRepository eventRepository,
+                               ContractRepository contractRepository,
+                               JobLockService jobLockService,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.contractRepository = contractRepository;
+        this.jobLockService = jobLockService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventsMoved = DistributionSummary.builder("jobs.status_transition.rows")
+                .description("Rows moved per status transition run")
+                .tag("table", "events")
+                .register(meterRegistry);
+        this.contractsExpired = DistributionSummary.builder("jobs.status_transition.rows")
+                .description("Rows moved per status transition run")
+                .tag("table", "contracts")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(cron = "${app.jobs.status-transition.cron:0 */5 * * * *}")
+    public void run() {
+        if (!jobLockService.tryAcquire(LOCK_NAME, lockAtMost)) {
+            log.debug("Status transition skipped, lock held by another node");
+            return;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            int events = drain(() -> eventRepository.completePastEvents(today, batchSize));
+            int contracts = drain(() -> contractRepository.expireStalePending(
+                    today, LocalDateTime.now(), batchSize));
+            eventsMoved.record(events);
+            contractsExpired.record(contracts);
+            if (events > 0 || contracts > 0) {
+                log.info("Status transition completed {} events and expired {} contracts", events, contracts);
+            }
+        } catch (LeaseLost e) {
+            log.warn("Status transition lease expired mid-run, stopped after {} rows", e.moved);
+        } finally {
+            jobLockService.release(LOCK_NAME);
+        }
+    }
+    
+    private int drain(IntSupplier chunk) {
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            if (!jobLockService.renew(LOCK_NAME, lockAtMost)) {
+                throw new LeaseLost(total);
+            }
+            Integer moved = transactionTemplate.execute(status -> chunk.getAsInt());
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+    
+    private static final class LeaseLost extends RuntimeException {
+        private final int moved;
+        
+        LeaseLost(int moved) {
+            super(null, null, false, false);
+            this.moved = moved;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.musicevent.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.CorsProcessor;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sheds load before it can queue on the connection pools. Each RouteGroup has
+ * a GradientLimit, so when the database slows down a group's limit drops
+ * towards what it can serve and the excess is answered at once with 503 and
+ * Retry-After instead of holding a Tomcat thread for up to the pool's
+ * connection-timeout. All groups also draw on app.limiter.max-in-flight,
+ * each up to its app.limiter.share.*, which keeps threads free for bookings
+ * and logins when browsing surges.
+ * <p>
+ * This runs ahead of the security chain and its CORS handling, so a
+ * rejection adds the CORS headers itself; otherwise a browser would report a
+ * CORS failure instead of the 503.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final String BUSY_BODY = "{\"error\":\"Server is busy, please retry shortly\"}";
+
+    private final CorsConfigurationSource corsConfigurationSource;
+    private final CorsProcessor corsProcessor = new DefaultCorsProcessor();
+    private final boolean enabled;
+    private final String retryAfterSeconds;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<RouteGroup, GradientLimit> limits = new EnumMap<>(RouteGroup.class);
+    private final Map<RouteGroup, Integer> budgets = new EnumMap<>(RouteGroup.class);
+    private final Map<RouteGroup, Counter> rejected = new EnumMap<>(RouteGroup.class);
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  Environment environment,
+                                  @Qualifier("corsConfigurationSource") CorsConfigurationSource corsConfigurationSource,
+                                  @Value("${app.limiter.enabled:true}") boolean enabled,
+                                  @Value("${app.limiter.initial-limit:20}") int initialLimit,
+                                  @Value("${app.limiter.min-limit:2}") int minLimit,
+                                  @Value("${app.limiter.max-limit:200}") int maxLimit,
+                                  @Value("${app.limiter.tolerance:1.5}") double tolerance,
+                                  @Value("${app.limiter.smoothing:0.2}") double smoothing,
+                                  @Value("${app.limiter.queue-size:4}") int queueSize,
+                                  @Value("${app.limiter.backoff-ratio:0.9}") double backoffRatio,
+                                  @Value("${app.limiter.max-in-flight:150}") int maxInFlight,
+                                  @Value("${app.limiter.retry-after:PT1S}") Duration retryAfter) {
+        this.corsConfigurationSource = corsConfigurationSource;
+        this.enabled = enabled;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        for (RouteGroup group : RouteGroup.values()) {
+            String name = group.name().toLowerCase();
+            GradientLimit limit = new GradientLimit(initialLimit, minLimit, maxLimit, tolerance, smoothing,
+                    queueSize, backoffRatio);
+            double share = environment.getProperty("app.limiter.share." + name, Double.class, 1.0);
+            limits.put(group, limit);
+            budgets.put(group, Math.max(1, (int) (maxInFlight * share)));
+            rejected.put(group, Counter.builder("limiter.rejected").tag("group", name).register(meterRegistry));
+            meterRegistry.gauge("limiter.limit", Tags.of("group", name), limit, GradientLimit::limit);
+            meterRegistry.gauge("limiter.in-flight", Tags.of("group", name), limit, GradientLimit::inFlight);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || RouteGroup.of(request.getMethod(), request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        RouteGroup group = RouteGroup.of(request.getMethod(), request.getRequestURI());
+        GradientLimit limit = limits.get(group);
+        if (inFlight.incrementAndGet() > budgets.get(group)) {
+            inFlight.decrementAndGet();
+            reject(group, request, response);
+            return;
+        }
+        if (!limit.tryAcquire()) {
+            inFlight.decrementAndGet();
+            reject(group, request, response);
+            return;
+        }
+        long started = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            inFlight.decrementAndGet();
+            limit.release(request.isAsyncStarted() ? null : System.nanoTime() - started, failed);
+        }
+    }
+
+    private void reject(RouteGroup group, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        rejected.get(group).increment();
+        CorsConfiguration cors = corsConfigurationSource.getCorsConfiguration(request);
+        if (cors != null && !corsProcessor.processRequest(cors, request, response)) {
+            // A disallowed origin has been answered with 403, as the CORS filter would have
+            return;
+        }
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(BUSY_BODY);
+    }
+}
@@ -0,0 +1,93 @@
+package com.musicevent.limit;
+
+/**
+ * Concurrency limit that follows queueing rather than absolute latency. Each
+ * completed request updates a short (about 10 samples) and a long (about 600
+ * samples) moving average of its latency; while the short one stays within
+ * tolerance times the long one the limit grows by queueSize, and once requests
+ * start waiting (short above long) it shrinks in proportion, never below
+ * minLimit. A database that is uniformly slow becomes the new baseline instead
+ * of pinning the limit at its minimum. Failed requests back the limit off by
+ * backoffRatio. Growth only happens while at least half the limit is in use,
+ * so an idle period cannot inflate it.
+ */
+public class GradientLimit {
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int queueSize;
+    private final double backoffRatio;
+    private double limit;
+    private double shortRtt;
+    private double longRtt;
+    private int inFlight;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+                         int queueSize, double backoffRatio) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (tolerance < 1 || !(smoothing > 0 && smoothing <= 1) || !(backoffRatio > 0 && backoffRatio < 1)) {
+            throw new IllegalArgumentException(
+                    "tolerance must be at least 1, smoothing in (0, 1] and backoffRatio in (0, 1)");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.queueSize = queueSize;
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+    }
+
+    /** Admits a request if the limit allows; every admission must be released. */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /** Ends an admitted request; a null latency (nothing to learn from, e.g. went async) leaves the limit alone. */
+    public synchronized void release(Long latencyNanos, boolean failed) {
+        int wasInFlight = inFlight--;
+        if (latencyNanos == null) {
+            return;
+        }
+        if (failed) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            return;
+        }
+        double rtt = latencyNanos;
+        if (longRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+        } else {
+            shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+            longRtt += (rtt - longRtt) / LONG_WINDOW;
+        }
+        // After a slow spell ends, let the baseline come back down quickly
+        if (longRtt > shortRtt * 2) {
+            longRtt *= 0.95;
+        }
+        if (wasInFlight * 2 < limit) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = limit * gradient + queueSize;
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + target * smoothing));
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,33 @@
+package com.musicevent.limit;
+
+/**
+ * Request classes with their own concurrency limit. They also share the
+ * node's in-flight budget, of which each may fill its app.limiter.share.*:
+ * catalog browsing is turned away first, bookings and logins last.
+ */
+public enum RouteGroup {
+    AUTH, BOOKING, CATALOG, OTHER;
+
+    /**
+     * The group for a request, or null for requests the limiter leaves alone:
+     * anything outside /api, CORS preflights, long-lived streams and the bulk
+     * import, which holds a request open for minutes by design.
+     */
+    public static RouteGroup of(String method, String path) {
+        if ("OPTIONS".equals(method) || !path.startsWith("/api/")
+                || path.endsWith("/stream") || path.equals("/api/events/import")) {
+            return null;
+        }
+        if (path.startsWith("/api/auth/")) {
+            return AUTH;
+        }
+        if (path.startsWith("/api/bookings") || path.startsWith("/api/waitlist")) {
+            return BOOKING;
+        }
+        if ("GET".equals(method) && (path.startsWith("/api/events") || path.startsWith("/api/recommendations")
+                || path.equals("/api/users/artists") || path.equals("/api/users/organizers"))) {
+            return CATALOG;
+        }
+        return OTHER;
+    }
+}
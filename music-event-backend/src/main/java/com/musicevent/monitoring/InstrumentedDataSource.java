@@ -0,0 +1,126 @@
+package com.musicevent.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Times every JDBC statement executed through the wrapped DataSource and reports
+ * it to SqlStatistics and the current RequestTrace. Connections and statements
+ * are wrapped in JDK proxies; anything other than execute* is passed straight
+ * through. A non-zero statementDelayMillis holds every statement that long
+ * first, to rehearse a slow database (app.chaos.db-latency-ms; never set in production).
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+    private final SqlStatistics sqlStatistics;
+    private final long statementDelayMillis;
+    
+    public InstrumentedDataSource(DataSource target, SqlStatistics sqlStatistics, long statementDelayMillis) {
+        super(target);
+        this.sqlStatistics = sqlStatistics;
+        this.statementDelayMillis = statementDelayMillis;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+    
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+    
+    private class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("unwrap") && ((Class<?>) args[0]).isInstance(proxy)) {
+                return proxy;
+            }
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return wrapStatement(statement, CallableStatement.class, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return wrapStatement(statement, PreparedStatement.class, (String) args[0]);
+            }
+            if (result instanceof Statement statement) {
+                return wrapStatement(statement, Statement.class, null);
+            }
+            return result;
+        }
+    }
+    
+    private Object wrapStatement(Statement statement, Class<? extends Statement> type, String sql) {
+        return Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[]{type},
+                new StatementHandler(statement, sql));
+    }
+    
+    private class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private String lastBatchSql;
+        
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1) {
+                lastBatchSql = (String) args[0];
+            }
+            if (!name.startsWith("execute")) {
+                return InstrumentedDataSource.invoke(target, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s
+                    : preparedSql != null ? preparedSql : lastBatchSql;
+            long start = System.nanoTime();
+            try {
+                if (statementDelayMillis > 0) {
+                    Thread.sleep(statementDelayMillis);
+                }
+                return InstrumentedDataSource.invoke(target, method, args);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                sqlStatistics.record(sql, nanos);
+                RequestTrace.recordStatement(sql, nanos);
+            }
+        }
+    }
+}
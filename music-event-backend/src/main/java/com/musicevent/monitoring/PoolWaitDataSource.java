@@ -0,0 +1,40 @@
+package com.musicevent.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Reports how long borrowing a connection from the wrapped pool took to the
+ * current {@link RequestTrace}. Sits between the routing DataSource and each
+ * pool: the connections InstrumentedDataSource hands out are lazy, so only
+ * here is the actual wait visible.
+ */
+public class PoolWaitDataSource extends DelegatingDataSource {
+
+    public PoolWaitDataSource(DataSource pool) {
+        super(pool);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return super.getConnection();
+        } finally {
+            RequestTrace.recordConnection(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return super.getConnection(username, password);
+        } finally {
+            RequestTrace.recordConnection(System.nanoTime() - start);
+        }
+    }
+}
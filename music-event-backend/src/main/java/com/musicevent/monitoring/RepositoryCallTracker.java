@@ -0,0 +1,44 @@
+package com.musicevent.monitoring;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Adds an interceptor to every Spring Data repository proxy that remembers which
+ * repository method is running on the current thread, so SQL timings can be
+ * attributed to e.g. EventRepository.findByStatusAndDateGreaterThanEqual.
+ */
+public class RepositoryCallTracker implements BeanPostProcessor {
+    private static final String NO_REPOSITORY = "(direct)";
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    
+    public static String currentCaller() {
+        String caller = CURRENT.get();
+        return caller != null ? caller : NO_REPOSITORY;
+    }
+    
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, information) -> {
+                        String repository = information.getRepositoryInterface().getSimpleName();
+                        proxyFactory.addAdvice(0, (MethodInterceptor) invocation -> {
+                            String previous = CURRENT.get();
+                            if (previous != null) {
+                                return invocation.proceed();
+                            }
+                            CURRENT.set(repository + "." + invocation.getMethod().getName());
+                            try {
+                                return invocation.proceed();
+                            } finally {
+                                CURRENT.remove();
+                            }
+                        });
+                    }));
+        }
+        return bean;
+    }
+}
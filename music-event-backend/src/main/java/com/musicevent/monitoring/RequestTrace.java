@@ -0,0 +1,76 @@
+package com.musicevent.monitoring;
+
+/**
+ * Where one request's time went: the JWT check, waits for a pooled
+ * connection, statement execution and, once the response body starts, its
+ * serialization. RequestTraceFilter opens a trace for the requests it samples
+ * or reports Server-Timing for; the static hooks below are called from the
+ * code they time and do nothing on a thread without a trace, which is all an
+ * untraced request pays.
+ */
+public final class RequestTrace {
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    final long startedNanos = System.nanoTime();
+    final boolean sampled;
+    long authNanos;
+    long poolNanos;
+    int connections;
+    long dbNanos;
+    int statements;
+    long slowestStatementNanos;
+    String slowestStatement;
+    long writeStartedNanos;
+
+    private RequestTrace(boolean sampled) {
+        this.sampled = sampled;
+    }
+
+    static RequestTrace begin(boolean sampled) {
+        RequestTrace trace = new RequestTrace(sampled);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /** Time spent authenticating the request (JwtAuthenticationFilter). */
+    public static void recordAuth(long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.authNanos += nanos;
+        }
+    }
+
+    /** Time spent borrowing a connection from one of the Hikari pools. */
+    public static void recordConnection(long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.poolNanos += nanos;
+            trace.connections++;
+        }
+    }
+
+    static void recordStatement(String sql, long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.dbNanos += nanos;
+            trace.statements++;
+            if (nanos > trace.slowestStatementNanos) {
+                trace.slowestStatementNanos = nanos;
+                trace.slowestStatement = sql;
+            }
+        }
+    }
+
+    /** Everything before the body started, less the phases timed separately. */
+    long appNanos(long untilNanos) {
+        return Math.max(0, untilNanos - startedNanos - authNanos - poolNanos - dbNanos);
+    }
+
+    long bodyStartedOr(long nowNanos) {
+        return writeStartedNanos != 0 ? writeStartedNanos : nowNanos;
+    }
+}
@@ -0,0 +1,172 @@
+package com.musicevent.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-request timing breakdown (see {@link RequestTrace}). A traced request
+ * gets a Server-Timing header with its auth, pool, db and app phases, added
+ * as the body starts so it is still in time; serialization comes after and
+ * is only in the slow request log. app.trace.server-timing decides who gets
+ * the header: "all", "admin" (the default; tokens are verified further down
+ * the chain, so every request with a bearer token is traced and the header is
+ * added for ADMIN ones) or "off".
+ * <p>
+ * Independently, app.trace.sample-rate of all requests are traced, and those
+ * that take at least app.trace.slow-threshold-ms are written to
+ * {@link SlowRequestLog}. A request that is neither sampled nor a Server-Timing
+ * candidate costs one random draw.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestTraceFilter extends OncePerRequestFilter {
+    private static final String HEADER = "Server-Timing";
+
+    enum ServerTiming { OFF, ADMIN, ALL }
+
+    private final SlowRequestLog slowRequestLog;
+    private final SqlStatistics sqlStatistics;
+    private final ServerTiming serverTiming;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public RequestTraceFilter(SlowRequestLog slowRequestLog,
+                              SqlStatistics sqlStatistics,
+                              @Value("${app.trace.server-timing:admin}") String serverTiming,
+                              @Value("${app.trace.sample-rate:0.05}") double sampleRate,
+                              @Value("${app.trace.slow-threshold-ms:500}") long slowThresholdMs) {
+        this.slowRequestLog = slowRequestLog;
+        this.sqlStatistics = sqlStatistics;
+        this.serverTiming = ServerTiming.valueOf(serverTiming.trim().toUpperCase(Locale.ROOT));
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        boolean sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        boolean timing = serverTiming == ServerTiming.ALL
+                || serverTiming == ServerTiming.ADMIN && request.getHeader(HttpHeaders.AUTHORIZATION) != null;
+        if (!sampled && !timing) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        RequestTrace trace = RequestTrace.begin(sampled);
+        TimingResponse timed = new TimingResponse(request, response, trace, timing);
+        try {
+            chain.doFilter(request, timed);
+        } finally {
+            RequestTrace.end();
+            long ended = System.nanoTime();
+            if (!response.isCommitted()) {
+                timed.addServerTiming(ended);
+            }
+            if (sampled && ended - trace.startedNanos >= slowThresholdNanos && !request.isAsyncStarted()) {
+                slowRequestLog.append(record(request, response, trace, ended));
+            }
+        }
+    }
+
+    private Map<String, Object> record(HttpServletRequest request, HttpServletResponse response,
+                                       RequestTrace trace, long ended) {
+        long bodyStarted = trace.bodyStartedOr(ended);
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("at", Instant.now().toString());
+        record.put("method", request.getMethod());
+        record.put("path", request.getRequestURI());
+        record.put("status", response.getStatus());
+        record.put("userId", request.getAttribute("userId"));
+        record.put("totalMs", millis(ended - trace.startedNanos));
+        record.put("authMs", millis(trace.authNanos));
+        record.put("poolMs", millis(trace.poolNanos));
+        record.put("connections", trace.connections);
+        record.put("dbMs", millis(trace.dbNanos));
+        record.put("statements", trace.statements);
+        record.put("appMs", millis(trace.appNanos(bodyStarted)));
+        record.put("serializeMs", millis(ended - bodyStarted));
+        if (trace.slowestStatement != null) {
+            record.put("slowestStatementMs", millis(trace.slowestStatementNanos));
+            record.put("slowestStatement", sqlStatistics.normalize(trace.slowestStatement));
+        }
+        return record;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    /** Adds Server-Timing just before the body is written, while headers can still be set. */
+    private final class TimingResponse extends HttpServletResponseWrapper {
+        private final HttpServletRequest request;
+        private final RequestTrace trace;
+        private final boolean timing;
+        private boolean added;
+
+        TimingResponse(HttpServletRequest request, HttpServletResponse response, RequestTrace trace,
+                       boolean timing) {
+            super(response);
+            this.request = request;
+            this.trace = trace;
+            this.timing = timing;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            bodyStarting();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            bodyStarting();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            bodyStarting();
+            super.flushBuffer();
+        }
+
+        private void bodyStarting() {
+            if (trace.writeStartedNanos == 0) {
+                trace.writeStartedNanos = System.nanoTime();
+                addServerTiming(trace.writeStartedNanos);
+            }
+        }
+
+        void addServerTiming(long bodyStarted) {
+            if (added || !timing || isCommitted()
+                    || serverTiming == ServerTiming.ADMIN && !"ADMIN".equals(request.getAttribute("userRole"))) {
+                return;
+            }
+            added = true;
+            setHeader(HEADER, String.format(Locale.ROOT,
+                    "auth;dur=%.2f, pool;dur=%.2f;desc=\"connections: %d\", db;dur=%.2f;desc=\"statements: %d\", "
+                            + "app;dur=%.2f, total;dur=%.2f",
+                    trace.authNanos / 1e6, trace.poolNanos / 1e6, trace.connections, trace.dbNanos / 1e6,
+                    trace.statements, trace.appNanos(bodyStarted) / 1e6, (bodyStarted - trace.startedNanos) / 1e6));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.musicevent.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends slow request traces to app.trace.file as JSON lines. Requests only
+ * hand a record to one writer thread, through a queue of app.trace.queue-size;
+ * when the disk falls behind, records are dropped (trace.slow.dropped) rather
+ * than held. The file is rolled over to a single ".1" once it reaches
+ * app.trace.max-file-size.
+ */
+@Component
+public class SlowRequestLog implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(SlowRequestLog.class);
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final long maxFileBytes;
+    private final ThreadPoolExecutor writer;
+    private final Counter written;
+    private final Counter dropped;
+    private OutputStream out;
+    private long fileBytes;
+
+    public SlowRequestLog(ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.trace.file:logs/slow-requests.jsonl}") String file,
+                          @Value("${app.trace.max-file-size:100MB}") DataSize maxFileSize,
+                          @Value("${app.trace.queue-size:1000}") int queueSize) {
+        this.objectMapper = objectMapper;
+        this.file = Path.of(file).toAbsolutePath();
+        this.maxFileBytes = maxFileSize.toBytes();
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-request-log");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.written = Counter.builder("trace.slow.written").register(meterRegistry);
+        this.dropped = Counter.builder("trace.slow.dropped").register(meterRegistry);
+    }
+
+    public void append(Map<String, Object> record) {
+        try {
+            writer.execute(() -> write(record));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    private void write(Map<String, Object> record) {
+        try {
+            byte[] line = objectMapper.writeValueAsBytes(record);
+            if (out == null) {
+                open();
+            } else if (fileBytes + line.length + 1 > maxFileBytes) {
+                out.close();
+                Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+                open();
+            }
+            out.write(line);
+            out.write('\n');
+            fileBytes += line.length + 1;
+            written.increment();
+            // Batch the writes of a burst; the last record of each goes out at once
+            if (writer.getQueue().isEmpty()) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            dropped.increment();
+            log.warn("Could not write to {}: {}", file, e.getMessage());
+            closeQuietly();
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(file.getParent());
+        out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND));
+        fileBytes = Files.size(file);
+    }
+
+    private void closeQuietly() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // the next record reopens the file
+            }
+            out = null;
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        writer.shutdown();
+        if (writer.awaitTermination(5, TimeUnit.SECONDS)) {
+            closeQuietly();
+        }
+    }
+}
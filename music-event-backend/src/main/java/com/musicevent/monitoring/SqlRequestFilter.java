@@ -0,0 +1,33 @@
+package com.musicevent.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Scopes per-request statement counts so SqlStatistics can flag N+1 patterns.
+ */
+@Component
+public class SqlRequestFilter extends OncePerRequestFilter {
+    @Autowired
+    private SqlStatistics sqlStatistics;
+    
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain chain) throws ServletException, IOException {
+        sqlStatistics.beginRequest();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            sqlStatistics.endRequest(request.getMethod(), request.getRequestURI());
+        }
+    }
+}
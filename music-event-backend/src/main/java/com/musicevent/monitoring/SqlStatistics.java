@@ -0,0 +1,142 @@
+package com.musicevent.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Aggregates statement timings reported by InstrumentedDataSource, keyed by the
+ * normalized SQL and the repository method that issued it. Statements slower
+ * than app.sql.slow-threshold-ms are logged (sampled) with literals stripped,
+ * and repeated identical SELECTs within one request are flagged as N+1.
+ */
+@Component
+public class SqlStatistics {
+    private static final Logger log = LoggerFactory.getLogger(SqlStatistics.class);
+    private static final Logger slowLog = LoggerFactory.getLogger("sql.slow");
+    
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_NORMALIZED_CACHE = 2_000;
+    private static final int MAX_KEYS = 5_000;
+    private static final int MAX_N_PLUS_ONE_REPORTS = 100;
+    
+    private final Map<String, String> normalized = new ConcurrentHashMap<>();
+    private final Map<String, StatementStats> stats = new ConcurrentHashMap<>();
+    private final Deque<Map<String, Object>> nPlusOneReports = new ArrayDeque<>();
+    private final ThreadLocal<Map<String, Integer>> requestCounts = new ThreadLocal<>();
+    
+    @Value("${app.sql.slow-threshold-ms:200}")
+    private long slowThresholdMs;
+    
+    @Value("${app.sql.slow-log-sample-rate:1.0}")
+    private double slowLogSampleRate;
+    
+    @Value("${app.sql.n-plus-one-threshold:10}")
+    private int nPlusOneThreshold;
+    
+    public void record(String sql, long nanos) {
+        String key = normalize(sql);
+        String caller = RepositoryCallTracker.currentCaller();
+        StatementStats entry = stats.get(key + '\u0000' + caller);
+        if (entry == null) {
+            if (stats.size() >= MAX_KEYS) {
+                entry = stats.computeIfAbsent("(other)\u0000(other)", k -> new StatementStats("(other)", "(other)"));
+            } else {
+                entry = stats.computeIfAbsent(key + '\u0000' + caller, k -> new StatementStats(key, caller));
+            }
+        }
+        entry.record(nanos);
+        
+        Map<String, Integer> perRequest = requestCounts.get();
+        if (perRequest != null) {
+            perRequest.merge(key, 1, Integer::sum);
+        }
+        
+        long millis = nanos / 1_000_000;
+        if (millis >= slowThresholdMs && ThreadLocalRandom.current().nextDouble() < slowLogSampleRate) {
+            slowLog.warn("{} ms [{}] {}", millis, caller, key);
+        }
+    }
+    
+    public String normalize(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String cached = normalized.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String result = STRING_LITERAL.matcher(sql).replaceAll("?");
+        result = NUMERIC_LITERAL.matcher(result).replaceAll("?");
+        result = IN_LIST.matcher(result).replaceAll("(?...)");
+        result = WHITESPACE.matcher(result).replaceAll(" ").trim();
+        if (normalized.size() < MAX_NORMALIZED_CACHE) {
+            normalized.put(sql, result);
+        }
+        return result;
+    }
+    
+    void beginRequest() {
+        requestCounts.set(new HashMap<>());
+    }
+    
+    void endRequest(String method, String path) {
+        Map<String, Integer> counts = requestCounts.get();
+        requestCounts.remove();
+        if (counts == null) {
+            return;
+        }
+        counts.forEach((sql, count) -> {
+            if (count >= nPlusOneThreshold && sql.regionMatches(true, 0, "select", 0, 6)) {
+                log.warn("Possible N+1: {} {} ran the same query {} times: {}", method, path, count, sql);
+                Map<String, Object> report = new LinkedHashMap<>();
+                report.put("request", method + " " + path);
+                report.put("executions", count);
+                report.put("sql", sql);
+                report.put("at", System.currentTimeMillis());
+                synchronized (nPlusOneReports) {
+                    if (nPlusOneReports.size() == MAX_N_PLUS_ONE_REPORTS) {
+                        nPlusOneReports.removeFirst();
+                    }
+                    nPlusOneReports.addLast(report);
+                }
+            }
+        });
+    }
+    
+    public List<Map<String, Object>> topStatements(int limit) {
+        return stats.values().stream()
+                .sorted(Comparator.comparingLong(StatementStats::getTotalNanos).reversed())
+                .limit(limit)
+                .map(StatementStats::snapshot)
+                .toList();
+    }
+    
+    public List<Map<String, Object>> nPlusOneReports() {
+        synchronized (nPlusOneReports) {
+            return List.copyOf(nPlusOneReports);
+        }
+    }
+    
+    public void reset() {
+        stats.clear();
+        synchronized (nPlusOneReports) {
+            nPlusOneReports.clear();
+        }
+    }
+}
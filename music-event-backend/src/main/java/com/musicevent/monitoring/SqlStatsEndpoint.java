@@ -0,0 +1,37 @@
+package com.musicevent.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET /actuator/sqlstats?limit=50 - per-statement latency, slowest total first.
+ * DELETE /actuator/sqlstats - reset counters.
+ */
+@Component
+@Endpoint(id = "sqlstats")
+public class SqlStatsEndpoint {
+    private final SqlStatistics sqlStatistics;
+    
+    public SqlStatsEndpoint(SqlStatistics sqlStatistics) {
+        this.sqlStatistics = sqlStatistics;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> stats(@Nullable Integer limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statements", sqlStatistics.topStatements(limit != null ? limit : 50));
+        result.put("nPlusOne", sqlStatistics.nPlusOneReports());
+        return result;
+    }
+    
+    @DeleteOperation
+    public void reset() {
+        sqlStatistics.reset();
+    }
+}
@@ -0,0 +1,85 @@
+package com.musicevent.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram for one (normalized SQL, caller) pair.
+ * Fixed millisecond buckets keep recording to a couple of adds.
+ */
+public class StatementStats {
+    static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, Long.MAX_VALUE};
+    
+    private final String sql;
+    private final String caller;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MS.length];
+    
+    public StatementStats(String sql, String caller) {
+        this.sql = sql;
+        this.caller = caller;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+    
+    public void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        long millis = nanos / 1_000_000;
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (millis < BUCKET_BOUNDS_MS[i]) {
+                buckets[i].increment();
+                return;
+            }
+        }
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+    
+    public Map<String, Object> snapshot() {
+        long n = count.sum();
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sql", sql);
+        result.put("caller", caller);
+        result.put("count", n);
+        result.put("totalMs", totalNanos.sum() / 1_000_000.0);
+        result.put("meanMs", n == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / n);
+        result.put("maxMs", maxNanos.get() / 1_000_000.0);
+        result.put("p50Ms", percentile(counts, n, 0.50));
+        result.put("p95Ms", percentile(counts, n, 0.95));
+        result.put("p99Ms", percentile(counts, n, 0.99));
+        return result;
+    }
+    
+    // Upper bound of the bucket holding the requested rank
+    private static Long percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return BUCKET_BOUNDS_MS[i] == Long.MAX_VALUE ? null : BUCKET_BOUNDS_MS[i];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.musicevent.outbox;
+
+public record BookingCancelled(Long bookingId, Long eventId, Long userId, Integer tickets) implements DomainEvent {
+
+    @Override
+    public String aggregateType() {
+        return "booking";
+    }
+
+    @Override
+    public Long aggregateId() {
+        return bookingId;
+    }
+}
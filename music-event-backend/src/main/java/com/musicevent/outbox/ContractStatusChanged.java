@@ -0,0 +1,24 @@
+package com.musicevent.outbox;
+
+import com.musicevent.entity.Contract;
+
+/**
+ * A contract moved to a new status. previousStatus is null for a new offer.
+ */
+public record ContractStatusChanged(Long contractId,
+                                    Long organizerId,
+                                    Long artistId,
+                                    Contract.ContractStatus previousStatus,
+                                    Contract.ContractStatus status,
+                                    Long eventId) implements DomainEvent {
+
+    @Override
+    public String aggregateType() {
+        return "contract";
+    }
+
+    @Override
+    public Long aggregateId() {
+        return contractId;
+    }
+}
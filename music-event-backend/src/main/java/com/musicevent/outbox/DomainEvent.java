@@ -0,0 +1,11 @@
+package com.musicevent.outbox;
+
+/**
+ * Something that happened to an aggregate, recorded in the outbox in the same
+ * transaction as the change. Events of one aggregate are delivered in order.
+ */
+public interface DomainEvent {
+    String aggregateType();
+
+    Long aggregateId();
+}
@@ -0,0 +1,18 @@
+package com.musicevent.outbox;
+
+/**
+ * Consumer of outbox events, picked up from the context by OutboxDispatcher.
+ * Delivery is at-least-once: an event is handled again when the dispatcher
+ * loses its lease before recording the batch, or when another handler of the
+ * same event throws. Handlers with lasting effects must be idempotent; ones
+ * that only feed approximate figures, such as DomainEventMetrics, may count a
+ * repeat twice. Events of one aggregate arrive in order; different aggregates
+ * are handled in parallel.
+ * Throwing makes the dispatcher retry the event (and hold back later events of
+ * the same aggregate) until app.outbox.max-attempts is reached.
+ */
+public interface DomainEventHandler<E extends DomainEvent> {
+    Class<E> eventType();
+
+    void handle(E event) throws Exception;
+}
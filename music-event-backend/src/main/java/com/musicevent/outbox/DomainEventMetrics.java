@@ -0,0 +1,96 @@
+package com.musicevent.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Business counters fed from the outbox rather than from request threads:
+ * bookings and tickets sold or returned, contract transitions and registrations
+ * by role. They are approximate: a redelivered event is counted again, and
+ * each node counts what it dispatched while holding the lease, so the totals
+ * are summed across nodes. Use the bookings and contracts tables for exact
+ * figures.
+ */
+public final class DomainEventMetrics {
+    
+    private DomainEventMetrics() {
+    }
+    
+    @Component
+    static class Bookings implements DomainEventHandler<BookingCreated> {
+        private final MeterRegistry meterRegistry;
+        
+        Bookings(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+        
+        @Override
+        public Class<BookingCreated> eventType() {
+            return BookingCreated.class;
+        }
+        
+        @Override
+        public void handle(BookingCreated event) {
+            meterRegistry.counter("domain.bookings").increment();
+            meterRegistry.counter("domain.tickets.sold").increment(event.tickets());
+        }
+    }
+    
+    @Component
+    static class Cancellations implements DomainEventHandler<BookingCancelled> {
+        private final MeterRegistry meterRegistry;
+        
+        Cancellations(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+        
+        @Override
+        public Class<BookingCancelled> eventType() {
+            return BookingCancelled.class;
+        }
+        
+        @Override
+        public void handle(BookingCancelled event) {
+            meterRegistry.counter("domain.bookings.cancelled").increment();
+            meterRegistry.counter("domain.tickets.returned").increment(event.tickets());
+        }
+    }
+    
+    @Component
+    static class Contracts implements DomainEventHandler<ContractStatusChanged> {
+        private final MeterRegistry meterRegistry;
+        
+        Contracts(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+        
+        @Override
+        public Class<ContractStatusChanged> eventType() {
+            return ContractStatusChanged.class;
+        }
+        
+        @Override
+        public void handle(ContractStatusChanged event) {
+            meterRegistry.counter("domain.contracts", "status", event.status().name()).increment();
+        }
+    }
+    
+    @Component
+    static class Registrations implements DomainEventHandler<UserRegistered> {
+        private final MeterRegistry meterRegistry;
+        
+        Registrations(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+        
+        @Override
+        public Class<UserRegistered> eventType() {
+            return UserRegistered.class;
+        }
+        
+        @Override
+        public void handle(UserRegistered event) {
+            meterRegistry.counter("domain.registrations", "role", event.role().name()).increment();
+        }
+    }
+}
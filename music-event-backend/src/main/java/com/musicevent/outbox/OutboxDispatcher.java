@@ -0,0 +1,313 @@
+package com.musicevent.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicevent.entity.OutboxEvent;
+import com.musicevent.repository.OutboxEventRepository;
+import com.musicevent.service.JobLockService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox in batches and hands events to every DomainEventHandler for
+ * their type. Only the node holding the "outbox-dispatcher" lease dispatches,
+ * which keeps per-aggregate order across the cluster. Within a batch, events
+ * are grouped by aggregate: groups run in parallel, events inside a group run
+ * in id order, and a failure holds back the rest of its group. A failed event
+ * waits for its retry in the row (next_attempt_at), and the batch query leaves
+ * it and the later events of its aggregate out until then, so events in
+ * backoff never fill a batch. Delivery is at-least-once.
+ * <p>
+ * Auto-increment ids are handed out at insert but become visible at commit,
+ * so an aggregate's earlier event can show up after its later one. As in
+ * ChangeLogTailer, ids skipped by the cursor are remembered and looked up on
+ * every poll; batches stop below the oldest one until it appears or
+ * app.outbox.gap-timeout passes (a rolled-back insert never appears).
+ * <p>
+ * The lease is renewed between batches, and completions and failures are only
+ * written while it is still held: each such transaction locks the lease row,
+ * so a node that has lost the lease mid-batch can't overwrite the new
+ * leader's progress (its deliveries are simply repeated).
+ */
+@Component
+public class OutboxDispatcher implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private static final String LOCK_NAME = "outbox-dispatcher";
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final JobLockService jobLockService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, List<DomainEventHandler<?>>> handlers = new LinkedHashMap<>();
+    private final Map<String, Class<? extends DomainEvent>> eventTypes = new LinkedHashMap<>();
+    private final ExecutorService workers;
+    private final AtomicLong lagMillis = new AtomicLong();
+    // Skipped id -> when it was first skipped; only touched by poll(), which never overlaps itself
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+    // Highest id seen by this leadership term, or -1 before its first poll
+    private long cursor = -1;
+    private volatile boolean leader;
+    private volatile boolean newTerm;
+    private volatile long leaseCheckAt;
+    
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+    
+    @Value("${app.outbox.retry-backoff:PT5S}")
+    private Duration retryBackoff;
+    
+    @Value("${app.outbox.lock-at-most:PT30S}")
+    private Duration lockAtMost;
+    
+    @Value("${app.outbox.gap-timeout:PT5S}")
+    private Duration gapTimeout;
+    
+    @Value("${app.outbox.max-gaps:1000}")
+    private int maxGaps;
+    
+    @Value("${app.outbox.retention:P7D}")
+    private Duration retention;
+    
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            JobLockService jobLockService,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            List<DomainEventHandler<?>> handlerBeans,
+                            @Value("${app.outbox.handler-threads:4}") int handlerThreads) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.jobLockService = jobLockService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        for (DomainEventHandler<?> handler : handlerBeans) {
+            String type = handler.eventType().getSimpleName();
+            handlers.computeIfAbsent(type, t -> new ArrayList<>()).add(handler);
+            eventTypes.put(type, handler.eventType());
+        }
+        this.workers = Executors.newFixedThreadPool(handlerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("outbox.lag.ms", lagMillis);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void poll() {
+        if (!holdLease()) {
+            return;
+        }
+        if (newTerm || cursor < 0) {
+            newTerm = false;
+            // Ids older than the gap timeout are settled; anything newer is tracked from here
+            gaps.clear();
+            cursor = outboxEventRepository.findMaxIdCreatedBefore(LocalDateTime.now().minus(gapTimeout));
+        }
+        recheckGaps();
+        List<OutboxEvent> batch;
+        do {
+            advanceCursor();
+            long upTo = gaps.isEmpty() ? cursor : gaps.keySet().iterator().next() - 1;
+            batch = outboxEventRepository.findDue(OutboxEvent.OutboxStatus.PENDING, upTo, LocalDateTime.now(),
+                    PageRequest.of(0, batchSize));
+            lagMillis.set(batch.isEmpty() ? 0
+                    : Duration.between(batch.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+            if (batch.isEmpty() || !dispatch(batch)) {
+                break;
+            }
+        } while (batch.size() == batchSize && renewLease());
+    }
+    
+    /** Moves the cursor over newly visible ids, remembering the ones it skips. */
+    private void advanceCursor() {
+        List<Long> ids = outboxEventRepository.findIdsAfter(cursor, PageRequest.of(0, batchSize));
+        long now = System.currentTimeMillis();
+        for (Long id : ids) {
+            for (long skipped = cursor + 1; skipped < id && gaps.size() < maxGaps; skipped++) {
+                gaps.put(skipped, now);
+            }
+            cursor = id;
+        }
+    }
+    
+    /** Forgets skipped ids that have appeared since, or have been missing for longer than the gap timeout. */
+    private void recheckGaps() {
+        if (gaps.isEmpty()) {
+            return;
+        }
+        outboxEventRepository.findExistingIds(List.copyOf(gaps.keySet())).forEach(gaps::remove);
+        long expiredBefore = System.currentTimeMillis() - gapTimeout.toMillis();
+        for (Iterator<Long> firstSeen = gaps.values().iterator(); firstSeen.hasNext(); ) {
+            if (firstSeen.next() < expiredBefore) {
+                firstSeen.remove();
+            }
+        }
+    }
+    
+    /** Dispatches one batch; false when the lease was lost before its completions could be recorded. */
+    private boolean dispatch(List<OutboxEvent> batch) {
+        Map<String, List<OutboxEvent>> byAggregate = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            byAggregate.computeIfAbsent(event.getAggregateType() + ":" + event.getAggregateId(),
+                    key -> new ArrayList<>()).add(event);
+        }
+        Queue<Long> done = new ConcurrentLinkedQueue<>();
+        CompletableFuture<?>[] groups = byAggregate.values().stream()
+                .map(events -> CompletableFuture.runAsync(() -> dispatchInOrder(events, done), workers))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(groups).join();
+        if (done.isEmpty()) {
+            return true;
+        }
+        boolean held = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!jobLockService.holdsUntilCommit(LOCK_NAME)) {
+                return false;
+            }
+            outboxEventRepository.markDispatched(
+                    List.copyOf(done), OutboxEvent.OutboxStatus.DISPATCHED, LocalDateTime.now());
+            return true;
+        }));
+        if (!held) {
+            leader = false;
+            log.warn("Outbox lease lost during a batch; {} delivered events stay pending for the new leader",
+                    done.size());
+        }
+        return held;
+    }
+    
+    private void dispatchInOrder(List<OutboxEvent> events, Queue<Long> done) {
+        for (OutboxEvent event : events) {
+            try {
+                deliver(event);
+                done.add(event.getId());
+            } catch (Exception e) {
+                recordFailure(event, e);
+                if (event.getAttempts() + 1 < maxAttempts) {
+                    // Later events of this aggregate wait until this one succeeds or is parked
+                    return;
+                }
+            }
+        }
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void deliver(OutboxEvent event) throws Exception {
+        List<DomainEventHandler<?>> targets = handlers.get(event.getEventType());
+        if (targets == null) {
+            return;
+        }
+        DomainEvent payload = objectMapper.readValue(event.getPayload(), eventTypes.get(event.getEventType()));
+        for (DomainEventHandler handler : targets) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            handler.handle(payload);
+            sample.stop(meterRegistry.timer("outbox.handler", "event", event.getEventType(),
+                    "handler", handler.getClass().getSimpleName()));
+        }
+    }
+    
+    private void recordFailure(OutboxEvent event, Exception e) {
+        boolean parked = event.getAttempts() + 1 >= maxAttempts;
+        String error = String.valueOf(e.getMessage());
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(retryBackoff.multipliedBy(event.getAttempts() + 1));
+        transactionTemplate.executeWithoutResult(status -> {
+            if (jobLockService.holdsUntilCommit(LOCK_NAME)) {
+                outboxEventRepository.recordFailure(event.getId(),
+                        error.length() > 512 ? error.substring(0, 512) : error,
+                        parked ? OutboxEvent.OutboxStatus.FAILED : OutboxEvent.OutboxStatus.PENDING,
+                        nextAttemptAt);
+            }
+        });
+        Counter.builder("outbox.failures").tag("event", event.getEventType())
+                .tag("parked", Boolean.toString(parked)).register(meterRegistry).increment();
+        if (parked) {
+            log.error("Outbox event {} ({}) parked after {} attempts", event.getId(), event.getEventType(),
+                    maxAttempts, e);
+        } else {
+            log.warn("Outbox event {} ({}) failed, will retry: {}", event.getId(), event.getEventType(),
+                    e.getMessage());
+        }
+    }
+    
+    /**
+     * Keeps (or tries to take) the dispatcher lease. The lock table is only
+     * touched every lockAtMost/2, not on every poll, so both the leader and the
+     * standby nodes cost one lock write per interval.
+     */
+    private boolean holdLease() {
+        long now = System.currentTimeMillis();
+        if (now < leaseCheckAt) {
+            return leader;
+        }
+        if (leader) {
+            leader = jobLockService.renew(LOCK_NAME, lockAtMost);
+        }
+        if (!leader && jobLockService.tryAcquire(LOCK_NAME, lockAtMost)) {
+            leader = true;
+            // Gap tracking from an earlier term may be stale
+            newTerm = true;
+        }
+        leaseCheckAt = now + lockAtMost.toMillis() / 2;
+        return leader;
+    }
+    
+    /** Renews the lease outright between batches, so a long drain never runs on a lease about to lapse. */
+    private boolean renewLease() {
+        leader = jobLockService.renew(LOCK_NAME, lockAtMost);
+        leaseCheckAt = System.currentTimeMillis() + lockAtMost.toMillis() / 2;
+        return leader;
+    }
+    
+    @Scheduled(cron = "${app.outbox.purge-cron:0 17 * * * *}")
+    public void purge() {
+        if (!holdLease()) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int purged = 0;
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                    outboxEventRepository.purgeDispatched(cutoff, batchSize));
+            purged += deleted;
+        } while (deleted == batchSize);
+        if (purged > 0) {
+            log.info("Purged {} dispatched outbox events older than {}", purged, retention);
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        workers.shutdown();
+        if (leader) {
+            jobLockService.release(LOCK_NAME);
+        }
+    }
+}
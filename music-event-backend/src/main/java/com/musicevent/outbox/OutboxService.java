@@ -0,0 +1,38 @@
+package com.musicevent.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicevent.entity.OutboxEvent;
+import com.musicevent.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * Records the event in the caller's transaction; it is only dispatched if
+     * that transaction commits. This is a single insert, so request
+     * transactions don't grow with the number of consumers.
+     */
+    public void append(DomainEvent event) {
+        OutboxEvent row = new OutboxEvent();
+        row.setAggregateType(event.aggregateType());
+        row.setAggregateId(event.aggregateId());
+        row.setEventType(event.getClass().getSimpleName());
+        try {
+            row.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event, e);
+        }
+        outboxEventRepository.save(row);
+    }
+}
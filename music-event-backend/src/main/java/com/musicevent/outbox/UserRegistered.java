@@ -0,0 +1,16 @@
+package com.musicevent.outbox;
+
+import com.musicevent.entity.User;
+
+public record UserRegistered(Long userId, User.Role role) implements DomainEvent {
+
+    @Override
+    public String aggregateType() {
+        return "user";
+    }
+
+    @Override
+    public Long aggregateId() {
+        return userId;
+    }
+}
@@ -0,0 +1,223 @@
+package com.musicevent.recommend;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * "Fans also booked" model: for every event, how many users booked both it and
+ * each other event. A booking pairs the event with the user's previous
+ * max-history events, and each event keeps at most max-neighbours partners
+ * (rows are trimmed back to their strongest partners when they grow past
+ * twice that). Candidates are ranked by co-bookings / sqrt(bookers of the
+ * candidate), so events that everyone books don't crowd out the rest.
+ * All keys are primitive longs. Not thread-safe; RecommendationService
+ * guards it with a read/write lock.
+ */
+final class CoOccurrenceModel {
+    private static final long[] NONE = new long[0];
+
+    private final int maxHistory;
+    private final int maxNeighbours;
+    // event -> co-booked event -> number of users who booked both
+    private final LongObjectHashMap<LongIntHashMap> pairs;
+    // event -> distinct users who booked it
+    private final LongIntHashMap bookers;
+    // user -> their most recent distinct events, oldest first
+    private final LongObjectHashMap<long[]> history;
+    private long bookings;
+
+    CoOccurrenceModel(int maxHistory, int maxNeighbours) {
+        this.maxHistory = maxHistory;
+        this.maxNeighbours = maxNeighbours;
+        this.pairs = new LongObjectHashMap<>();
+        this.bookers = new LongIntHashMap();
+        this.history = new LongObjectHashMap<>();
+    }
+
+    /** Records that the user booked the event; repeat bookings of the same event are ignored. */
+    boolean add(long userId, long eventId) {
+        long[] previous = history.get(userId);
+        if (previous == null) {
+            previous = NONE;
+        }
+        for (long event : previous) {
+            if (event == eventId) {
+                return false;
+            }
+        }
+        bookers.addTo(eventId, 1);
+        for (long event : previous) {
+            increment(eventId, event, 1);
+            increment(event, eventId, 1);
+        }
+        long[] updated;
+        if (previous.length < maxHistory) {
+            updated = Arrays.copyOf(previous, previous.length + 1);
+        } else {
+            updated = new long[maxHistory];
+            System.arraycopy(previous, previous.length - maxHistory + 1, updated, 0, maxHistory - 1);
+        }
+        updated[updated.length - 1] = eventId;
+        history.put(userId, updated);
+        bookings++;
+        return true;
+    }
+
+    /**
+     * Folds in a model built from a disjoint set of users (one rebuild
+     * partition). Call trim() once everything is merged.
+     */
+    void merge(CoOccurrenceModel other) {
+        for (int slot = 0; slot < other.bookers.capacity(); slot++) {
+            long event = other.bookers.keyAt(slot);
+            if (event != 0) {
+                bookers.addTo(event, other.bookers.valueAt(slot));
+            }
+        }
+        for (int slot = 0; slot < other.history.capacity(); slot++) {
+            long user = other.history.keyAt(slot);
+            if (user != 0) {
+                history.put(user, other.history.valueAt(slot));
+            }
+        }
+        for (int slot = 0; slot < other.pairs.capacity(); slot++) {
+            long event = other.pairs.keyAt(slot);
+            if (event == 0) {
+                continue;
+            }
+            LongIntHashMap theirs = other.pairs.valueAt(slot);
+            LongIntHashMap mine = pairs.get(event);
+            if (mine == null) {
+                pairs.put(event, theirs);
+                continue;
+            }
+            for (int i = 0; i < theirs.capacity(); i++) {
+                long partner = theirs.keyAt(i);
+                if (partner != 0) {
+                    mine.addTo(partner, theirs.valueAt(i));
+                }
+            }
+            if (mine.size() > 2 * maxNeighbours) {
+                pairs.put(event, mine.top(maxNeighbours));
+            }
+        }
+        bookings += other.bookings;
+    }
+
+    void trim() {
+        for (int slot = 0; slot < pairs.capacity(); slot++) {
+            long event = pairs.keyAt(slot);
+            if (event != 0) {
+                pairs.put(event, pairs.valueAt(slot).top(maxNeighbours));
+            }
+        }
+    }
+
+    /** Up to limit events most often booked together with the event, best first. */
+    long[] similarTo(long eventId, int limit) {
+        LongIntHashMap row = pairs.get(eventId);
+        if (row == null) {
+            return NONE;
+        }
+        return best(row, null, limit);
+    }
+
+    /** Up to limit events co-booked with the user's history that they haven't booked, best first. */
+    long[] forUser(long userId, int limit) {
+        long[] events = history.get(userId);
+        if (events == null) {
+            return NONE;
+        }
+        LongIntHashMap scores = new LongIntHashMap(events.length * 64);
+        for (long event : events) {
+            LongIntHashMap row = pairs.get(event);
+            if (row == null) {
+                continue;
+            }
+            for (int slot = 0; slot < row.capacity(); slot++) {
+                long partner = row.keyAt(slot);
+                if (partner != 0) {
+                    scores.addTo(partner, row.valueAt(slot));
+                }
+            }
+        }
+        return best(scores, events, limit);
+    }
+
+    long bookings() {
+        return bookings;
+    }
+
+    long pairCount() {
+        long count = 0;
+        for (int slot = 0; slot < pairs.capacity(); slot++) {
+            if (pairs.keyAt(slot) != 0) {
+                count += pairs.valueAt(slot).size();
+            }
+        }
+        return count;
+    }
+
+    /** Estimated heap held by the model, from its array sizes. */
+    long memoryBytes() {
+        long bytes = pairs.memoryBytes() + bookers.memoryBytes() + history.memoryBytes();
+        for (int slot = 0; slot < pairs.capacity(); slot++) {
+            if (pairs.keyAt(slot) != 0) {
+                bytes += pairs.valueAt(slot).memoryBytes();
+            }
+        }
+        for (int slot = 0; slot < history.capacity(); slot++) {
+            if (history.keyAt(slot) != 0) {
+                bytes += 16 + history.valueAt(slot).length * 8L;
+            }
+        }
+        return bytes;
+    }
+
+    private void increment(long event, long partner, int delta) {
+        LongIntHashMap row = pairs.get(event);
+        if (row == null) {
+            row = new LongIntHashMap();
+            pairs.put(event, row);
+        }
+        row.addTo(partner, delta);
+        if (row.size() > 2 * maxNeighbours) {
+            pairs.put(event, row.top(maxNeighbours));
+        }
+    }
+
+    private long[] best(LongIntHashMap counts, long[] exclude, int limit) {
+        // Min-heap on score holding the best `limit` so far
+        PriorityQueue<Candidate> best = new PriorityQueue<>((a, b) -> Double.compare(a.score, b.score));
+        for (int slot = 0; slot < counts.capacity(); slot++) {
+            long event = counts.keyAt(slot);
+            if (event == 0 || (exclude != null && contains(exclude, event))) {
+                continue;
+            }
+            double score = counts.valueAt(slot) / Math.sqrt(Math.max(1, bookers.get(event)));
+            if (best.size() < limit) {
+                best.add(new Candidate(event, score));
+            } else if (score > best.peek().score) {
+                best.poll();
+                best.add(new Candidate(event, score));
+            }
+        }
+        long[] ranked = new long[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = best.poll().event;
+        }
+        return ranked;
+    }
+
+    private static boolean contains(long[] events, long event) {
+        for (long e : events) {
+            if (e == event) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Candidate(long event, double score) {
+    }
+}
@@ -0,0 +1,245 @@
+package com.musicevent.recommend;
+
+import com.musicevent.entity.Booking;
+import com.musicevent.outbox.BookingCreated;
+import com.musicevent.repository.BookingRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "Fans also booked" recommendations served from an in-memory CoOccurrenceModel.
+ * The model is rebuilt from every CONFIRMED booking at startup (before the
+ * instance reports ready) and on app.recommendations.refresh-cron, which also
+ * picks up other nodes' bookings. The rebuild walks users in keyset chunks of
+ * chunk-size on the read pool, at most pool-share of its connections at once,
+ * builds one partial model per chunk in parallel and merges them. Between
+ * rebuilds, this node's bookings are added as they commit.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class EventRecommender implements ApplicationRunner, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(EventRecommender.class);
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate readTransaction;
+    private final ExecutorService workers;
+    private final int parallelism;
+    private final int maxHistory;
+    private final int maxNeighbours;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile CoOccurrenceModel model;
+    // Bookings committed while a rebuild is loading; replayed onto the new model before the swap
+    private List<BookingCreated> duringRebuild;
+    // Walking every row is too slow for a scrape, so size metrics are taken at each rebuild
+    private volatile long modelPairs;
+    private volatile long modelBytes;
+
+    @Value("${app.recommendations.chunk-size:5000}")
+    private int chunkSize;
+
+    public EventRecommender(BookingRepository bookingRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Qualifier("readPool") HikariDataSource readPool,
+                            @Value("${app.recommendations.pool-share:0.5}") double poolShare,
+                            @Value("${app.recommendations.max-history:50}") int maxHistory,
+                            @Value("${app.recommendations.max-neighbours:100}") int maxNeighbours) {
+        this.bookingRepository = bookingRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.parallelism = Math.max(1, (int) (readPool.getMaximumPoolSize() * poolShare));
+        this.workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxHistory = maxHistory;
+        this.maxNeighbours = maxNeighbours;
+        this.model = new CoOccurrenceModel(maxHistory, maxNeighbours);
+        meterRegistry.gauge("recommendations.model.bookings", this, recommender -> recommender.bookings());
+        meterRegistry.gauge("recommendations.model.pairs", this, recommender -> recommender.modelPairs);
+        meterRegistry.gauge("recommendations.model.bytes", this, recommender -> recommender.modelBytes);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${app.recommendations.refresh-cron:0 15 * * * *}")
+    public void refresh() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookingCreated(BookingCreated booking) {
+        lock.writeLock().lock();
+        try {
+            model.add(booking.userId(), booking.eventId());
+            if (duringRebuild != null) {
+                duringRebuild.add(booking);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Ids of events most often booked by people who booked this one, best first. */
+    public long[] similarTo(long eventId, int limit) {
+        lock.readLock().lock();
+        try {
+            return model.similarTo(eventId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ids of events co-booked with the user's recent bookings that they haven't booked, best first. */
+    public long[] forUser(long userId, int limit) {
+        lock.readLock().lock();
+        try {
+            return model.forUser(userId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (duringRebuild != null) {
+                return;
+            }
+            duringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long started = System.nanoTime();
+        CoOccurrenceModel fresh;
+        try {
+            fresh = load();
+        } catch (Exception e) {
+            lock.writeLock().lock();
+            try {
+                duringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            log.error("Recommendation rebuild failed, keeping the current model", e);
+            return;
+        }
+        // Measured before the swap: once live, the model is only read under the lock
+        long bookings = fresh.bookings();
+        long bytes = fresh.memoryBytes();
+        modelPairs = fresh.pairCount();
+        modelBytes = bytes;
+        lock.writeLock().lock();
+        try {
+            duringRebuild.forEach(booking -> fresh.add(booking.userId(), booking.eventId()));
+            duringRebuild = null;
+            model = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Recommendation model loaded {} bookings in {} ms: {} pairs, {} MB ({} MB per million bookings)",
+                bookings, Duration.ofNanos(System.nanoTime() - started).toMillis(), modelPairs,
+                bytes >> 20, bookings == 0 ? 0 : (bytes * 1_000_000 / bookings) >> 20);
+    }
+
+    private CoOccurrenceModel load() throws Exception {
+        Semaphore connections = new Semaphore(parallelism);
+        List<Future<CoOccurrenceModel>> chunks = new ArrayList<>();
+        try {
+            long after = 0;
+            while (true) {
+                long chunkStart = after;
+                // Same permit scheme as InventoryReconciliationJob: the boundary lookup and its chunk share one
+                connections.acquire();
+                Long chunkEnd;
+                try {
+                    chunkEnd = readTransaction.execute(status ->
+                            bookingRepository.findUserChunkEnd(chunkStart, chunkSize));
+                } catch (RuntimeException e) {
+                    connections.release();
+                    throw e;
+                }
+                if (chunkEnd == null) {
+                    connections.release();
+                    break;
+                }
+                chunks.add(workers.submit(() -> {
+                    try {
+                        return loadChunk(chunkStart, chunkEnd);
+                    } finally {
+                        connections.release();
+                    }
+                }));
+                after = chunkEnd;
+            }
+            CoOccurrenceModel merged = new CoOccurrenceModel(maxHistory, maxNeighbours);
+            for (Future<CoOccurrenceModel> chunk : chunks) {
+                merged.merge(chunk.get());
+            }
+            merged.trim();
+            return merged;
+        } catch (Exception e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            throw e;
+        }
+    }
+
+    private CoOccurrenceModel loadChunk(long after, long upTo) {
+        List<BookingRepository.BookedPair> pairs = readTransaction.execute(status ->
+                bookingRepository.findBookedPairs(after, upTo, Booking.BookingStatus.CONFIRMED));
+        CoOccurrenceModel partial = new CoOccurrenceModel(maxHistory, maxNeighbours);
+        if (pairs != null) {
+            for (BookingRepository.BookedPair pair : pairs) {
+                partial.add(pair.userId(), pair.eventId());
+            }
+        }
+        return partial;
+    }
+
+    private long bookings() {
+        lock.readLock().lock();
+        try {
+            return model.bookings();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,157 @@
+package com.musicevent.recommend;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing long to int map with linear probing, about 16 bytes per
+ * entry at full load instead of ~80 for a {@code HashMap<Long, Integer>}. Key 0
+ * marks an empty slot, which is fine for database ids. Not thread-safe.
+ */
+final class LongIntHashMap {
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+
+    LongIntHashMap() {
+        this(4);
+    }
+
+    LongIntHashMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long key) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    /** Adds delta to the key's value (absent keys start at 0) and returns the new value. */
+    int addTo(long key, int delta) {
+        checkKey(key);
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot] += delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return delta;
+    }
+
+    // Slot-level iteration avoids boxing and lambdas on hot paths; empty slots have key 0
+    int capacity() {
+        return keys.length;
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    int valueAt(int slot) {
+        return values[slot];
+    }
+
+    /** A new map with the `limit` entries of highest value. */
+    LongIntHashMap top(int limit) {
+        if (size <= limit) {
+            return this;
+        }
+        int[] sorted = new int[size];
+        int n = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                sorted[n++] = values[slot];
+            }
+        }
+        Arrays.sort(sorted);
+        int threshold = sorted[size - limit];
+        LongIntHashMap kept = new LongIntHashMap(limit);
+        for (int slot = 0; slot < keys.length && kept.size < limit; slot++) {
+            if (keys[slot] != 0 && values[slot] > threshold) {
+                kept.addTo(keys[slot], values[slot]);
+            }
+        }
+        // Ties at the threshold fill whatever room is left
+        for (int slot = 0; slot < keys.length && kept.size < limit; slot++) {
+            if (keys[slot] != 0 && values[slot] == threshold) {
+                kept.addTo(keys[slot], values[slot]);
+            }
+        }
+        return kept;
+    }
+
+    long memoryBytes() {
+        return 32 + 16 + keys.length * 8L + 16 + values.length * 4L;
+    }
+
+    private int find(long key) {
+        if (key == 0) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    static int tableSize(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(1, expectedSize) / LOAD_FACTOR) + 1;
+        return Math.max(4, Integer.highestOneBit(needed - 1) << 1);
+    }
+
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static void checkKey(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+    }
+}
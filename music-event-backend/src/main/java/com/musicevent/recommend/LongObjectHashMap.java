@@ -0,0 +1,103 @@
+package com.musicevent.recommend;
+
+/**
+ * Open-addressing long to object map with linear probing; the primitive-key
+ * counterpart of LongIntHashMap for per-event rows and per-user histories.
+ * Key 0 marks an empty slot. No removal is needed by the model. Not
+ * thread-safe.
+ */
+final class LongObjectHashMap<V> {
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int resizeAt;
+
+    LongObjectHashMap() {
+        this(4);
+    }
+
+    LongObjectHashMap(int expectedSize) {
+        allocate(LongIntHashMap.tableSize(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (key == 0) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        int slot = LongIntHashMap.hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    void put(long key, V value) {
+        LongIntHashMap.checkKey(key);
+        int mask = keys.length - 1;
+        int slot = LongIntHashMap.hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    /** Bytes of the table itself, not of the values it points to (compressed references). */
+    long memoryBytes() {
+        return 32 + 16 + keys.length * 8L + 16 + values.length * 4L;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = LongIntHashMap.hash(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+}
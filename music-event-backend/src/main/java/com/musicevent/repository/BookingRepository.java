@@ -1,19 +1,67 @@
 package com.musicevent.repository;
 
+import com.musicevent.dto.WalletEntry;
+import com.musicevent.dto.WalletSummary;
 import com.musicevent.entity.Booking;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
 import java.util.List;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByUserId(Long userId);
     List<Booking> findByEventId(Long eventId);
+    
+    // 0 when the booking is not (or no longer) CONFIRMED
+    @Modifying
+    @Query(value = "UPDATE bookings SET status = 'CANCELLED' WHERE id = :id AND status = 'CONFIRMED'",
+            nativeQuery = true)
+    int cancelIfConfirmed(@Param("id") Long id);
+    
+    // Keyset chunk boundary for the recommendation rebuild: the last of the next n users with bookings
+    @Query(value = "SELECT MAX(user_id) FROM (SELECT DISTINCT user_id FROM bookings " +
+            "WHERE user_id > :after AND status = 'CONFIRMED' ORDER BY user_id LIMIT :n) chunk",
+            nativeQuery = true)
+    Long findUserChunkEnd(@Param("after") long after, @Param("n") int n);
+    
+    // Confirmed (user, event) pairs of users in (after, upTo], each user's in booking order
+    @Query("SELECT new com.musicevent.repository.BookingRepository$BookedPair(b.userId, b.eventId) " +
+            "FROM Booking b WHERE b.userId > :after AND b.userId <= :upTo AND b.status = :status " +
+            "ORDER BY b.userId, b.id")
+    List<BookedPair> findBookedPairs(@Param("after") long after, @Param("upTo") long upTo,
+                                     @Param("status") Booking.BookingStatus status);
+    
+    // Wallet: the user's bookings with the event fields shown on a ticket, one join per page.
+    // Driven by idx_booking_user_status_event (user_id prefix), events by primary key
+    String WALLET_SELECT = "SELECT new com.musicevent.dto.WalletEntry(b.id, b.tickets, b.qrCode, b.status, " +
+            "b.bookingDate, e.id, e.name, e.emoji, e.date, e.time, e.location, e.price, e.status) " +
+            "FROM Booking b JOIN Event e ON e.id = b.eventId WHERE b.userId = :userId ";
+    
+    @Query(WALLET_SELECT + "AND e.date >= :today ORDER BY e.date, e.time, b.id")
+    Slice<WalletEntry> findUpcomingWallet(@Param("userId") Long userId, @Param("today") LocalDate today,
+                                          Pageable pageable);
+    
+    @Query(WALLET_SELECT + "AND e.date < :today ORDER BY e.date DESC, e.time DESC, b.id DESC")
+    Slice<WalletEntry> findPastWallet(@Param("userId") Long userId, @Param("today") LocalDate today,
+                                      Pageable pageable);
+    
+    // Counts per side and what the user has spent on bookings in the spent status (not cancelled ones), over the same join
+    @Query("SELECT new com.musicevent.dto.WalletSummary(" +
+            "COALESCE(SUM(CASE WHEN e.date >= :today THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN e.date < :today THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.status = :spent " +
+            "THEN e.price * b.tickets ELSE 0.0 END), 0.0)) " +
+            "FROM Booking b JOIN Event e ON e.id = b.eventId WHERE b.userId = :userId")
+    WalletSummary findWalletSummary(@Param("userId") Long userId, @Param("today") LocalDate today,
+                                    @Param("spent") Booking.BookingStatus spent);
+    
+    record BookedPair(Long userId, Long eventId) {
+    }
 }
-
-
-
-
-
-
-
@@ -0,0 +1,30 @@
+package com.musicevent.repository;
+
+import com.musicevent.changelog.ChangeType;
+import com.musicevent.entity.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ChangeLogEntryRepository extends JpaRepository<ChangeLogEntry, Long> {
+    
+    List<ChangeLogEntry> findByIdGreaterThanOrderById(Long after, Pageable page);
+    
+    List<ChangeLogEntry> findByIdInOrderById(Collection<Long> ids);
+    
+    List<ChangeLogEntry> findByChangeTypeAndCreatedAtAfter(ChangeType changeType, LocalDateTime after);
+    
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM ChangeLogEntry c")
+    long findMaxId();
+    
+    @Modifying
+    @Query(value = "DELETE FROM change_log WHERE created_at < :cutoff LIMIT :limit", nativeQuery = true)
+    int purgeOlderThan(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -1,8 +1,17 @@
 package com.musicevent.repository;
 
 import com.musicevent.entity.Contract;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
 @Repository
@@ -11,11 +20,30 @@ public interface ContractRepository extends JpaRepository<Contract, Long> {
     List<Contract> findByOrganizerId(Long organizerId);
     List<Contract> findByArtistIdAndStatus(Long artistId, Contract.ContractStatus status);
     List<Contract> findByOrganizerIdAndStatus(Long organizerId, Contract.ContractStatus status);
+    
+    @Modifying
+    @Query(value = "UPDATE contracts SET status = 'EXPIRED', updated_at = :now, version = version + 1 " +
+            "WHERE status = 'PENDING' AND event_date < :today LIMIT :limit", nativeQuery = true)
+    int expireStalePending(@Param("today") LocalDate today, @Param("now") LocalDateTime now,
+                           @Param("limit") int limit);
+    
+    // Keyset page of accepted contracts still waiting for their event, for the artist schedule index
+    @Query("SELECT new com.musicevent.repository.ContractRepository$ScheduleRow(c.id, c.artistId, c.eventDate, " +
+            "c.eventTime, c.durationMinutes, c.eventName) FROM Contract c WHERE c.id > :after " +
+            "AND c.status = :status AND c.eventId IS NULL AND c.eventDate >= :from ORDER BY c.id")
+    List<ScheduleRow> findScheduleRows(@Param("after") long after, @Param("status") Contract.ContractStatus status,
+                                       @Param("from") LocalDate from, Pageable page);
+    
+    // Locking read (FOR SHARE) of the artist's accepted contracts between two dates: the committed rows,
+    // whatever snapshot the transaction started with (ArtistScheduleIndex.committedConflicts)
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT c FROM Contract c WHERE c.artistId = :artistId AND c.status = :status " +
+            "AND c.eventDate BETWEEN :from AND :to")
+    List<Contract> findForScheduleCheck(@Param("artistId") Long artistId,
+                                        @Param("status") Contract.ContractStatus status,
+                                        @Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    record ScheduleRow(Long id, Long artistId, LocalDate date, LocalTime time, Integer durationMinutes,
+                       String title) {
+    }
 }
-
-
-
-
-
-
-
@@ -1,21 +1,91 @@
 package com.musicevent.repository;
 
 import com.musicevent.entity.Event;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long> {
     List<Event> findByOrganizerId(Long organizerId);
     List<Event> findByStatusAndDateGreaterThanEqual(Event.EventStatus status, LocalDate date);
     List<Event> findByStatus(Event.EventStatus status);
+    
+    // SELECT ... FOR UPDATE: bookings, cancellations and waitlist changes of one event take turns on its row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e WHERE e.id = :id")
+    Optional<Event> findByIdForUpdate(@Param("id") Long id);
+    
+    // Bounded chunk for the status transition job (MySQL UPDATE ... LIMIT)
+    @Modifying
+    @Query(value = "UPDATE events SET status = 'COMPLETED' " +
+            "WHERE status = 'UPCOMING' AND date < :today LIMIT :limit", nativeQuery = true)
+    int completePastEvents(@Param("today") LocalDate today, @Param("limit") int limit);
+    
+    // Keyset chunk boundary for the inventory reconciliation job: the last id of the next n events
+    @Query(value = "SELECT MAX(id) FROM (SELECT id FROM events WHERE id > :after ORDER BY id LIMIT :n) chunk",
+            nativeQuery = true)
+    Long findChunkEnd(@Param("after") long after, @Param("n") int n);
+    
+    // Events in (after, upTo] whose available_tickets disagrees with total_tickets minus confirmed bookings
+    @Query(value = "SELECT e.id AS id, e.total_tickets AS totalTickets, e.available_tickets AS availableTickets, " +
+            "COALESCE(SUM(b.tickets), 0) AS booked " +
+            "FROM events e LEFT JOIN bookings b ON b.event_id = e.id AND b.status = 'CONFIRMED' " +
+            "WHERE e.id > :after AND e.id <= :upTo " +
+            "GROUP BY e.id, e.total_tickets, e.available_tickets " +
+            "HAVING e.total_tickets - COALESCE(SUM(b.tickets), 0) <> e.available_tickets", nativeQuery = true)
+    List<InventoryDrift> findInventoryDrift(@Param("after") long after, @Param("upTo") long upTo);
+    
+    // Recomputes the counter from bookings in one statement, so it can't race with itself
+    @Modifying
+    @Query(value = "UPDATE events SET available_tickets = GREATEST(0, total_tickets - " +
+            "(SELECT COALESCE(SUM(b.tickets), 0) FROM bookings b WHERE b.event_id = :id AND b.status = 'CONFIRMED')) " +
+            "WHERE id = :id", nativeQuery = true)
+    int recomputeAvailableTickets(@Param("id") Long id);
+    
+    // Keyset page of searchable events for loading the geo index. A constructor expression rather
+    // than an interface projection, which would build a proxy per row
+    @Query("SELECT new com.musicevent.repository.EventRepository$GeoRow(e.id, e.latitude, e.longitude, " +
+            "e.date, e.category) FROM Event e WHERE e.id > :after AND e.status = :status " +
+            "AND e.date >= :from AND e.latitude IS NOT NULL AND e.longitude IS NOT NULL ORDER BY e.id")
+    List<GeoRow> findGeoRows(@Param("after") long after, @Param("status") Event.EventStatus status,
+                             @Param("from") LocalDate from, Pageable page);
+    
+    // Keyset page of events with a musician, for the artist schedule index
+    @Query("SELECT new com.musicevent.repository.EventRepository$ScheduleRow(e.id, e.musicianId, e.date, e.time, " +
+            "e.durationMinutes, e.name) FROM Event e WHERE e.id > :after AND e.musicianId IS NOT NULL " +
+            "AND e.status <> :excluded AND e.date >= :from ORDER BY e.id")
+    List<ScheduleRow> findScheduleRows(@Param("after") long after, @Param("excluded") Event.EventStatus excluded,
+                                       @Param("from") LocalDate from, Pageable page);
+    
+    // Locking read (FOR SHARE) of the musician's events between two dates (ArtistScheduleIndex.committedConflicts)
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT e FROM Event e WHERE e.musicianId = :musicianId AND e.status <> :excluded " +
+            "AND e.date BETWEEN :from AND :to")
+    List<Event> findForScheduleCheck(@Param("musicianId") Long musicianId,
+                                     @Param("excluded") Event.EventStatus excluded,
+                                     @Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    interface InventoryDrift {
+        Long getId();
+        Integer getTotalTickets();
+        Integer getAvailableTickets();
+        Long getBooked();
+    }
+    
+    record GeoRow(Long id, Double latitude, Double longitude, LocalDate date, String category) {
+    }
+    
+    record ScheduleRow(Long id, Long musicianId, LocalDate date, LocalTime time, Integer durationMinutes,
+                       String title) {
+    }
 }
-
-
-
-
-
-
-
@@ -0,0 +1,44 @@
+package com.musicevent.repository;
+
+import com.musicevent.entity.JobLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+    
+    // SELECT ... FOR UPDATE: fences writes made under a lease (JobLockService.holdsUntilCommit)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM JobLock l WHERE l.name = :name")
+    Optional<JobLock> findByNameForUpdate(@Param("name") String name);
+    
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO job_locks (name, locked_until, locked_at, locked_by) " +
+            "VALUES (:name, :now, :now, '')", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE JobLock l SET l.lockedUntil = :until, l.lockedAt = :now, l.lockedBy = :owner " +
+            "WHERE l.name = :name AND l.lockedUntil <= :now")
+    int acquire(@Param("name") String name, @Param("owner") String owner,
+                @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+    
+    @Modifying
+    @Query("UPDATE JobLock l SET l.lockedUntil = :until " +
+            "WHERE l.name = :name AND l.lockedBy = :owner AND l.lockedUntil > :now")
+    int renew(@Param("name") String name, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+    
+    @Modifying
+    @Query("UPDATE JobLock l SET l.lockedUntil = :now " +
+            "WHERE l.name = :name AND l.lockedBy = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner,
+                @Param("now") LocalDateTime now);
+}
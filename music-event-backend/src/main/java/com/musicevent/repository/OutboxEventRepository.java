@@ -0,0 +1,52 @@
+package com.musicevent.repository;
+
+import com.musicevent.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    // Pending events that are due, up to id upTo, in id order. An event whose aggregate has an earlier
+    // pending event still waiting for its retry is left out, so it can't overtake that event
+    @Query("SELECT o FROM OutboxEvent o WHERE o.status = :pending AND o.id <= :upTo AND o.nextAttemptAt <= :now " +
+            "AND NOT EXISTS (SELECT p.id FROM OutboxEvent p WHERE p.aggregateType = o.aggregateType " +
+            "AND p.aggregateId = o.aggregateId AND p.status = :pending AND p.id < o.id " +
+            "AND p.nextAttemptAt > :now) ORDER BY o.id")
+    List<OutboxEvent> findDue(@Param("pending") OutboxEvent.OutboxStatus pending, @Param("upTo") long upTo,
+                              @Param("now") LocalDateTime now, Pageable page);
+    
+    // Gap tracking in OutboxDispatcher: ids visible after the cursor, whatever their status
+    @Query("SELECT o.id FROM OutboxEvent o WHERE o.id > :after ORDER BY o.id")
+    List<Long> findIdsAfter(@Param("after") long after, Pageable page);
+    
+    @Query("SELECT o.id FROM OutboxEvent o WHERE o.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT COALESCE(MAX(o.id), 0) FROM OutboxEvent o WHERE o.createdAt < :cutoff")
+    long findMaxIdCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.status = :status, o.dispatchedAt = :now WHERE o.id IN :ids")
+    int markDispatched(@Param("ids") Collection<Long> ids, @Param("status") OutboxEvent.OutboxStatus status,
+                       @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.attempts = o.attempts + 1, o.lastError = :error, o.status = :status, " +
+            "o.nextAttemptAt = :nextAttemptAt WHERE o.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error,
+                      @Param("status") OutboxEvent.OutboxStatus status,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+    
+    @Modifying
+    @Query(value = "DELETE FROM outbox_events WHERE status = 'DISPATCHED' AND dispatched_at < :cutoff " +
+            "LIMIT :limit", nativeQuery = true)
+    int purgeDispatched(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,29 @@
+package com.musicevent.repository;
+
+import com.musicevent.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+    
+    // 0 when another request already revoked it
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.id = :id AND t.revokedAt IS NULL")
+    int revoke(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.familyId = :familyId AND t.revokedAt IS NULL")
+    int revokeFamily(@Param("familyId") Long familyId, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE expires_at < :cutoff LIMIT :limit", nativeQuery = true)
+    int purgeExpired(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
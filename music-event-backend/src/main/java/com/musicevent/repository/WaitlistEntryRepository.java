@@ -0,0 +1,36 @@
+package com.musicevent.repository;
+
+import com.musicevent.entity.WaitlistEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    
+    boolean existsByEventIdAndUserIdAndStatus(Long eventId, Long userId, WaitlistEntry.WaitlistStatus status);
+    
+    List<WaitlistEntry> findByUserIdAndStatusOrderById(Long userId, WaitlistEntry.WaitlistStatus status);
+    
+    // Head of the event's queue, earliest first (idx_waitlist_event_status)
+    List<WaitlistEntry> findByEventIdAndStatusOrderById(Long eventId, WaitlistEntry.WaitlistStatus status,
+                                                        Pageable page);
+    
+    // Tickets the event's queue is waiting for; callers hold the event's row lock (idx_waitlist_event_status)
+    @Query("SELECT COALESCE(SUM(w.tickets), 0) FROM WaitlistEntry w " +
+            "WHERE w.eventId = :eventId AND w.status = :status")
+    long sumTickets(@Param("eventId") Long eventId, @Param("status") WaitlistEntry.WaitlistStatus status);
+    
+    // Keyset page of entries in one status, for loading WaitlistIndex
+    @Query("SELECT new com.musicevent.repository.WaitlistEntryRepository$QueueRow(w.id, w.eventId, w.tickets) " +
+            "FROM WaitlistEntry w WHERE w.id > :after AND w.status = :status ORDER BY w.id")
+    List<QueueRow> findQueueRows(@Param("after") long after, @Param("status") WaitlistEntry.WaitlistStatus status,
+                                 Pageable page);
+    
+    record QueueRow(Long id, Long eventId, Integer tickets) {
+    }
+}
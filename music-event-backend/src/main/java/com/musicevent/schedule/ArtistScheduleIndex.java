@@ -0,0 +1,225 @@
+package com.musicevent.schedule;
+
+import com.musicevent.entity.Contract;
+import com.musicevent.entity.Event;
+import com.musicevent.repository.ContractRepository;
+import com.musicevent.repository.EventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-artist interval index over ACCEPTED contracts and assigned events, used
+ * to refuse double bookings without querying the contracts table. Loaded
+ * before the instance reports ready, kept in step with this node's writes
+ * through ScheduleSlotChanged after commit, and rebuilt on
+ * app.schedule.refresh-cron to pick up other nodes' writes and drop slots in
+ * the past. A slot without a time starts at app.schedule.default-start and one
+ * without a duration lasts app.schedule.default-duration-minutes.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ArtistScheduleIndex implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ArtistScheduleIndex.class);
+
+    private final ContractRepository contractRepository;
+    private final EventRepository eventRepository;
+    private final TransactionTemplate readTransaction;
+    private final LocalTime defaultStart;
+    private final int defaultDurationMinutes;
+    private final int maxDurationMinutes;
+    private ScheduleBook book = new ScheduleBook();
+    // Changes committed while a rebuild is loading; replayed onto the new book before the swap
+    private List<ScheduleSlotChanged> duringRebuild;
+
+    @Value("${app.schedule.load-page-size:10000}")
+    private int loadPageSize;
+
+    public ArtistScheduleIndex(ContractRepository contractRepository,
+                               EventRepository eventRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.schedule.default-start:19:00}") String defaultStart,
+                               @Value("${app.schedule.default-duration-minutes:180}") int defaultDurationMinutes,
+                               @Value("${app.schedule.max-duration-minutes:1440}") int maxDurationMinutes) {
+        this.contractRepository = contractRepository;
+        this.eventRepository = eventRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.defaultStart = ScheduleTimes.parse(defaultStart);
+        this.defaultDurationMinutes = defaultDurationMinutes;
+        this.maxDurationMinutes = maxDurationMinutes;
+        meterRegistry.gauge("schedule.slots.indexed", this, ArtistScheduleIndex::size);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${app.schedule.refresh-cron:0 50 * * * *}")
+    public void refresh() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onScheduleSlotChanged(ScheduleSlotChanged change) {
+        apply(book, change);
+        if (duringRebuild != null) {
+            duringRebuild.add(change);
+        }
+    }
+
+    public LocalTime defaultStart() {
+        return defaultStart;
+    }
+
+    public void checkDuration(Integer durationMinutes) {
+        if (durationMinutes != null && (durationMinutes <= 0 || durationMinutes > maxDurationMinutes)) {
+            throw new IllegalArgumentException("durationMinutes must be between 1 and " + maxDurationMinutes);
+        }
+    }
+
+    /**
+     * The artist's slots that a booking on date at time for durationMinutes
+     * would overlap, leaving out the slot of (kind, id) itself.
+     */
+    public synchronized List<ScheduleSlot> conflicts(Long artistId, LocalDate date, LocalTime time,
+                                                     Integer durationMinutes, ScheduleSlot.Kind kind, Long id) {
+        LocalDateTime start = start(date, time);
+        List<ScheduleSlot> found = new ArrayList<>(book.overlapping(artistId, start, end(start, durationMinutes)));
+        found.removeIf(slot -> slot.kind() == kind && slot.id().equals(id));
+        return found;
+    }
+
+    /**
+     * Same as conflicts, but from the artist's committed contracts and events
+     * (locking reads on the primary) instead of the index, which only learns of
+     * a slot once its transaction has committed, and of another node's a poll
+     * later. Must run in the caller's transaction, under the artist's lock.
+     */
+    public List<ScheduleSlot> committedConflicts(Long artistId, LocalDate date, LocalTime time,
+                                                 Integer durationMinutes, ScheduleSlot.Kind kind, Long id) {
+        LocalDateTime start = start(date, time);
+        LocalDateTime end = end(start, durationMinutes);
+        // No slot is longer than max-duration-minutes, so nothing starting earlier can reach this one
+        LocalDate from = start.minusMinutes(Math.max(maxDurationMinutes, defaultDurationMinutes)).toLocalDate();
+        ScheduleBook committed = new ScheduleBook();
+        contractRepository.findForScheduleCheck(artistId, Contract.ContractStatus.ACCEPTED, from, end.toLocalDate())
+                .forEach(contract -> apply(committed, ScheduleSlotChanged.of(contract)));
+        eventRepository.findForScheduleCheck(artistId, Event.EventStatus.CANCELLED, from, end.toLocalDate())
+                .forEach(event -> apply(committed, ScheduleSlotChanged.of(event)));
+        List<ScheduleSlot> found = new ArrayList<>(committed.overlapping(artistId, start, end));
+        found.removeIf(slot -> slot.kind() == kind && slot.id().equals(id));
+        return found;
+    }
+
+    /** Everything the artist is committed to between the two dates, inclusive, earliest first. */
+    public synchronized List<ScheduleSlot> busy(Long artistId, LocalDate from, LocalDate to) {
+        return book.overlapping(artistId, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
+    synchronized int size() {
+        return book.size();
+    }
+
+    void rebuild() {
+        synchronized (this) {
+            if (duringRebuild != null) {
+                return;
+            }
+            duringRebuild = new ArrayList<>();
+        }
+        long started = System.nanoTime();
+        ScheduleBook fresh = new ScheduleBook();
+        // A slot from yesterday evening can run past midnight
+        LocalDate from = LocalDate.now().minusDays(1);
+        try {
+            long after = 0;
+            while (true) {
+                long pageAfter = after;
+                List<ContractRepository.ScheduleRow> rows = readTransaction.execute(status ->
+                        contractRepository.findScheduleRows(pageAfter, Contract.ContractStatus.ACCEPTED, from,
+                                PageRequest.of(0, loadPageSize)));
+                if (rows == null || rows.isEmpty()) {
+                    break;
+                }
+                for (ContractRepository.ScheduleRow row : rows) {
+                    fresh.put(slot(ScheduleSlot.Kind.CONTRACT, row.id(), row.artistId(), row.date(), row.time(),
+                            row.durationMinutes(), row.title()));
+                }
+                after = rows.get(rows.size() - 1).id();
+            }
+            after = 0;
+            while (true) {
+                long pageAfter = after;
+                List<EventRepository.ScheduleRow> rows = readTransaction.execute(status ->
+                        eventRepository.findScheduleRows(pageAfter, Event.EventStatus.CANCELLED, from,
+                                PageRequest.of(0, loadPageSize)));
+                if (rows == null || rows.isEmpty()) {
+                    break;
+                }
+                for (EventRepository.ScheduleRow row : rows) {
+                    fresh.put(slot(ScheduleSlot.Kind.EVENT, row.id(), row.musicianId(), row.date(), row.time(),
+                            row.durationMinutes(), row.title()));
+                }
+                after = rows.get(rows.size() - 1).id();
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                duringRebuild = null;
+            }
+            log.error("Artist schedule rebuild failed, keeping the current index", e);
+            return;
+        }
+        synchronized (this) {
+            duringRebuild.forEach(change -> apply(fresh, change));
+            duringRebuild = null;
+            book = fresh;
+        }
+        log.info("Artist schedule loaded {} slots in {} ms", fresh.size(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    private void apply(ScheduleBook target, ScheduleSlotChanged change) {
+        if (change.active()) {
+            target.put(slot(change.kind(), change.id(), change.artistId(), change.date(), change.time(),
+                    change.durationMinutes(), change.title()));
+        } else {
+            target.remove(change.kind(), change.id());
+        }
+    }
+
+    private ScheduleSlot slot(ScheduleSlot.Kind kind, Long id, Long artistId, LocalDate date, LocalTime time,
+                              Integer durationMinutes, String title) {
+        LocalDateTime start = start(date, time);
+        return new ScheduleSlot(kind, id, artistId, start, end(start, durationMinutes), title);
+    }
+
+    private LocalDateTime start(LocalDate date, LocalTime time) {
+        return date.atTime(time != null ? time : defaultStart);
+    }
+
+    private LocalDateTime end(LocalDateTime start, Integer durationMinutes) {
+        return start.plusMinutes(durationMinutes != null ? durationMinutes : defaultDurationMinutes);
+    }
+}
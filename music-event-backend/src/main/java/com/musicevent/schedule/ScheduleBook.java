@@ -0,0 +1,76 @@
+package com.musicevent.schedule;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Every artist's slots in a tree ordered by start. Anything overlapping
+ * [from, to) starts before `to` and no earlier than from minus the longest
+ * slot held, so a lookup is one O(log n) seek plus the few slots in that
+ * window, whatever the artist's history. Not thread-safe; ArtistScheduleIndex
+ * guards it.
+ */
+final class ScheduleBook {
+    private static final Comparator<ScheduleSlot> BY_START = Comparator
+            .comparing(ScheduleSlot::start)
+            .thenComparing(ScheduleSlot::kind)
+            .thenComparing(ScheduleSlot::id);
+
+    private final Map<Long, NavigableSet<ScheduleSlot>> byArtist = new HashMap<>();
+    private final Map<Key, ScheduleSlot> byKey = new HashMap<>();
+    // Longest slot ever added; only grows, which just widens the window a little after a removal
+    private long longestMinutes;
+
+    void put(ScheduleSlot slot) {
+        remove(slot.kind(), slot.id());
+        byArtist.computeIfAbsent(slot.artistId(), artist -> new TreeSet<>(BY_START)).add(slot);
+        byKey.put(new Key(slot.kind(), slot.id()), slot);
+        longestMinutes = Math.max(longestMinutes, Duration.between(slot.start(), slot.end()).toMinutes());
+    }
+
+    void remove(ScheduleSlot.Kind kind, Long id) {
+        ScheduleSlot existing = byKey.remove(new Key(kind, id));
+        if (existing == null) {
+            return;
+        }
+        NavigableSet<ScheduleSlot> slots = byArtist.get(existing.artistId());
+        slots.remove(existing);
+        if (slots.isEmpty()) {
+            byArtist.remove(existing.artistId());
+        }
+    }
+
+    /** The artist's slots overlapping [from, to), earliest first. */
+    List<ScheduleSlot> overlapping(Long artistId, LocalDateTime from, LocalDateTime to) {
+        NavigableSet<ScheduleSlot> slots = byArtist.get(artistId);
+        if (slots == null || !from.isBefore(to)) {
+            return List.of();
+        }
+        List<ScheduleSlot> found = new ArrayList<>();
+        for (ScheduleSlot slot : slots.subSet(probe(from.minusMinutes(longestMinutes)), true, probe(to), false)) {
+            if (slot.overlaps(from, to)) {
+                found.add(slot);
+            }
+        }
+        return found;
+    }
+
+    int size() {
+        return byKey.size();
+    }
+
+    // Sorts before every real slot starting at the same instant
+    private static ScheduleSlot probe(LocalDateTime start) {
+        return new ScheduleSlot(ScheduleSlot.Kind.CONTRACT, Long.MIN_VALUE, null, start, start, null);
+    }
+
+    private record Key(ScheduleSlot.Kind kind, Long id) {
+    }
+}
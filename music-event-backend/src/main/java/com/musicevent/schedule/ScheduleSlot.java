@@ -0,0 +1,19 @@
+package com.musicevent.schedule;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time an artist is committed to: an ACCEPTED contract that has no event yet,
+ * or an event they are assigned to. Start and end are the venue's wall-clock
+ * time; the end is exclusive, so back-to-back slots don't conflict.
+ */
+public record ScheduleSlot(Kind kind, Long id, Long artistId, LocalDateTime start, LocalDateTime end, String title) {
+
+    public enum Kind {
+        CONTRACT, EVENT
+    }
+
+    boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return start.isBefore(to) && end.isAfter(from);
+    }
+}
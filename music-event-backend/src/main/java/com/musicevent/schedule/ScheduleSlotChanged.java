@@ -0,0 +1,43 @@
+package com.musicevent.schedule;
+
+import com.musicevent.entity.Contract;
+import com.musicevent.entity.Event;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Published whenever a contract or event is written, so the artist schedule
+ * index can follow after commit. Only ACCEPTED contracts that have no event
+ * yet (the event stands in for them once linked) and non-cancelled events with
+ * a musician hold a slot; anything else, including a delete, frees it.
+ */
+public record ScheduleSlotChanged(ScheduleSlot.Kind kind,
+                                  Long id,
+                                  Long artistId,
+                                  LocalDate date,
+                                  LocalTime time,
+                                  Integer durationMinutes,
+                                  String title,
+                                  boolean active) {
+
+    public static ScheduleSlotChanged of(Contract contract) {
+        boolean active = contract.getStatus() == Contract.ContractStatus.ACCEPTED
+                && contract.getEventId() == null && contract.getArtistId() != null
+                && contract.getEventDate() != null;
+        return new ScheduleSlotChanged(ScheduleSlot.Kind.CONTRACT, contract.getId(), contract.getArtistId(),
+                contract.getEventDate(), contract.getEventTime(), contract.getDurationMinutes(),
+                contract.getEventName(), active);
+    }
+
+    public static ScheduleSlotChanged of(Event event) {
+        boolean active = event.getStatus() != Event.EventStatus.CANCELLED
+                && event.getMusicianId() != null && event.getDate() != null;
+        return new ScheduleSlotChanged(ScheduleSlot.Kind.EVENT, event.getId(), event.getMusicianId(),
+                event.getDate(), event.getTime(), event.getDurationMinutes(), event.getName(), active);
+    }
+
+    public static ScheduleSlotChanged eventRemoved(Long eventId) {
+        return new ScheduleSlotChanged(ScheduleSlot.Kind.EVENT, eventId, null, null, null, null, null, false);
+    }
+}
@@ -0,0 +1,83 @@
+package com.musicevent.schedule;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Start times on the wire. Clients have always sent and shown free text like
+ * "7:00 PM", so that stays the JSON format while the column is a TIME;
+ * "7 PM", "7:00pm", "19:00" and "19:00:00" are accepted as well.
+ */
+public final class ScheduleTimes {
+    private static final Pattern TWELVE_HOUR = Pattern.compile("(1[0-2]|0?[1-9])(?::([0-5]\\d))?\\s*([AaPp])\\.?[Mm]\\.?");
+    private static final Pattern TWENTY_FOUR_HOUR = Pattern.compile("([01]?\\d|2[0-3]):([0-5]\\d)(?::([0-5]\\d))?");
+    private static final DateTimeFormatter DISPLAY = DateTimeFormatter.ofPattern("h:mm a", Locale.US);
+
+    private ScheduleTimes() {
+    }
+
+    /** Parses a start time; null or blank is null. */
+    public static LocalTime parse(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String trimmed = text.trim();
+        Matcher twelve = TWELVE_HOUR.matcher(trimmed);
+        if (twelve.matches()) {
+            int hour = Integer.parseInt(twelve.group(1)) % 12;
+            if (Character.toUpperCase(twelve.group(3).charAt(0)) == 'P') {
+                hour += 12;
+            }
+            int minute = twelve.group(2) != null ? Integer.parseInt(twelve.group(2)) : 0;
+            return LocalTime.of(hour, minute);
+        }
+        Matcher twentyFour = TWENTY_FOUR_HOUR.matcher(trimmed);
+        if (twentyFour.matches()) {
+            int second = twentyFour.group(3) != null ? Integer.parseInt(twentyFour.group(3)) : 0;
+            return LocalTime.of(Integer.parseInt(twentyFour.group(1)), Integer.parseInt(twentyFour.group(2)), second);
+        }
+        throw new IllegalArgumentException("time must look like 7:30 PM or 19:30");
+    }
+
+    public static String format(LocalTime time) {
+        return time == null ? null : DISPLAY.format(time);
+    }
+
+    public static class Deserializer extends StdScalarDeserializer<LocalTime> {
+        public Deserializer() {
+            super(LocalTime.class);
+        }
+
+        @Override
+        public LocalTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            String text = parser.getValueAsString();
+            try {
+                return parse(text);
+            } catch (IllegalArgumentException e) {
+                return (LocalTime) context.handleWeirdStringValue(LocalTime.class, text, e.getMessage());
+            }
+        }
+    }
+
+    public static class Serializer extends StdScalarSerializer<LocalTime> {
+        public Serializer() {
+            super(LocalTime.class);
+        }
+
+        @Override
+        public void serialize(LocalTime time, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeString(format(time));
+        }
+    }
+}
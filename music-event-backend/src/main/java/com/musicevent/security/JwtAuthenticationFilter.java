@@ -1,5 +1,7 @@
 package com.musicevent.security;
 
+import com.musicevent.monitoring.RequestTrace;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,13 +17,18 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private static final String STREAM_PATH = "/api/notifications/stream";
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private RevokedTokens revokedTokens;
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -35,50 +42,61 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        final String authorizationHeader = request.getHeader("Authorization");
-
-        String email = null;
-        String jwt = null;
-        Long userId = null;
-        String role = null;
-
-        // ✅ 2. Extract JWT if present
+        long started = System.nanoTime();
+        String authorizationHeader = request.getHeader("Authorization");
+        String token = null;
+        String use = null;
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            token = authorizationHeader.substring(7);
+        } else if (path.equals(STREAM_PATH) && request.getParameter("ticket") != null) {
+            // EventSource cannot set headers, so the notification stream takes a stream ticket
+            // (POST /api/notifications/ticket) as a parameter; access tokens never go in URLs
+            token = request.getParameter("ticket");
+            use = JwtUtil.STREAM_TICKET;
+        }
+
+        // ✅ 2. Verify the JWT if present (signature and expiry only; no database lookup).
+        // A ticket is only good where it was issued for, and never as an access token
+        Claims claims = null;
+        if (token != null) {
             try {
-                email = jwtUtil.extractUsername(jwt);
-                userId = jwtUtil.extractUserId(jwt);
-                role = jwtUtil.extractRole(jwt);
+                claims = jwtUtil.parseToken(token);
+                if (!Objects.equals(JwtUtil.use(claims), use)) {
+                    claims = null;
+                }
             } catch (Exception e) {
                 SecurityContextHolder.clearContext();
+                RequestTrace.recordAuth(System.nanoTime() - started);
                 chain.doFilter(request, response);
                 return;
             }
         }
 
-        // ✅ 3. Validate JWT and set Authentication
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        // ✅ 3. Set Authentication unless the token was revoked at logout
+        if (claims != null && claims.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null
+                && !revokedTokens.isRevoked(JwtUtil.tokenId(claims))) {
 
-            if (jwtUtil.validateToken(jwt, email)) {
+            String role = JwtUtil.role(claims);
+            List<SimpleGrantedAuthority> authorities = Collections.singletonList(
+                    new SimpleGrantedAuthority("ROLE_" + role));
 
-                List<SimpleGrantedAuthority> authorities = Collections.singletonList(
-                        new SimpleGrantedAuthority("ROLE_" + role));
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    claims.getSubject(),
+                    null,
+                    authorities);
 
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        email,
-                        null,
-                        authorities);
+            authToken.setDetails(
+                    new WebAuthenticationDetailsSource().buildDetails(request));
 
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-
-                request.setAttribute("userId", userId);
-                request.setAttribute("userRole", role);
-            }
+            request.setAttribute("userId", JwtUtil.userId(claims));
+            request.setAttribute("userRole", role);
+            request.setAttribute("tokenId", JwtUtil.tokenId(claims));
         }
 
+        RequestTrace.recordAuth(System.nanoTime() - started);
         chain.doFilter(request, response);
     }
 }
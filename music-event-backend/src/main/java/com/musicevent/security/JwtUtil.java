@@ -1,9 +1,13 @@
 package com.musicevent.security;
 
+import com.musicevent.id.TimeOrderedIds;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -11,10 +15,20 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
+/**
+ * Short-lived access tokens (jwt.expiration), verified without a database
+ * lookup. Each carries a time-ordered jti, so one can be revoked before it
+ * expires (see {@link RevokedTokens}); the refresh tokens that renew them are
+ * opaque and stored by RefreshTokenService. A stream ticket is the same kind
+ * of token marked for one use (opening the notification stream, whose
+ * EventSource can't send an Authorization header) and valid for
+ * jwt.stream-ticket-expiration.
+ */
 @Component
 public class JwtUtil {
+    public static final String STREAM_TICKET = "stream";
+    private static final String USE_CLAIM = "use";
 
     @Value("${jwt.secret}")
     private String secret;
@@ -22,11 +36,23 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
+    @Value("${jwt.stream-ticket-expiration:60000}")
+    private Long streamTicketExpiration;
+
+    @Autowired
+    private TimeOrderedIds timeOrderedIds;
+
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
         String key = secret;
         if (key.length() < 32)
             key = key + "0".repeat(32 - key.length());
-        return Keys.hmacShaKeyFor(key.getBytes());
+        signingKey = Keys.hmacShaKeyFor(key.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
     // =======================
@@ -39,60 +65,75 @@ public class JwtUtil {
 
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(Long.toString(timeOrderedIds.next()))
                 .setSubject(email)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS384)
+                .signWith(signingKey, SignatureAlgorithm.HS384)
                 .compact();
     }
 
-    // =======================
-    // EXTRACT DATA
-    // =======================
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    public long getExpirationMillis() {
+        return expiration;
     }
 
-    public Long extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
-        Object id = claims.get("userId");
-        return id == null ? null : Long.valueOf(id.toString());
+    /**
+     * A ticket that only opens the user's notification stream. It carries the
+     * access token's jti, so revoking that token revokes the ticket as well.
+     */
+    public String generateStreamTicket(String email, Long userId, String role, Long tokenId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", userId);
+        claims.put("role", role);
+        claims.put(USE_CLAIM, STREAM_TICKET);
+
+        return Jwts.builder()
+                .setClaims(claims)
+                .setId(tokenId == null ? null : Long.toString(tokenId))
+                .setSubject(email)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + streamTicketExpiration))
+                .signWith(signingKey, SignatureAlgorithm.HS384)
+                .compact();
     }
 
-    public String extractRole(String token) {
-        Claims claims = extractAllClaims(token);
-        return (String) claims.get("role");
+    public long getStreamTicketExpirationMillis() {
+        return streamTicketExpiration;
     }
 
     // =======================
-    // VALIDATION
+    // PARSING
     // =======================
-    public boolean validateToken(String token, String email) {
-        final String username = extractUsername(token);
-        return username.equals(email) && !isTokenExpired(token);
+
+    /** Verifies the signature and expiry; throws a JwtException when either fails. */
+    public Claims parseToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public static Long userId(Claims claims) {
+        Object id = claims.get("userId");
+        return id == null ? null : Long.valueOf(id.toString());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public static String role(Claims claims) {
+        return (String) claims.get("role");
     }
 
-    // =======================
-    // CORE PARSING
-    // =======================
-    private <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        return resolver.apply(extractAllClaims(token));
+    /** What a single-use token is for (STREAM_TICKET); null for an access token. */
+    public static String use(Claims claims) {
+        return (String) claims.get(USE_CLAIM);
     }
 
-    private Claims extractAllClaims(String token) {
-        // Use parserBuilder() for JJWT 0.11.x
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /** The jti, or null for a token issued before tokens carried one. */
+    public static Long tokenId(Claims claims) {
+        String id = claims.getId();
+        if (id == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
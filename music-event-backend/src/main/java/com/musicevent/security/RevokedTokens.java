@@ -0,0 +1,151 @@
+package com.musicevent.security;
+
+import com.musicevent.cache.BloomBits;
+import com.musicevent.changelog.ChangeType;
+import com.musicevent.config.ReadWriteRoutingDataSource;
+import com.musicevent.entity.ChangeLogEntry;
+import com.musicevent.id.TimeOrderedIdAllocator;
+import com.musicevent.repository.ChangeLogEntryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Access tokens revoked before they expire, checked on every authenticated
+ * request without touching the database. A jti is a time-ordered id, so it
+ * says when its token was issued: revocations are kept in buckets of
+ * app.auth.revocations.bucket by issue time, and a bucket is dropped once every
+ * token issued in it has expired (jwt.expiration). Most lookups find no bucket
+ * or miss the bucket's Bloom filter; a filter hit is confirmed against the
+ * bucket's exact set, so a valid token is never refused.
+ * <p>
+ * Revocations reach other nodes as ACCESS_TOKEN_REVOKED change log rows, and a
+ * node starting up loads the ones still within the token lifetime, so
+ * app.changelog.retention must be at least jwt.expiration.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RevokedTokens implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(RevokedTokens.class);
+
+    private final ChangeLogEntryRepository changeLogEntryRepository;
+    private final TransactionTemplate readTransaction;
+    private final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+    private final long tokenLifetimeMillis;
+    private final long bucketMillis;
+    private final int expectedPerBucket;
+    private final Duration changeLogRetention;
+
+    public RevokedTokens(ChangeLogEntryRepository changeLogEntryRepository,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${jwt.expiration}") long tokenLifetimeMillis,
+                         @Value("${app.auth.revocations.bucket:PT5M}") Duration bucket,
+                         @Value("${app.auth.revocations.expected-per-bucket:10000}") int expectedPerBucket,
+                         @Value("${app.changelog.retention:PT1H}") Duration changeLogRetention) {
+        this.changeLogEntryRepository = changeLogEntryRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+        this.bucketMillis = bucket.toMillis();
+        this.expectedPerBucket = expectedPerBucket;
+        this.changeLogRetention = changeLogRetention;
+        meterRegistry.gauge("auth.revocations.active", this, RevokedTokens::size);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (changeLogRetention.toMillis() < tokenLifetimeMillis) {
+            log.warn("app.changelog.retention ({}) is shorter than jwt.expiration ({} ms): a node starting up "
+                    + "will not see older revocations", changeLogRetention, tokenLifetimeMillis);
+        }
+        // The primary, so a revocation committed just before startup is not missed on a lagging replica
+        LocalDateTime after = LocalDateTime.now().minus(Duration.ofMillis(tokenLifetimeMillis + bucketMillis));
+        List<ChangeLogEntry> revoked = ReadWriteRoutingDataSource.onPrimary(() -> readTransaction.execute(status ->
+                changeLogEntryRepository.findByChangeTypeAndCreatedAtAfter(ChangeType.ACCESS_TOKEN_REVOKED, after)));
+        revoked.forEach(change -> revoke(change.getEntityId()));
+        log.info("Loaded {} revoked access tokens", revoked.size());
+    }
+
+    public void revoke(long tokenId) {
+        long bucket = bucketOf(TimeOrderedIdAllocator.timestampOf(tokenId).toEpochMilli());
+        if (expired(bucket, System.currentTimeMillis())) {
+            return;
+        }
+        buckets.computeIfAbsent(bucket, index -> new Bucket(expectedPerBucket)).add(tokenId);
+    }
+
+    /** Whether the token with this jti was revoked; a token without one never is. */
+    public boolean isRevoked(Long tokenId) {
+        if (tokenId == null || buckets.isEmpty()) {
+            return false;
+        }
+        Bucket bucket = buckets.get(bucketOf(TimeOrderedIdAllocator.timestampOf(tokenId).toEpochMilli()));
+        return bucket != null && bucket.contains(tokenId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.revocations.sweep-ms:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        ConcurrentNavigableMap<Long, Bucket> expired = buckets.headMap(firstLiveBucket(now));
+        if (!expired.isEmpty()) {
+            log.debug("Dropping {} expired revocation buckets", expired.size());
+            expired.clear();
+        }
+    }
+
+    int size() {
+        return buckets.values().stream().mapToInt(bucket -> bucket.exact.size()).sum();
+    }
+
+    private long bucketOf(long issuedAtMillis) {
+        return Math.floorDiv(issuedAtMillis, bucketMillis);
+    }
+
+    // Tokens in a bucket expire by the bucket's end plus their lifetime; one extra bucket covers clock skew
+    private long firstLiveBucket(long now) {
+        return bucketOf(now - tokenLifetimeMillis) - 1;
+    }
+
+    private boolean expired(long bucket, long now) {
+        return bucket < firstLiveBucket(now);
+    }
+
+    /** One issue-time window: a Bloom filter in front of the exact set of revoked ids. */
+    private static final class Bucket {
+        private final BloomBits bits;
+        private final Set<Long> exact = ConcurrentHashMap.newKeySet();
+
+        Bucket(int expectedEntries) {
+            // 1% false positives at the expected size, each costing one set lookup
+            this.bits = new BloomBits(expectedEntries, 0.01);
+        }
+
+        void add(long id) {
+            exact.add(id);
+            // Mixed because ids from one node differ only in their low bits
+            bits.add(BloomBits.mix(id));
+        }
+
+        boolean contains(long id) {
+            return bits.mightContain(BloomBits.mix(id)) && exact.contains(id);
+        }
+    }
+}
@@ -1,16 +1,29 @@
 package com.musicevent.service;
 
+import com.musicevent.cache.UserIdentity;
+import com.musicevent.cache.UserIdentityCache;
+import com.musicevent.changelog.ChangeLogService;
+import com.musicevent.changelog.ChangeType;
 import com.musicevent.dto.AuthResponse;
 import com.musicevent.dto.LoginRequest;
 import com.musicevent.dto.RegisterRequest;
+import com.musicevent.entity.RefreshToken;
 import com.musicevent.entity.User;
+import com.musicevent.outbox.OutboxService;
+import com.musicevent.outbox.UserRegistered;
 import com.musicevent.repository.UserRepository;
 import com.musicevent.security.JwtUtil;
+import com.musicevent.security.RevokedTokens;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
+
 @Service
 @Transactional
 public class AuthService {
@@ -23,21 +36,50 @@ public class AuthService {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private ChangeLogService changeLogService;
+    
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
+    @Autowired
+    private RevokedTokens revokedTokens;
+    
     public AuthResponse register(RegisterRequest request) {
-        // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
+        // Check if email already exists (the Bloom filter rules out most new addresses without a query)
+        if (userIdentityCache.mightExist(request.getEmail())
+                && userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
         
+        User.Role role = User.Role.valueOf(request.getRole().toUpperCase());
+        if (role == User.Role.ADMIN) {
+            throw new RuntimeException("Invalid role");
+        }
+        
         // Create new user
         User user = new User();
         user.setName(request.getName());
         user.setEmail(request.getEmail());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setRole(User.Role.valueOf(request.getRole().toUpperCase()));
+        user.setRole(role);
         user.setProfile(request.getProfile());
         
-        user = userRepository.save(user);
+        try {
+            user = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            // Unique constraint on email still guards the check above
+            throw new RuntimeException("Email already exists");
+        }
+        outboxService.append(new UserRegistered(user.getId(), user.getRole()));
+        // Other nodes' email filters haven't seen this address yet
+        changeLogService.record(ChangeType.USER_CHANGED, user.getId());
         
         // Generate JWT token
         String token = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getRole().name());
@@ -48,31 +90,79 @@ public class AuthService {
             user.getName(),
             user.getEmail(),
             user.getRole().name(),
-            user.getProfile()
+            user.getProfile(),
+            refreshTokenService.issue(user.getId())
         );
     }
     
     public AuthResponse login(LoginRequest request) {
-        User user = userRepository.findByEmail(request.getEmail())
+        UserIdentity user = userIdentityCache.findByEmail(request.getEmail())
             .orElseThrow(() -> new RuntimeException("Invalid email or password"));
         
         // Check password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordEncoder.matches(request.getPassword(), user.passwordHash())) {
             throw new RuntimeException("Invalid email or password");
         }
         
         // Generate JWT token
-        String token = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getRole().name());
+        String token = jwtUtil.generateToken(user.email(), user.id(), user.role().name());
         
         return new AuthResponse(
             token,
-            user.getId(),
-            user.getName(),
-            user.getEmail(),
-            user.getRole().name(),
-            user.getProfile()
+            user.id(),
+            user.name(),
+            user.email(),
+            user.role().name(),
+            user.profile(),
+            refreshTokenService.issue(user.id())
         );
     }
+    
+    // A new access token and the next refresh token; empty when the refresh token can't be used
+    public Optional<AuthResponse> refresh(String refreshToken) {
+        Optional<RefreshToken> used = refreshTokenService.consume(refreshToken);
+        if (used.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<UserIdentity> found = userIdentityCache.findById(used.get().getUserId());
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        UserIdentity user = found.get();
+        String token = jwtUtil.generateToken(user.email(), user.id(), user.role().name());
+        
+        return Optional.of(new AuthResponse(
+            token,
+            user.id(),
+            user.name(),
+            user.email(),
+            user.role().name(),
+            user.profile(),
+            refreshTokenService.rotate(used.get())
+        ));
+    }
+    
+    // Ends the session on every node: the refresh token's family and, if still valid, the access token
+    public void logout(String refreshToken, String accessToken) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revokeFamily(refreshToken);
+        }
+        if (accessToken == null) {
+            return;
+        }
+        Long tokenId;
+        try {
+            Claims claims = jwtUtil.parseToken(accessToken);
+            tokenId = JwtUtil.tokenId(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Expired or not ours: nothing to revoke
+            return;
+        }
+        if (tokenId != null) {
+            revokedTokens.revoke(tokenId);
+            changeLogService.record(ChangeType.ACCESS_TOKEN_REVOKED, tokenId);
+        }
+    }
 }
 
 
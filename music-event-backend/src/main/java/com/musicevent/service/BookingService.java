@@ -1,13 +1,31 @@
 package com.musicevent.service;
 
+import com.musicevent.changelog.ChangeLogService;
+import com.musicevent.changelog.ChangeType;
+import com.musicevent.config.ReplicaLagPolicy;
+import com.musicevent.dto.WalletEntry;
+import com.musicevent.dto.WalletPage;
+import com.musicevent.dto.WalletSummary;
 import com.musicevent.entity.Booking;
 import com.musicevent.entity.Event;
+import com.musicevent.entity.WaitlistEntry;
+import com.musicevent.outbox.BookingCancelled;
+import com.musicevent.outbox.BookingCreated;
+import com.musicevent.outbox.OutboxService;
 import com.musicevent.repository.BookingRepository;
 import com.musicevent.repository.EventRepository;
+import com.musicevent.repository.WaitlistEntryRepository;
+import com.musicevent.stream.TicketAvailabilityChanged;
+import com.musicevent.waitlist.TicketsReturned;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -21,36 +39,147 @@ public class BookingService {
     @Autowired
     private EventRepository eventRepository;
     
+    @Autowired
+    private ReplicaLagPolicy replicaLagPolicy;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private ChangeLogService changeLogService;
+    
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+    
+    @Value("${app.bookings.wallet.max-page-size:50}")
+    private int maxWalletPageSize;
+    
     public Booking createBooking(Booking booking) {
-        // Check event availability
-        Event event = eventRepository.findById(booking.getEventId())
+        // Check event availability; the row lock orders this against cancellations and waitlist allocation
+        Event event = eventRepository.findByIdForUpdate(booking.getEventId())
             .orElseThrow(() -> new RuntimeException("Event not found"));
         
-        if (event.getAvailableTickets() < booking.getTickets()) {
+        // Tickets the event's waitlist is queued for are not on general sale. Read from the rows after the lock,
+        // not from WaitlistIndex, which hears of other nodes' joins a change-log poll later
+        long waiting = waitlistEntryRepository.sumTickets(event.getId(), WaitlistEntry.WaitlistStatus.WAITING);
+        if (event.getAvailableTickets() - waiting < booking.getTickets()) {
             throw new RuntimeException("Not enough tickets available");
         }
         
-        // Generate QR code
-        booking.setQrCode("QR-" + UUID.randomUUID().toString() + "-" + booking.getEventId());
-        
-        // Save booking
-        Booking savedBooking = bookingRepository.save(booking);
+        Booking savedBooking = saveBooking(booking);
         
         // Update event tickets
         event.setAvailableTickets(event.getAvailableTickets() - booking.getTickets());
         eventRepository.save(event);
+        changeLogService.record(ChangeType.EVENT_CHANGED, event.getId());
+        eventPublisher.publishEvent(new TicketAvailabilityChanged(
+            event.getId(), event.getAvailableTickets(), event.getTotalTickets()));
         
         return savedBooking;
     }
     
+    /**
+     * A confirmed booking for a waitlist entry. The caller holds the event's
+     * row lock and takes the tickets off the event itself, once per batch.
+     */
+    public Booking bookFromWaitlist(WaitlistEntry entry) {
+        Booking booking = new Booking();
+        booking.setUserId(entry.getUserId());
+        booking.setUserName(entry.getUserName());
+        booking.setEventId(entry.getEventId());
+        booking.setTickets(entry.getTickets());
+        return saveBooking(booking);
+    }
+    
+    /**
+     * Cancels one of the user's confirmed bookings for an upcoming event and
+     * puts its tickets back on sale, where the event's waitlist gets them
+     * first. Empty when the user has no booking with this id.
+     */
+    public Optional<Booking> cancelBooking(Long id, Long userId) {
+        Optional<Booking> found = bookingRepository.findById(id)
+            .filter(booking -> booking.getUserId().equals(userId));
+        if (found.isEmpty()) {
+            return found;
+        }
+        Booking booking = found.get();
+        Event event = eventRepository.findByIdForUpdate(booking.getEventId())
+            .orElseThrow(() -> new IllegalStateException("Event not found"));
+        if (event.getStatus() != Event.EventStatus.UPCOMING || event.getDate().isBefore(LocalDate.now())) {
+            throw new IllegalStateException("Only bookings for upcoming events can be cancelled");
+        }
+        // Conditional, so two cancellations of one booking can't both return its tickets
+        if (bookingRepository.cancelIfConfirmed(id) == 0) {
+            throw new IllegalStateException("Only confirmed bookings can be cancelled");
+        }
+        booking.setStatus(Booking.BookingStatus.CANCELLED);
+        
+        event.setAvailableTickets(event.getAvailableTickets() + booking.getTickets());
+        eventRepository.save(event);
+        changeLogService.record(ChangeType.EVENT_CHANGED, event.getId());
+        outboxService.append(new BookingCancelled(
+            booking.getId(), event.getId(), booking.getUserId(), booking.getTickets()));
+        eventPublisher.publishEvent(new TicketAvailabilityChanged(
+            event.getId(), event.getAvailableTickets(), event.getTotalTickets()));
+        eventPublisher.publishEvent(new TicketsReturned(event.getId()));
+        return found;
+    }
+    
+    private Booking saveBooking(Booking booking) {
+        // Generate QR code
+        booking.setQrCode("QR-" + UUID.randomUUID().toString() + "-" + booking.getEventId());
+        
+        Booking savedBooking = bookingRepository.save(booking);
+        changeLogService.record(ChangeType.BOOKING_CREATED, savedBooking.getId());
+        BookingCreated created = new BookingCreated(
+            savedBooking.getId(), savedBooking.getEventId(), savedBooking.getUserId(), savedBooking.getTickets());
+        outboxService.append(created);
+        // Also published in-process after commit, for this node's recommendation model
+        eventPublisher.publishEvent(created);
+        return savedBooking;
+    }
+    
+    @Transactional(readOnly = true)
     public List<Booking> getUserBookings(Long userId) {
-        return bookingRepository.findByUserId(userId);
+        return replicaLagPolicy.readOwnWrites(() -> bookingRepository.findByUserId(userId));
+    }
+    
+    // A page of the user's tickets with their event details: upcoming soonest first, past latest first
+    @Transactional(readOnly = true)
+    public WalletPage getWallet(Long userId, String section, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        if (size <= 0 || size > maxWalletPageSize) {
+            throw new IllegalArgumentException("size must be between 1 and " + maxWalletPageSize);
+        }
+        LocalDate today = LocalDate.now();
+        PageRequest pageable = PageRequest.of(page, size);
+        Slice<WalletEntry> slice = switch (section) {
+            case "upcoming" -> replicaLagPolicy.readOwnWrites(() ->
+                bookingRepository.findUpcomingWallet(userId, today, pageable));
+            case "past" -> replicaLagPolicy.readOwnWrites(() ->
+                bookingRepository.findPastWallet(userId, today, pageable));
+            default -> throw new IllegalArgumentException("section must be upcoming or past");
+        };
+        return new WalletPage(section, page, size, slice.hasNext(), slice.getContent());
+    }
+    
+    @Transactional(readOnly = true)
+    public WalletSummary getWalletSummary(Long userId) {
+        return replicaLagPolicy.readOwnWrites(() ->
+            bookingRepository.findWalletSummary(userId, LocalDate.now(), Booking.BookingStatus.CONFIRMED));
     }
     
+    @Transactional(readOnly = true)
     public List<Booking> getEventBookings(Long eventId) {
         return bookingRepository.findByEventId(eventId);
     }
     
+    @Transactional(readOnly = true)
     public Optional<Booking> getBookingById(Long id) {
         return bookingRepository.findById(id);
     }
@@ -1,14 +1,32 @@
 package com.musicevent.service;
 
+import com.musicevent.changelog.ChangeLogService;
+import com.musicevent.changelog.ChangeType;
+import com.musicevent.config.ReplicaLagPolicy;
+import com.musicevent.dto.AcceptContractRequest;
 import com.musicevent.entity.Contract;
 import com.musicevent.entity.Event;
+import com.musicevent.geo.EventLocationChanged;
+import com.musicevent.geo.GeoGrid;
+import com.musicevent.outbox.ContractStatusChanged;
+import com.musicevent.outbox.OutboxService;
 import com.musicevent.repository.ContractRepository;
 import com.musicevent.repository.EventRepository;
+import com.musicevent.repository.UserRepository;
+import com.musicevent.schedule.ArtistScheduleIndex;
+import com.musicevent.schedule.ScheduleSlot;
+import com.musicevent.schedule.ScheduleSlotChanged;
+import com.musicevent.stream.ContractNotification;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -20,44 +38,237 @@ public class ContractService {
     @Autowired
     private EventRepository eventRepository;
     
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ReplicaLagPolicy replicaLagPolicy;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private ArtistScheduleIndex artistScheduleIndex;
+    
+    @Autowired
+    private ChangeLogService changeLogService;
+    
+    @Value("${app.contracts.accept.default-total-tickets:100}")
+    private int defaultTotalTickets;
+    
+    @Value("${app.contracts.accept.default-category:Rock}")
+    private String defaultCategory;
+    
+    @Value("${app.schedule.availability.max-days:366}")
+    private int maxAvailabilityDays;
+    
     public Contract createContract(Contract contract) {
-        return contractRepository.save(contract);
+        artistScheduleIndex.checkDuration(contract.getDurationMinutes());
+        checkArtistAvailable(contract.getArtistId(), contract.getEventDate(), contract.getEventTime(),
+            contract.getDurationMinutes(), null);
+        Contract saved = contractRepository.save(contract);
+        outboxService.append(statusChanged(saved, null));
+        changeLogService.record(ChangeType.CONTRACT_CREATED, saved.getId());
+        eventPublisher.publishEvent(ContractNotification.created(saved));
+        return saved;
     }
     
+    @Transactional(readOnly = true)
     public List<Contract> getArtistContracts(Long artistId) {
-        return contractRepository.findByArtistId(artistId);
+        return replicaLagPolicy.readOwnWrites(() -> contractRepository.findByArtistId(artistId));
     }
     
+    @Transactional(readOnly = true)
     public List<Contract> getOrganizerContracts(Long organizerId) {
-        return contractRepository.findByOrganizerId(organizerId);
+        return replicaLagPolicy.readOwnWrites(() -> contractRepository.findByOrganizerId(organizerId));
     }
     
+    @Transactional(readOnly = true)
     public List<Contract> getPendingContractsForArtist(Long artistId) {
-        return contractRepository.findByArtistIdAndStatus(
+        return replicaLagPolicy.readOwnWrites(() -> contractRepository.findByArtistIdAndStatus(
             artistId, Contract.ContractStatus.PENDING
-        );
+        ));
     }
     
     public Contract updateContractStatus(Long id, Contract.ContractStatus status) {
         Contract contract = contractRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Contract not found"));
 
+        Contract.ContractStatus previous = contract.getStatus();
+        if (status == Contract.ContractStatus.ACCEPTED && previous != Contract.ContractStatus.ACCEPTED) {
+            reserveArtist(contract.getArtistId(), contract.getEventDate(), contract.getEventTime(),
+                contract.getDurationMinutes(), contract.getId());
+        }
         contract.setStatus(status);
 
         // Note: Event will be created after contract acceptance, not before
         // The event will be linked to the contract when it's created
 
-        return contractRepository.save(contract);
+        Contract saved = contractRepository.save(contract);
+        outboxService.append(statusChanged(saved, previous));
+        changeLogService.record(ChangeType.CONTRACT_STATUS_CHANGED, saved.getId());
+        eventPublisher.publishEvent(ContractNotification.statusChanged(saved));
+        eventPublisher.publishEvent(ScheduleSlotChanged.of(saved));
+        return saved;
     }
 
+    /**
+     * Accepts a contract and publishes its event in one transaction: validates
+     * the contract, creates the Event from the contract details, links it and
+     * flips the status. Concurrent accept/reject/expiry of the same contract
+     * fails on the version check instead of overwriting each other.
+     * A contract that was accepted earlier without an event can be completed
+     * the same way.
+     */
+    public Contract acceptContract(Long id, Long callerId, AcceptContractRequest request) {
+        Contract contract = contractRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Contract not found"));
+        
+        if (request.getVersion() != null && !request.getVersion().equals(contract.getVersion())) {
+            throw new IllegalStateException("Contract was modified by someone else, reload and try again");
+        }
+        if (callerId != null && !callerId.equals(contract.getArtistId())
+                && !callerId.equals(contract.getOrganizerId())) {
+            throw new RuntimeException("Only the contract's artist or organizer can accept it");
+        }
+        boolean pending = contract.getStatus() == Contract.ContractStatus.PENDING;
+        boolean acceptedWithoutEvent = contract.getStatus() == Contract.ContractStatus.ACCEPTED
+            && contract.getEventId() == null;
+        if (!pending && !acceptedWithoutEvent) {
+            throw new IllegalStateException("Contract is " + contract.getStatus().name().toLowerCase()
+                + " and can no longer be accepted");
+        }
+        if (pending && callerId != null && !callerId.equals(contract.getArtistId())) {
+            throw new RuntimeException("Only the artist can accept a pending contract");
+        }
+        String location = request.getLocation() != null ? request.getLocation() : contract.getVenue();
+        if (location == null || location.isBlank()) {
+            throw new RuntimeException("Contract has no venue");
+        }
+        GeoGrid.checkCoordinates(request.getLatitude(), request.getLongitude());
+        LocalDate date = request.getDate() != null ? request.getDate() : contract.getEventDate();
+        if (date == null) {
+            throw new RuntimeException("Contract has no valid event date");
+        }
+        if (date.isBefore(LocalDate.now())) {
+            throw new RuntimeException("Contract event date has already passed");
+        }
+        LocalTime time = request.getTime() != null ? request.getTime() : contract.getEventTime();
+        Integer durationMinutes = request.getDurationMinutes() != null
+            ? request.getDurationMinutes() : contract.getDurationMinutes();
+        artistScheduleIndex.checkDuration(durationMinutes);
+        reserveArtist(contract.getArtistId(), date, time, durationMinutes, contract.getId());
+        
+        int totalTickets = Objects.requireNonNullElse(request.getTotalTickets(), defaultTotalTickets);
+        if (totalTickets <= 0) {
+            throw new RuntimeException("Total tickets must be positive");
+        }
+        
+        Event event = new Event();
+        event.setName(request.getName() != null ? request.getName() : contract.getEventName());
+        event.setDescription(request.getDescription() != null ? request.getDescription() : contract.getEventDescription());
+        event.setLocation(location);
+        event.setLatitude(request.getLatitude());
+        event.setLongitude(request.getLongitude());
+        event.setDate(date);
+        event.setTime(time != null ? time : artistScheduleIndex.defaultStart());
+        event.setDurationMinutes(durationMinutes);
+        // paymentAmount is the artist's fee, not a ticket price, so price comes from the request
+        event.setPrice(Objects.requireNonNullElse(request.getPrice(), 0.0));
+        event.setCategory(Objects.requireNonNullElse(request.getCategory(), defaultCategory));
+        event.setEmoji(request.getEmoji() != null ? request.getEmoji() : "🎵");
+        event.setTotalTickets(totalTickets);
+        event.setAvailableTickets(totalTickets);
+        event.setOrganizerId(contract.getOrganizerId());
+        event.setOrganizerName(contract.getOrganizerName());
+        event.setMusicianId(contract.getArtistId());
+        event.setMusicianName(contract.getArtistName());
+        Event savedEvent = eventRepository.save(event);
+        changeLogService.record(ChangeType.EVENT_CHANGED, savedEvent.getId());
+        eventPublisher.publishEvent(EventLocationChanged.of(savedEvent));
+        eventPublisher.publishEvent(ScheduleSlotChanged.of(savedEvent));
+        
+        Contract.ContractStatus previous = contract.getStatus();
+        contract.setEventId(savedEvent.getId());
+        contract.setStatus(Contract.ContractStatus.ACCEPTED);
+        // Flush now so a version conflict surfaces here rather than at commit
+        Contract saved = contractRepository.saveAndFlush(contract);
+        outboxService.append(statusChanged(saved, previous));
+        changeLogService.record(ChangeType.CONTRACT_UPDATED, saved.getId());
+        eventPublisher.publishEvent(ContractNotification.updated(saved));
+        // The event now holds the artist's slot
+        eventPublisher.publishEvent(ScheduleSlotChanged.of(saved));
+        return saved;
+    }
+    
+    /**
+     * Refuses a booking that overlaps one of the artist's accepted contracts or
+     * events (other than the contract's own slot). Served from the in-memory
+     * index, so it never scans contracts.
+     */
+    private void checkArtistAvailable(Long artistId, LocalDate date, LocalTime time, Integer durationMinutes,
+                                      Long contractId) {
+        if (artistId == null || date == null) {
+            return;
+        }
+        refuseConflicts(artistScheduleIndex.conflicts(artistId, date, time, durationMinutes,
+            ScheduleSlot.Kind.CONTRACT, contractId));
+    }
+    
+    /**
+     * For writes that take the artist's slot (acceptance): the index check, then
+     * the artist's lock (SELECT ... FOR UPDATE on their user row) and the same
+     * check against committed rows. The index only hears of a slot after its
+     * transaction commits, so two concurrent accepts could both pass it; under
+     * the lock they take turns and the second sees the first's slot.
+     */
+    private void reserveArtist(Long artistId, LocalDate date, LocalTime time, Integer durationMinutes,
+                               Long contractId) {
+        if (artistId == null || date == null) {
+            return;
+        }
+        checkArtistAvailable(artistId, date, time, durationMinutes, contractId);
+        userRepository.findByIdForUpdate(artistId);
+        refuseConflicts(artistScheduleIndex.committedConflicts(artistId, date, time, durationMinutes,
+            ScheduleSlot.Kind.CONTRACT, contractId));
+    }
+    
+    private void refuseConflicts(List<ScheduleSlot> conflicts) {
+        if (!conflicts.isEmpty()) {
+            ScheduleSlot slot = conflicts.get(0);
+            throw new IllegalStateException("Artist is already booked from " + slot.start() + " to " + slot.end()
+                + " (" + slot.kind().name().toLowerCase() + " " + slot.id() + ", \"" + slot.title() + "\")");
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public List<ScheduleSlot> getArtistAvailability(Long artistId, LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from) || from.plusDays(maxAvailabilityDays).isBefore(to)) {
+            throw new IllegalArgumentException("from and to must span at most " + maxAvailabilityDays + " days");
+        }
+        return artistScheduleIndex.busy(artistId, from, to);
+    }
+    
+    private ContractStatusChanged statusChanged(Contract contract, Contract.ContractStatus previous) {
+        return new ContractStatusChanged(contract.getId(), contract.getOrganizerId(), contract.getArtistId(),
+            previous, contract.getStatus(), contract.getEventId());
+    }
+    
     public Contract linkEventToContract(Long contractId, Long eventId) {
         Contract contract = contractRepository.findById(contractId)
             .orElseThrow(() -> new RuntimeException("Contract not found"));
         
         contract.setEventId(eventId);
-        return contractRepository.save(contract);
+        Contract saved = contractRepository.save(contract);
+        changeLogService.record(ChangeType.CONTRACT_UPDATED, saved.getId());
+        eventPublisher.publishEvent(ScheduleSlotChanged.of(saved));
+        return saved;
     }
     
+    @Transactional(readOnly = true)
     public Optional<Contract> getContractById(Long id) {
         return contractRepository.findById(id);
     }
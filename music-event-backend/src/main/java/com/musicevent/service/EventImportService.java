@@ -0,0 +1,318 @@
+package com.musicevent.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.musicevent.changelog.ChangeLogService;
+import com.musicevent.changelog.ChangeType;
+import com.musicevent.dto.EventImportRow;
+import com.musicevent.entity.Event;
+import com.musicevent.id.TimeOrderedIds;
+import com.musicevent.geo.EventLocationChanged;
+import com.musicevent.schedule.ArtistScheduleIndex;
+import com.musicevent.schedule.ScheduleSlot;
+import com.musicevent.schedule.ScheduleSlotChanged;
+import com.musicevent.schedule.ScheduleTimes;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Bulk event import from NDJSON or CSV. The input is parsed one row at a time
+ * and valid rows are inserted in JDBC batches, each batch in its own short
+ * transaction, so memory stays flat regardless of file size. A result line is
+ * written per row as soon as it is known, followed by a summary line.
+ * Not @Transactional: a failed batch must not roll back the ones before it.
+ */
+@Service
+public class EventImportService {
+    private static final Logger log = LoggerFactory.getLogger(EventImportService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO events (id, name, description, location, latitude, " +
+            "longitude, date, time, duration_minutes, price, category, emoji, total_tickets, available_tickets, " +
+            "status, organizer_id, organizer_name, musician_id, musician_name, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ArtistScheduleIndex artistScheduleIndex;
+    private final ChangeLogService changeLogService;
+    private final TimeOrderedIds timeOrderedIds;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader ndjsonReader;
+    private final ObjectReader csvReader;
+    private final ObjectWriter reportWriter;
+
+    @Value("${app.import.events.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.import.events.max-rows:200000}")
+    private int maxRows;
+
+    public EventImportService(JdbcTemplate jdbcTemplate,
+                              ApplicationEventPublisher eventPublisher,
+                              ArtistScheduleIndex artistScheduleIndex,
+                              ChangeLogService changeLogService,
+                              TimeOrderedIds timeOrderedIds,
+                              PlatformTransactionManager transactionManager,
+                              Validator validator,
+                              ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.artistScheduleIndex = artistScheduleIndex;
+        this.changeLogService = changeLogService;
+        this.timeOrderedIds = timeOrderedIds;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.ndjsonReader = objectMapper.readerFor(EventImportRow.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        CsvMapper csvMapper = new CsvMapper();
+        csvMapper.enable(CsvParser.Feature.EMPTY_STRING_AS_NULL);
+        csvMapper.enable(CsvParser.Feature.TRIM_SPACES);
+        csvMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.csvReader = csvMapper.readerFor(EventImportRow.class).with(CsvSchema.emptySchema().withHeader());
+        this.reportWriter = objectMapper.writer();
+    }
+
+    public ImportSummary importEvents(InputStream input, boolean csv, Long organizerId, String organizerName,
+                                      OutputStream reportStream) throws IOException {
+        Writer report = new OutputStreamWriter(reportStream, StandardCharsets.UTF_8);
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        int rowNumber = 0;
+        int created = 0;
+        int failed = 0;
+        String abortedReason = null;
+
+        try (MappingIterator<EventImportRow> rows = (csv ? csvReader : ndjsonReader).readValues(input)) {
+            while (true) {
+                EventImportRow row = null;
+                String mappingError = null;
+                int current = rowNumber + 1;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row = rows.nextValue();
+                } catch (JsonMappingException e) {
+                    // Well-formed row with a bad value (e.g. price "abc"); the iterator skips past it
+                    mappingError = "invalid value: " + e.getOriginalMessage();
+                } catch (JsonProcessingException e) {
+                    // The parser can't resynchronize after malformed input, so stop here
+                    abortedReason = "Malformed input at row " + current + ": " + e.getOriginalMessage();
+                    break;
+                }
+                rowNumber = current;
+                if (rowNumber > maxRows) {
+                    abortedReason = "Import is limited to " + maxRows + " rows";
+                    rowNumber--;
+                    break;
+                }
+
+                List<String> errors = mappingError != null ? List.of(mappingError)
+                        : row == null ? List.of("row is empty")
+                        : validate(row);
+                if (!errors.isEmpty()) {
+                    write(report, new RowResult(rowNumber, "error", null, errors));
+                    failed++;
+                    continue;
+                }
+                batch.add(new PendingRow(rowNumber, row, LocalDate.parse(row.getDate()),
+                        ScheduleTimes.parse(row.getTime())));
+                if (batch.size() >= batchSize) {
+                    int inserted = flush(batch, organizerId, organizerName, report);
+                    created += inserted;
+                    failed += batch.size() - inserted;
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            int inserted = flush(batch, organizerId, organizerName, report);
+            created += inserted;
+            failed += batch.size() - inserted;
+        }
+
+        ImportSummary summary = new ImportSummary(true, rowNumber, created, failed, abortedReason);
+        write(report, summary);
+        report.flush();
+        log.info("Event import for organizer {}: {} rows, {} created, {} failed{}", organizerId, rowNumber,
+                created, failed, abortedReason != null ? " (aborted: " + abortedReason + ")" : "");
+        return summary;
+    }
+
+    private List<String> validate(EventImportRow row) {
+        List<String> errors = new ArrayList<>();
+        validator.validate(row).stream()
+                .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .forEach(errors::add);
+        if (errors.isEmpty()) {
+            try {
+                LocalDate.parse(row.getDate());
+            } catch (DateTimeParseException e) {
+                errors.add("date is not a valid calendar date");
+            }
+            try {
+                ScheduleTimes.parse(row.getTime());
+            } catch (IllegalArgumentException e) {
+                errors.add(e.getMessage());
+            }
+            try {
+                artistScheduleIndex.checkDuration(row.getDurationMinutes());
+            } catch (IllegalArgumentException e) {
+                errors.add(e.getMessage());
+            }
+            if ((row.getLatitude() == null) != (row.getLongitude() == null)) {
+                errors.add("latitude and longitude must be given together");
+            }
+        }
+        return errors;
+    }
+
+    /** Inserts one batch in its own transaction and reports each row; returns the number inserted. */
+    private int flush(List<PendingRow> batch, Long organizerId, String organizerName, Writer report)
+            throws IOException {
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> {
+                List<Long> inserted = jdbcTemplate.execute(
+                        (ConnectionCallback<List<Long>>) connection -> insert(connection, batch, organizerId,
+                                organizerName));
+                changeLogService.recordAll(ChangeType.EVENT_CHANGED, inserted);
+                return inserted;
+            });
+        } catch (DataAccessException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            for (PendingRow pending : batch) {
+                write(report, new RowResult(pending.rowNumber(), "error", null, List.of(message)));
+            }
+            report.flush();
+            return 0;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Long id = ids != null && i < ids.size() ? ids.get(i) : null;
+            EventImportRow row = batch.get(i).row();
+            if (id != null) {
+                // The batch has committed, so the geo index and the upcoming snapshot pick this up straight
+                // away; rows without coordinates still rebuild the snapshot but stay out of the geo index
+                eventPublisher.publishEvent(new EventLocationChanged(id, row.getLatitude(), row.getLongitude(),
+                        batch.get(i).date(), row.getCategory(), row.getLatitude() != null));
+            }
+            if (id != null && row.getMusicianId() != null) {
+                eventPublisher.publishEvent(new ScheduleSlotChanged(ScheduleSlot.Kind.EVENT, id, row.getMusicianId(),
+                        batch.get(i).date(), batch.get(i).time(), row.getDurationMinutes(), row.getName(), true));
+            }
+            write(report, new RowResult(batch.get(i).rowNumber(), "created", id, null));
+        }
+        report.flush();
+        return batch.size();
+    }
+
+    private List<Long> insert(Connection connection, List<PendingRow> batch, Long organizerId,
+                              String organizerName) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+            // Ids are assigned here rather than by AUTO_INCREMENT, so no generated keys to read back
+            List<Long> ids = new ArrayList<>(batch.size());
+            for (PendingRow pending : batch) {
+                EventImportRow row = pending.row();
+                long id = timeOrderedIds.next();
+                ids.add(id);
+                ps.setLong(1, id);
+                ps.setString(2, row.getName());
+                ps.setString(3, row.getDescription());
+                ps.setString(4, row.getLocation());
+                setDouble(ps, 5, row.getLatitude());
+                setDouble(ps, 6, row.getLongitude());
+                ps.setDate(7, Date.valueOf(pending.date()));
+                ps.setTime(8, Time.valueOf(pending.time()));
+                if (row.getDurationMinutes() != null) {
+                    ps.setInt(9, row.getDurationMinutes());
+                } else {
+                    ps.setNull(9, Types.INTEGER);
+                }
+                ps.setDouble(10, row.getPrice());
+                ps.setString(11, row.getCategory());
+                ps.setString(12, row.getEmoji() != null ? row.getEmoji() : "🎵");
+                ps.setInt(13, row.getTotalTickets());
+                ps.setInt(14, row.getTotalTickets());
+                ps.setString(15, Event.EventStatus.UPCOMING.name());
+                ps.setLong(16, organizerId);
+                ps.setString(17, organizerName);
+                if (row.getMusicianId() != null) {
+                    ps.setLong(18, row.getMusicianId());
+                } else {
+                    ps.setNull(18, Types.BIGINT);
+                }
+                ps.setString(19, row.getMusicianName());
+                ps.setTimestamp(20, now);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            return ids;
+        }
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.DOUBLE);
+        }
+    }
+
+    private void write(Writer report, Object line) throws IOException {
+        report.write(reportWriter.writeValueAsString(line));
+        report.write('\n');
+    }
+
+    private record PendingRow(int rowNumber, EventImportRow row, LocalDate date, LocalTime time) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record RowResult(int row, String status, Long id, List<String> errors) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ImportSummary(boolean summary, int rows, int created, int failed, String aborted) {
+    }
+}
@@ -1,14 +1,33 @@
 package com.musicevent.service;
 
+import com.musicevent.changelog.ChangeLogService;
+import com.musicevent.changelog.ChangeType;
+import com.musicevent.config.ReplicaLagPolicy;
+import com.musicevent.dto.NearbyEvent;
 import com.musicevent.entity.Event;
+import com.musicevent.geo.EventGeoIndex;
+import com.musicevent.geo.EventLocationChanged;
+import com.musicevent.geo.GeoGrid;
+import com.musicevent.recommend.EventRecommender;
 import com.musicevent.repository.EventRepository;
+import com.musicevent.schedule.ArtistScheduleIndex;
+import com.musicevent.schedule.ScheduleSlotChanged;
+import com.musicevent.stream.TicketAvailabilityChanged;
+import com.musicevent.waitlist.TicketsReturned;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -16,14 +35,49 @@ public class EventService {
     @Autowired
     private EventRepository eventRepository;
     
+    @Autowired
+    private ReplicaLagPolicy replicaLagPolicy;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private EventGeoIndex eventGeoIndex;
+    
+    @Autowired
+    private EventRecommender eventRecommender;
+    
+    @Autowired
+    private ArtistScheduleIndex artistScheduleIndex;
+    
+    @Autowired
+    private ChangeLogService changeLogService;
+    
+    @Value("${app.recommendations.max-results:50}")
+    private int maxRecommendations;
+    
+    @Value("${app.geo.events.max-radius-km:500}")
+    private double maxRadiusKm;
+    
+    @Value("${app.geo.events.max-results:200}")
+    private int maxResults;
+    
     public Event createEvent(Event event) {
-        return eventRepository.save(event);
+        GeoGrid.checkCoordinates(event.getLatitude(), event.getLongitude());
+        artistScheduleIndex.checkDuration(event.getDurationMinutes());
+        Event saved = eventRepository.save(event);
+        changeLogService.record(ChangeType.EVENT_CHANGED, saved.getId());
+        eventPublisher.publishEvent(EventLocationChanged.of(saved));
+        eventPublisher.publishEvent(ScheduleSlotChanged.of(saved));
+        return saved;
     }
-    
+
+    @Transactional(readOnly = true)
     public List<Event> getAllEvents() {
         return eventRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
     public List<Event> getUpcomingEvents() {
         LocalDate today = LocalDate.now();
         return eventRepository.findByStatusAndDateGreaterThanEqual(
@@ -31,23 +85,115 @@ public class EventService {
         );
     }
     
+    // Upcoming events within radiusKm of the point, nearest first
+    @Transactional(readOnly = true)
+    public List<NearbyEvent> findEventsNear(double latitude, double longitude, double radiusKm,
+                                            LocalDate from, LocalDate to, String category, int limit) {
+        GeoGrid.checkCoordinates(latitude, longitude);
+        if (!(radiusKm > 0 && radiusKm <= maxRadiusKm)) {
+            throw new IllegalArgumentException("radiusKm must be greater than 0 and at most " + maxRadiusKm);
+        }
+        List<GeoGrid.Hit> hits = eventGeoIndex.nearest(latitude, longitude, radiusKm, from, to, category,
+            checkLimit(limit));
+        Map<Long, Event> events = loadUpcoming(hits.stream().map(GeoGrid.Hit::id).toList());
+        return hits.stream()
+            .filter(hit -> events.containsKey(hit.id()))
+            .map(hit -> new NearbyEvent(events.get(hit.id()), Math.round(hit.distanceKm() * 100) / 100.0))
+            .toList();
+    }
+    
+    // Upcoming events inside the box, soonest first; minLongitude > maxLongitude crosses the antimeridian
+    @Transactional(readOnly = true)
+    public List<Event> findEventsWithin(double minLatitude, double minLongitude, double maxLatitude,
+                                        double maxLongitude, LocalDate from, LocalDate to, String category,
+                                        int limit) {
+        GeoGrid.checkCoordinates(minLatitude, minLongitude);
+        GeoGrid.checkCoordinates(maxLatitude, maxLongitude);
+        if (minLatitude > maxLatitude) {
+            throw new IllegalArgumentException("minLat must not be greater than maxLat");
+        }
+        List<GeoGrid.Entry> entries = eventGeoIndex.within(minLatitude, minLongitude, maxLatitude, maxLongitude,
+            from, to, category, checkLimit(limit));
+        Map<Long, Event> events = loadUpcoming(entries.stream().map(GeoGrid.Entry::id).toList());
+        return entries.stream()
+            .map(entry -> events.get(entry.id()))
+            .filter(Objects::nonNull)
+            .toList();
+    }
+    
+    // "Fans also booked": upcoming events most often booked by people who booked this one
+    @Transactional(readOnly = true)
+    public List<Event> getSimilarEvents(Long eventId, int limit) {
+        checkRecommendationLimit(limit);
+        return upcomingInOrder(eventRecommender.similarTo(eventId, limit * 4), limit);
+    }
+    
+    // Upcoming events co-booked with the user's recent bookings, excluding ones they booked
+    @Transactional(readOnly = true)
+    public List<Event> getRecommendedEvents(Long userId, int limit) {
+        checkRecommendationLimit(limit);
+        return upcomingInOrder(eventRecommender.forUser(userId, limit * 4), limit);
+    }
+    
+    private void checkRecommendationLimit(int limit) {
+        if (limit <= 0 || limit > maxRecommendations) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxRecommendations);
+        }
+    }
+    
+    // The model also holds past events, so it is asked for extra candidates and those are dropped here
+    private List<Event> upcomingInOrder(long[] ids, int limit) {
+        Map<Long, Event> events = loadUpcoming(Arrays.stream(ids).boxed().toList());
+        LocalDate today = LocalDate.now();
+        return Arrays.stream(ids)
+            .mapToObj(events::get)
+            .filter(event -> event != null && !event.getDate().isBefore(today))
+            .limit(limit)
+            .toList();
+    }
+    
+    private int checkLimit(int limit) {
+        if (limit <= 0 || limit > maxResults) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxResults);
+        }
+        return limit;
+    }
+    
+    // The index can briefly trail the database, so anything no longer upcoming is dropped here
+    private Map<Long, Event> loadUpcoming(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return eventRepository.findAllById(ids).stream()
+            .filter(event -> event.getStatus() == Event.EventStatus.UPCOMING)
+            .collect(Collectors.toMap(Event::getId, Function.identity()));
+    }
+    
+    @Transactional(readOnly = true)
     public List<Event> getOrganizerEvents(Long organizerId) {
-        return eventRepository.findByOrganizerId(organizerId);
+        return replicaLagPolicy.readOwnWrites(() -> eventRepository.findByOrganizerId(organizerId));
     }
     
+    @Transactional(readOnly = true)
     public Optional<Event> getEventById(Long id) {
         return eventRepository.findById(id);
     }
     
     public Event updateEvent(Long id, Event eventDetails) {
-        Event event = eventRepository.findById(id)
+        Event event = eventRepository.findByIdForUpdate(id)
             .orElseThrow(() -> new RuntimeException("Event not found"));
+        int previouslyAvailable = event.getAvailableTickets();
         
         event.setName(eventDetails.getName());
         event.setDescription(eventDetails.getDescription());
         event.setLocation(eventDetails.getLocation());
+        GeoGrid.checkCoordinates(eventDetails.getLatitude(), eventDetails.getLongitude());
+        event.setLatitude(eventDetails.getLatitude());
+        event.setLongitude(eventDetails.getLongitude());
         event.setDate(eventDetails.getDate());
         event.setTime(eventDetails.getTime());
+        artistScheduleIndex.checkDuration(eventDetails.getDurationMinutes());
+        event.setDurationMinutes(eventDetails.getDurationMinutes());
         event.setPrice(eventDetails.getPrice());
         event.setCategory(eventDetails.getCategory());
         event.setTotalTickets(eventDetails.getTotalTickets());
@@ -56,11 +202,23 @@ public class EventService {
         event.setMusicianId(eventDetails.getMusicianId());
         event.setMusicianName(eventDetails.getMusicianName());
         
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        changeLogService.record(ChangeType.EVENT_CHANGED, saved.getId());
+        eventPublisher.publishEvent(new TicketAvailabilityChanged(
+            saved.getId(), saved.getAvailableTickets(), saved.getTotalTickets()));
+        eventPublisher.publishEvent(EventLocationChanged.of(saved));
+        eventPublisher.publishEvent(ScheduleSlotChanged.of(saved));
+        if (saved.getAvailableTickets() > previouslyAvailable) {
+            eventPublisher.publishEvent(new TicketsReturned(saved.getId()));
+        }
+        return saved;
     }
     
     public void deleteEvent(Long id) {
         eventRepository.deleteById(id);
+        changeLogService.record(ChangeType.EVENT_DELETED, id);
+        eventPublisher.publishEvent(EventLocationChanged.removed(id));
+        eventPublisher.publishEvent(ScheduleSlotChanged.eventRemoved(id));
     }
 }
 
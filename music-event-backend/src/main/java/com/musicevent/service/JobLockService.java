@@ -0,0 +1,65 @@
+package com.musicevent.service;
+
+import com.musicevent.repository.JobLockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Cluster-wide mutual exclusion for scheduled jobs, backed by the job_locks table.
+ * A lock is a lease: it expires on its own after lockAtMost, so a node that dies
+ * mid-run never blocks the job forever.
+ */
+@Service
+public class JobLockService {
+    @Autowired
+    private JobLockRepository jobLockRepository;
+    
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName()
+            + "-" + UUID.randomUUID().toString().substring(0, 8);
+    
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean tryAcquire(String name, Duration lockAtMost) {
+        LocalDateTime now = LocalDateTime.now();
+        jobLockRepository.insertIfAbsent(name, now);
+        return jobLockRepository.acquire(name, owner, now, now.plus(lockAtMost)) == 1;
+    }
+    
+    /**
+     * Extends a lease this node still holds. Returns false once the lease has
+     * expired, in which case another node may already own it.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean renew(String name, Duration lockAtMost) {
+        LocalDateTime now = LocalDateTime.now();
+        return jobLockRepository.renew(name, owner, now, now.plus(lockAtMost)) == 1;
+    }
+    
+    /**
+     * Whether this node still holds the lease, keeping its row locked until the
+     * caller's transaction ends. A node taking the lease over waits for that
+     * transaction, so the writes made in it are fenced by the lease.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean holdsUntilCommit(String name) {
+        LocalDateTime now = LocalDateTime.now();
+        return jobLockRepository.findByNameForUpdate(name)
+                .filter(lock -> owner.equals(lock.getLockedBy()) && lock.getLockedUntil().isAfter(now))
+                .isPresent();
+    }
+    
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(String name) {
+        jobLockRepository.release(name, owner, LocalDateTime.now());
+    }
+    
+    public String getOwner() {
+        return owner;
+    }
+}
@@ -0,0 +1,97 @@
+package com.musicevent.service;
+
+import com.musicevent.entity.RefreshToken;
+import com.musicevent.id.TimeOrderedIds;
+import com.musicevent.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Opaque, single-use refresh tokens. Each use revokes the token and issues the
+ * next one in its family; presenting a token that was already used means it
+ * leaked (or raced another tab), so the whole family is revoked and the user
+ * has to log in again.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TimeOrderedIds timeOrderedIds;
+
+    @Value("${jwt.refresh-expiration:2592000000}")
+    private long refreshExpirationMillis;
+
+    /** A token starting a new family, as after a login. */
+    public String issue(Long userId) {
+        return issue(userId, timeOrderedIds.next());
+    }
+
+    /**
+     * Revokes the presented token and returns it, or empty when it is unknown,
+     * expired or already used; in the last case its family is revoked too.
+     */
+    public Optional<RefreshToken> consume(String token) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<RefreshToken> found = refreshTokenRepository.findByTokenHash(hash(token));
+        if (found.isEmpty() || found.get().getExpiresAt().isBefore(now)) {
+            return Optional.empty();
+        }
+        RefreshToken refreshToken = found.get();
+        if (refreshTokenRepository.revoke(refreshToken.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(refreshToken.getFamilyId(), now);
+            return Optional.empty();
+        }
+        return found;
+    }
+
+    /** The next token in the family of one returned by {@link #consume}. */
+    public String rotate(RefreshToken used) {
+        return issue(used.getUserId(), used.getFamilyId());
+    }
+
+    public void revokeFamily(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token)).ifPresent(refreshToken ->
+            refreshTokenRepository.revokeFamily(refreshToken.getFamilyId(), LocalDateTime.now()));
+    }
+
+    private String issue(Long userId, Long familyId) {
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setUserId(userId);
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setExpiresAt(LocalDateTime.now().plus(Duration.ofMillis(refreshExpirationMillis)));
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    // The tokens are 256 random bits, so a plain digest is enough to make a leaked table useless
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.musicevent.service;
+
+import com.musicevent.cache.UserIdentity;
+import com.musicevent.cache.UserIdentityCache;
+import com.musicevent.changelog.ChangeLogService;
+import com.musicevent.changelog.ChangeType;
+import com.musicevent.config.ReplicaLagPolicy;
+import com.musicevent.dto.WaitlistPosition;
+import com.musicevent.entity.Booking;
+import com.musicevent.entity.Event;
+import com.musicevent.entity.WaitlistEntry;
+import com.musicevent.repository.EventRepository;
+import com.musicevent.repository.WaitlistEntryRepository;
+import com.musicevent.stream.TicketAvailabilityChanged;
+import com.musicevent.waitlist.WaitlistEntryChanged;
+import com.musicevent.waitlist.WaitlistIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * First come, first served waitlists for sold-out events. Joining, leaving
+ * and allocation all take the event's row lock, like bookings do, so each
+ * sees the queue and the ticket count as the others left them. Returned
+ * tickets go strictly in joining order: when the entry at the head wants more
+ * tickets than are free, the ones behind it wait too.
+ */
+@Service
+@Transactional
+public class WaitlistService {
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private WaitlistIndex waitlistIndex;
+
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private ReplicaLagPolicy replicaLagPolicy;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.waitlist.max-tickets:10}")
+    private int maxTickets;
+
+    @Value("${app.waitlist.batch-size:100}")
+    private int batchSize;
+
+    public WaitlistPosition join(Long userId, Long eventId, Integer tickets) {
+        if (tickets == null || tickets <= 0 || tickets > maxTickets) {
+            throw new IllegalArgumentException("tickets must be between 1 and " + maxTickets);
+        }
+        // Locked before anything else is read, so the waiting sum below sees every join committed before it
+        Event event = eventRepository.findByIdForUpdate(eventId)
+            .orElseThrow(() -> new IllegalArgumentException("Event not found"));
+        UserIdentity user = userIdentityCache.findById(userId)
+            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        if (!onSale(event)) {
+            throw new IllegalStateException("This event is no longer on sale");
+        }
+        long waiting = waitlistEntryRepository.sumTickets(eventId, WaitlistEntry.WaitlistStatus.WAITING);
+        if (event.getAvailableTickets() - waiting >= tickets) {
+            throw new IllegalStateException("Tickets are still available; book them instead");
+        }
+        if (waitlistEntryRepository.existsByEventIdAndUserIdAndStatus(eventId, userId,
+                WaitlistEntry.WaitlistStatus.WAITING)) {
+            throw new IllegalStateException("You are already on the waitlist for this event");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setEventId(eventId);
+        entry.setUserId(userId);
+        entry.setUserName(user.name());
+        entry.setTickets(tickets);
+        WaitlistEntry saved = waitlistEntryRepository.save(entry);
+        changed(saved);
+        // Its id is the newest, so everyone indexed is ahead of it
+        WaitlistIndex.Position position = waitlistIndex.position(eventId, saved.getId());
+        return new WaitlistPosition(saved, position.entriesAhead(), position.ticketsAhead());
+    }
+
+    /** Takes the user off a waitlist; false when they have no waiting entry with this id. */
+    public boolean leave(Long userId, Long entryId) {
+        Optional<WaitlistEntry> found = waitlistEntryRepository.findById(entryId)
+            .filter(entry -> entry.getUserId().equals(userId));
+        if (found.isEmpty()) {
+            return false;
+        }
+        // Locked, then read again: allocation may have just turned it into a booking
+        eventRepository.findByIdForUpdate(found.get().getEventId());
+        WaitlistEntry entry = refreshed(found.get());
+        if (entry.getStatus() != WaitlistEntry.WaitlistStatus.WAITING) {
+            return false;
+        }
+        entry.setStatus(WaitlistEntry.WaitlistStatus.CANCELLED);
+        entry.setResolvedAt(LocalDateTime.now());
+        changed(entry);
+        return true;
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistPosition> getWaiting(Long userId) {
+        List<WaitlistEntry> entries = replicaLagPolicy.readOwnWrites(() ->
+            waitlistEntryRepository.findByUserIdAndStatusOrderById(userId, WaitlistEntry.WaitlistStatus.WAITING));
+        List<WaitlistPosition> positions = new ArrayList<>(entries.size());
+        for (WaitlistEntry entry : entries) {
+            WaitlistIndex.Position position = waitlistIndex.position(entry.getEventId(), entry.getId());
+            positions.add(new WaitlistPosition(entry, position.entriesAhead(), position.ticketsAhead()));
+        }
+        return positions;
+    }
+
+    /**
+     * Books the free tickets of the event for up to app.waitlist.batch-size
+     * entries from the head of its queue, in this one transaction. Returns
+     * whether a whole batch went, in which case there may be more to allocate.
+     */
+    public boolean allocate(Long eventId) {
+        Event event = eventRepository.findByIdForUpdate(eventId).orElse(null);
+        if (event == null || !onSale(event)) {
+            return false;
+        }
+        List<WaitlistEntry> head = waitlistEntryRepository.findByEventIdAndStatusOrderById(
+            eventId, WaitlistEntry.WaitlistStatus.WAITING, PageRequest.of(0, batchSize));
+        int available = event.getAvailableTickets();
+        List<WaitlistEntry> allocated = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (WaitlistEntry entry : head) {
+            if (entry.getTickets() > available) {
+                break;
+            }
+            Booking booking = bookingService.bookFromWaitlist(entry);
+            entry.setStatus(WaitlistEntry.WaitlistStatus.ALLOCATED);
+            entry.setBookingId(booking.getId());
+            entry.setResolvedAt(now);
+            available -= entry.getTickets();
+            allocated.add(entry);
+        }
+        if (allocated.isEmpty()) {
+            return false;
+        }
+
+        event.setAvailableTickets(available);
+        eventRepository.save(event);
+        changeLogService.record(ChangeType.EVENT_CHANGED, eventId);
+        changeLogService.recordAll(ChangeType.WAITLIST_CHANGED, allocated.stream().map(WaitlistEntry::getId).toList());
+        eventPublisher.publishEvent(new TicketAvailabilityChanged(
+            eventId, event.getAvailableTickets(), event.getTotalTickets()));
+        allocated.forEach(entry -> eventPublisher.publishEvent(WaitlistEntryChanged.of(entry)));
+        return allocated.size() == batchSize;
+    }
+
+    private boolean onSale(Event event) {
+        return event.getStatus() == Event.EventStatus.UPCOMING && !event.getDate().isBefore(LocalDate.now());
+    }
+
+    private WaitlistEntry refreshed(WaitlistEntry entry) {
+        return waitlistEntryRepository.findById(entry.getId()).orElse(entry);
+    }
+
+    private void changed(WaitlistEntry entry) {
+        changeLogService.record(ChangeType.WAITLIST_CHANGED, entry.getId());
+        eventPublisher.publishEvent(WaitlistEntryChanged.of(entry));
+    }
+}
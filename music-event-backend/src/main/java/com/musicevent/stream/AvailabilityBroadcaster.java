@@ -0,0 +1,145 @@
+package com.musicevent.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicevent.entity.Event;
+import com.musicevent.repository.EventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans ticket availability out to SSE subscribers, one topic per event.
+ * Changes are coalesced: only the latest counts per event are kept and flushed
+ * every app.stream.availability.flush-interval-ms, and each frame is encoded once
+ * for all subscribers. Writes run on a small shared pool rather than a thread
+ * per connection.
+ */
+@Service
+public class AvailabilityBroadcaster implements DisposableBean {
+    private final EventRepository eventRepository;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor senders;
+    private final Map<Long, Set<SseSubscriber>> topics = new ConcurrentHashMap<>();
+    private final Map<Long, TicketAvailabilityChanged> latest = new ConcurrentHashMap<>();
+    private final Map<Long, TicketAvailabilityChanged> dirty = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    
+    @Value("${app.stream.availability.max-subscribers:20000}")
+    private int maxSubscribers;
+    
+    @Value("${app.stream.availability.max-skipped:20}")
+    private int maxSkipped;
+    
+    @Value("${app.stream.availability.timeout-ms:1800000}")
+    private long timeoutMs;
+    
+    public AvailabilityBroadcaster(EventRepository eventRepository,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.stream.availability.sender-threads:8}") int senderThreads) {
+        this.eventRepository = eventRepository;
+        this.objectMapper = objectMapper;
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(100_000), runnable -> {
+                    Thread thread = new Thread(runnable, "sse-availability");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        meterRegistry.gauge("stream.availability.subscribers", subscriberCount);
+    }
+    
+    public Optional<SseEmitter> subscribe(Long eventId) {
+        TicketAvailabilityChanged current = latest.get(eventId);
+        if (current == null) {
+            Optional<Event> event = eventRepository.findById(eventId);
+            if (event.isEmpty()) {
+                return Optional.empty();
+            }
+            current = new TicketAvailabilityChanged(eventId,
+                    event.get().getAvailableTickets(), event.get().getTotalTickets());
+            latest.putIfAbsent(eventId, current);
+        }
+        if (subscriberCount.get() >= maxSubscribers) {
+            throw new IllegalStateException("Too many live subscribers, try again later");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Set<SseSubscriber> topic = topics.computeIfAbsent(eventId, id -> ConcurrentHashMap.newKeySet());
+        SseSubscriber subscriber = new SseSubscriber(emitter, senders, maxSkipped, s -> unsubscribe(eventId, s));
+        topic.add(subscriber);
+        subscriberCount.incrementAndGet();
+        subscriber.offer(encode(current));
+        return Optional.of(emitter);
+    }
+    
+    private void unsubscribe(Long eventId, SseSubscriber subscriber) {
+        Set<SseSubscriber> topic = topics.get(eventId);
+        if (topic != null && topic.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            if (topic.isEmpty()) {
+                topics.remove(eventId, topic);
+                latest.remove(eventId);
+            }
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAvailabilityChanged(TicketAvailabilityChanged change) {
+        if (topics.containsKey(change.eventId())) {
+            latest.put(change.eventId(), change);
+            dirty.put(change.eventId(), change);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.stream.availability.flush-interval-ms:250}")
+    public void flush() {
+        for (Long eventId : dirty.keySet()) {
+            TicketAvailabilityChanged change = dirty.remove(eventId);
+            Set<SseSubscriber> topic = topics.get(eventId);
+            if (change == null || topic == null) {
+                continue;
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> frame = encode(change);
+            for (SseSubscriber subscriber : topic) {
+                subscriber.offer(frame);
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.stream.availability.heartbeat-ms:20000}")
+    public void heartbeat() {
+        topics.values().forEach(topic -> topic.forEach(s -> s.offerIfIdle(SseMessages.HEARTBEAT)));
+    }
+    
+    private Set<ResponseBodyEmitter.DataWithMediaType> encode(TicketAvailabilityChanged change) {
+        try {
+            return SseMessages.frame(Long.toString(sequence.incrementAndGet()), "availability",
+                    objectMapper.writeValueAsString(change));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        topics.values().forEach(topic -> topic.forEach(s -> s.getEmitter().complete()));
+        senders.shutdownNow();
+    }
+}
@@ -0,0 +1,34 @@
+package com.musicevent.stream;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.musicevent.entity.Contract;
+
+/**
+ * Delta pushed to the organizer and artist of a contract. A new offer or an
+ * acceptance (which links an event) carries the full contract; a plain status
+ * change carries only the id and new status.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ContractNotification(String type,
+                                   Long contractId,
+                                   Contract.ContractStatus status,
+                                   Contract contract,
+                                   @JsonIgnore Long organizerId,
+                                   @JsonIgnore Long artistId) {
+
+    public static ContractNotification created(Contract contract) {
+        return new ContractNotification("created", contract.getId(), contract.getStatus(), contract,
+                contract.getOrganizerId(), contract.getArtistId());
+    }
+
+    public static ContractNotification updated(Contract contract) {
+        return new ContractNotification("updated", contract.getId(), contract.getStatus(), contract,
+                contract.getOrganizerId(), contract.getArtistId());
+    }
+
+    public static ContractNotification statusChanged(Contract contract) {
+        return new ContractNotification("status", contract.getId(), contract.getStatus(), null,
+                contract.getOrganizerId(), contract.getArtistId());
+    }
+}
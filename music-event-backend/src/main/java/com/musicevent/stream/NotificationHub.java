@@ -0,0 +1,314 @@
+package com.musicevent.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicevent.waitlist.WaitlistEntryChanged;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user notification channel over SSE. Every message gets a monotonically
+ * increasing id and is kept in a bounded per-user backlog, so a reconnecting
+ * client that sends Last-Event-ID receives only what it missed. When the
+ * requested id has already fallen out of the backlog (or predates this
+ * process) the client gets a single "reset" message and should reload.
+ * <p>
+ * Backlogs live in this process, so resuming is sticky to the node that
+ * issued the ids: every node receives every user's notifications (other
+ * nodes' through the change log), but only this one can replay its own
+ * backlog. Ids are "instance-sequence" with an instance id drawn at startup;
+ * an id from another node or an earlier run is never compared with this
+ * node's sequence and gets a reset instead. Channels are kept for app.stream.notifications.idle-ttl after the user's
+ * last connection closes, so short disconnects can still resume.
+ */
+@Service
+public class NotificationHub implements DisposableBean {
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor senders;
+    private final Map<Long, UserChannel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final String instance = Long.toString(ThreadLocalRandom.current().nextLong(1L << 40), 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Value("${app.stream.notifications.backlog-size:50}")
+    private int backlogSize;
+
+    @Value("${app.stream.notifications.idle-ttl:PT30M}")
+    private Duration idleTtl;
+
+    @Value("${app.stream.notifications.max-subscribers:20000}")
+    private int maxSubscribers;
+
+    @Value("${app.stream.notifications.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    public NotificationHub(ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.stream.notifications.sender-threads:4}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(100_000), runnable -> {
+                    Thread thread = new Thread(runnable, "sse-notifications");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        meterRegistry.gauge("stream.notifications.subscribers", subscriberCount);
+        meterRegistry.gaugeMapSize("stream.notifications.channels", List.of(), channels);
+    }
+
+    /**
+     * Opens a stream for the user. With a lastEventId the backlog after that id
+     * is replayed first; without one the stream starts at the current position.
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        Long resumeFrom = lastEventId == null || lastEventId.isBlank() ? null : sequenceOf(lastEventId.trim());
+        if (subscriberCount.get() >= maxSubscribers) {
+            throw new IllegalStateException("Too many live subscribers, try again later");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection[] created = new Connection[1];
+        channels.compute(userId, (id, channel) -> {
+            if (channel == null) {
+                channel = new UserChannel(sequence.get());
+            }
+            long cursor = channel.newestId();
+            if (resumeFrom != null) {
+                // An id we never issued can't be resumed from; -1 forces a reset
+                cursor = resumeFrom <= cursor ? resumeFrom : -1;
+            }
+            created[0] = new Connection(channel, emitter, cursor);
+            channel.connections.add(created[0]);
+            channel.touch();
+            return channel;
+        });
+        subscriberCount.incrementAndGet();
+        created[0].wake();
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onContractChanged(ContractNotification notification) {
+        publish(notification.organizerId(), "contract", notification);
+        if (!Objects.equals(notification.artistId(), notification.organizerId())) {
+            publish(notification.artistId(), "contract", notification);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWaitlistEntryChanged(WaitlistEntryChanged change) {
+        publish(change.userId(), "waitlist", change);
+    }
+
+    /**
+     * Appends a message to the user's backlog and wakes their connections. Users
+     * without a channel have nothing to resume and will load fresh state anyway.
+     */
+    public void publish(Long userId, String name, Object payload) {
+        UserChannel channel = userId == null ? null : channels.get(userId);
+        if (channel == null) {
+            return;
+        }
+        long id = sequence.incrementAndGet();
+        channel.append(new Entry(id, SseMessages.frame(eventId(id), name, toJson(payload))), backlogSize);
+        channel.connections.forEach(Connection::wake);
+    }
+
+    @Scheduled(fixedDelayString = "${app.stream.notifications.heartbeat-ms:20000}")
+    public void heartbeat() {
+        channels.values().forEach(channel -> channel.connections.forEach(Connection::heartbeat));
+    }
+
+    @Scheduled(fixedDelayString = "${app.stream.notifications.sweep-ms:60000}")
+    public void sweepIdleChannels() {
+        long cutoff = System.currentTimeMillis() - idleTtl.toMillis();
+        for (Long userId : channels.keySet()) {
+            channels.computeIfPresent(userId, (id, channel) ->
+                    channel.connections.isEmpty() && channel.lastActive < cutoff ? null : channel);
+        }
+    }
+
+    private String eventId(long id) {
+        return instance + "-" + id;
+    }
+
+    /** This node's sequence number in an event id, or -1 for an id it didn't issue. */
+    private long sequenceOf(String eventId) {
+        int dash = eventId.indexOf('-');
+        if (dash != instance.length() || !eventId.startsWith(instance)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId, dash + 1, eventId.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        channels.values().forEach(channel -> channel.connections.forEach(c -> c.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    private record Entry(long id, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+    }
+
+    private static final class UserChannel {
+        private final ArrayDeque<Entry> backlog = new ArrayDeque<>();
+        private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+        // Highest id this channel can no longer replay
+        private long trimmedUpTo;
+        private volatile long lastActive;
+
+        UserChannel(long startId) {
+            this.trimmedUpTo = startId;
+        }
+
+        synchronized void append(Entry entry, int capacity) {
+            backlog.addLast(entry);
+            while (backlog.size() > capacity) {
+                trimmedUpTo = backlog.removeFirst().id();
+            }
+            touch();
+        }
+
+        synchronized long newestId() {
+            return backlog.isEmpty() ? trimmedUpTo : backlog.getLast().id();
+        }
+
+        /** Entries after the cursor, or null when the cursor is older than the backlog. */
+        synchronized List<Entry> after(long cursor) {
+            if (cursor < trimmedUpTo) {
+                return null;
+            }
+            List<Entry> missed = new ArrayList<>();
+            for (Entry entry : backlog) {
+                if (entry.id() > cursor) {
+                    missed.add(entry);
+                }
+            }
+            return missed;
+        }
+
+        void touch() {
+            lastActive = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * One SSE connection with its own cursor into the channel backlog. Wake-ups
+     * are collapsed: a single drain task sends everything after the cursor.
+     */
+    private final class Connection {
+        private final UserChannel channel;
+        private final SseEmitter emitter;
+        private final AtomicBoolean signalled = new AtomicBoolean();
+        private final AtomicBoolean heartbeat = new AtomicBoolean();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private long cursor;
+
+        Connection(UserChannel channel, SseEmitter emitter, long cursor) {
+            this.channel = channel;
+            this.emitter = emitter;
+            this.cursor = cursor;
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(e -> close());
+        }
+
+        void wake() {
+            signalled.set(true);
+            schedule();
+        }
+
+        void heartbeat() {
+            heartbeat.set(true);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!closed.get() && sending.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    sending.set(false);
+                    emitter.complete();
+                    close();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                boolean sent = false;
+                while (!closed.get() && signalled.getAndSet(false)) {
+                    List<Entry> missed = channel.after(cursor);
+                    if (missed == null) {
+                        cursor = channel.newestId();
+                        emitter.send(SseMessages.frame(eventId(cursor), "reset", "{}"));
+                        sent = true;
+                        continue;
+                    }
+                    for (Entry entry : missed) {
+                        emitter.send(entry.frame());
+                        cursor = entry.id();
+                        sent = true;
+                    }
+                }
+                if (heartbeat.getAndSet(false) && !sent && !closed.get()) {
+                    emitter.send(SseMessages.HEARTBEAT);
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+                close();
+            } finally {
+                sending.set(false);
+            }
+            if (!closed.get() && signalled.get()) {
+                schedule();
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                channel.connections.remove(this);
+                channel.touch();
+                subscriberCount.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.musicevent.stream;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collections;
+import java.util.Set;
+
+final class SseMessages {
+    static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT =
+            Collections.unmodifiableSet(SseEmitter.event().comment("keepalive").build());
+    
+    private SseMessages() {
+    }
+    
+    /**
+     * Encodes one SSE frame so it can be written to any number of emitters
+     * without re-serializing. The data must already be JSON text.
+     */
+    static Set<ResponseBodyEmitter.DataWithMediaType> frame(String id, String name, String json) {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event().name(name).data(json);
+        if (id != null) {
+            builder.id(id);
+        }
+        return Collections.unmodifiableSet(builder.build());
+    }
+}
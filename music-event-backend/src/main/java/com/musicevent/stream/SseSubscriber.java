@@ -0,0 +1,115 @@
+package com.musicevent.stream;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * One SSE connection. Messages are pre-built once and shared by every
+ * subscriber. Holds at most one undelivered message: a newer message
+ * replaces an older one that has not been written yet, so a slow client only
+ * ever receives the latest state. A client whose write is still in progress
+ * after too many consecutive offers is removed at once and completed by the
+ * sender thread that is writing to it: send and complete synchronize on the emitter, so
+ * completing from the offering (flush) thread would wait behind a write that
+ * is stuck on the socket. The connector's write timeout bounds that write.
+ */
+class SseSubscriber {
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private final int maxSkipped;
+    private final Consumer<SseSubscriber> onClose;
+    private final AtomicReference<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new AtomicReference<>();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    // A write to this client is in progress (waiting behind other clients' writes doesn't count)
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    
+    SseSubscriber(SseEmitter emitter, Executor executor, int maxSkipped, Consumer<SseSubscriber> onClose) {
+        this.emitter = emitter;
+        this.executor = executor;
+        this.maxSkipped = maxSkipped;
+        this.onClose = onClose;
+        emitter.onCompletion(this::close);
+        emitter.onTimeout(this::close);
+        emitter.onError(e -> close());
+    }
+    
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+    
+    void offer(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        if (closed.get()) {
+            return;
+        }
+        if (pending.getAndSet(message) != null && writing.get()
+                && skipped.incrementAndGet() > maxSkipped) {
+            // Still writing an older message after maxSkipped newer ones: drop the client.
+            // The drain that is writing sees closed and completes the emitter once its write returns
+            close();
+            return;
+        }
+        schedule();
+    }
+    
+    /**
+     * Offers a message only when nothing is waiting, so keepalives never replace
+     * a real update.
+     */
+    void offerIfIdle(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        if (!closed.get() && pending.compareAndSet(null, message)) {
+            schedule();
+        }
+    }
+    
+    private void schedule() {
+        if (sending.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                emitter.complete();
+                close();
+            }
+        }
+    }
+    
+    private void drain() {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> message;
+            while (!closed.get() && (message = pending.getAndSet(null)) != null) {
+                writing.set(true);
+                emitter.send(message);
+                writing.set(false);
+                skipped.set(0);
+            }
+            if (closed.get()) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            close();
+        } finally {
+            sending.set(false);
+        }
+        if (!closed.get() && pending.get() != null) {
+            schedule();
+        }
+    }
+    
+    void close() {
+        if (closed.compareAndSet(false, true)) {
+            pending.set(null);
+            onClose.accept(this);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.musicevent.stream;
+
+/**
+ * Published by BookingService and EventService whenever an event's ticket
+ * counts may have changed. Delivered to subscribers after the transaction commits.
+ */
+public record TicketAvailabilityChanged(Long eventId, int availableTickets, int totalTickets) {
+}
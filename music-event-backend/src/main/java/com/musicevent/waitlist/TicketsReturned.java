@@ -0,0 +1,9 @@
+package com.musicevent.waitlist;
+
+/**
+ * Tickets went back on sale for an event (a cancelled booking, or its
+ * organizer raising availability); after commit the waitlist allocator
+ * offers them to the event's queue.
+ */
+public record TicketsReturned(Long eventId) {
+}
@@ -0,0 +1,117 @@
+package com.musicevent.waitlist;
+
+import com.musicevent.entity.Event;
+import com.musicevent.repository.EventRepository;
+import com.musicevent.service.JobLockService;
+import com.musicevent.service.WaitlistService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands returned tickets to the waitlist once the cancellation or capacity
+ * change that freed them has committed. Allocation runs on one background
+ * thread, a batch per transaction, until the event's queue is empty or its
+ * head no longer fits; requests for an event that is already queued are
+ * folded into that one. The app.waitlist.sweep-cron pass catches tickets
+ * returned on a node that went down before allocating them.
+ */
+@Component
+public class WaitlistAllocator implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(WaitlistAllocator.class);
+    private static final String LOCK_NAME = "waitlist-sweep";
+
+    private final WaitlistService waitlistService;
+    private final WaitlistIndex waitlistIndex;
+    private final EventRepository eventRepository;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate readTransaction;
+    private final ExecutorService allocator;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.waitlist.lock-at-most:PT5M}")
+    private Duration lockAtMost;
+
+    public WaitlistAllocator(WaitlistService waitlistService,
+                             WaitlistIndex waitlistIndex,
+                             EventRepository eventRepository,
+                             JobLockService jobLockService,
+                             PlatformTransactionManager transactionManager) {
+        this.waitlistService = waitlistService;
+        this.waitlistIndex = waitlistIndex;
+        this.eventRepository = eventRepository;
+        this.jobLockService = jobLockService;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.allocator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "waitlist-allocator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTicketsReturned(TicketsReturned returned) {
+        if (waitlistIndex.hasWaiting(returned.eventId())) {
+            request(returned.eventId());
+        }
+    }
+
+    @Scheduled(cron = "${app.waitlist.sweep-cron:0 */5 * * * *}")
+    public void sweep() {
+        if (!jobLockService.tryAcquire(LOCK_NAME, lockAtMost)) {
+            return;
+        }
+        try {
+            List<Long> waiting = waitlistIndex.eventsWithWaiting();
+            if (waiting.isEmpty()) {
+                return;
+            }
+            List<Event> events = readTransaction.execute(status -> eventRepository.findAllById(waiting));
+            events.stream()
+                    .filter(event -> event.getAvailableTickets() > 0)
+                    .forEach(event -> request(event.getId()));
+        } finally {
+            jobLockService.release(LOCK_NAME);
+        }
+    }
+
+    public void request(Long eventId) {
+        if (pending.add(eventId)) {
+            allocator.execute(() -> allocate(eventId));
+        }
+    }
+
+    private void allocate(Long eventId) {
+        // Cleared first, so tickets returned while this runs get a pass of their own
+        pending.remove(eventId);
+        try {
+            while (waitlistService.allocate(eventId)) {
+                // Another full batch went; the queue may hold more that fit
+            }
+        } catch (RuntimeException e) {
+            log.error("Waitlist allocation failed for event {}", eventId, e);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        allocator.shutdownNow();
+        allocator.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,30 @@
+package com.musicevent.waitlist;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.musicevent.entity.WaitlistEntry;
+
+/**
+ * Published whenever a waitlist entry is written, locally or (through the
+ * change log) on another node. After commit it moves the entry in or out of
+ * WaitlistIndex and is pushed to the entry's user as a "waitlist" notification;
+ * an ALLOCATED one carries the booking the user now holds.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record WaitlistEntryChanged(Long entryId,
+                                   Long eventId,
+                                   @JsonIgnore Long userId,
+                                   Integer tickets,
+                                   WaitlistEntry.WaitlistStatus status,
+                                   Long bookingId) {
+
+    public static WaitlistEntryChanged of(WaitlistEntry entry) {
+        return new WaitlistEntryChanged(entry.getId(), entry.getEventId(), entry.getUserId(), entry.getTickets(),
+                entry.getStatus(), entry.getBookingId());
+    }
+
+    @JsonIgnore
+    public boolean waiting() {
+        return status == WaitlistEntry.WaitlistStatus.WAITING;
+    }
+}
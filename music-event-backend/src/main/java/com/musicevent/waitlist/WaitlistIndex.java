@@ -0,0 +1,231 @@
+package com.musicevent.waitlist;
+
+import com.musicevent.entity.WaitlistEntry;
+import com.musicevent.repository.WaitlistEntryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory mirror of every event's WAITING waitlist entries, in the order
+ * they joined. It answers "is anyone waiting" and "how far back is this
+ * entry" without touching the database; the rows themselves stay the source
+ * of truth for allocation and for the tickets held back from direct sale,
+ * which are read under the event's row lock. Loaded before the instance reports ready,
+ * kept in step through WaitlistEntryChanged after commit (other nodes' writes
+ * arrive through the change log) and rebuilt on app.waitlist.refresh-cron.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WaitlistIndex implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(WaitlistIndex.class);
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final TransactionTemplate readTransaction;
+    private Map<Long, Queue> queues = new HashMap<>();
+    // Changes committed while a rebuild is loading; replayed onto the new queues before the swap
+    private List<WaitlistEntryChanged> duringRebuild;
+
+    @Value("${app.waitlist.load-page-size:10000}")
+    private int loadPageSize;
+
+    public WaitlistIndex(WaitlistEntryRepository waitlistEntryRepository,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        meterRegistry.gauge("waitlist.entries.waiting", this, WaitlistIndex::size);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${app.waitlist.refresh-cron:0 55 * * * *}")
+    public void refresh() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onWaitlistEntryChanged(WaitlistEntryChanged change) {
+        apply(queues, change);
+        if (duringRebuild != null) {
+            duringRebuild.add(change);
+        }
+    }
+
+    public synchronized boolean hasWaiting(Long eventId) {
+        return queues.containsKey(eventId);
+    }
+
+    /** Entries (and their tickets) ahead of the given one in the event's queue, whether it is indexed yet or not. */
+    public synchronized Position position(Long eventId, Long entryId) {
+        Queue queue = queues.get(eventId);
+        return queue == null ? new Position(0, 0) : queue.ahead(entryId);
+    }
+
+    public synchronized List<Long> eventsWithWaiting() {
+        return new ArrayList<>(queues.keySet());
+    }
+
+    synchronized int size() {
+        return queues.values().stream().mapToInt(Queue::size).sum();
+    }
+
+    void rebuild() {
+        synchronized (this) {
+            if (duringRebuild != null) {
+                return;
+            }
+            duringRebuild = new ArrayList<>();
+        }
+        long started = System.nanoTime();
+        Map<Long, Queue> fresh = new HashMap<>();
+        int loaded = 0;
+        try {
+            long after = 0;
+            while (true) {
+                long pageAfter = after;
+                List<WaitlistEntryRepository.QueueRow> rows = readTransaction.execute(status ->
+                        waitlistEntryRepository.findQueueRows(pageAfter, WaitlistEntry.WaitlistStatus.WAITING,
+                                PageRequest.of(0, loadPageSize)));
+                if (rows == null || rows.isEmpty()) {
+                    break;
+                }
+                for (WaitlistEntryRepository.QueueRow row : rows) {
+                    fresh.computeIfAbsent(row.eventId(), id -> new Queue()).add(row.id(), row.tickets());
+                }
+                loaded += rows.size();
+                after = rows.get(rows.size() - 1).id();
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                duringRebuild = null;
+            }
+            log.error("Waitlist index rebuild failed, keeping the current index", e);
+            return;
+        }
+        synchronized (this) {
+            duringRebuild.forEach(change -> apply(fresh, change));
+            duringRebuild = null;
+            queues = fresh;
+        }
+        log.info("Waitlist index loaded {} waiting entries for {} events in {} ms", loaded, fresh.size(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    private static void apply(Map<Long, Queue> target, WaitlistEntryChanged change) {
+        if (change.waiting()) {
+            target.computeIfAbsent(change.eventId(), id -> new Queue()).add(change.entryId(), change.tickets());
+            return;
+        }
+        Queue queue = target.get(change.eventId());
+        if (queue != null && queue.remove(change.entryId()) && queue.size() == 0) {
+            target.remove(change.eventId());
+        }
+    }
+
+    public record Position(int entriesAhead, int ticketsAhead) {
+    }
+
+    /**
+     * One event's waiting entries sorted by id, as two parallel arrays between
+     * head and tail: about 12 bytes an entry. Entries nearly always join at
+     * the tail and leave at the head, which only moves an index; anything in
+     * between is a binary search and a shift.
+     */
+    private static final class Queue {
+        private long[] ids = new long[4];
+        private int[] tickets = new int[4];
+        private int head;
+        private int tail;
+
+        int size() {
+            return tail - head;
+        }
+
+        void add(long id, int count) {
+            int found = Arrays.binarySearch(ids, head, tail, id);
+            if (found >= 0) {
+                return;
+            }
+            if (tail == ids.length) {
+                makeRoom();
+            }
+            int at = -(Arrays.binarySearch(ids, head, tail, id) + 1);
+            System.arraycopy(ids, at, ids, at + 1, tail - at);
+            System.arraycopy(tickets, at, tickets, at + 1, tail - at);
+            ids[at] = id;
+            tickets[at] = count;
+            tail++;
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, head, tail, id);
+            if (at < 0) {
+                return false;
+            }
+            if (at == head) {
+                head++;
+            } else {
+                System.arraycopy(ids, at + 1, ids, at, tail - at - 1);
+                System.arraycopy(tickets, at + 1, tickets, at, tail - at - 1);
+                tail--;
+            }
+            if (head == tail) {
+                head = 0;
+                tail = 0;
+            }
+            return true;
+        }
+
+        Position ahead(long id) {
+            int at = Arrays.binarySearch(ids, head, tail, id);
+            int end = at >= 0 ? at : -(at + 1);
+            int ticketsAhead = 0;
+            for (int i = head; i < end; i++) {
+                ticketsAhead += tickets[i];
+            }
+            return new Position(end - head, ticketsAhead);
+        }
+
+        // Slides the live range back to the start, or doubles the arrays when it fills them
+        private void makeRoom() {
+            int size = size();
+            if (head > 0 && size < ids.length / 2) {
+                System.arraycopy(ids, head, ids, 0, size);
+                System.arraycopy(tickets, head, tickets, 0, size);
+            } else {
+                long[] grownIds = new long[ids.length * 2];
+                int[] grownTickets = new int[ids.length * 2];
+                System.arraycopy(ids, head, grownIds, 0, size);
+                System.arraycopy(tickets, head, grownTickets, 0, size);
+                ids = grownIds;
+                tickets = grownTickets;
+            }
+            head = 0;
+            tail = size;
+        }
+    }
+}
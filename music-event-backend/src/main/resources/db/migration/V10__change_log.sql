@@ -0,0 +1,12 @@
+-- Change log for cross-node cache coherence: one row per write, inserted in the
+-- writer's transaction and tailed by every node (ChangeLogTailer) on id
+CREATE TABLE change_log (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    change_type VARCHAR(32) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    origin VARCHAR(128) NOT NULL,
+    created_at DATETIME(6) NOT NULL
+);
+
+-- ChangeLogEntryRepository.purgeOlderThan
+CREATE INDEX idx_change_log_created_at ON change_log(created_at);
@@ -0,0 +1,19 @@
+-- Refresh tokens for short-lived access tokens. Only a SHA-256 of the token is
+-- stored. Each refresh revokes the presented token and issues the next one in
+-- the same family; presenting a revoked token revokes the whole family.
+CREATE TABLE refresh_tokens (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    family_id BIGINT NOT NULL,
+    token_hash CHAR(64) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    revoked_at DATETIME(6) NULL,
+    CONSTRAINT uk_refresh_token_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_token_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- RefreshTokenRepository.revokeFamily
+CREATE INDEX idx_refresh_token_family ON refresh_tokens(family_id);
+-- RefreshTokenRepository.purgeExpired
+CREATE INDEX idx_refresh_token_expires_at ON refresh_tokens(expires_at);
@@ -0,0 +1,24 @@
+-- Per-event waitlist for sold-out events. Ids are time-ordered, so id order is
+-- the order people joined in; returned tickets go to WAITING entries in that
+-- order, each allocation turning an entry ALLOCATED with the booking it got.
+CREATE TABLE waitlist_entries (
+    id BIGINT PRIMARY KEY,
+    event_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    user_name VARCHAR(255) NOT NULL,
+    tickets INT NOT NULL,
+    status ENUM('WAITING', 'ALLOCATED', 'CANCELLED') NOT NULL,
+    booking_id BIGINT NULL,
+    created_at DATETIME(6) NOT NULL,
+    resolved_at DATETIME(6) NULL,
+    CONSTRAINT fk_waitlist_event FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE,
+    CONSTRAINT fk_waitlist_user FOREIGN KEY (user_id) REFERENCES users(id),
+    CONSTRAINT fk_waitlist_booking FOREIGN KEY (booking_id) REFERENCES bookings(id)
+);
+
+-- Head of an event's queue (allocation)
+CREATE INDEX idx_waitlist_event_status ON waitlist_entries(event_id, status, id);
+-- Keyset load of every WAITING entry into WaitlistIndex
+CREATE INDEX idx_waitlist_status ON waitlist_entries(status, id);
+-- A user's entries (GET /api/waitlist/me, duplicate check)
+CREATE INDEX idx_waitlist_user_status ON waitlist_entries(user_id, status);
@@ -0,0 +1,9 @@
+-- Retry backoff moves from the dispatcher's memory onto the row, so the batch
+-- query skips events waiting for a retry (and the later events of their aggregate)
+-- instead of filling batches with them, and a new dispatcher keeps the schedule
+ALTER TABLE outbox_events ADD COLUMN next_attempt_at DATETIME(6) NULL;
+UPDATE outbox_events SET next_attempt_at = created_at;
+ALTER TABLE outbox_events MODIFY next_attempt_at DATETIME(6) NOT NULL;
+
+-- OutboxEventRepository.findDue: earlier pending events of the same aggregate
+CREATE INDEX idx_outbox_aggregate_status_id ON outbox_events(aggregate_type, aggregate_id, status, id);
@@ -0,0 +1,3 @@
+-- EventRepository.findForScheduleCheck: a musician's events around a date, read under the
+-- artist's lock when a contract is accepted (contracts use idx_contract_artist_status)
+CREATE INDEX idx_event_musician_date ON events(musician_id, date);
@@ -0,0 +1,81 @@
+-- Baseline schema for Music Event Management System
+-- Matches the JPA entities; existing databases are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and only receive V2 onwards.
+
+CREATE TABLE users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role ENUM('USER', 'ORGANIZER', 'MUSICIAN') NOT NULL,
+    profile TEXT,
+    created_at DATETIME(6) NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    location VARCHAR(255) NOT NULL,
+    date DATE NOT NULL,
+    time VARCHAR(255) NOT NULL,
+    price DOUBLE NOT NULL,
+    category VARCHAR(255) NOT NULL,
+    emoji VARCHAR(255),
+    total_tickets INT NOT NULL,
+    available_tickets INT NOT NULL,
+    status ENUM('UPCOMING', 'COMPLETED', 'CANCELLED') NOT NULL,
+    organizer_id BIGINT NOT NULL,
+    organizer_name VARCHAR(255) NOT NULL,
+    musician_id BIGINT,
+    musician_name VARCHAR(255),
+    created_at DATETIME(6) NOT NULL,
+    CONSTRAINT fk_events_organizer FOREIGN KEY (organizer_id) REFERENCES users(id)
+);
+
+CREATE TABLE bookings (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    user_name VARCHAR(255) NOT NULL,
+    event_id BIGINT NOT NULL,
+    tickets INT NOT NULL,
+    qr_code VARCHAR(255) NOT NULL,
+    status ENUM('CONFIRMED', 'CANCELLED', 'REFUNDED') NOT NULL,
+    booking_date DATETIME(6) NOT NULL,
+    CONSTRAINT uk_bookings_qr_code UNIQUE (qr_code),
+    CONSTRAINT fk_bookings_user FOREIGN KEY (user_id) REFERENCES users(id),
+    CONSTRAINT fk_bookings_event FOREIGN KEY (event_id) REFERENCES events(id)
+);
+
+CREATE TABLE contracts (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    organizer_id BIGINT NOT NULL,
+    organizer_name VARCHAR(255) NOT NULL,
+    artist_id BIGINT NOT NULL,
+    artist_name VARCHAR(255) NOT NULL,
+    event_id BIGINT NULL,
+    event_name VARCHAR(255) NOT NULL,
+    venue VARCHAR(255),
+    event_date VARCHAR(255),
+    event_time VARCHAR(255),
+    event_description TEXT,
+    payment_amount DOUBLE NOT NULL,
+    notes TEXT,
+    status ENUM('PENDING', 'ACCEPTED', 'REJECTED', 'EXPIRED') NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NULL,
+    CONSTRAINT fk_contracts_organizer FOREIGN KEY (organizer_id) REFERENCES users(id),
+    CONSTRAINT fk_contracts_artist FOREIGN KEY (artist_id) REFERENCES users(id),
+    CONSTRAINT fk_contracts_event FOREIGN KEY (event_id) REFERENCES events(id)
+);
+
+CREATE TABLE job_locks (
+    name VARCHAR(64) PRIMARY KEY,
+    locked_until DATETIME(6) NOT NULL,
+    locked_at DATETIME(6) NOT NULL,
+    locked_by VARCHAR(255) NOT NULL
+);
+
+-- Foreign key columns get their indexes from InnoDB; query-matched indexes live in V3
+CREATE INDEX idx_user_role ON users(role);
@@ -0,0 +1,29 @@
+-- Bring databases created by schema.sql, the FIX_*.sql scripts or ddl-auto=update
+-- in line with V1. Every statement is safe to run against a fresh V1 schema.
+
+-- Formerly FIX_EVENT_ID_NULLABLE.sql / FIX_CONTRACTS_TABLE.sql
+ALTER TABLE contracts MODIFY COLUMN event_id BIGINT NULL;
+
+-- EXPIRED came with StatusTransitionJob's contract expiry, in schema.sql only
+ALTER TABLE contracts
+    MODIFY COLUMN status ENUM('PENDING', 'ACCEPTED', 'REJECTED', 'EXPIRED') NOT NULL DEFAULT 'PENDING';
+
+-- musician_id / musician_name were only ever added by ddl-auto=update
+SET @col_exists = (
+    SELECT COUNT(*) FROM information_schema.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'events' AND COLUMN_NAME = 'musician_id'
+);
+SET @sql = IF(@col_exists = 0,
+    'ALTER TABLE events ADD COLUMN musician_id BIGINT NULL, ADD COLUMN musician_name VARCHAR(255) NULL',
+    'SELECT 1');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- job_locks was added after schema.sql was last applied by hand
+CREATE TABLE IF NOT EXISTS job_locks (
+    name VARCHAR(64) PRIMARY KEY,
+    locked_until DATETIME(6) NOT NULL,
+    locked_at DATETIME(6) NOT NULL,
+    locked_by VARCHAR(255) NOT NULL
+);
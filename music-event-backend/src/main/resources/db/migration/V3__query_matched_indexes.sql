@@ -0,0 +1,51 @@
+-- Composite indexes derived from the repository queries:
+--   EventRepository.findByStatusAndDateGreaterThanEqual / findByStatus  -> events(status, date)
+--   EventRepository.completePastEvents                                  -> events(status, date)
+--   ContractRepository.findByArtistId[AndStatus]                        -> contracts(artist_id, status)
+--   ContractRepository.findByOrganizerId[AndStatus]                     -> contracts(organizer_id, status)
+--   BookingRepository.findByEventId                                     -> bookings(event_id, status)
+-- EventRepository.findByOrganizerId and findByUserId use the foreign key indexes.
+
+CREATE INDEX idx_event_status_date ON events(status, date);
+CREATE INDEX idx_contract_artist_status ON contracts(artist_id, status);
+CREATE INDEX idx_contract_organizer_status ON contracts(organizer_id, status);
+CREATE INDEX idx_booking_event_status ON bookings(event_id, status);
+
+-- The single-column indexes from the old schema.sql are left-prefixes of the
+-- composites above; drop them where they exist so writes don't maintain both.
+
+SET @idx_exists = (
+    SELECT COUNT(*) FROM information_schema.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'events' AND INDEX_NAME = 'idx_event_status'
+);
+SET @sql = IF(@idx_exists > 0, 'DROP INDEX idx_event_status ON events', 'SELECT 1');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @idx_exists = (
+    SELECT COUNT(*) FROM information_schema.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'contracts' AND INDEX_NAME = 'idx_contract_artist'
+);
+SET @sql = IF(@idx_exists > 0, 'DROP INDEX idx_contract_artist ON contracts', 'SELECT 1');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @idx_exists = (
+    SELECT COUNT(*) FROM information_schema.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'contracts' AND INDEX_NAME = 'idx_contract_organizer'
+);
+SET @sql = IF(@idx_exists > 0, 'DROP INDEX idx_contract_organizer ON contracts', 'SELECT 1');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @idx_exists = (
+    SELECT COUNT(*) FROM information_schema.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'bookings' AND INDEX_NAME = 'idx_booking_event'
+);
+SET @sql = IF(@idx_exists > 0, 'DROP INDEX idx_booking_event ON bookings', 'SELECT 1');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,3 @@
+-- Operators get the ADMIN role by hand; it cannot be chosen at registration
+ALTER TABLE users
+    MODIFY COLUMN role ENUM('USER', 'ORGANIZER', 'MUSICIAN', 'ADMIN') NOT NULL;
@@ -0,0 +1,2 @@
+-- Optimistic locking for contracts: accept, reject and expiry must not overwrite each other
+ALTER TABLE contracts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
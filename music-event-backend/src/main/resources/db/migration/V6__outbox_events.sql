@@ -0,0 +1,17 @@
+-- Transactional outbox: domain events written in the same transaction as the
+-- change that caused them, drained by OutboxDispatcher
+CREATE TABLE outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    aggregate_type VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload TEXT NOT NULL,
+    status ENUM('PENDING', 'DISPATCHED', 'FAILED') NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(512) NULL,
+    created_at DATETIME(6) NOT NULL,
+    dispatched_at DATETIME(6) NULL
+);
+
+-- OutboxEventRepository.findByStatusOrderById and purgeDispatched
+CREATE INDEX idx_outbox_status_id ON outbox_events(status, id);
@@ -0,0 +1,4 @@
+-- Coordinates for the "events near me" search. Spatial lookups are served by
+-- the in-memory geo index (EventGeoIndex), so no database index is added.
+ALTER TABLE events ADD COLUMN latitude DOUBLE NULL;
+ALTER TABLE events ADD COLUMN longitude DOUBLE NULL;
@@ -0,0 +1,3 @@
+-- Covers BookingRepository.findBookedPairs and findUserChunkEnd (the recommendation
+-- rebuild walks every confirmed booking by user) without touching the table rows.
+CREATE INDEX idx_booking_user_status_event ON bookings(user_id, status, event_id);
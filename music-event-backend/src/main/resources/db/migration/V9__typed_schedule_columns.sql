@@ -0,0 +1,66 @@
+-- contracts.event_date / event_time and events.time were free-form strings.
+-- Convert them to DATE / TIME and add an optional duration (NULL means the
+-- configured app.schedule.default-duration-minutes) so an artist's bookings
+-- can be range-checked (ArtistScheduleIndex).
+--
+-- Existing values seen in the wild: 'yyyy-MM-dd' dates, '7:00 PM' / '7 PM'
+-- and '19:00' / '19:00:00' times. Anything else becomes NULL for contracts and
+-- 19:00 (the old '7:00 PM' default) for events, whose time is NOT NULL.
+-- Non-strict mode for the conversion only, so an impossible value such as
+-- '2024-02-30' yields NULL instead of failing the migration.
+
+SET @old_sql_mode = @@SESSION.sql_mode;
+SET SESSION sql_mode = '';
+
+ALTER TABLE contracts
+    ADD COLUMN event_date_typed DATE NULL,
+    ADD COLUMN event_time_typed TIME NULL,
+    ADD COLUMN duration_minutes INT NULL;
+
+UPDATE contracts
+SET event_date_typed = STR_TO_DATE(TRIM(event_date), '%Y-%m-%d')
+WHERE TRIM(event_date) REGEXP '^[0-9]{4}-[0-9]{2}-[0-9]{2}$';
+
+UPDATE contracts
+SET event_time_typed = CASE
+    WHEN UPPER(TRIM(event_time)) REGEXP '^(0?[1-9]|1[0-2]):[0-5][0-9] ?(AM|PM)$'
+        THEN STR_TO_DATE(REPLACE(UPPER(TRIM(event_time)), ' ', ''), '%l:%i%p')
+    WHEN UPPER(TRIM(event_time)) REGEXP '^(0?[1-9]|1[0-2]) ?(AM|PM)$'
+        THEN STR_TO_DATE(REPLACE(UPPER(TRIM(event_time)), ' ', ''), '%l%p')
+    WHEN TRIM(event_time) REGEXP '^([01]?[0-9]|2[0-3]):[0-5][0-9](:[0-5][0-9])?$'
+        THEN CAST(TRIM(event_time) AS TIME)
+    END;
+
+ALTER TABLE contracts
+    DROP COLUMN event_date,
+    DROP COLUMN event_time,
+    RENAME COLUMN event_date_typed TO event_date,
+    RENAME COLUMN event_time_typed TO event_time;
+
+ALTER TABLE events
+    ADD COLUMN time_typed TIME NULL,
+    ADD COLUMN duration_minutes INT NULL;
+
+UPDATE events
+SET time_typed = CASE
+    WHEN UPPER(TRIM(time)) REGEXP '^(0?[1-9]|1[0-2]):[0-5][0-9] ?(AM|PM)$'
+        THEN STR_TO_DATE(REPLACE(UPPER(TRIM(time)), ' ', ''), '%l:%i%p')
+    WHEN UPPER(TRIM(time)) REGEXP '^(0?[1-9]|1[0-2]) ?(AM|PM)$'
+        THEN STR_TO_DATE(REPLACE(UPPER(TRIM(time)), ' ', ''), '%l%p')
+    WHEN TRIM(time) REGEXP '^([01]?[0-9]|2[0-3]):[0-5][0-9](:[0-5][0-9])?$'
+        THEN CAST(TRIM(time) AS TIME)
+    ELSE '19:00:00'
+    END;
+
+UPDATE events SET time_typed = '19:00:00' WHERE time_typed IS NULL;
+
+ALTER TABLE events
+    DROP COLUMN time,
+    RENAME COLUMN time_typed TO time;
+
+ALTER TABLE events MODIFY COLUMN time TIME NOT NULL;
+
+SET SESSION sql_mode = @old_sql_mode;
+
+-- StatusTransitionJob.expireStalePending ranges over (status, event_date)
+CREATE INDEX idx_contract_status_date ON contracts(status, event_date);
@@ -54,7 +54,10 @@ function EventCard({ event }) {
         <div className="event-details">
           <div className="event-detail-item">
             <FaMapMarkerAlt />
-            <span>{event.location}</span>
+            <span>
+              {event.location}
+              {event.distanceKm != null && ` · ${event.distanceKm} km away`}
+            </span>
           </div>
           <div className="event-detail-item">
             <FaCalendarAlt />
@@ -2,6 +2,7 @@ import { Link, useLocation, useNavigate } from 'react-router-dom';
 import { useState, useEffect } from 'react';
 import { FaMusic, FaBars, FaTimes, FaUser, FaSignOutAlt } from 'react-icons/fa';
 import { getCurrentUser, logoutUser } from '../utils/auth';
+import { authAPI } from '../services/api';
 import './Navbar.css';
 
 function Navbar() {
@@ -45,8 +46,14 @@ function Navbar() {
     };
   }, [location]);
 
-  const handleLogout = () => {
+  const handleLogout = async () => {
+    try {
+      await authAPI.logout(user?.refreshToken);
+    } catch (error) {
+      // Signing out locally still works; the tokens run out on their own
+    }
     logoutUser();
+    localStorage.removeItem('token');
     setUser(null);
     setMobileMenuOpen(false);
     navigate('/');
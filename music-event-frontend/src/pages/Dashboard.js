@@ -2,13 +2,14 @@ import React, { useState, useEffect, useRef } from "react";
 import { useNavigate } from "react-router-dom";
 import { FaTicketAlt, FaCalendarAlt, FaMapMarkerAlt, FaRupeeSign, FaQrcode, FaCheckCircle, FaClock, FaTimesCircle, FaDownload } from "react-icons/fa";
 import { QRCodeSVG } from 'qrcode.react';
-import { bookingAPI, eventAPI } from "../services/api";
+import { bookingAPI } from "../services/api";
 import "./Pages.css";
 
 function Dashboard() {
   const [user, setUser] = useState(null);
-  const [bookings, setBookings] = useState([]);
-  const [events, setEvents] = useState([]);
+  const [summary, setSummary] = useState({ upcoming: 0, past: 0, totalSpent: 0 });
+  const [upcoming, setUpcoming] = useState({ items: [], page: 0, hasMore: false });
+  const [past, setPast] = useState({ items: [], page: 0, hasMore: false });
   const [loading, setLoading] = useState(true);
   const navigate = useNavigate();
 
@@ -22,31 +23,46 @@ function Dashboard() {
     const currentUser = JSON.parse(userStr);
     setUser(currentUser);
     
-    fetchData(currentUser.id);
+    fetchData();
   }, [navigate]);
 
-  const fetchData = async (userId) => {
+  const fetchData = async () => {
     try {
       setLoading(true);
-      // Fetch bookings and events in parallel
-      const [bookingsResponse, eventsResponse] = await Promise.all([
-        bookingAPI.getUserBookings(userId),
-        eventAPI.getAllEvents()
+      // Each call is one joined query on the server, however many bookings the user has
+      const [summaryResponse, upcomingResponse, pastResponse] = await Promise.all([
+        bookingAPI.getMyWalletSummary(),
+        bookingAPI.getMyWallet('upcoming'),
+        bookingAPI.getMyWallet('past')
       ]);
       
-      setBookings(bookingsResponse.data || []);
-      setEvents(eventsResponse.data || []);
+      setSummary(summaryResponse.data);
+      setUpcoming(upcomingResponse.data);
+      setPast(pastResponse.data);
     } catch (error) {
       console.error('Error fetching data:', error);
-      setBookings([]);
-      setEvents([]);
     } finally {
       setLoading(false);
     }
   };
 
-  const getEventDetails = (eventId) => {
-    return events.find(e => e.id === eventId);
+  const loadMore = async (current, section, setSection) => {
+    try {
+      const response = await bookingAPI.getMyWallet(section, current.page + 1, current.size);
+      setSection({ ...response.data, items: [...current.items, ...response.data.items] });
+    } catch (error) {
+      console.error('Error loading more bookings:', error);
+    }
+  };
+
+  const cancelBooking = async (booking) => {
+    if (!window.confirm(`Cancel your ${booking.tickets} ticket(s) for ${booking.eventName}?`)) return;
+    try {
+      await bookingAPI.cancelBooking(booking.bookingId);
+      fetchData();
+    } catch (error) {
+      alert(error.response?.data?.error || 'Could not cancel the booking. Please try again.');
+    }
   };
 
   const formatDate = (dateString) => {
@@ -85,24 +101,27 @@ function Dashboard() {
     return null;
   }
 
-  const totalSpent = bookings.reduce((sum, booking) => {
-    const event = getEventDetails(booking.eventId);
-    return sum + (event ? event.price * booking.tickets : 0);
-  }, 0);
-
-  const upcomingBookings = bookings.filter(booking => {
-    const event = getEventDetails(booking.eventId);
-    if (!event) return false;
-    const eventDate = new Date(event.date);
-    return eventDate >= new Date();
-  });
+  const totalBookings = summary.upcoming + summary.past;
+  const upcomingBookings = upcoming.items;
+  const pastBookings = past.items;
 
-  const pastBookings = bookings.filter(booking => {
-    const event = getEventDetails(booking.eventId);
-    if (!event) return false;
-    const eventDate = new Date(event.date);
-    return eventDate < new Date();
-  });
+  const loadMoreButton = (current, section, setSection) => current.hasMore && (
+    <button
+      onClick={() => loadMore(current, section, setSection)}
+      style={{
+        marginTop: '15px',
+        padding: '10px 20px',
+        background: 'var(--white)',
+        color: 'var(--primary)',
+        border: '1px solid var(--primary)',
+        borderRadius: '8px',
+        cursor: 'pointer',
+        fontWeight: 600
+      }}
+    >
+      Show more
+    </button>
+  );
 
   return (
     <div className="dashboard-page">
@@ -133,21 +152,21 @@ function Dashboard() {
 
         <div className="stats-grid">
           <div className="stat-card">
-            <div className="stat-value">{bookings.length}</div>
+            <div className="stat-value">{totalBookings}</div>
             <div className="stat-label">Total Bookings</div>
           </div>
           <div className="stat-card">
-            <div className="stat-value">{upcomingBookings.length}</div>
+            <div className="stat-value">{summary.upcoming}</div>
             <div className="stat-label">Upcoming Events</div>
           </div>
           <div className="stat-card">
-            <div className="stat-value">{pastBookings.length}</div>
+            <div className="stat-value">{summary.past}</div>
             <div className="stat-label">Past Events</div>
           </div>
           <div className="stat-card">
             <div className="stat-value">
               <FaRupeeSign style={{ fontSize: '24px', display: 'inline' }} />
-              {totalSpent.toLocaleString()}
+              {summary.totalSpent.toLocaleString()}
             </div>
             <div className="stat-label">Total Spent</div>
           </div>
@@ -158,7 +177,7 @@ function Dashboard() {
             My Bookings
           </h2>
 
-          {bookings.length === 0 ? (
+          {totalBookings === 0 ? (
             <div style={{ 
               padding: '60px 20px', 
               textAlign: 'center', 
@@ -197,75 +216,76 @@ function Dashboard() {
                     Upcoming Events
                   </h3>
                   <div style={{ display: 'flex', flexDirection: 'column', gap: '15px' }}>
-                    {upcomingBookings.map(booking => {
-                      const event = getEventDetails(booking.eventId);
-                      if (!event) return null;
-                      
-                      return (
-                        <div
-                          key={booking.id}
-                          style={{
-                            background: 'var(--white)',
-                            padding: '25px',
-                            borderRadius: '16px',
-                            boxShadow: 'var(--shadow)',
-                            display: 'grid',
-                            gridTemplateColumns: '1fr auto',
-                            gap: '20px',
-                            alignItems: 'center'
-                          }}
-                        >
-                          <div>
-                            <div style={{ display: 'flex', alignItems: 'center', gap: '15px', marginBottom: '15px' }}>
-                              <div style={{
-                                width: '60px',
-                                height: '60px',
-                                borderRadius: '12px',
-                                background: 'var(--gradient-1)',
-                                display: 'flex',
-                                alignItems: 'center',
-                                justifyContent: 'center',
-                                fontSize: '28px'
-                              }}>
-                                {event.emoji || '🎵'}
-                              </div>
-                              <div>
-                                <h4 style={{ fontSize: '20px', fontWeight: 700, marginBottom: '5px', color: 'var(--dark)' }}>
-                                  {event.name}
-                                </h4>
-                                <div style={{ display: 'flex', gap: '20px', flexWrap: 'wrap', fontSize: '14px', color: 'var(--dark-light)' }}>
-                                  <span><FaCalendarAlt style={{ marginRight: '5px' }} />{formatDate(event.date)}</span>
-                                  <span><FaMapMarkerAlt style={{ marginRight: '5px' }} />{event.location}</span>
-                                </div>
+                    {upcomingBookings.map(booking => (
+                      <div
+                        key={booking.bookingId}
+                        style={{
+                          background: 'var(--white)',
+                          padding: '25px',
+                          borderRadius: '16px',
+                          boxShadow: 'var(--shadow)',
+                          display: 'grid',
+                          gridTemplateColumns: '1fr auto',
+                          gap: '20px',
+                          alignItems: 'center'
+                        }}
+                      >
+                        <div>
+                          <div style={{ display: 'flex', alignItems: 'center', gap: '15px', marginBottom: '15px' }}>
+                            <div style={{
+                              width: '60px',
+                              height: '60px',
+                              borderRadius: '12px',
+                              background: 'var(--gradient-1)',
+                              display: 'flex',
+                              alignItems: 'center',
+                              justifyContent: 'center',
+                              fontSize: '28px'
+                            }}>
+                              {booking.emoji || '🎵'}
+                            </div>
+                            <div>
+                              <h4 style={{ fontSize: '20px', fontWeight: 700, marginBottom: '5px', color: 'var(--dark)' }}>
+                                {booking.eventName}
+                              </h4>
+                              <div style={{ display: 'flex', gap: '20px', flexWrap: 'wrap', fontSize: '14px', color: 'var(--dark-light)' }}>
+                                <span><FaCalendarAlt style={{ marginRight: '5px' }} />{formatDate(booking.date)}</span>
+                                <span><FaMapMarkerAlt style={{ marginRight: '5px' }} />{booking.location}</span>
                               </div>
                             </div>
-                            <div style={{ 
-                              display: 'flex', 
-                              gap: '30px', 
-                              flexWrap: 'wrap',
-                              padding: '15px',
-                              background: 'var(--light)',
-                              borderRadius: '8px'
-                            }}>
-                              <div>
-                                <div style={{ fontSize: '12px', color: 'var(--dark-light)', marginBottom: '5px' }}>Tickets</div>
-                                <div style={{ fontSize: '18px', fontWeight: 700, color: 'var(--dark)' }}>{booking.tickets}</div>
+                          </div>
+                          <div style={{ 
+                            display: 'flex', 
+                            gap: '30px', 
+                            flexWrap: 'wrap',
+                            padding: '15px',
+                            background: 'var(--light)',
+                            borderRadius: '8px'
+                          }}>
+                            <div>
+                              <div style={{ fontSize: '12px', color: 'var(--dark-light)', marginBottom: '5px' }}>Tickets</div>
+                              <div style={{ fontSize: '18px', fontWeight: 700, color: 'var(--dark)' }}>{booking.tickets}</div>
+                            </div>
+                            <div>
+                              <div style={{ fontSize: '12px', color: 'var(--dark-light)', marginBottom: '5px' }}>Total Price</div>
+                              <div style={{ fontSize: '18px', fontWeight: 700, color: 'var(--primary)' }}>
+                                <FaRupeeSign style={{ fontSize: '14px', display: 'inline' }} />
+                                {(booking.price * booking.tickets).toLocaleString()}
                               </div>
-                              <div>
-                                <div style={{ fontSize: '12px', color: 'var(--dark-light)', marginBottom: '5px' }}>Total Price</div>
-                                <div style={{ fontSize: '18px', fontWeight: 700, color: 'var(--primary)' }}>
-                                  <FaRupeeSign style={{ fontSize: '14px', display: 'inline' }} />
-                                  {(event.price * booking.tickets).toLocaleString()}
-                                </div>
+                            </div>
+                            <div>
+                              <div style={{ fontSize: '12px', color: 'var(--dark-light)', marginBottom: '5px' }}>Booking Date</div>
+                              <div style={{ fontSize: '14px', fontWeight: 600, color: 'var(--dark)' }}>
+                                {formatDateTime(booking.bookingDate)}
                               </div>
-                              <div>
-                                <div style={{ fontSize: '12px', color: 'var(--dark-light)', marginBottom: '5px' }}>Booking Date</div>
-                                <div style={{ fontSize: '14px', fontWeight: 600, color: 'var(--dark)' }}>
-                                  {formatDateTime(booking.bookingDate)}
+                            </div>
+                            <div>
+                              <div style={{ fontSize: '12px', color: 'var(--dark-light)', marginBottom: '5px' }}>Status</div>
+                              {booking.status === 'CANCELLED' ? (
+                                <div style={{ fontSize: '14px', fontWeight: 600, color: 'var(--dark-light)' }}>
+                                  Cancelled
                                 </div>
-                              </div>
-                              <div>
-                                <div style={{ fontSize: '12px', color: 'var(--dark-light)', marginBottom: '5px' }}>Status</div>
+                              ) : (
                                 <div style={{ 
                                   fontSize: '14px', 
                                   fontWeight: 600, 
@@ -275,38 +295,46 @@ function Dashboard() {
                                   gap: '5px'
                                 }}>
                                   <FaCheckCircle /> Confirmed
+                                  <button
+                                    className="btn btn-outline"
+                                    onClick={() => cancelBooking(booking)}
+                                    style={{ marginLeft: '10px', padding: '4px 12px', fontSize: '12px' }}
+                                  >
+                                    Cancel
+                                  </button>
                                 </div>
-                              </div>
+                              )}
                             </div>
                           </div>
-                          <div style={{ textAlign: 'center' }}>
-                            <div style={{
-                              padding: '20px',
-                              background: 'var(--light)',
-                              borderRadius: '12px',
-                              marginBottom: '15px',
-                              position: 'relative'
-                            }}>
-                              <QRCodeSVG 
-                                value={JSON.stringify({
-                                  bookingId: booking.id,
-                                  eventId: event.id,
-                                  qrCode: booking.qrCode || booking.id
-                                })} 
-                                size={120} 
-                              />
-                            </div>
-                            <div style={{ fontSize: '12px', fontWeight: 600, color: 'var(--dark)', marginBottom: '5px' }}>
-                              Booking ID
-                            </div>
-                            <div style={{ fontSize: '14px', color: 'var(--dark-light)', fontFamily: 'monospace' }}>
-                              {booking.qrCode || booking.id}
-                            </div>
+                        </div>
+                        <div style={{ textAlign: 'center' }}>
+                          <div style={{
+                            padding: '20px',
+                            background: 'var(--light)',
+                            borderRadius: '12px',
+                            marginBottom: '15px',
+                            position: 'relative'
+                          }}>
+                            <QRCodeSVG 
+                              value={JSON.stringify({
+                                bookingId: booking.bookingId,
+                                eventId: booking.eventId,
+                                qrCode: booking.qrCode || booking.bookingId
+                              })} 
+                              size={120} 
+                            />
+                          </div>
+                          <div style={{ fontSize: '12px', fontWeight: 600, color: 'var(--dark)', marginBottom: '5px' }}>
+                            Booking ID
+                          </div>
+                          <div style={{ fontSize: '14px', color: 'var(--dark-light)', fontFamily: 'monospace' }}>
+                            {booking.qrCode || booking.bookingId}
                           </div>
                         </div>
-                      );
-                    })}
+                      </div>
+                    ))}
                   </div>
+                  {loadMoreButton(upcoming, 'upcoming', setUpcoming)}
                 </div>
               )}
 
@@ -316,62 +344,58 @@ function Dashboard() {
                     Past Events
                   </h3>
                   <div style={{ display: 'flex', flexDirection: 'column', gap: '15px' }}>
-                    {pastBookings.map(booking => {
-                      const event = getEventDetails(booking.eventId);
-                      if (!event) return null;
-                      
-                      return (
-                        <div
-                          key={booking.id}
-                          style={{
-                            background: 'var(--white)',
-                            padding: '25px',
-                            borderRadius: '16px',
-                            boxShadow: 'var(--shadow)',
-                            opacity: 0.8
-                          }}
-                        >
-                          <div style={{ display: 'flex', alignItems: 'center', gap: '15px', marginBottom: '15px' }}>
-                            <div style={{
-                              width: '50px',
-                              height: '50px',
-                              borderRadius: '12px',
-                              background: '#e2e8f0',
-                              display: 'flex',
-                              alignItems: 'center',
-                              justifyContent: 'center',
-                              fontSize: '24px'
-                            }}>
-                              {event.emoji || '🎵'}
-                            </div>
-                            <div style={{ flex: 1 }}>
-                              <h4 style={{ fontSize: '18px', fontWeight: 700, marginBottom: '5px', color: 'var(--dark)' }}>
-                                {event.name}
-                              </h4>
-                              <div style={{ display: 'flex', gap: '20px', flexWrap: 'wrap', fontSize: '14px', color: 'var(--dark-light)' }}>
-                                <span><FaCalendarAlt style={{ marginRight: '5px' }} />{formatDate(event.date)}</span>
-                                <span><FaMapMarkerAlt style={{ marginRight: '5px' }} />{event.location}</span>
-                                <span>{booking.tickets} tickets • <FaRupeeSign style={{ fontSize: '10px', display: 'inline' }} />{(event.price * booking.tickets).toLocaleString()}</span>
-                              </div>
-                            </div>
-                            <div style={{ 
-                              padding: '8px 16px',
-                              background: '#e2e8f0',
-                              borderRadius: '20px',
-                              fontSize: '14px',
-                              fontWeight: 600,
-                              color: 'var(--dark-light)',
-                              display: 'flex',
-                              alignItems: 'center',
-                              gap: '5px'
-                            }}>
-                              <FaClock /> Completed
+                    {pastBookings.map(booking => (
+                      <div
+                        key={booking.bookingId}
+                        style={{
+                          background: 'var(--white)',
+                          padding: '25px',
+                          borderRadius: '16px',
+                          boxShadow: 'var(--shadow)',
+                          opacity: 0.8
+                        }}
+                      >
+                        <div style={{ display: 'flex', alignItems: 'center', gap: '15px', marginBottom: '15px' }}>
+                          <div style={{
+                            width: '50px',
+                            height: '50px',
+                            borderRadius: '12px',
+                            background: '#e2e8f0',
+                            display: 'flex',
+                            alignItems: 'center',
+                            justifyContent: 'center',
+                            fontSize: '24px'
+                          }}>
+                            {booking.emoji || '🎵'}
+                          </div>
+                          <div style={{ flex: 1 }}>
+                            <h4 style={{ fontSize: '18px', fontWeight: 700, marginBottom: '5px', color: 'var(--dark)' }}>
+                              {booking.eventName}
+                            </h4>
+                            <div style={{ display: 'flex', gap: '20px', flexWrap: 'wrap', fontSize: '14px', color: 'var(--dark-light)' }}>
+                              <span><FaCalendarAlt style={{ marginRight: '5px' }} />{formatDate(booking.date)}</span>
+                              <span><FaMapMarkerAlt style={{ marginRight: '5px' }} />{booking.location}</span>
+                              <span>{booking.tickets} tickets • <FaRupeeSign style={{ fontSize: '10px', display: 'inline' }} />{(booking.price * booking.tickets).toLocaleString()}</span>
                             </div>
                           </div>
+                          <div style={{ 
+                            padding: '8px 16px',
+                            background: '#e2e8f0',
+                            borderRadius: '20px',
+                            fontSize: '14px',
+                            fontWeight: 600,
+                            color: 'var(--dark-light)',
+                            display: 'flex',
+                            alignItems: 'center',
+                            gap: '5px'
+                          }}>
+                            <FaClock /> Completed
+                          </div>
                         </div>
-                      );
-                    })}
+                      </div>
+                    ))}
                   </div>
+                  {loadMoreButton(past, 'past', setPast)}
                 </div>
               )}
             </div>
@@ -2,7 +2,7 @@ import { useState, useEffect, useRef } from 'react';
 import { useParams, useNavigate, Link } from 'react-router-dom';
 import { FaMapMarkerAlt, FaCalendarAlt, FaClock, FaUsers, FaArrowLeft, FaShareAlt, FaCheckCircle, FaDownload } from 'react-icons/fa';
 import { QRCodeSVG } from 'qrcode.react';
-import { eventAPI, bookingAPI } from '../services/api';
+import api, { eventAPI, bookingAPI, waitlistAPI, notificationAPI } from '../services/api';
 import './Pages.css';
 
 function EventDetails() {
@@ -15,12 +15,67 @@ function EventDetails() {
   const [booking, setBooking] = useState(null);
   const [loading, setLoading] = useState(true);
   const [bookingLoading, setBookingLoading] = useState(false);
+  const [similarEvents, setSimilarEvents] = useState([]);
+  // The current user's place in this event's waitlist ({ entry, entriesAhead, ticketsAhead })
+  const [waitlist, setWaitlist] = useState(null);
+  const [offerWaitlist, setOfferWaitlist] = useState(false);
+  const [waitlistLoading, setWaitlistLoading] = useState(false);
   const qrRef = useRef(null);
 
   useEffect(() => {
     fetchEvent();
   }, [id]);
 
+  useEffect(() => {
+    eventAPI.getSimilarEvents(id)
+      .then((response) => setSimilarEvents(response.data))
+      .catch(() => setSimilarEvents([]));
+  }, [id]);
+
+  // Live availability: the server pushes ticket counts instead of us polling
+  useEffect(() => {
+    const source = new EventSource(`${api.defaults.baseURL}/events/${id}/availability/stream`);
+    source.addEventListener('availability', (e) => {
+      const update = JSON.parse(e.data);
+      setEvent((prev) => prev && {
+        ...prev,
+        availableTickets: update.availableTickets,
+        totalTickets: update.totalTickets
+      });
+    });
+    return () => source.close();
+  }, [id]);
+
+  useEffect(() => {
+    if (!localStorage.getItem('token')) return;
+    waitlistAPI.getMine()
+      .then((response) => setWaitlist(response.data.find((w) => String(w.entry.eventId) === String(id)) || null))
+      .catch(() => setWaitlist(null));
+  }, [id]);
+
+  // While waiting, the server tells us when returned tickets were booked for us
+  const waitingEntryId = waitlist?.entry.id;
+  useEffect(() => {
+    if (!waitingEntryId) return;
+    const source = notificationAPI.openStream();
+    source.addEventListener('waitlist', async (e) => {
+      const change = JSON.parse(e.data);
+      if (change.entryId !== waitingEntryId) return;
+      setWaitlist(null);
+      if (change.status === 'ALLOCATED' && change.bookingId) {
+        try {
+          const response = await bookingAPI.getBookingById(change.bookingId);
+          setBooking(response.data);
+          setBookingConfirmed(true);
+          setShowQR(true);
+        } catch (error) {
+          console.error('Error fetching waitlist booking:', error);
+        }
+      }
+    });
+    return () => source.close();
+  }, [waitingEntryId]);
+
   const fetchEvent = async () => {
     try {
       setLoading(true);
@@ -71,15 +126,51 @@ function EventDetails() {
       setBookingConfirmed(true);
       setShowQR(true);
       
-      // Refresh event data
-      await fetchEvent();
+      // The availability stream confirms the real count; update locally until then
+      setEvent((prev) => ({
+        ...prev,
+        availableTickets: Math.max(0, (prev.availableTickets || 0) - ticketCount)
+      }));
     } catch (error) {
-      alert(error.response?.data?.error || 'Booking failed. Please try again.');
+      const message = error.response?.data?.error;
+      // Either sold out or the remaining tickets are held for people already waiting
+      if (message === 'Not enough tickets available') {
+        setOfferWaitlist(true);
+      }
+      alert(message || 'Booking failed. Please try again.');
     } finally {
       setBookingLoading(false);
     }
   };
 
+  const handleJoinWaitlist = async () => {
+    if (!localStorage.getItem('user')) {
+      navigate('/login');
+      return;
+    }
+    try {
+      setWaitlistLoading(true);
+      const response = await waitlistAPI.join(event.id, ticketCount);
+      setWaitlist(response.data);
+    } catch (error) {
+      alert(error.response?.data?.error || 'Could not join the waitlist. Please try again.');
+    } finally {
+      setWaitlistLoading(false);
+    }
+  };
+
+  const handleLeaveWaitlist = async () => {
+    try {
+      setWaitlistLoading(true);
+      await waitlistAPI.leave(waitlist.entry.id);
+      setWaitlist(null);
+    } catch (error) {
+      alert('Could not leave the waitlist. Please try again.');
+    } finally {
+      setWaitlistLoading(false);
+    }
+  };
+
   const totalPrice = event.price * ticketCount;
   const qrData = booking ? JSON.stringify({
     bookingId: booking.id,
@@ -286,6 +377,24 @@ function EventDetails() {
                   </div>
                 )}
               </div>
+
+              {similarEvents.length > 0 && (
+                <div style={{ marginTop: '30px' }}>
+                  <h3 style={{ marginBottom: '16px', color: 'var(--dark)' }}>Fans Also Booked</h3>
+                  {similarEvents.map((similar) => (
+                    <Link
+                      key={similar.id}
+                      to={`/event/${similar.id}`}
+                      style={{ display: 'flex', justifyContent: 'space-between', padding: '12px 0', borderBottom: '1px solid #e2e8f0', color: 'var(--dark)', textDecoration: 'none' }}
+                    >
+                      <strong>{similar.name}</strong>
+                      <span style={{ color: 'var(--dark-light)' }}>
+                        {new Date(similar.date).toLocaleDateString()} · {similar.location}
+                      </span>
+                    </Link>
+                  ))}
+                </div>
+              )}
             </div>
           </div>
         </div>
@@ -351,6 +460,30 @@ function EventDetails() {
               >
                 {bookingLoading ? 'Booking...' : (event.availableTickets === 0 ? 'Sold Out' : 'Book Tickets')}
               </button>
+
+              {waitlist ? (
+                <div style={{ padding: '15px', background: 'var(--light)', borderRadius: '8px', marginBottom: '15px', textAlign: 'center' }}>
+                  <p style={{ marginBottom: '10px' }}>
+                    You're on the waitlist for {waitlist.entry.tickets} ticket{waitlist.entry.tickets === 1 ? '' : 's'}
+                    {waitlist.entriesAhead > 0
+                      ? ` (${waitlist.entriesAhead} ahead of you, waiting for ${waitlist.ticketsAhead} tickets).`
+                      : ', next in line.'}
+                    {' '}We'll book them for you as soon as tickets are returned.
+                  </p>
+                  <button className="btn btn-outline" onClick={handleLeaveWaitlist} disabled={waitlistLoading}>
+                    Leave Waitlist
+                  </button>
+                </div>
+              ) : (event.availableTickets === 0 || offerWaitlist) && (
+                <button
+                  className="btn btn-outline"
+                  onClick={handleJoinWaitlist}
+                  style={{ width: '100%', padding: '16px', fontSize: '18px', marginBottom: '15px' }}
+                  disabled={waitlistLoading}
+                >
+                  {waitlistLoading ? 'Joining...' : `Join Waitlist for ${ticketCount} Ticket${ticketCount === 1 ? '' : 's'}`}
+                </button>
+              )}
             </>
           ) : (
             <div style={{ textAlign: 'center' }}>
@@ -1,5 +1,5 @@
 import { useState, useEffect } from 'react';
-import { FaSearch, FaFilter } from 'react-icons/fa';
+import { FaSearch, FaFilter, FaLocationArrow } from 'react-icons/fa';
 import EventCard from '../components/EventCard';
 import { eventAPI } from '../services/api';
 import './Pages.css';
@@ -10,11 +10,46 @@ function Events() {
   const [searchTerm, setSearchTerm] = useState('');
   const [selectedCategory, setSelectedCategory] = useState('All');
   const [selectedLocation, setSelectedLocation] = useState('All');
+  // Set while showing events near the browser's position instead of all upcoming ones
+  const [nearMe, setNearMe] = useState(null);
+  const [nearMeError, setNearMeError] = useState(null);
 
   useEffect(() => {
     fetchEvents();
   }, []);
 
+  const toggleNearMe = () => {
+    if (nearMe) {
+      setNearMe(null);
+      fetchEvents();
+      return;
+    }
+    if (!navigator.geolocation) {
+      setNearMeError('Location is not available in this browser.');
+      return;
+    }
+    setNearMeError(null);
+    navigator.geolocation.getCurrentPosition(
+      async ({ coords }) => {
+        try {
+          setLoading(true);
+          const response = await eventAPI.getEventsNear({ lat: coords.latitude, lon: coords.longitude, radiusKm: 25 });
+          setNearMe({ lat: coords.latitude, lon: coords.longitude });
+          setSelectedLocation('All');
+          setEvents(response.data
+            .filter(({ event }) => event.musicianId)
+            .map(({ event, distanceKm }) => ({ ...event, distanceKm })));
+        } catch (error) {
+          console.error('Error fetching nearby events:', error);
+          setNearMeError('Could not load events near you.');
+        } finally {
+          setLoading(false);
+        }
+      },
+      () => setNearMeError('Allow location access to find events near you.')
+    );
+  };
+
   const fetchEvents = async () => {
     try {
       setLoading(true);
@@ -101,7 +136,20 @@ function Events() {
             <option key={loc} value={loc}>{loc}</option>
           ))}
         </select>
+
+        <button
+          type="button"
+          className="filter-select"
+          onClick={toggleNearMe}
+          style={{ cursor: 'pointer', display: 'flex', alignItems: 'center', gap: '8px' }}
+        >
+          <FaLocationArrow />
+          {nearMe ? 'All locations' : 'Near me (25 km)'}
+        </button>
       </div>
+      {nearMeError && (
+        <p style={{ textAlign: 'center', color: '#ef4444' }}>{nearMeError}</p>
+      )}
 
       <div className="events-container">
         {filteredEvents.length > 0 ? (
@@ -2,7 +2,7 @@ import React, { useState, useEffect } from "react";
 import { useNavigate } from "react-router-dom";
 import { FaMusic, FaCheckCircle, FaTimesCircle, FaCalendarAlt, FaMapMarkerAlt, FaRupeeSign, FaClock, FaFileContract, FaUser, FaEnvelope } from "react-icons/fa";
 import { getCurrentUser, initializeData } from "../utils/auth";
-import { contractAPI, eventAPI } from "../services/api";
+import { contractAPI, eventAPI, notificationAPI, mergeContractNotification } from "../services/api";
 import "./Pages.css";
 
 function MusicianDashboard() {
@@ -27,6 +27,18 @@ function MusicianDashboard() {
     loadDashboardData(currentUser.id);
   }, [navigate]);
 
+  // Contract offers and status changes arrive as deltas instead of re-fetching the list
+  useEffect(() => {
+    if (!user) return;
+    const source = notificationAPI.openStream();
+    source.addEventListener('contract', (e) => {
+      const message = JSON.parse(e.data);
+      setContracts((prev) => mergeContractNotification(prev, message));
+    });
+    source.addEventListener('reset', () => loadDashboardData(user.id));
+    return () => source.close();
+  }, [user?.id]);
+
   const loadDashboardData = async (userId) => {
     try {
       setLoading(true);
@@ -53,18 +65,19 @@ function MusicianDashboard() {
 
   const handleAcceptContract = async (contractId) => {
     try {
-      await contractAPI.updateContractStatus(contractId, 'accepted');
-      await loadDashboardData(user.id);
+      const contract = contracts.find(c => c.id === contractId);
+      const response = await contractAPI.acceptContract(contractId, { version: contract?.version });
+      setContracts((prev) => mergeContractNotification(prev, { type: 'updated', contractId, contract: response.data }));
     } catch (err) {
       console.error('Error accepting contract:', err);
-      setError('Failed to accept contract. Please try again.');
+      setError(err.response?.data?.error || 'Failed to accept contract. Please try again.');
     }
   };
 
   const handleRejectContract = async (contractId) => {
     try {
       await contractAPI.updateContractStatus(contractId, 'rejected');
-      await loadDashboardData(user.id);
+      setContracts((prev) => mergeContractNotification(prev, { type: 'status', contractId, status: 'REJECTED' }));
     } catch (err) {
       console.error('Error rejecting contract:', err);
       setError('Failed to reject contract. Please try again.');
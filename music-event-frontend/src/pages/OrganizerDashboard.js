@@ -2,7 +2,7 @@ import React, { useState, useEffect } from "react";
 import { useNavigate } from "react-router-dom";
 import { FaPlus, FaMusic, FaCalendarAlt, FaMapMarkerAlt, FaRupeeSign, FaUser, FaFileContract, FaCheckCircle, FaTimesCircle, FaClock, FaEdit, FaTrash } from "react-icons/fa";
 import { getCurrentUser, initializeData } from "../utils/auth";
-import { userAPI, eventAPI, contractAPI, bookingAPI } from "../services/api";
+import { userAPI, eventAPI, contractAPI, bookingAPI, notificationAPI, mergeContractNotification } from "../services/api";
 import "./Pages.css";
 
 function OrganizerDashboard() {
@@ -24,6 +24,8 @@ function OrganizerDashboard() {
     name: '',
     description: '',
     location: '',
+    latitude: '',
+    longitude: '',
     date: '',
     time: '7:00 PM',
     price: '',
@@ -66,6 +68,18 @@ function OrganizerDashboard() {
     loadDashboardData(currentUser.id);
   }, [navigate]);
 
+  // Contract offers and status changes arrive as deltas instead of re-fetching the list
+  useEffect(() => {
+    if (!user) return;
+    const source = notificationAPI.openStream();
+    source.addEventListener('contract', (e) => {
+      const message = JSON.parse(e.data);
+      setContracts((prev) => mergeContractNotification(prev, message));
+    });
+    source.addEventListener('reset', () => loadDashboardData(user.id));
+    return () => source.close();
+  }, [user?.id]);
+
   const loadDashboardData = async (userId) => {
     try {
       setLoading(true);
@@ -116,36 +130,22 @@ function OrganizerDashboard() {
         return;
       }
 
-      const totalTickets = parseInt(eventForm.totalTickets);
-      const eventData = {
+      // Creates the event from the form and links it to the accepted contract in one call
+      const response = await contractAPI.acceptContract(eventForm.contractId, {
         name: eventForm.name,
         description: eventForm.description,
         location: eventForm.location,
+        // Optional; lets the event show up in "near me" searches
+        latitude: eventForm.latitude !== '' ? parseFloat(eventForm.latitude) : undefined,
+        longitude: eventForm.longitude !== '' ? parseFloat(eventForm.longitude) : undefined,
         date: eventForm.date,
         time: eventForm.time,
         price: parseFloat(eventForm.price),
         category: eventForm.category,
-        totalTickets: totalTickets,
-        availableTickets: totalTickets, // Set available tickets equal to total tickets initially
-        emoji: eventForm.emoji || '🎵',
-        organizerId: user.id,
-        organizerName: user.name,
-        musicianId: eventForm.musicianId ? parseInt(eventForm.musicianId) : null,
-        musicianName: eventForm.musicianName || null
-      };
-
-      console.log('Creating event with data:', eventData);
-      const response = await eventAPI.createEvent(eventData);
-      const createdEvent = response.data;
-
-      // Link the contract to the event if contractId exists
-      if (eventForm.contractId && createdEvent.id) {
-        try {
-          await contractAPI.linkEventToContract(eventForm.contractId, createdEvent.id);
-        } catch (err) {
-          console.error('Error linking contract to event:', err);
-        }
-      }
+        totalTickets: parseInt(eventForm.totalTickets),
+        emoji: eventForm.emoji || '🎵'
+      });
+      console.log('Event created for contract:', response.data);
 
       await loadDashboardData(user.id);
 
@@ -154,6 +154,8 @@ function OrganizerDashboard() {
         name: '',
         description: '',
         location: '',
+        latitude: '',
+        longitude: '',
         date: '',
         time: '7:00 PM',
         price: '',
@@ -213,7 +215,9 @@ function OrganizerDashboard() {
       console.log('Sending contract data:', contractData);
       const response = await contractAPI.createContract(contractData);
       console.log('Contract created successfully:', response.data);
-      await loadDashboardData(user.id);
+      setContracts((prev) => mergeContractNotification(prev, {
+        type: 'created', contractId: response.data.id, contract: response.data
+      }));
 
       setShowCreateContract(false);
       setSelectedArtist(null);
@@ -529,6 +533,33 @@ function OrganizerDashboard() {
                           placeholder="City, State"
                         />
                       </div>
+                      <div>
+                        <label style={{ display: 'block', marginBottom: '8px', fontWeight: 600, color: 'var(--dark)' }}>Venue coordinates</label>
+                        <div style={{ display: 'flex', gap: '8px' }}>
+                          <input
+                            type="number"
+                            step="any"
+                            min="-90"
+                            max="90"
+                            required={eventForm.longitude !== ''}
+                            value={eventForm.latitude}
+                            onChange={(e) => setEventForm({ ...eventForm, latitude: e.target.value })}
+                            style={{ width: '100%', padding: '12px', border: '2px solid #e2e8f0', borderRadius: '8px' }}
+                            placeholder="Latitude"
+                          />
+                          <input
+                            type="number"
+                            step="any"
+                            min="-180"
+                            max="180"
+                            required={eventForm.latitude !== ''}
+                            value={eventForm.longitude}
+                            onChange={(e) => setEventForm({ ...eventForm, longitude: e.target.value })}
+                            style={{ width: '100%', padding: '12px', border: '2px solid #e2e8f0', borderRadius: '8px' }}
+                            placeholder="Longitude"
+                          />
+                        </div>
+                      </div>
                       <div>
                         <label style={{ display: 'block', marginBottom: '8px', fontWeight: 600, color: 'var(--dark)' }}>Price (₹) *</label>
                         <input
@@ -606,6 +637,8 @@ function OrganizerDashboard() {
                             name: '',
                             description: '',
                             location: '',
+                            latitude: '',
+                            longitude: '',
                             date: '',
                             time: '7:00 PM',
                             price: '',
@@ -1082,6 +1115,8 @@ function OrganizerDashboard() {
                                     name: contract.eventName,
                                     description: contract.eventDescription || '',
                                     location: contract.venue || '',
+                                    latitude: '',
+                                    longitude: '',
                                     date: contract.eventDate || '',
                                     time: contract.eventTime || '7:00 PM',
                                     price: '',
@@ -43,18 +43,56 @@ api.interceptors.request.use((config) => {
 
 // =======================
 // Response Interceptor
+// Access tokens are short-lived: on a 401, trade the refresh token for a new
+// pair once and retry. Refresh tokens work only once, so concurrent 401s
+// share one refresh.
 // =======================
+let refreshing = null;
+
+const refreshSession = () => {
+  if (!refreshing) {
+    const user = JSON.parse(localStorage.getItem('user') || 'null');
+    refreshing = (user?.refreshToken
+      ? api.post('/auth/refresh', { refreshToken: user.refreshToken }).then(({ data }) => {
+          localStorage.setItem('token', data.token);
+          localStorage.setItem('user', JSON.stringify(data));
+          return data.token;
+        })
+      : Promise.reject(new Error('No refresh token'))
+    ).finally(() => {
+      refreshing = null;
+    });
+  }
+  return refreshing;
+};
+
+const endSession = () => {
+  localStorage.removeItem('token');
+  localStorage.removeItem('user');
+  window.location.href = '/login';
+};
+
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
     if (!error.response) {
       error.message = 'Cannot connect to backend. Check server status.';
     }
 
-    if (error.response?.status === 401) {
-      localStorage.removeItem('token');
-      localStorage.removeItem('user');
-      window.location.href = '/login';
+    const original = error.config;
+    if (error.response?.status === 401 && original && !original.url.includes('/auth')) {
+      if (original._retried) {
+        endSession();
+        return Promise.reject(error);
+      }
+      try {
+        const token = await refreshSession();
+        original._retried = true;
+        original.headers.Authorization = `Bearer ${token}`;
+        return api(original);
+      } catch (refreshError) {
+        endSession();
+      }
     }
 
     return Promise.reject(error);
@@ -67,6 +105,12 @@ api.interceptors.response.use(
 export const authAPI = {
   register: (userData) => api.post('/auth/register', userData),
   login: (credentials) => api.post('/auth/login', credentials),
+  refresh: (refreshToken) => api.post('/auth/refresh', { refreshToken }),
+  // Sends the access token as well, so it stops working before it expires
+  logout: (refreshToken) =>
+    api.post('/auth/logout', { refreshToken }, {
+      headers: { Authorization: `Bearer ${localStorage.getItem('token') || ''}` },
+    }),
 };
 
 // =======================
@@ -90,6 +134,20 @@ export const eventAPI = {
   createEvent: (eventData) => api.post('/events', eventData),
   updateEvent: (id, eventData) => api.put(`/events/${id}`, eventData),
   deleteEvent: (id) => api.delete(`/events/${id}`),
+  // Upcoming events within radiusKm of a point, nearest first: [{ event, distanceKm }]
+  getEventsNear: ({ lat, lon, radiusKm = 25, from, to, category, limit }) =>
+    api.get('/events/near', { params: { lat, lon, radiusKm, from, to, category, limit } }),
+  // Upcoming events inside a bounding box (e.g. a map viewport), soonest first
+  getEventsWithin: ({ minLat, minLon, maxLat, maxLon, from, to, category, limit }) =>
+    api.get('/events/within', { params: { minLat, minLon, maxLat, maxLon, from, to, category, limit } }),
+  // "Fans also booked": upcoming events most often booked by people who booked this one
+  getSimilarEvents: (id, limit = 6) => api.get(`/events/${id}/similar`, { params: { limit } }),
+  // file: a File/Blob of NDJSON or CSV (with header); returns NDJSON, one result per row plus a summary
+  importEvents: (file, contentType = 'text/csv') =>
+    api.post('/events/import', file, {
+      headers: { 'Content-Type': contentType },
+      responseType: 'text',
+    }),
 };
 
 // =======================
@@ -98,8 +156,31 @@ export const eventAPI = {
 export const bookingAPI = {
   createBooking: (bookingData) => api.post('/bookings', bookingData),
   getUserBookings: (userId) => api.get(`/bookings/user/${userId}`),
+  // The current user's tickets with event details; section is 'upcoming' (soonest first) or 'past' (latest first)
+  getMyWallet: (section, page = 0, size = 20) => api.get('/bookings/me/wallet', { params: { section, page, size } }),
+  getMyWalletSummary: () => api.get('/bookings/me/wallet/summary'),
   getEventBookings: (eventId) => api.get(`/bookings/event/${eventId}`),
   getBookingById: (id) => api.get(`/bookings/${id}`),
+  // Returns the tickets to sale; the event's waitlist gets them first
+  cancelBooking: (id) => api.post(`/bookings/${id}/cancel`),
+};
+
+// =======================
+// Waitlist APIs
+// =======================
+export const waitlistAPI = {
+  // Only for sold-out events; answers the new entry with how many entries and tickets are ahead of it
+  join: (eventId, tickets) => api.post(`/waitlist/events/${eventId}`, { tickets }),
+  getMine: () => api.get('/waitlist/me'),
+  leave: (entryId) => api.delete(`/waitlist/${entryId}`),
+};
+
+// =======================
+// Recommendation APIs
+// =======================
+export const recommendationAPI = {
+  // Upcoming events booked by fans of what the current user booked, best first
+  getMyRecommendations: (limit = 10) => api.get('/recommendations/me', { params: { limit } }),
 };
 
 // =======================
@@ -111,6 +192,9 @@ export const contractAPI = {
     api.get(`/contracts/artist/${artistId}`),
   getOrganizerContracts: (organizerId) =>
     api.get(`/contracts/organizer/${organizerId}`),
+  // Accepted contracts and events the artist is committed to between two ISO dates (inclusive)
+  getArtistAvailability: (artistId, from, to) =>
+    api.get(`/contracts/artist/${artistId}/availability`, { params: { from, to } }),
   getPendingContracts: (artistId) =>
     api.get(`/contracts/artist/${artistId}/pending`),
   updateContractStatus: (id, status) =>
@@ -118,6 +202,81 @@ export const contractAPI = {
   getContractById: (id) => api.get(`/contracts/${id}`),
   linkEventToContract: (contractId, eventId) =>
     api.put(`/contracts/${contractId}/link-event`, { eventId }),
+  // Accepts, creates the event and links it in one call; details are optional
+  acceptContract: (id, details = {}) =>
+    api.post(`/contracts/${id}/accept`, details),
+};
+
+// =======================
+// Notification stream (SSE)
+// =======================
+// EventSource can't send headers, so the stream is opened with a short-lived ticket
+// that opens it and nothing else. The browser's own reconnects resend Last-Event-ID
+// but reuse the URL, so once it gives up (the ticket has expired) a fresh ticket is
+// fetched and the stream reopened from the last id seen. Returns an object with
+// EventSource's addEventListener and close.
+const STREAM_EVENTS = ['contract', 'waitlist', 'reset'];
+
+const openNotificationStream = () => {
+  const listeners = [];
+  let source = null;
+  let lastEventId = null;
+  let closed = false;
+  let retry = null;
+
+  const reopen = (delay) => {
+    if (!closed) retry = setTimeout(open, delay);
+  };
+
+  const open = async () => {
+    try {
+      const { data } = await api.post('/notifications/ticket');
+      if (closed) return;
+      const params = new URLSearchParams({ ticket: data.ticket });
+      if (lastEventId) params.set('lastEventId', lastEventId);
+      source = new EventSource(`${api.defaults.baseURL}/notifications/stream?${params}`);
+      STREAM_EVENTS.forEach((type) =>
+        source.addEventListener(type, (e) => {
+          if (e.lastEventId) lastEventId = e.lastEventId;
+        })
+      );
+      listeners.forEach(([type, listener]) => source.addEventListener(type, listener));
+      source.onerror = () => {
+        if (source.readyState === EventSource.CLOSED) reopen(1000);
+      };
+    } catch (error) {
+      reopen(5000);
+    }
+  };
+
+  open();
+  return {
+    addEventListener: (type, listener) => {
+      listeners.push([type, listener]);
+      if (source) source.addEventListener(type, listener);
+    },
+    close: () => {
+      closed = true;
+      clearTimeout(retry);
+      if (source) source.close();
+    },
+  };
+};
+
+export const notificationAPI = {
+  openStream: openNotificationStream,
+};
+
+// Applies a "contract" notification ({ type, contractId, status, contract }) to a list
+export const mergeContractNotification = (contracts, message) => {
+  if (message.contract) {
+    return contracts.some(c => c.id === message.contractId)
+      ? contracts.map(c => (c.id === message.contractId ? message.contract : c))
+      : [message.contract, ...contracts];
+  }
+  return contracts.map(c =>
+    c.id === message.contractId ? { ...c, status: message.status } : c
+  );
 };
 
 export default api;